@@ -229,7 +229,10 @@ public final class Stitch {
         builder.withDataDirectory(applicationContext.getApplicationInfo().dataDir);
       }
       if (builder.getTransport() == null) {
-        builder.withTransport(new OkHttpTransport());
+        builder.withTransport(new OkHttpTransport(
+            builder.isHttp2Enabled(),
+            builder.getMaxIdleConnections(),
+            builder.getConnectionKeepAliveDuration()));
       }
       if (builder.getDefaultRequestTimeout() == null) {
         builder.withDefaultRequestTimeout(DEFAULT_DEFAULT_REQUEST_TIMEOUT);
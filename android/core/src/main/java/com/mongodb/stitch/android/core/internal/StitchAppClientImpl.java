@@ -23,6 +23,7 @@ import com.mongodb.stitch.android.core.auth.StitchAuthListener;
 import com.mongodb.stitch.android.core.auth.StitchUser;
 import com.mongodb.stitch.android.core.auth.internal.StitchAuthImpl;
 import com.mongodb.stitch.android.core.internal.common.MainLooperDispatcher;
+import com.mongodb.stitch.android.core.internal.common.TaskCallbackAdapter;
 import com.mongodb.stitch.android.core.internal.common.TaskDispatcher;
 import com.mongodb.stitch.android.core.push.StitchPush;
 import com.mongodb.stitch.android.core.push.internal.StitchPushImpl;
@@ -47,7 +48,6 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.Callable;
 
 import javax.annotation.Nullable;
 
@@ -152,14 +152,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
   public Task<Void> callFunction(
       final String name,
       final List<?> args) {
-    return dispatcher.dispatchTask(
-        new Callable<Void>() {
-          @Override
-          public Void call() {
-            coreClient.callFunction(name, args, null);
-            return null;
-          }
-        });
+    final TaskCallbackAdapter<Void> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, null, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -168,14 +163,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
       final List<?> args,
       final Long requestTimeout
   ) {
-    return dispatcher.dispatchTask(
-        new Callable<Void>() {
-          @Override
-          public Void call() {
-            coreClient.callFunction(name, args, requestTimeout);
-            return null;
-          }
-        });
+    final TaskCallbackAdapter<Void> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -183,13 +173,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
       final String name,
       final List<?> args,
       final Class<ResultT> resultClass) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return coreClient.callFunction(name, args, null, resultClass);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, null, resultClass, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -198,13 +184,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
       final List<?> args,
       final Long requestTimeout,
       final Class<ResultT> resultClass) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return coreClient.callFunction(name, args, requestTimeout, resultClass);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, resultClass, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -214,13 +196,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
       final Class<ResultT> resultClass,
       final CodecRegistry codecRegistry
   ) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return coreClient.callFunction(name, args, null, resultClass, codecRegistry);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, null, resultClass, codecRegistry, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -231,18 +209,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
       final Class<ResultT> resultClass,
       final CodecRegistry codecRegistry
   ) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return coreClient.callFunction(
-                name,
-                args,
-                requestTimeout,
-                resultClass,
-                codecRegistry);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, resultClass, codecRegistry, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -250,13 +219,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
       final String name,
       final List<?> args,
       final Decoder<ResultT> resultDecoder) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return coreClient.callFunction(name, args, null, resultDecoder);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, null, resultDecoder, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -265,13 +230,9 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor,
       final List<?> args,
       final Long requestTimeout,
       final Decoder<ResultT> resultDecoder) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return coreClient.callFunction(name, args, requestTimeout, resultDecoder);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, resultDecoder, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
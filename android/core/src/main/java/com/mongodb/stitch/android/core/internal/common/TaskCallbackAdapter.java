@@ -24,7 +24,7 @@ import com.mongodb.stitch.core.internal.common.OperationResult;
 public final class TaskCallbackAdapter<T> implements CallbackAsyncAdapter<T, Exception, Task<T>> {
   private final TaskCompletionSource<T> taskCompletionSource;
 
-  TaskCallbackAdapter() {
+  public TaskCallbackAdapter() {
     this.taskCompletionSource = new TaskCompletionSource<>();
   }
 
@@ -17,11 +17,11 @@
 package com.mongodb.stitch.android.core.services.internal;
 
 import com.google.android.gms.tasks.Task;
+import com.mongodb.stitch.android.core.internal.common.TaskCallbackAdapter;
 import com.mongodb.stitch.android.core.internal.common.TaskDispatcher;
 import com.mongodb.stitch.android.core.services.StitchServiceClient;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import java.util.List;
-import java.util.concurrent.Callable;
 import org.bson.codecs.Decoder;
 import org.bson.codecs.configuration.CodecRegistry;
 
@@ -40,38 +40,25 @@ public final class StitchServiceClientImpl implements StitchServiceClient {
   @Override
   public Task<Void> callFunction(
       final String name, final List<?> args) {
-    return dispatcher.dispatchTask(
-        new Callable<Void>() {
-          @Override
-          public Void call() {
-            proxy.callFunction(name, args);
-            return null;
-          }
-        });
+    final TaskCallbackAdapter<Void> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, null, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
   public <ResultT> Task<ResultT> callFunction(
       final String name, final List<?> args, final Decoder<ResultT> resultDecoder) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return proxy.callFunction(name, args, null, resultDecoder);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, null, resultDecoder, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
   public <ResultT> Task<ResultT> callFunction(
       final String name, final List<?> args, final Class<ResultT> resultClass) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return proxy.callFunction(name, args, null, resultClass);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, null, resultClass, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -80,13 +67,9 @@ public final class StitchServiceClientImpl implements StitchServiceClient {
       final List<?> args,
       final Class<ResultT> resultClass,
       final CodecRegistry codecRegistry) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return proxy.callFunction(name, args, null, resultClass, codecRegistry);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, null, resultClass, codecRegistry, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -94,14 +77,9 @@ public final class StitchServiceClientImpl implements StitchServiceClient {
       final String name,
       final List<?> args,
       final Long requestTimeout) {
-    return dispatcher.dispatchTask(
-        new Callable<Void>() {
-          @Override
-          public Void call() {
-            proxy.callFunction(name, args, requestTimeout);
-            return null;
-          }
-        });
+    final TaskCallbackAdapter<Void> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, requestTimeout, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -110,13 +88,9 @@ public final class StitchServiceClientImpl implements StitchServiceClient {
       final List<?> args,
       final Long requestTimeout,
       final Class<ResultT> resultClass) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return proxy.callFunction(name, args, requestTimeout, resultClass);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, requestTimeout, resultClass, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -125,13 +99,9 @@ public final class StitchServiceClientImpl implements StitchServiceClient {
       final List<?> args,
       final Long requestTimeout,
       final Decoder<ResultT> resultDecoder) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return proxy.callFunction(name, args, requestTimeout, resultDecoder);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, requestTimeout, resultDecoder, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
@@ -141,18 +111,9 @@ public final class StitchServiceClientImpl implements StitchServiceClient {
       final Long requestTimeout,
       final Class<ResultT> resultClass,
       final CodecRegistry codecRegistry) {
-    return dispatcher.dispatchTask(
-        new Callable<ResultT>() {
-          @Override
-          public ResultT call() {
-            return proxy.callFunction(
-                name,
-                args,
-                requestTimeout,
-                resultClass,
-                codecRegistry);
-          }
-        });
+    final TaskCallbackAdapter<ResultT> adapter = new TaskCallbackAdapter<>();
+    proxy.callFunctionAsync(name, args, requestTimeout, resultClass, codecRegistry, adapter);
+    return adapter.getAdapter();
   }
 
   @Override
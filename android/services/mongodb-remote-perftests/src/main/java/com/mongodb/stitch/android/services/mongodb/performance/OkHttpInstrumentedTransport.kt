@@ -21,13 +21,28 @@ import okhttp3.Interceptor
 import okhttp3.OkHttpClient
 import okhttp3.Response
 
-class OkHttpInstrumentedTransport : OkHttpTransport() {
-    var bytesUploaded: Long = 0
-        private set
-    var bytesDownloaded: Long = 0
-        private set
-    val interceptor: Interceptor by lazy {
-        Interceptor { chain: Interceptor.Chain ->
+class OkHttpInstrumentedTransport private constructor(
+    private val counter: ByteCountingInterceptor
+) : OkHttpTransport(
+    OkHttpClient.Builder().addNetworkInterceptor(counter),
+    false,
+    OkHttpTransport.DEFAULT_MAX_IDLE_CONNECTIONS,
+    OkHttpTransport.DEFAULT_CONNECTION_KEEP_ALIVE_DURATION
+) {
+    constructor() : this(ByteCountingInterceptor())
+
+    val bytesUploaded: Long
+        get() = counter.bytesUploaded
+    val bytesDownloaded: Long
+        get() = counter.bytesDownloaded
+
+    private class ByteCountingInterceptor : Interceptor {
+        var bytesUploaded: Long = 0
+            private set
+        var bytesDownloaded: Long = 0
+            private set
+
+        override fun intercept(chain: Interceptor.Chain): Response {
             val request = chain.request()
             val requestBody = request.body()
             bytesUploaded += request.headers().byteCount()
@@ -37,16 +52,7 @@ class OkHttpInstrumentedTransport : OkHttpTransport() {
             val responseBody = response.body()
             bytesDownloaded += response.headers().byteCount()
             bytesDownloaded += responseBody?.contentLength() ?: 0
-            response
+            return response
         }
     }
-
-    override fun newClientBuilder(
-        connectTimeout: Long,
-        readTimeout: Long,
-        writeTimeout: Long
-    ): OkHttpClient.Builder {
-        return super.newClientBuilder(connectTimeout, readTimeout, writeTimeout)
-            .addNetworkInterceptor(this.interceptor)
-    }
 }
@@ -29,6 +29,7 @@ import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncInsertManyResult
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncUpdateOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncUpdateResult;
+import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncFrequency;
 
 import java.util.List;
 import java.util.Set;
@@ -59,6 +60,36 @@ public interface Sync<DocumentT> {
                        @Nullable final ChangeEventListener<DocumentT> changeEventListener,
                        @Nullable final ExceptionListener exceptionListener);
 
+  /**
+   * Set the conflict handler, change event listener and sync frequency on this collection. This
+   * will start a background sync thread, and should be called before any CRUD operations are
+   * attempted.
+   *
+   * @param conflictHandler the conflict resolver to invoke when a conflict happens between local
+   *                         and remote events.
+   * @param changeEventListener the event listener to invoke when a change event happens for the
+   *                         document.
+   * @param exceptionListener the error listener to invoke when an irrecoverable error occurs
+   * @param syncFrequency the frequency at which this collection is synchronized with the remote
+   *
+   * @return A Task that completes when Mobile Sync is configured, and the background sync thread
+   *         has started.
+   */
+  Task<Void> configure(@NonNull final ConflictHandler<DocumentT> conflictHandler,
+                       @Nullable final ChangeEventListener<DocumentT> changeEventListener,
+                       @Nullable final ExceptionListener exceptionListener,
+                       @NonNull final SyncFrequency syncFrequency);
+
+  /**
+   * Synchronizes this collection with the remote right away, regardless of its configured
+   * sync frequency. This is the only way a collection configured with
+   * {@link SyncFrequency#onDemand()} gets synchronized.
+   *
+   * @return a Task containing whether or not the collection was synchronized. If it could not
+   *         be, it will be synchronized once possible.
+   */
+  Task<Boolean> syncNow();
+
   /**
    * Requests that the given document _id be synchronized.
    * @param id the document _id to synchronize.
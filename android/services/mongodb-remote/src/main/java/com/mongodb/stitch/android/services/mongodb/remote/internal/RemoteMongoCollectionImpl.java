@@ -16,21 +16,28 @@
 
 package com.mongodb.stitch.android.services.mongodb.remote.internal;
 
+import android.support.annotation.Nullable;
+
 import com.google.android.gms.tasks.Task;
 import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.stitch.android.core.internal.common.TaskDispatcher;
 import com.mongodb.stitch.android.services.mongodb.remote.AsyncChangeStream;
 import com.mongodb.stitch.android.services.mongodb.remote.RemoteAggregateIterable;
 import com.mongodb.stitch.android.services.mongodb.remote.RemoteFindIterable;
 import com.mongodb.stitch.android.services.mongodb.remote.RemoteMongoCollection;
 import com.mongodb.stitch.android.services.mongodb.remote.Sync;
+import com.mongodb.stitch.core.services.internal.FunctionCallCoalescer;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeStream;
 import com.mongodb.stitch.core.services.mongodb.remote.CompactChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteCountOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOneAndModifyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateOptions;
@@ -39,6 +46,7 @@ import com.mongodb.stitch.core.services.mongodb.remote.internal.CoreRemoteMongoC
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 import org.bson.BsonValue;
 import org.bson.codecs.configuration.CodecRegistry;
@@ -98,6 +106,27 @@ public final class RemoteMongoCollectionImpl<DocumentT>
     return new RemoteMongoCollectionImpl<>(proxy.withCodecRegistry(codecRegistry), dispatcher);
   }
 
+  @Override
+  public RemoteMongoCollection<DocumentT> withCallCoalescing(
+      final int maxCachedResults,
+      final long cacheTtl,
+      final TimeUnit cacheTtlUnit
+  ) {
+    return new RemoteMongoCollectionImpl<>(
+        proxy.withCallCoalescing(maxCachedResults, cacheTtl, cacheTtlUnit), dispatcher);
+  }
+
+  @Override
+  public RemoteMongoCollection<DocumentT> withPostedWatchRequests() {
+    return new RemoteMongoCollectionImpl<>(proxy.withPostedWatchRequests(), dispatcher);
+  }
+
+  @Override
+  @Nullable
+  public FunctionCallCoalescer.Stats getCallCoalescingStats() {
+    return proxy.getCallCoalescingStats();
+  }
+
   /**
    * Counts the number of documents in the collection.
    *
@@ -345,6 +374,26 @@ public final class RemoteMongoCollectionImpl<DocumentT>
     });
   }
 
+  /**
+   * Inserts one or more documents. Documents too large to send in one request are split into
+   * several requests.
+   *
+   * @param documents the documents to insert
+   * @param options the options to apply to the insert many operation
+   * @return a task containing the result of the insert many operation
+   */
+  public Task<RemoteInsertManyResult> insertMany(
+      final List<? extends DocumentT> documents,
+      final RemoteInsertManyOptions options
+  ) {
+    return dispatcher.dispatchTask(new Callable<RemoteInsertManyResult>() {
+      @Override
+      public RemoteInsertManyResult call() {
+        return proxy.insertMany(documents, options);
+      }
+    });
+  }
+
   /**
    * Removes at most one document from the collection that matches the given filter.  If no
    * documents match, the collection is not modified.
@@ -455,6 +504,43 @@ public final class RemoteMongoCollectionImpl<DocumentT>
     });
   }
 
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request. The writes are
+   * executed in order, stopping at the first one that fails.
+   *
+   * @param requests the writes to execute
+   * @return a task containing the result of each write
+   */
+  public Task<RemoteBulkWriteResult> bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests
+  ) {
+    return dispatcher.dispatchTask(new Callable<RemoteBulkWriteResult>() {
+      @Override
+      public RemoteBulkWriteResult call() {
+        return proxy.bulkWrite(requests);
+      }
+    });
+  }
+
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request.
+   *
+   * @param requests the writes to execute
+   * @param options the options to apply to the bulk write operation
+   * @return a task containing the result of each write
+   */
+  public Task<RemoteBulkWriteResult> bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests,
+      final RemoteBulkWriteOptions options
+  ) {
+    return dispatcher.dispatchTask(new Callable<RemoteBulkWriteResult>() {
+      @Override
+      public RemoteBulkWriteResult call() {
+        return proxy.bulkWrite(requests, options);
+      }
+    });
+  }
+
   /**
    * Finds a document in the collection and performs the given update.
    *
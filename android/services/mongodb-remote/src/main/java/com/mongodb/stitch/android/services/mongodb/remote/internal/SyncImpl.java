@@ -34,6 +34,7 @@ import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncInsertManyResult
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncUpdateOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncUpdateResult;
+import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncFrequency;
 
 import java.util.List;
 import java.util.Set;
@@ -66,6 +67,31 @@ public class SyncImpl<DocumentT> implements Sync<DocumentT> {
     });
   }
 
+  @Override
+  public Task<Void> configure(@NonNull final ConflictHandler<DocumentT> conflictHandler,
+                              @Nullable final ChangeEventListener<DocumentT> changeEventListener,
+                              @Nullable final ExceptionListener exceptionListener,
+                              @NonNull final SyncFrequency syncFrequency) {
+    return this.dispatcher.dispatchTask(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        SyncImpl.this.proxy.configure(
+            conflictHandler, changeEventListener, exceptionListener, syncFrequency);
+        return null;
+      }
+    });
+  }
+
+  @Override
+  public Task<Boolean> syncNow() {
+    return this.dispatcher.dispatchTask(new Callable<Boolean>() {
+      @Override
+      public Boolean call() throws Exception {
+        return proxy.syncNow();
+      }
+    });
+  }
+
   @Override
   public Task<Void> syncOne(final BsonValue id) {
     return this.dispatcher.dispatchTask(new Callable<Void>() {
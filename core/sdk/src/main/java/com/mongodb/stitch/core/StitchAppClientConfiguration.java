@@ -18,6 +18,7 @@ package com.mongodb.stitch.core;
 
 import com.mongodb.stitch.core.internal.common.Storage;
 import com.mongodb.stitch.core.internal.net.NetworkMonitor;
+import com.mongodb.stitch.core.internal.net.OkHttpTransport;
 import com.mongodb.stitch.core.internal.net.Transport;
 import org.bson.codecs.configuration.CodecRegistry;
 
@@ -28,14 +29,23 @@ import org.bson.codecs.configuration.CodecRegistry;
 public final class StitchAppClientConfiguration extends StitchClientConfiguration {
   private final String localAppName;
   private final String localAppVersion;
+  private final boolean http2Enabled;
+  private final int maxIdleConnections;
+  private final long connectionKeepAliveDuration;
 
   private StitchAppClientConfiguration(
       final StitchClientConfiguration config,
       final String localAppName,
-      final String localAppVersion) {
+      final String localAppVersion,
+      final boolean http2Enabled,
+      final int maxIdleConnections,
+      final long connectionKeepAliveDuration) {
     super(config);
     this.localAppVersion = localAppVersion;
     this.localAppName = localAppName;
+    this.http2Enabled = http2Enabled;
+    this.maxIdleConnections = maxIdleConnections;
+    this.connectionKeepAliveDuration = connectionKeepAliveDuration;
   }
 
   /**
@@ -56,6 +66,33 @@ public final class StitchAppClientConfiguration extends StitchClientConfiguratio
     return localAppVersion;
   }
 
+  /**
+   * Gets whether or not the default transport uses HTTP/2 with servers that support it.
+   *
+   * @return whether or not the default transport uses HTTP/2 with servers that support it.
+   */
+  public boolean isHttp2Enabled() {
+    return http2Enabled;
+  }
+
+  /**
+   * Gets the maximum number of idle connections the default transport keeps open.
+   *
+   * @return the maximum number of idle connections the default transport keeps open.
+   */
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Gets the number of milliseconds the default transport keeps an idle connection open.
+   *
+   * @return the number of milliseconds the default transport keeps an idle connection open.
+   */
+  public long getConnectionKeepAliveDuration() {
+    return connectionKeepAliveDuration;
+  }
+
   /**
    * Gets the builder form of this configuration.
    *
@@ -71,6 +108,10 @@ public final class StitchAppClientConfiguration extends StitchClientConfiguratio
   public static class Builder extends StitchClientConfiguration.Builder {
     private String localAppName;
     private String localAppVersion;
+    private boolean http2Enabled;
+    private int maxIdleConnections = OkHttpTransport.DEFAULT_MAX_IDLE_CONNECTIONS;
+    private long connectionKeepAliveDuration =
+        OkHttpTransport.DEFAULT_CONNECTION_KEEP_ALIVE_DURATION;
 
     /**
      * Constructs a new builder.
@@ -81,6 +122,9 @@ public final class StitchAppClientConfiguration extends StitchClientConfiguratio
       super(config);
       localAppVersion = config.localAppVersion;
       localAppName = config.localAppName;
+      http2Enabled = config.http2Enabled;
+      maxIdleConnections = config.maxIdleConnections;
+      connectionKeepAliveDuration = config.connectionKeepAliveDuration;
     }
 
     /**
@@ -105,6 +149,47 @@ public final class StitchAppClientConfiguration extends StitchClientConfiguratio
       return this;
     }
 
+    /**
+     * Sets whether or not the default transport should use HTTP/2 with servers that support it.
+     * Over HTTP/2, all requests and streams to the Stitch server are multiplexed over a single
+     * connection instead of each needing a connection of their own. This has no effect if a
+     * {@link Transport} is set with {@link #withTransport(Transport)}.
+     *
+     * @param http2Enabled whether or not the default transport should use HTTP/2.
+     * @return the builder.
+     */
+    public Builder withHttp2Enabled(final boolean http2Enabled) {
+      this.http2Enabled = http2Enabled;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of idle connections the default transport should keep open for
+     * reuse. This has no effect if a {@link Transport} is set with
+     * {@link #withTransport(Transport)}.
+     *
+     * @param maxIdleConnections the maximum number of idle connections to keep open.
+     * @return the builder.
+     */
+    public Builder withMaxIdleConnections(final int maxIdleConnections) {
+      this.maxIdleConnections = maxIdleConnections;
+      return this;
+    }
+
+    /**
+     * Sets the number of milliseconds the default transport should keep an idle connection open
+     * for reuse. This has no effect if a {@link Transport} is set with
+     * {@link #withTransport(Transport)}.
+     *
+     * @param connectionKeepAliveDuration the number of milliseconds to keep an idle connection
+     *                                    open.
+     * @return the builder.
+     */
+    public Builder withConnectionKeepAliveDuration(final long connectionKeepAliveDuration) {
+      this.connectionKeepAliveDuration = connectionKeepAliveDuration;
+      return this;
+    }
+
     /**
      * Gets the name of the local application.
      *
@@ -123,6 +208,34 @@ public final class StitchAppClientConfiguration extends StitchClientConfiguratio
       return localAppVersion;
     }
 
+    /**
+     * Gets whether or not the default transport should use HTTP/2 with servers that support it.
+     *
+     * @return whether or not the default transport should use HTTP/2.
+     */
+    public boolean isHttp2Enabled() {
+      return http2Enabled;
+    }
+
+    /**
+     * Gets the maximum number of idle connections the default transport should keep open.
+     *
+     * @return the maximum number of idle connections the default transport should keep open.
+     */
+    public int getMaxIdleConnections() {
+      return maxIdleConnections;
+    }
+
+    /**
+     * Gets the number of milliseconds the default transport should keep an idle connection open.
+     *
+     * @return the number of milliseconds the default transport should keep an idle connection
+     *         open.
+     */
+    public long getConnectionKeepAliveDuration() {
+      return connectionKeepAliveDuration;
+    }
+
     /**
      * Sets the base URL of the Stitch server that the client will communicate with to retrieve
      * application metadata.
@@ -215,7 +328,13 @@ public final class StitchAppClientConfiguration extends StitchClientConfiguratio
      */
     public StitchAppClientConfiguration build() {
       final StitchClientConfiguration config = super.build();
-      return new StitchAppClientConfiguration(config, localAppName, localAppVersion);
+      return new StitchAppClientConfiguration(
+          config,
+          localAppName,
+          localAppVersion,
+          http2Enabled,
+          maxIdleConnections,
+          connectionKeepAliveDuration);
     }
   }
 }
@@ -31,7 +31,8 @@ public enum StitchClientErrorCode {
        + " switch to this user"),
   COULD_NOT_LOAD_PERSISTED_AUTH_INFO("failed to load stored auth information for Stitch"),
   COULD_NOT_PERSIST_AUTH_INFO("failed to save auth information for Stitch"),
-  COULD_NOT_LOAD_DATA_SYNCHRONIZER("failed to load data synchronizer for Stitch");
+  COULD_NOT_LOAD_DATA_SYNCHRONIZER("failed to load data synchronizer for Stitch"),
+  COULD_NOT_PERSIST_LOCAL_WRITE("failed to save a local write for Stitch");
 
   private final String description;
 
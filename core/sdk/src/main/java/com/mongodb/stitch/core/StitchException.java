@@ -25,7 +25,7 @@ public class StitchException extends RuntimeException {
     super();
   }
 
-  StitchException(final Exception exception) {
+  protected StitchException(final Exception exception) {
     super(exception);
   }
 
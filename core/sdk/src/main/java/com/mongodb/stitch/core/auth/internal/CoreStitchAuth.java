@@ -26,9 +26,12 @@ import com.mongodb.stitch.core.auth.StitchCredential;
 import com.mongodb.stitch.core.auth.internal.models.ApiCoreUserProfile;
 import com.mongodb.stitch.core.auth.providers.anonymous.AnonymousAuthProvider;
 import com.mongodb.stitch.core.internal.common.BsonUtils;
-import com.mongodb.stitch.core.internal.common.IoUtils;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.CloseableIterator;
+import com.mongodb.stitch.core.internal.common.OperationResult;
 import com.mongodb.stitch.core.internal.common.StitchObjectMapper;
 import com.mongodb.stitch.core.internal.common.Storage;
+import com.mongodb.stitch.core.internal.net.ContentTypes;
 import com.mongodb.stitch.core.internal.net.Headers;
 import com.mongodb.stitch.core.internal.net.Method;
 import com.mongodb.stitch.core.internal.net.Response;
@@ -40,32 +43,34 @@ import com.mongodb.stitch.core.internal.net.Stream;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nullable;
 import javax.annotation.meta.When;
 
-import org.bson.BsonType;
 import org.bson.Document;
 import org.bson.codecs.Decoder;
-import org.bson.codecs.DecoderContext;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.json.JsonReader;
 
 /**
  * CoreStitchAuth is responsible for authenticating clients as well as acting as a client for
  * authenticated requests. Synchronization in this class happens around the {@link
  * CoreStitchAuth#activeUserAuthInfo} and {@link CoreStitchAuth#activeUser} objects such that
  * access to them is 1. always atomic and 2. queued to prevent excess token refreshes.
+ * Authenticated requests only read a snapshot of the active auth info and may run concurrently;
+ * only mutations of the auth state (login, logout, token refresh) take the write lock.
  *
  * @param <StitchUserT> The type of users that will be consumed/produced by this component.
  */
@@ -77,9 +82,15 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
   private final Storage storage;
   private Thread refresherThread;
   private LinkedHashMap<String, AuthInfo> allUsersAuthInfo;
-  private StitchUserT activeUser;
-  private AuthInfo activeUserAuthInfo;
+  private volatile StitchUserT activeUser;
+  private volatile AuthInfo activeUserAuthInfo;
   private ReadWriteLock authLock;
+  // whether or not the server has answered in binary BSON, and so will also accept it
+  private volatile boolean isBsonSupported;
+  // callers waiting on the asynchronous token refresh in flight, if any; the refresh completes
+  // all of them
+  private final List<Callback<Void, Exception>> pendingRefreshCallbacks;
+  private final ReentrantLock pendingRefreshLock;
 
   protected CoreStitchAuth(
       final StitchRequestClient requestClient,
@@ -90,6 +101,8 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
     this.authRoutes = authRoutes;
     this.storage = storage;
     this.authLock = new ReentrantReadWriteLock();
+    this.pendingRefreshCallbacks = new ArrayList<>();
+    this.pendingRefreshLock = new ReentrantLock();
 
     final List<AuthInfo> allUsersAuthInfoList;
     try {
@@ -223,7 +236,7 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
    * @param stitchReq the request to perform.
    * @return the response to the request, successful or not.
    */
-  public synchronized Response doAuthenticatedRequest(final StitchAuthRequest stitchReq) {
+  public Response doAuthenticatedRequest(final StitchAuthRequest stitchReq) {
     return doAuthenticatedRequest(stitchReq, activeUserAuthInfo);
   }
 
@@ -231,7 +244,7 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
    * Internal method which performs the authenticated request by preparing the auth request with
    * the provided auth info and request.
    */
-  private synchronized Response doAuthenticatedRequest(
+  private Response doAuthenticatedRequest(
       final StitchAuthRequest stitchReq,
       final AuthInfo authInfo
   ) {
@@ -251,21 +264,35 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
    */
   public <T> T doAuthenticatedRequest(final StitchAuthRequest stitchReq,
                                       final Decoder<T> resultDecoder) {
-    final Response response = doAuthenticatedRequest(stitchReq);
+    final Response response = doAuthenticatedRequest(withAcceptBson(stitchReq));
     try {
-      final String bodyStr = IoUtils.readAllToString(response.getBody());
-      final JsonReader bsonReader = new JsonReader(bodyStr);
-
-      // We must check this condition because the decoder will throw trying to decode null
-      if (bsonReader.readBsonType() == BsonType.NULL) {
-        return null;
-      }
-      return resultDecoder.decode(bsonReader, DecoderContext.builder().build());
+      return decodeResponse(response, resultDecoder);
     } catch (final Exception e) {
       throw new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR);
     }
   }
 
+  /**
+   * Performs a request against Stitch using the provided {@link StitchAuthRequest} object whose
+   * response is an array, and returns an iterator that decodes the elements of the array using
+   * the provided decoder as they are read from the response body. Closing the iterator before it
+   * reaches the end of the array abandons the rest of the response.
+   *
+   * @param stitchReq the request to perform.
+   * @param elementDecoder the decoder for the elements of the array.
+   * @param <T> the type into which the elements are decoded.
+   * @return an iterator over the decoded elements.
+   */
+  public <T> CloseableIterator<T> doAuthenticatedRequestForIterator(
+      final StitchAuthRequest stitchReq,
+      final Decoder<T> elementDecoder
+  ) {
+    final Response response = doAuthenticatedRequest(withAcceptBson(stitchReq));
+    return isBsonResponse(response)
+        ? BsonUtils.readValues(response.getBody(), elementDecoder)
+        : BsonUtils.readJsonValues(response.getBody(), elementDecoder);
+  }
+
   /**
    * Performs a request against Stitch using the provided {@link StitchAuthRequest} object, and
    * decodes the JSON body of the response into a T value as specified by the provided class type.
@@ -284,25 +311,179 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
       final Class<T> resultClass,
       final CodecRegistry codecRegistry
   ) {
-    final Response response = doAuthenticatedRequest(stitchReq);
+    final Response response = doAuthenticatedRequest(withAcceptBson(stitchReq));
 
     try {
-      final String bodyStr = IoUtils.readAllToString(response.getBody());
-      final JsonReader bsonReader = new JsonReader(bodyStr);
-
-      // We must check this condition because the decoder will throw trying to decode null
-      if (bsonReader.readBsonType() == BsonType.NULL) {
-        return null;
-      }
-
       final CodecRegistry newReg =
               CodecRegistries.fromRegistries(BsonUtils.DEFAULT_CODEC_REGISTRY, codecRegistry);
-      return newReg.get(resultClass).decode(bsonReader, DecoderContext.builder().build());
+      return decodeResponse(response, newReg.get(resultClass));
     } catch (final Exception e) {
       throw new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR);
     }
   }
 
+  /**
+   * Performs a request against Stitch using the provided {@link StitchAuthRequest} object without
+   * blocking the calling thread, and completes the callback with the response. If the access
+   * token has expired, it is refreshed asynchronously and the request is retried once.
+   *
+   * @param stitchReq the request to perform.
+   * @param callback the callback to complete with the response, or with the failure.
+   */
+  public void doAuthenticatedRequestAsync(
+      final StitchAuthRequest stitchReq,
+      final Callback<Response, Exception> callback
+  ) {
+    doAuthenticatedRequestAsync(stitchReq, activeUserAuthInfo, callback);
+  }
+
+  private void doAuthenticatedRequestAsync(
+      final StitchAuthRequest stitchReq,
+      final AuthInfo authInfo,
+      final Callback<Response, Exception> callback
+  ) {
+    final StitchAuthRequest preparedReq;
+    try {
+      preparedReq = prepareAuthRequest(stitchReq, authInfo);
+    } catch (final Exception e) {
+      callback.onComplete(OperationResult.<Response, Exception>failedResultOf(e));
+      return;
+    }
+
+    requestClient.doRequestAsync(preparedReq, new Callback<Response, Exception>() {
+      @Override
+      public void onComplete(final OperationResult<Response, Exception> result) {
+        if (result.isSuccessful() || !(result.getFailure() instanceof StitchServiceException)) {
+          callback.onComplete(result);
+          return;
+        }
+        handleAuthFailureAsync((StitchServiceException) result.getFailure(), stitchReq, callback);
+      }
+    });
+  }
+
+  /**
+   * Performs a request against Stitch using the provided {@link StitchAuthRequest} object without
+   * blocking the calling thread, and completes the callback with the response decoded using the
+   * provided result decoder.
+   *
+   * @param stitchReq the request to perform.
+   * @param resultDecoder the decoder to decode the response with.
+   * @param callback the callback to complete with the decoded value, or with the failure.
+   */
+  public <T> void doAuthenticatedRequestAsync(
+      final StitchAuthRequest stitchReq,
+      final Decoder<T> resultDecoder,
+      final Callback<T, Exception> callback
+  ) {
+    doAuthenticatedRequestAsync(withAcceptBson(stitchReq), new Callback<Response, Exception>() {
+      @Override
+      public void onComplete(final OperationResult<Response, Exception> result) {
+        if (!result.isSuccessful()) {
+          callback.onComplete(OperationResult.<T, Exception>failedResultOf(result.getFailure()));
+          return;
+        }
+
+        final T value;
+        try {
+          value = decodeResponse(result.geResult(), resultDecoder);
+        } catch (final Exception e) {
+          callback.onComplete(OperationResult.<T, Exception>failedResultOf(
+              new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR)));
+          return;
+        }
+        callback.onComplete(OperationResult.<T, Exception>successfulResultOf(value));
+      }
+    });
+  }
+
+  /**
+   * Performs a request against Stitch using the provided {@link StitchAuthRequest} object without
+   * blocking the calling thread, and completes the callback with the response decoded into a T
+   * value using the codec found for T in the codec registry given.
+   *
+   * @param stitchReq     the request to perform.
+   * @param resultClass   the class that the response should be decoded as.
+   * @param codecRegistry the codec registry used for de/serialization.
+   * @param callback      the callback to complete with the decoded value, or with the failure.
+   * @param <T>           the type into which the response will be decoded into.
+   */
+  public <T> void doAuthenticatedRequestAsync(
+      final StitchAuthRequest stitchReq,
+      final Class<T> resultClass,
+      final CodecRegistry codecRegistry,
+      final Callback<T, Exception> callback
+  ) {
+    final Decoder<T> resultDecoder;
+    try {
+      resultDecoder = CodecRegistries
+          .fromRegistries(BsonUtils.DEFAULT_CODEC_REGISTRY, codecRegistry)
+          .get(resultClass);
+    } catch (final Exception e) {
+      callback.onComplete(OperationResult.<T, Exception>failedResultOf(
+          new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR)));
+      return;
+    }
+    doAuthenticatedRequestAsync(stitchReq, resultDecoder, callback);
+  }
+
+  /**
+   * Returns whether or not the server is known to accept binary BSON request bodies, which is
+   * the case once it has sent one of its responses as binary BSON.
+   *
+   * @return whether or not the server accepts binary BSON request bodies.
+   */
+  @Override
+  public boolean isBsonSupported() {
+    return isBsonSupported;
+  }
+
+  @Override
+  @Nullable
+  public String getActiveUserId() {
+    final StitchUserT user = getUser();
+    return user == null ? null : user.getId();
+  }
+
+  /**
+   * Returns a copy of the given request that asks for the response as binary BSON, with extended
+   * JSON as the fallback for servers that do not support it.
+   */
+  private static StitchAuthRequest withAcceptBson(final StitchAuthRequest stitchReq) {
+    final StitchAuthRequest.Builder newReq = stitchReq.builder();
+    final Map<String, String> newHeaders = new HashMap<>(newReq.getHeaders());
+    newHeaders.put(Headers.ACCEPT, String.format(
+        "%s, %s", ContentTypes.APPLICATION_BSON, ContentTypes.APPLICATION_JSON));
+    newReq.withHeaders(newHeaders);
+    return newReq.build();
+  }
+
+  /**
+   * Decodes the body of the response according to its content type, which is either binary BSON
+   * or extended JSON. Either way, the body is decoded as it is read from the response.
+   */
+  private <T> T decodeResponse(final Response response, final Decoder<T> resultDecoder)
+      throws IOException {
+    final InputStream body = response.getBody();
+    try {
+      return isBsonResponse(response)
+          ? BsonUtils.readValue(body, resultDecoder)
+          : BsonUtils.readJsonValue(body, resultDecoder);
+    } finally {
+      body.close();
+    }
+  }
+
+  private boolean isBsonResponse(final Response response) {
+    final String contentType = response.getHeaders().get(Headers.CONTENT_TYPE);
+    final boolean isBson =
+        contentType != null && contentType.startsWith(ContentTypes.APPLICATION_BSON);
+    if (isBson) {
+      isBsonSupported = true;
+    }
+    return isBson;
+  }
+
   @Override
   public <T> Stream<T> openAuthenticatedStream(
       final StitchAuthRequest stitchReq,
@@ -314,13 +495,18 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
 
     final String authToken = stitchReq.getUseRefreshToken()
         ? getAuthInfo().getRefreshToken() : getAuthInfo().getAccessToken();
+    final StitchAuthRequest.Builder streamReq = stitchReq.builder();
+    if (stitchReq.getBody() != null) {
+      // a stream opened with a body is not an EventSource, so it can send the token in a header
+      // like any other request rather than in its URL
+      final Map<String, String> headers = new HashMap<>(streamReq.getHeaders());
+      headers.put(Headers.AUTHORIZATION, Headers.getAuthorizationBearer(authToken));
+      streamReq.withHeaders(headers);
+    } else {
+      streamReq.withPath(stitchReq.getPath() + AuthStreamFields.AUTH_TOKEN + authToken);
+    }
     try {
-      return new Stream<>(
-          requestClient.doStreamRequest(stitchReq.builder().withPath(
-              stitchReq.getPath() + AuthStreamFields.AUTH_TOKEN + authToken
-          ).build()),
-          decoder
-      );
+      return new Stream<>(requestClient.doStreamRequest(streamReq.build()), decoder);
     } catch (final StitchServiceException ex) {
       return handleAuthFailureForStream(ex, stitchReq, decoder);
     }
@@ -492,7 +678,7 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
     }
   }
 
-  protected synchronized String getDeviceId() {
+  protected String getDeviceId() {
     authLock.readLock().lock();
     try {
       if (!hasDeviceId()) {
@@ -511,7 +697,8 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
     }
 
     final StitchAuthRequest.Builder newReq = stitchReq.builder();
-    final Map<String, String> newHeaders = newReq.getHeaders(); // This is not a copy
+    // copy the headers since the same request may be prepared concurrently or retried
+    final Map<String, String> newHeaders = new HashMap<>(newReq.getHeaders());
     if (stitchReq.getUseRefreshToken()) {
       newHeaders.put(
           Headers.AUTHORIZATION, Headers.getAuthorizationBearer(authInfo.getRefreshToken()));
@@ -546,8 +733,8 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
         req.builder().withShouldRefreshOnFailure(false).build(), decoder);
   }
 
-  private synchronized Response handleAuthFailure(final StitchServiceException ex,
-                                                  final StitchAuthRequest req) {
+  private Response handleAuthFailure(final StitchServiceException ex,
+                                     final StitchAuthRequest req) {
     if (ex.getErrorCode() != StitchServiceErrorCode.INVALID_SESSION) {
       throw ex;
     }
@@ -564,9 +751,116 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
     return doAuthenticatedRequest(req.builder().withShouldRefreshOnFailure(false).build());
   }
 
+  private void handleAuthFailureAsync(
+      final StitchServiceException ex,
+      final StitchAuthRequest req,
+      final Callback<Response, Exception> callback
+  ) {
+    if (ex.getErrorCode() != StitchServiceErrorCode.INVALID_SESSION) {
+      callback.onComplete(OperationResult.<Response, Exception>failedResultOf(ex));
+      return;
+    }
+
+    // using a refresh token implies we cannot refresh anything, so clear auth and
+    // notify
+    if (req.getUseRefreshToken() || !req.getShouldRefreshOnFailure()) {
+      try {
+        clearActiveUserAuth();
+      } finally {
+        callback.onComplete(OperationResult.<Response, Exception>failedResultOf(ex));
+      }
+      return;
+    }
+
+    tryRefreshAccessTokenAsync(req.getStartedAt(), new Callback<Void, Exception>() {
+      @Override
+      public void onComplete(final OperationResult<Void, Exception> result) {
+        if (!result.isSuccessful()) {
+          callback.onComplete(
+              OperationResult.<Response, Exception>failedResultOf(result.getFailure()));
+          return;
+        }
+        doAuthenticatedRequestAsync(
+            req.builder().withShouldRefreshOnFailure(false).build(), callback);
+      }
+    });
+  }
+
+  // the asynchronous counterpart of tryRefreshAccessToken: requests that fail with a token
+  // issued before they started wait on a single refresh instead of each refreshing, and none
+  // of them holds a thread while the refresh is in flight.
+  private void tryRefreshAccessTokenAsync(
+      final Long reqStartedAt,
+      final Callback<Void, Exception> callback
+  ) {
+    final AuthInfo authInfo = activeUserAuthInfo;
+    if (!authInfo.isLoggedIn()) {
+      callback.onComplete(OperationResult.<Void, Exception>failedResultOf(
+          new StitchClientException(StitchClientErrorCode.LOGGED_OUT_DURING_REQUEST)));
+      return;
+    }
+
+    try {
+      final Jwt jwt = Jwt.fromEncoded(authInfo.getAccessToken());
+      if (jwt.getIssuedAt() >= reqStartedAt) {
+        callback.onComplete(OperationResult.<Void, Exception>successfulResultOf(null));
+        return;
+      }
+    } catch (final IOException e) {
+      // Swallow
+    }
+
+    pendingRefreshLock.lock();
+    try {
+      pendingRefreshCallbacks.add(callback);
+      if (pendingRefreshCallbacks.size() > 1) {
+        // a refresh is already in flight
+        return;
+      }
+    } finally {
+      pendingRefreshLock.unlock();
+    }
+
+    final StitchAuthRequest refreshReq = new StitchAuthRequest.Builder()
+        .withRefreshToken()
+        .withPath(authRoutes.getSessionRoute())
+        .withMethod(Method.POST)
+        .build();
+    doAuthenticatedRequestAsync(refreshReq, authInfo, new Callback<Response, Exception>() {
+      @Override
+      public void onComplete(final OperationResult<Response, Exception> result) {
+        OperationResult<Void, Exception> refreshResult;
+        if (result.isSuccessful()) {
+          try {
+            applyRefreshResponse(authInfo.getUserId(), result.geResult());
+            refreshResult = OperationResult.successfulResultOf(null);
+          } catch (final Exception e) {
+            refreshResult = OperationResult.failedResultOf(e);
+          }
+        } else {
+          refreshResult = OperationResult.failedResultOf(result.getFailure());
+        }
+
+        final List<Callback<Void, Exception>> callbacks;
+        pendingRefreshLock.lock();
+        try {
+          callbacks = new ArrayList<>(pendingRefreshCallbacks);
+          pendingRefreshCallbacks.clear();
+        } finally {
+          pendingRefreshLock.unlock();
+        }
+        for (final Callback<Void, Exception> pendingCallback : callbacks) {
+          pendingCallback.onComplete(refreshResult);
+        }
+      }
+    });
+  }
+
   // use this critical section to create a queue of pending outbound requests
   // that should wait on the result of doing a token refresh or logoutUserWithId. This will
-  // prevent too many refreshes happening one after the other.
+  // prevent too many refreshes happening one after the other: the first failed request
+  // refreshes, and every request queued behind it sees a token issued after it started and
+  // simply retries with that token.
   private void tryRefreshAccessToken(final Long reqStartedAt) {
     authLock.writeLock().lock();
     try {
@@ -590,7 +884,7 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
     }
   }
 
-  synchronized void refreshAccessToken() {
+  void refreshAccessToken() {
     authLock.writeLock().lock();
     try {
       final StitchAuthRequest.Builder reqBuilder = new StitchAuthRequest.Builder();
@@ -600,6 +894,22 @@ public abstract class CoreStitchAuth<StitchUserT extends CoreStitchUser>
           .withMethod(Method.POST);
 
       final Response response = doAuthenticatedRequest(reqBuilder.build(), activeUserAuthInfo);
+      applyRefreshResponse(activeUserAuthInfo.getUserId(), response);
+    } finally {
+      authLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Merges the new access token in the response to a session refresh into the auth info of the
+   * active user, as long as they are still the user whose session was refreshed.
+   */
+  private void applyRefreshResponse(final String userId, final Response response) {
+    authLock.writeLock().lock();
+    try {
+      if (!isLoggedIn() || !userId.equals(activeUserAuthInfo.getUserId())) {
+        throw new StitchClientException(StitchClientErrorCode.LOGGED_OUT_DURING_REQUEST);
+      }
 
       try {
         final AuthInfo partialInfo = AuthInfo.readFromApi(response.getBody());
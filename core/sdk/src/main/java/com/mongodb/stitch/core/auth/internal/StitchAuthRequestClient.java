@@ -16,10 +16,14 @@
 
 package com.mongodb.stitch.core.auth.internal;
 
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.CloseableIterator;
 import com.mongodb.stitch.core.internal.net.Response;
 import com.mongodb.stitch.core.internal.net.StitchAuthRequest;
 import com.mongodb.stitch.core.internal.net.Stream;
 
+import javax.annotation.Nullable;
+
 import org.bson.codecs.Decoder;
 import org.bson.codecs.configuration.CodecRegistry;
 
@@ -32,6 +36,49 @@ public interface StitchAuthRequestClient {
                                final Class<T> resultClass,
                                final CodecRegistry codecRegistry);
 
+  /**
+   * Performs a request whose response is an array, and returns an iterator that decodes its
+   * elements as they are read from the response.
+   */
+  <T> CloseableIterator<T> doAuthenticatedRequestForIterator(final StitchAuthRequest stitchReq,
+                                                            final Decoder<T> elementDecoder);
+
+  /**
+   * Performs the request without blocking the calling thread, and completes the callback with
+   * the response or the failure.
+   */
+  void doAuthenticatedRequestAsync(final StitchAuthRequest stitchReq,
+                                   final Callback<Response, Exception> callback);
+
+  /**
+   * Performs the request without blocking the calling thread, and completes the callback with
+   * the response decoded by the given decoder, or with the failure.
+   */
+  <T> void doAuthenticatedRequestAsync(final StitchAuthRequest stitchReq,
+                                       final Decoder<T> decoder,
+                                       final Callback<T, Exception> callback);
+
+  /**
+   * Performs the request without blocking the calling thread, and completes the callback with
+   * the response decoded into the given class, or with the failure.
+   */
+  <T> void doAuthenticatedRequestAsync(final StitchAuthRequest stitchReq,
+                                       final Class<T> resultClass,
+                                       final CodecRegistry codecRegistry,
+                                       final Callback<T, Exception> callback);
+
   <T> Stream<T> openAuthenticatedStream(final StitchAuthRequest stitchReq,
                                         final Decoder<T> decoder) throws InterruptedException;
+
+  /**
+   * Returns the id of the user that requests are currently made as, or null if no user is
+   * logged in.
+   */
+  @Nullable
+  String getActiveUserId();
+
+  /**
+   * Returns whether or not the server is known to accept request bodies as binary BSON.
+   */
+  boolean isBsonSupported();
 }
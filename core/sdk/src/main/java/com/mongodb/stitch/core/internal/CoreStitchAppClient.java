@@ -17,6 +17,7 @@
 package com.mongodb.stitch.core.internal;
 
 import com.mongodb.stitch.core.auth.internal.StitchAuthRequestClient;
+import com.mongodb.stitch.core.internal.common.Callback;
 import com.mongodb.stitch.core.internal.net.StitchAppRoutes;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClientImpl;
@@ -128,4 +129,89 @@ public final class CoreStitchAppClient {
         .withCodecRegistry(codecRegistry)
         .callFunction(name, args, requestTimeout, resultClass);
   }
+
+  /**
+   * Calls the specified Stitch function without blocking the calling thread.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the Stitch function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error.
+   * @param callback the callback to complete once the function returns, or with the failure.
+   */
+  public void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Callback<Void, Exception> callback) {
+    this.functionService.callFunctionAsync(name, args, requestTimeout, callback);
+  }
+
+  /**
+   * Calls the specified Stitch function without blocking the calling thread, and decodes the
+   * response into a value using the provided {@link Decoder}.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the Stitch function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error.
+   * @param decoder the {@link Decoder} to use to decode the Stitch response into a value.
+   * @param callback the callback to complete with the decoded value, or with the failure.
+   * @param <T> the type into which the Stitch response will be decoded.
+   */
+  public <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Decoder<T> decoder,
+      final Callback<T, Exception> callback) {
+    this.functionService.callFunctionAsync(name, args, requestTimeout, decoder, callback);
+  }
+
+  /**
+   * Calls the specified Stitch function without blocking the calling thread, and decodes the
+   * response into an instance of the specified type using the codec registry specified when the
+   * client was configured.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the Stitch function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error.
+   * @param resultClass the class that the Stitch response should be decoded as.
+   * @param callback the callback to complete with the decoded value, or with the failure.
+   * @param <T> the type into which the Stitch response will be decoded.
+   */
+  public <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<T> resultClass,
+      final Callback<T, Exception> callback) {
+    this.functionService.callFunctionAsync(name, args, requestTimeout, resultClass, callback);
+  }
+
+  /**
+   * Calls the specified Stitch function without blocking the calling thread, and decodes the
+   * response into an instance of the specified type using the codec registry given.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the Stitch function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error.
+   * @param resultClass the class that the Stitch response should be decoded as.
+   * @param codecRegistry the codec registry that will be used to encode/decode the function call.
+   * @param callback the callback to complete with the decoded value, or with the failure.
+   * @param <T> the type into which the Stitch response will be decoded.
+   */
+  public <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<T> resultClass,
+      final CodecRegistry codecRegistry,
+      final Callback<T, Exception> callback) {
+    this.functionService
+        .withCodecRegistry(codecRegistry)
+        .callFunctionAsync(name, args, requestTimeout, resultClass, callback);
+  }
 }
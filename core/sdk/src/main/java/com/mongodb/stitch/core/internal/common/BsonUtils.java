@@ -19,21 +19,35 @@ package com.mongodb.stitch.core.internal.common;
 import static java.util.Arrays.asList;
 import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
 
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
 import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
 import org.bson.BsonDocumentWrapper;
+import org.bson.BsonType;
 import org.bson.BsonValue;
+import org.bson.codecs.BsonDocumentCodec;
 import org.bson.codecs.BsonValueCodecProvider;
 import org.bson.codecs.Codec;
 import org.bson.codecs.Decoder;
 import org.bson.codecs.DecoderContext;
 import org.bson.codecs.DocumentCodecProvider;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
 import org.bson.codecs.IterableCodecProvider;
 import org.bson.codecs.MapCodecProvider;
 import org.bson.codecs.ValueCodecProvider;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.conversions.Bson;
+import org.bson.io.BasicOutputBuffer;
 import org.bson.json.JsonReader;
 
 public final class BsonUtils extends RuntimeException {
@@ -109,6 +123,217 @@ public final class BsonUtils extends RuntimeException {
     return newReg.get(valueClass).decode(bsonReader, DecoderContext.builder().build());
   }
 
+  /**
+   * Encodes the provided document as a BSON document in its binary form.
+   *
+   * @param document the document to encode.
+   * @param encoder the {@link Encoder} to use to write the document.
+   * @param <T> the type of the document.
+   * @return the bytes of the BSON document.
+   */
+  public static <T> byte[] toBsonBytes(final T document, final Encoder<T> encoder) {
+    final BasicOutputBuffer buffer = new BasicOutputBuffer();
+    final BsonBinaryWriter writer = new BsonBinaryWriter(buffer);
+    try {
+      encoder.encode(writer, document, EncoderContext.builder().build());
+    } finally {
+      writer.close();
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Returns the number of bytes the provided document takes up when sent in a request body, as
+   * binary BSON or as extended JSON, whichever is larger.
+   *
+   * @param document the document to measure.
+   * @return the encoded size of the document in bytes.
+   */
+  public static int getEncodedSize(final BsonDocument document) {
+    final BasicOutputBuffer buffer = new BasicOutputBuffer();
+    final BsonBinaryWriter writer = new BsonBinaryWriter(buffer);
+    try {
+      new BsonDocumentCodec().encode(writer, document, EncoderContext.builder().build());
+    } finally {
+      writer.close();
+    }
+
+    final String json = document.toJson(StitchObjectMapper.JSON_WRITER_SETTINGS);
+    int jsonSize = 0;
+    for (int i = 0; i < json.length(); i++) {
+      final char c = json.charAt(i);
+      if (c < 0x80) {
+        jsonSize += 1;
+      } else if (c < 0x800) {
+        jsonSize += 2;
+      } else if (Character.isHighSurrogate(c)) {
+        // the pair is encoded as four bytes
+        jsonSize += 4;
+        i++;
+      } else {
+        jsonSize += 3;
+      }
+    }
+    return Math.max(buffer.getPosition(), jsonSize);
+  }
+
+  /**
+   * Reads a single BSON document in its binary form from the provided stream, and decodes the
+   * first value in it into a T value as specified by the provided {@link Decoder}. Since a
+   * binary BSON body must be a document, a single value is sent as the only field of one.
+   *
+   * @param in the stream to read the document from.
+   * @param valueDecoder the {@link Decoder} to use to convert the BSON value into the type T.
+   * @param <T> the type into which the value is decoded.
+   * @return the decoded value, or null if the value is a BSON null.
+   * @throws IOException in the event the document cannot be read.
+   */
+  public static <T> T readValue(final InputStream in, final Decoder<T> valueDecoder)
+      throws IOException {
+    final byte[] lengthBytes = new byte[4];
+    readFully(in, lengthBytes, 0, lengthBytes.length);
+    final int length = (lengthBytes[0] & 0xff)
+        | (lengthBytes[1] & 0xff) << 8
+        | (lengthBytes[2] & 0xff) << 16
+        | (lengthBytes[3] & 0xff) << 24;
+    if (length < 5) {
+      throw new IOException(String.format("invalid BSON document length %d", length));
+    }
+
+    final byte[] documentBytes = new byte[length];
+    System.arraycopy(lengthBytes, 0, documentBytes, 0, lengthBytes.length);
+    readFully(in, documentBytes, lengthBytes.length, length - lengthBytes.length);
+
+    return decodeFirstValue(
+        new BsonBinaryReader(ByteBuffer.wrap(documentBytes)), valueDecoder);
+  }
+
+  /**
+   * Reads a single extended JSON value from the provided stream, and decodes it into a T value as
+   * specified by the provided {@link Decoder}. The JSON is transcoded into binary BSON as it is
+   * read rather than first being read into a string, so that a large value is never held in
+   * memory as both JSON text and decoded objects.
+   *
+   * @param in the stream to read the value from.
+   * @param valueDecoder the {@link Decoder} to use to convert the value into the type T.
+   * @param <T> the type into which the value is decoded.
+   * @return the decoded value, or null if the value is a JSON null.
+   * @throws IOException in the event the value cannot be read.
+   */
+  public static <T> T readJsonValue(final InputStream in, final Decoder<T> valueDecoder)
+      throws IOException {
+    final BasicOutputBuffer buffer = new BasicOutputBuffer();
+    final JsonParser parser = ExtendedJsonTranscoder.JSON_FACTORY.createParser(in);
+    try {
+      final BsonBinaryWriter writer = new BsonBinaryWriter(buffer);
+      writer.writeStartDocument();
+      writer.writeName("value");
+      parser.nextToken();
+      ExtendedJsonTranscoder.transcodeValue(parser, writer);
+      writer.writeEndDocument();
+      writer.close();
+    } finally {
+      parser.close();
+    }
+
+    return decodeFirstValue(
+        new BsonBinaryReader(ByteBuffer.wrap(buffer.getInternalBuffer(), 0, buffer.getPosition())),
+        valueDecoder);
+  }
+
+  /**
+   * Reads a single BSON document in its binary form from the provided stream, whose first value
+   * is an array, and returns an iterator that decodes the elements of the array as they are
+   * read, using the provided {@link Decoder}. The stream is closed once the iterator reaches the
+   * end of the array or is closed.
+   *
+   * @param in the stream to read the document from.
+   * @param elementDecoder the {@link Decoder} to use to convert each element into the type T.
+   * @param <T> the type into which the elements are decoded.
+   * @return an iterator over the decoded elements.
+   */
+  public static <T> CloseableIterator<T> readValues(
+      final InputStream in,
+      final Decoder<T> elementDecoder
+  ) {
+    return new StreamingArrayIterator.BsonArrayIterator<>(in, elementDecoder);
+  }
+
+  /**
+   * Reads a single extended JSON array from the provided stream, and returns an iterator that
+   * decodes its elements as they are read, using the provided {@link Decoder}. The stream is
+   * closed once the iterator reaches the end of the array or is closed.
+   *
+   * @param in the stream to read the array from.
+   * @param elementDecoder the {@link Decoder} to use to convert each element into the type T.
+   * @param <T> the type into which the elements are decoded.
+   * @return an iterator over the decoded elements.
+   */
+  public static <T> CloseableIterator<T> readJsonValues(
+      final InputStream in,
+      final Decoder<T> elementDecoder
+  ) {
+    return new StreamingArrayIterator.JsonArrayIterator<>(in, elementDecoder);
+  }
+
+  /**
+   * Decodes the provided BSON value into a T value as specified by the provided {@link Decoder}.
+   * A null or BSON null value decodes to null.
+   *
+   * @param value the value to decode.
+   * @param valueDecoder the {@link Decoder} to use to convert the BSON value into the type T.
+   * @param <T> the type into which the value is decoded.
+   * @return the decoded value.
+   */
+  public static <T> T decodeValue(final BsonValue value, final Decoder<T> valueDecoder) {
+    if (value == null || value.isNull()) {
+      return null;
+    }
+    final BsonDocumentReader reader = new BsonDocumentReader(new BsonDocument("value", value));
+    try {
+      reader.readStartDocument();
+      reader.readBsonType();
+      reader.skipName();
+      return valueDecoder.decode(reader, DecoderContext.builder().build());
+    } finally {
+      reader.close();
+    }
+  }
+
+  static <T> T decodeFirstValue(
+      final BsonBinaryReader bsonReader,
+      final Decoder<T> valueDecoder
+  ) {
+    try {
+      bsonReader.readStartDocument();
+      final BsonType type = bsonReader.readBsonType();
+      // We must check this condition because the decoder will throw trying to decode null
+      if (type == BsonType.END_OF_DOCUMENT || type == BsonType.NULL) {
+        return null;
+      }
+      bsonReader.skipName();
+      return valueDecoder.decode(bsonReader, DecoderContext.builder().build());
+    } finally {
+      bsonReader.close();
+    }
+  }
+
+  static void readFully(
+      final InputStream in,
+      final byte[] buffer,
+      final int offset,
+      final int length
+  ) throws IOException {
+    int read = 0;
+    while (read < length) {
+      final int count = in.read(buffer, offset + read, length - read);
+      if (count == -1) {
+        throw new EOFException("unexpected end of BSON document");
+      }
+      read += count;
+    }
+  }
+
   public static <T> Codec<T> getCodec(
       final CodecRegistry codecRegistry,
       final Class<T> documentClass
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.internal.common;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An iterator over a resource, such as a response body, that should be released by closing the
+ * iterator if it is not iterated to its end.
+ *
+ * @param <T> the type of the elements.
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+  /**
+   * Releases the resource behind the iterator. After this, the iterator has no more elements.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.internal.common;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonReader;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+/**
+ * Transcodes MongoDB extended JSON into BSON token by token as it is parsed from a stream, so
+ * that the JSON text never has to be held in memory as a whole. Numbers and extended JSON
+ * wrappers are interpreted the same way as by {@link JsonReader}; the common wrappers are handled
+ * here directly, and the rest are handed to a {@link JsonReader} one wrapper at a time.
+ */
+final class ExtendedJsonTranscoder {
+  static final JsonFactory JSON_FACTORY =
+      new JsonFactory().enable(JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS);
+
+  private static final Set<String> WRAPPER_KEYS = new HashSet<>(Arrays.asList(
+      "$binary", "$code", "$date", "$dbPointer", "$maxKey", "$minKey", "$numberDecimal",
+      "$numberDouble", "$numberInt", "$numberLong", "$oid", "$regex", "$regularExpression",
+      "$symbol", "$timestamp", "$undefined"));
+
+  private static final String WRAPPED_VALUE_FIELD = "v";
+
+  private ExtendedJsonTranscoder() {}
+
+  /**
+   * Writes the JSON value the parser is positioned at to the writer, leaving the parser at the
+   * last token of the value.
+   *
+   * @param parser the parser positioned at the first token of the value.
+   * @param writer the writer to write the value to, which must be expecting a value.
+   * @throws IOException in the event the JSON cannot be read.
+   */
+  static void transcodeValue(final JsonParser parser, final BsonWriter writer)
+      throws IOException {
+    final JsonToken token = parser.currentToken();
+    if (token == null) {
+      throw new JsonParseException("unexpected end of JSON");
+    }
+    switch (token) {
+      case START_OBJECT:
+        transcodeObject(parser, writer);
+        break;
+      case START_ARRAY:
+        writer.writeStartArray();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          transcodeValue(parser, writer);
+        }
+        writer.writeEndArray();
+        break;
+      case VALUE_STRING:
+        writer.writeString(parser.getText());
+        break;
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            writer.writeInt32(parser.getIntValue());
+            break;
+          case LONG:
+            writer.writeInt64(parser.getLongValue());
+            break;
+          default:
+            writer.writeDouble(parser.getDoubleValue());
+            break;
+        }
+        break;
+      case VALUE_NUMBER_FLOAT:
+        writer.writeDouble(parser.getDoubleValue());
+        break;
+      case VALUE_TRUE:
+        writer.writeBoolean(true);
+        break;
+      case VALUE_FALSE:
+        writer.writeBoolean(false);
+        break;
+      case VALUE_NULL:
+        writer.writeNull();
+        break;
+      default:
+        throw new JsonParseException("unexpected JSON token %s", token);
+    }
+  }
+
+  private static void transcodeObject(final JsonParser parser, final BsonWriter writer)
+      throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.FIELD_NAME && WRAPPER_KEYS.contains(parser.getCurrentName())) {
+      transcodeWrapper(parser, writer);
+      return;
+    }
+
+    writer.writeStartDocument();
+    while (token != JsonToken.END_OBJECT) {
+      writer.writeName(parser.getCurrentName());
+      parser.nextToken();
+      transcodeValue(parser, writer);
+      token = parser.nextToken();
+    }
+    writer.writeEndDocument();
+  }
+
+  private static void transcodeWrapper(final JsonParser parser, final BsonWriter writer)
+      throws IOException {
+    final String key = parser.getCurrentName();
+    final JsonToken valueToken = parser.nextToken();
+
+    final boolean handled;
+    switch (key) {
+      case "$oid":
+        handled = valueToken == JsonToken.VALUE_STRING;
+        if (handled) {
+          writer.writeObjectId(new ObjectId(parser.getText()));
+        }
+        break;
+      case "$numberInt":
+        handled = valueToken == JsonToken.VALUE_STRING;
+        if (handled) {
+          writer.writeInt32(Integer.parseInt(parser.getText()));
+        }
+        break;
+      case "$numberLong":
+        handled = valueToken == JsonToken.VALUE_STRING;
+        if (handled) {
+          writer.writeInt64(Long.parseLong(parser.getText()));
+        }
+        break;
+      case "$numberDouble":
+        handled = valueToken == JsonToken.VALUE_STRING;
+        if (handled) {
+          writer.writeDouble(Double.parseDouble(parser.getText()));
+        }
+        break;
+      case "$numberDecimal":
+        handled = valueToken == JsonToken.VALUE_STRING;
+        if (handled) {
+          writer.writeDecimal128(Decimal128.parse(parser.getText()));
+        }
+        break;
+      case "$date":
+        handled = transcodeDate(parser, writer);
+        break;
+      case "$binary":
+        handled = transcodeBinary(parser, writer);
+        break;
+      default:
+        handled = false;
+        break;
+    }
+
+    if (!handled) {
+      transcodeWrapperWithJsonReader(key, parser, writer);
+      return;
+    }
+    if (parser.nextToken() != JsonToken.END_OBJECT) {
+      throw new JsonParseException("invalid extended JSON for %s", key);
+    }
+  }
+
+  private static boolean transcodeDate(final JsonParser parser, final BsonWriter writer)
+      throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+      writer.writeDateTime(parser.getLongValue());
+      return true;
+    }
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      return false;
+    }
+
+    // {"$date": {"$numberLong": "..."}}
+    if (parser.nextToken() != JsonToken.FIELD_NAME
+        || !"$numberLong".equals(parser.getCurrentName())
+        || parser.nextToken() != JsonToken.VALUE_STRING) {
+      throw new JsonParseException("invalid extended JSON for $date");
+    }
+    writer.writeDateTime(Long.parseLong(parser.getText()));
+    if (parser.nextToken() != JsonToken.END_OBJECT) {
+      throw new JsonParseException("invalid extended JSON for $date");
+    }
+    return true;
+  }
+
+  private static boolean transcodeBinary(final JsonParser parser, final BsonWriter writer)
+      throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+      // {"$binary": "<base64>", "$type": "<hex>"}
+      final byte[] data = parser.getBinaryValue();
+      if (parser.nextToken() != JsonToken.FIELD_NAME
+          || !"$type".equals(parser.getCurrentName())
+          || parser.nextToken() != JsonToken.VALUE_STRING) {
+        throw new JsonParseException("invalid extended JSON for $binary");
+      }
+      writer.writeBinaryData(new BsonBinary(parseSubType(parser.getText()), data));
+      return true;
+    }
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      return false;
+    }
+
+    // {"$binary": {"base64": "<base64>", "subType": "<hex>"}}
+    byte[] data = null;
+    String subType = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      if (parser.nextToken() != JsonToken.VALUE_STRING) {
+        throw new JsonParseException("invalid extended JSON for $binary");
+      }
+      if ("base64".equals(field)) {
+        data = parser.getBinaryValue();
+      } else if ("subType".equals(field)) {
+        subType = parser.getText();
+      } else {
+        throw new JsonParseException("invalid extended JSON for $binary");
+      }
+    }
+    if (data == null || subType == null) {
+      throw new JsonParseException("invalid extended JSON for $binary");
+    }
+    writer.writeBinaryData(new BsonBinary(parseSubType(subType), data));
+    return true;
+  }
+
+  private static byte parseSubType(final String subType) {
+    return (byte) Integer.parseInt(subType, 16);
+  }
+
+  /**
+   * Copies the rest of the wrapper object the parser is in back to JSON, and has a
+   * {@link JsonReader} interpret it. The parser is positioned at the value of the wrapper's first
+   * field.
+   */
+  private static void transcodeWrapperWithJsonReader(
+      final String key,
+      final JsonParser parser,
+      final BsonWriter writer
+  ) throws IOException {
+    final StringWriter json = new StringWriter();
+    final JsonGenerator generator = JSON_FACTORY.createGenerator(json);
+    generator.writeStartObject();
+    generator.writeFieldName(WRAPPED_VALUE_FIELD);
+    generator.writeStartObject();
+    generator.writeFieldName(key);
+    generator.copyCurrentStructure(parser);
+    while (parser.nextToken() != JsonToken.END_OBJECT) {
+      generator.copyCurrentStructure(parser);
+    }
+    generator.writeEndObject();
+    generator.writeEndObject();
+    generator.close();
+
+    final BsonDocument wrapped = new BsonDocumentCodec().decode(
+        new JsonReader(json.toString()), DecoderContext.builder().build());
+    new BsonValueCodec().encode(
+        writer, wrapped.get(WRAPPED_VALUE_FIELD), EncoderContext.builder().build());
+  }
+}
@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
+import javax.annotation.Nullable;
+
 public final class IoUtils {
 
   private IoUtils() {}
@@ -56,4 +58,20 @@ public final class IoUtils {
   public static String readAllToString(final InputStream in) throws IOException {
     return new String(readAllToBytes(in), StandardCharsets.UTF_8);
   }
+
+  /**
+   * Closes the {@link InputStream}, if any, ignoring any error in doing so.
+   *
+   * @param in the stream to close.
+   */
+  public static void closeQuietly(@Nullable final InputStream in) {
+    if (in == null) {
+      return;
+    }
+    try {
+      in.close();
+    } catch (final IOException e) {
+      // ignore
+    }
+  }
 }
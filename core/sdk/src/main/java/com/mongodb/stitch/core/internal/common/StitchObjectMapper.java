@@ -39,6 +39,17 @@ import org.bson.types.ObjectId;
  */
 public final class StitchObjectMapper extends ObjectMapper {
 
+  /**
+   * The settings with which documents are written as extended JSON.
+   */
+  static final JsonWriterSettings JSON_WRITER_SETTINGS =
+      JsonWriterSettings.builder()
+          .outputMode(JsonMode.EXTENDED)
+          .indent(true)
+          .newLineCharacters("")
+          .indentCharacters("")
+          .build();
+
   private static StitchObjectMapper singleton;
 
   private final CodecRegistry codecRegistry;
@@ -56,15 +67,8 @@ public final class StitchObjectMapper extends ObjectMapper {
                       final JsonGenerator jsonGenerator,
                       final SerializerProvider provider)
                       throws IOException {
-                    final JsonWriterSettings writerSettings =
-                        JsonWriterSettings.builder()
-                            .outputMode(JsonMode.EXTENDED)
-                            .indent(true)
-                            .newLineCharacters("")
-                            .indentCharacters("")
-                            .build();
                     final DocumentCodec codec = new DocumentCodec(codecRegistry);
-                    jsonGenerator.writeRawValue(value.toJson(writerSettings, codec));
+                    jsonGenerator.writeRawValue(value.toJson(JSON_WRITER_SETTINGS, codec));
                   }
                 })
             .addSerializer(
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.internal.common;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.mongodb.stitch.core.StitchRequestErrorCode;
+import com.mongodb.stitch.core.StitchRequestException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonType;
+import org.bson.codecs.Decoder;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * Decodes the elements of an array value one at a time as they are read from a stream, so that
+ * the first element is available before the rest of the stream has arrived, and only one element
+ * is held in memory at a time. Each element is read into a BSON document of its own, which is
+ * then decoded with {@link BsonUtils#decodeFirstValue}. A null value is read as an empty array.
+ *
+ * @param <T> the type of the elements.
+ */
+abstract class StreamingArrayIterator<T> implements CloseableIterator<T> {
+  private final InputStream in;
+  private final Decoder<T> decoder;
+  private boolean started;
+  private boolean finished;
+  private boolean hasBuffered;
+  private T buffered;
+
+  StreamingArrayIterator(final InputStream in, final Decoder<T> decoder) {
+    this.in = in;
+    this.decoder = decoder;
+  }
+
+  /**
+   * Reads up to the first element of the array.
+   *
+   * @return false if the value is null rather than an array.
+   * @throws IOException in the event the value cannot be read.
+   */
+  abstract boolean readStart() throws IOException;
+
+  /**
+   * Reads the next element of the array into a document whose only field is the element.
+   *
+   * @param buffer the buffer to write the document to.
+   * @return false if there are no more elements.
+   * @throws IOException in the event the element cannot be read.
+   */
+  abstract boolean readElement(BasicOutputBuffer buffer) throws IOException;
+
+  @Override
+  public boolean hasNext() {
+    if (hasBuffered) {
+      return true;
+    }
+    if (finished) {
+      return false;
+    }
+
+    try {
+      if (!started) {
+        started = true;
+        if (!readStart()) {
+          close();
+          return false;
+        }
+      }
+      final BasicOutputBuffer buffer = new BasicOutputBuffer();
+      if (!readElement(buffer)) {
+        close();
+        return false;
+      }
+      buffered = BsonUtils.decodeFirstValue(
+          new BsonBinaryReader(
+              ByteBuffer.wrap(buffer.getInternalBuffer(), 0, buffer.getPosition())),
+          decoder);
+      hasBuffered = true;
+      return true;
+    } catch (final Exception e) {
+      close();
+      throw new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR);
+    }
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final T next = buffered;
+    buffered = null;
+    hasBuffered = false;
+    return next;
+  }
+
+  @Override
+  public void close() {
+    finished = true;
+    hasBuffered = false;
+    buffered = null;
+    IoUtils.closeQuietly(in);
+  }
+
+  InputStream getInputStream() {
+    return in;
+  }
+
+  /**
+   * Reads an array from a binary BSON document whose first field is the array, as written for a
+   * BSON response body.
+   */
+  static final class BsonArrayIterator<T> extends StreamingArrayIterator<T> {
+    private static final byte[] ELEMENT_NAME = {'v', 0};
+
+    private final byte[] scratch = new byte[8];
+
+    BsonArrayIterator(final InputStream in, final Decoder<T> decoder) {
+      super(in, decoder);
+    }
+
+    @Override
+    boolean readStart() throws IOException {
+      readInt32();
+      final int type = readByte();
+      if (type == 0 || type == BsonType.NULL.getValue()) {
+        return false;
+      }
+      if (type != BsonType.ARRAY.getValue()) {
+        throw new IOException(String.format("expected an array but found BSON type %d", type));
+      }
+      skipCString();
+      readInt32();
+      return true;
+    }
+
+    @Override
+    boolean readElement(final BasicOutputBuffer buffer) throws IOException {
+      final int type = readByte();
+      if (type == 0) {
+        return false;
+      }
+      skipCString();
+
+      buffer.writeInt32(0);
+      buffer.writeByte(type);
+      buffer.writeBytes(ELEMENT_NAME);
+      copyValue(type, buffer);
+      buffer.writeByte(0);
+      buffer.writeInt32(0, buffer.getPosition());
+      return true;
+    }
+
+    private void copyValue(final int type, final BasicOutputBuffer buffer) throws IOException {
+      final BsonType bsonType = BsonType.findByValue(type);
+      if (bsonType == null) {
+        throw new IOException(String.format("unexpected BSON type %d", type));
+      }
+      switch (bsonType) {
+        case UNDEFINED:
+        case NULL:
+        case MIN_KEY:
+        case MAX_KEY:
+          return;
+        case BOOLEAN:
+          copy(1, buffer);
+          return;
+        case INT32:
+          copy(4, buffer);
+          return;
+        case DOUBLE:
+        case DATE_TIME:
+        case TIMESTAMP:
+        case INT64:
+          copy(8, buffer);
+          return;
+        case OBJECT_ID:
+          copy(12, buffer);
+          return;
+        case DECIMAL128:
+          copy(16, buffer);
+          return;
+        case STRING:
+        case JAVASCRIPT:
+        case SYMBOL:
+          copy(copyInt32(buffer), buffer);
+          return;
+        case BINARY:
+          copy(copyInt32(buffer) + 1, buffer);
+          return;
+        case DOCUMENT:
+        case ARRAY:
+        case JAVASCRIPT_WITH_SCOPE:
+          copy(copyInt32(buffer) - 4, buffer);
+          return;
+        case REGULAR_EXPRESSION:
+          copyCString(buffer);
+          copyCString(buffer);
+          return;
+        case DB_POINTER:
+          copy(copyInt32(buffer), buffer);
+          copy(12, buffer);
+          return;
+        default:
+          throw new IOException(String.format("unexpected BSON type %d", type));
+      }
+    }
+
+    private int readByte() throws IOException {
+      final int value = getInputStream().read();
+      if (value == -1) {
+        throw new EOFException("unexpected end of BSON document");
+      }
+      return (byte) value;
+    }
+
+    private int readInt32() throws IOException {
+      BsonUtils.readFully(getInputStream(), scratch, 0, 4);
+      return (scratch[0] & 0xff)
+          | (scratch[1] & 0xff) << 8
+          | (scratch[2] & 0xff) << 16
+          | (scratch[3] & 0xff) << 24;
+    }
+
+    private int copyInt32(final BasicOutputBuffer buffer) throws IOException {
+      final int value = readInt32();
+      if (value < 0) {
+        throw new IOException(String.format("invalid BSON length %d", value));
+      }
+      buffer.writeInt32(value);
+      return value;
+    }
+
+    private void copy(final int length, final BasicOutputBuffer buffer) throws IOException {
+      if (length < 0) {
+        throw new IOException(String.format("invalid BSON length %d", length));
+      }
+      final byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+      BsonUtils.readFully(getInputStream(), bytes, 0, length);
+      buffer.writeBytes(bytes, 0, length);
+    }
+
+    private void skipCString() throws IOException {
+      while (readByte() != 0) {
+        // skip to the terminator
+      }
+    }
+
+    private void copyCString(final BasicOutputBuffer buffer) throws IOException {
+      int value;
+      do {
+        value = readByte();
+        buffer.writeByte(value);
+      } while (value != 0);
+    }
+  }
+
+  /**
+   * Reads an array from extended JSON, transcoding one element at a time.
+   */
+  static final class JsonArrayIterator<T> extends StreamingArrayIterator<T> {
+    private JsonParser parser;
+
+    JsonArrayIterator(final InputStream in, final Decoder<T> decoder) {
+      super(in, decoder);
+    }
+
+    @Override
+    boolean readStart() throws IOException {
+      parser = ExtendedJsonTranscoder.JSON_FACTORY.createParser(getInputStream());
+      final JsonToken token = parser.nextToken();
+      if (token == JsonToken.VALUE_NULL) {
+        return false;
+      }
+      if (token != JsonToken.START_ARRAY) {
+        throw new IOException(String.format("expected an array but found %s", token));
+      }
+      return true;
+    }
+
+    @Override
+    boolean readElement(final BasicOutputBuffer buffer) throws IOException {
+      if (parser.nextToken() == JsonToken.END_ARRAY) {
+        return false;
+      }
+      final BsonBinaryWriter writer = new BsonBinaryWriter(buffer);
+      writer.writeStartDocument();
+      writer.writeName("v");
+      ExtendedJsonTranscoder.transcodeValue(parser, writer);
+      writer.writeEndDocument();
+      writer.close();
+      return true;
+    }
+
+    @Override
+    public void close() {
+      super.close();
+      if (parser != null) {
+        try {
+          parser.close();
+        } catch (final IOException e) {
+          // the stream is already closed
+        }
+      }
+    }
+  }
+}
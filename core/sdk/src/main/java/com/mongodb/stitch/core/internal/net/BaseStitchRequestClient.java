@@ -18,6 +18,8 @@ package com.mongodb.stitch.core.internal.net;
 
 import com.mongodb.stitch.core.StitchRequestErrorCode;
 import com.mongodb.stitch.core.StitchRequestException;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
 import com.mongodb.stitch.core.internal.common.StitchError;
 
 public abstract class BaseStitchRequestClient implements StitchRequestClient {
@@ -66,6 +68,32 @@ public abstract class BaseStitchRequestClient implements StitchRequestClient {
     return response;
   }
 
+  void doRequestUrlAsync(
+      final StitchRequest stitchReq,
+      final String url,
+      final Callback<Response, Exception> callback
+  ) {
+    transport.roundTripAsync(buildRequest(stitchReq, url), new Callback<Response, Exception>() {
+      @Override
+      public void onComplete(final OperationResult<Response, Exception> result) {
+        if (!result.isSuccessful()) {
+          callback.onComplete(OperationResult.<Response, Exception>failedResultOf(
+              new StitchRequestException(
+                  result.getFailure(), StitchRequestErrorCode.TRANSPORT_ERROR)));
+          return;
+        }
+
+        try {
+          inspectResponse(result.geResult());
+        } catch (final Exception e) {
+          callback.onComplete(OperationResult.<Response, Exception>failedResultOf(e));
+          return;
+        }
+        callback.onComplete(result);
+      }
+    });
+  }
+
   EventStream doStreamRequestUrl(final StitchRequest stitchReq, final String url) {
     try {
       return transport.stream(buildRequest(stitchReq, url));
@@ -19,14 +19,25 @@ package com.mongodb.stitch.core.internal.net;
 import java.io.EOFException;
 import java.io.IOException;
 
+import okio.Buffer;
+import okio.ByteString;
+
 /**
  * Interpreter for server-sent events.
  *
  * See https://www.w3.org/TR/2009/WD-eventsource-20090421/#event-stream-interpretation for
  * information on processing.
+ *
+ * Lines are interpreted as bytes: the value of a data field is moved from the line into the data
+ * buffer without being decoded, and each event's data is decoded to a string once, when the event
+ * is dispatched. The line and data buffers are reused from event to event.
  */
 public abstract class EventStreamReader {
-  private StringBuilder dataBuffer = new StringBuilder();
+  private static final ByteString DATA_FIELD = ByteString.encodeUtf8("data");
+  private static final ByteString EVENT_FIELD = ByteString.encodeUtf8("event");
+
+  private final Buffer lineBuffer = new Buffer();
+  private final Buffer dataBuffer = new Buffer();
   private String eventName = "";
   private boolean doneOnce;
 
@@ -42,39 +53,46 @@ public abstract class EventStreamReader {
   protected abstract boolean isOpen() throws IOException;
 
   /**
-   * Read the next line of a stream from a given source.
-   * @return the next utf8 line
+   * Read the next line of a stream from a given source into the given buffer, without its line
+   * terminator.
+   *
+   * @param sink the buffer to write the line to
    * @throws IOException if a stream is in the wrong state, IO errors can be thrown
    */
-  protected abstract String readLine() throws IOException;
+  protected abstract void readLine(final Buffer sink) throws IOException;
 
-  private void processField(final String field, final String value) {
+  private void processField(final long fieldLength) throws IOException {
+    // If the field name is "data"
+    if (fieldLength == DATA_FIELD.size() && lineBuffer.rangeEquals(0, DATA_FIELD)) {
+      skipFieldName(fieldLength);
+      // If the data buffer is not the empty string, then append a single U+000A LINE FEED
+      // character to the data buffer.
+      if (dataBuffer.size() != 0) {
+        dataBuffer.writeByte('\n');
+      }
+      dataBuffer.write(lineBuffer, lineBuffer.size());
     // If the field name is "event"
-    switch (field) {
-      case "event":
-        eventName = value;
-        break;
-      // If the field name is "data"
-      case "data":
-        // If the data buffer is not the empty string, then append a single U+000A LINE FEED
-        // character to the data buffer.
-        if (dataBuffer.length() != 0) {
-          dataBuffer.append('\n');
-        }
-        dataBuffer.append(value);
-        break;
-      // If the field name is "id"
-      case "id":
-        // NOT IMPLEMENTED
-        break;
-      // If the field name is "retry"
-      case "retry":
-        // NOT IMPLEMENTED
-        break;
-      // Otherwise
-      default:
-        // The field is ignored.
-        break;
+    } else if (fieldLength == EVENT_FIELD.size() && lineBuffer.rangeEquals(0, EVENT_FIELD)) {
+      skipFieldName(fieldLength);
+      eventName = lineBuffer.readUtf8();
+    // If the field name is "id" or "retry": NOT IMPLEMENTED
+    // Otherwise, the field is ignored.
+    } else {
+      lineBuffer.clear();
+    }
+  }
+
+  /**
+   * Skips the field name of the line, the U+003A COLON character (':') after it if any, and a
+   * single U+0020 SPACE character after that if any, leaving the field value in the line buffer.
+   */
+  private void skipFieldName(final long fieldLength) throws IOException {
+    lineBuffer.skip(fieldLength);
+    if (lineBuffer.size() != 0) {
+      lineBuffer.skip(1);
+    }
+    if (lineBuffer.size() != 0 && lineBuffer.getByte(0) == ' ') {
+      lineBuffer.skip(1);
     }
   }
 
@@ -85,22 +103,22 @@ public abstract class EventStreamReader {
    */
   protected final Event processEvent() throws IOException {
     while (true) {
-      String line;
+      lineBuffer.clear();
       try {
-        line = readLine();
+        readLine(lineBuffer);
       } catch (final EOFException ex) {
         if (doneOnce) {
           throw ex;
         }
         doneOnce = true;
-        line = "";
+        lineBuffer.clear();
       }
 
       // If the line is empty (a blank line), Dispatch the event, as defined below.
-      if (line.isEmpty()) {
+      if (lineBuffer.size() == 0) {
         // If the data buffer is an empty string, set the data buffer and the event name buffer to
         // the empty string and abort these steps.
-        if (dataBuffer.length() == 0) {
+        if (dataBuffer.size() == 0) {
           eventName = "";
           continue;
         }
@@ -111,35 +129,24 @@ public abstract class EventStreamReader {
 
         final Event.Builder eventBuilder = new Event.Builder();
         eventBuilder.withEventName(eventName.isEmpty() ? Event.MESSAGE_EVENT : eventName);
-        eventBuilder.withData(dataBuffer.toString());
+        // Reading the data buffer sets it to the empty string.
+        eventBuilder.withData(dataBuffer.readUtf8());
 
-        // Set the data buffer and the event name buffer to the empty string.
-        dataBuffer = new StringBuilder();
+        // Set the event name buffer to the empty string.
         eventName = "";
 
         return eventBuilder.build();
         // If the line starts with a U+003A COLON character (':')
-      } else if (line.startsWith(":")) {
+      } else if (lineBuffer.getByte(0) == ':') {
         // ignore the line
-        // If the line contains a U+003A COLON character (':') character
-      } else if (line.contains(":")) {
-        // Collect the characters on the line before the first U+003A COLON character (':'),
-        // and let field be that string.
-        final int colonIdx = line.indexOf(":");
-        final String field = line.substring(0, colonIdx);
-
-        // Collect the characters on the line after the first U+003A COLON character (':'),
-        // and let value be that string.
-        // If value starts with a single U+0020 SPACE character, remove it from value.
-        String value = line.substring(colonIdx + 1);
-        value = value.startsWith(" ") ? value.substring(1) : value;
-
-        processField(field, value);
-      // Otherwise, the string is not empty but does not contain a U+003A COLON character (':')
-      // character
-      } else {
-        processField(line, "");
+        continue;
       }
+
+      // Collect the characters on the line before the first U+003A COLON character (':'),
+      // and let field be that string. Otherwise, the string is not empty but does not contain a
+      // U+003A COLON character (':') character, and the whole line is the field.
+      final long colonIdx = lineBuffer.indexOf((byte) ':');
+      processField(colonIdx == -1 ? lineBuffer.size() : colonIdx);
     }
   }
 }
@@ -16,10 +16,12 @@
 
 package com.mongodb.stitch.core.internal.net;
 
+import java.io.EOFException;
 import java.io.IOException;
 
 import okhttp3.Call;
 import okhttp3.Response;
+import okio.Buffer;
 import okio.BufferedSource;
 
 public class OkHttpEventStream extends EventStreamReader implements EventStream {
@@ -43,8 +45,15 @@ public class OkHttpEventStream extends EventStreamReader implements EventStream
   }
 
   @Override
-  protected String readLine() throws IOException {
-    return this.source.readUtf8LineStrict();
+  protected void readLine(final Buffer sink) throws IOException {
+    final long newlineIdx = this.source.indexOf((byte) '\n');
+    if (newlineIdx == -1) {
+      throw new EOFException();
+    }
+    final long lineLength = newlineIdx > 0 && this.source.buffer().getByte(newlineIdx - 1) == '\r'
+        ? newlineIdx - 1 : newlineIdx;
+    this.source.readFully(sink, lineLength);
+    this.source.skip(newlineIdx + 1 - lineLength);
   }
 
   @Override
@@ -18,11 +18,13 @@ package com.mongodb.stitch.core.internal.net;
 
 import com.mongodb.stitch.core.StitchRequestErrorCode;
 import com.mongodb.stitch.core.StitchRequestException;
+import com.mongodb.stitch.core.internal.common.OperationResult;
 import com.mongodb.stitch.core.internal.common.StitchError;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -30,7 +32,11 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Headers;
+import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
@@ -40,10 +46,65 @@ import okhttp3.ResponseBody;
 public class OkHttpTransport implements Transport {
   private static final int STREAM_TIMEOUT_MILLISECONDS = 60000;
 
+  /**
+   * The default maximum number of idle connections to keep in the connection pool.
+   */
+  public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+
+  /**
+   * The default number of milliseconds to keep an idle connection in the connection pool.
+   */
+  public static final long DEFAULT_CONNECTION_KEEP_ALIVE_DURATION = 5 * 60 * 1000L;
+
   private final OkHttpClient client;
 
   public OkHttpTransport() {
-    this.client = new OkHttpClient();
+    this(false, DEFAULT_MAX_IDLE_CONNECTIONS, DEFAULT_CONNECTION_KEEP_ALIVE_DURATION);
+  }
+
+  /**
+   * Constructs a transport.
+   *
+   * @param http2Enabled whether or not to use HTTP/2 with servers that support it, which
+   *                     multiplexes all requests and streams to a host over a single connection.
+   * @param maxIdleConnections the maximum number of idle connections to keep in the pool.
+   * @param connectionKeepAliveDuration the number of milliseconds to keep an idle connection in
+   *                                    the pool.
+   */
+  public OkHttpTransport(
+      final boolean http2Enabled,
+      final int maxIdleConnections,
+      final long connectionKeepAliveDuration
+  ) {
+    this(new OkHttpClient.Builder(),
+        http2Enabled,
+        maxIdleConnections,
+        connectionKeepAliveDuration);
+  }
+
+  protected OkHttpTransport(
+      final OkHttpClient.Builder clientBuilder,
+      final boolean http2Enabled,
+      final int maxIdleConnections,
+      final long connectionKeepAliveDuration
+  ) {
+    // all requests go to the same Stitch host, so let it have as many asynchronous calls in
+    // flight as the client as a whole; calls beyond that wait in the dispatcher's queue without
+    // holding a thread
+    final Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequestsPerHost(dispatcher.getMaxRequests());
+
+    // a single client is shared by all requests so that they share its connection pool, and
+    // the timeouts of each request are applied to its call by an interceptor
+    this.client = clientBuilder
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(
+            maxIdleConnections, connectionKeepAliveDuration, TimeUnit.MILLISECONDS))
+        .protocols(http2Enabled
+            ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+            : Collections.singletonList(Protocol.HTTP_1_1))
+        .addInterceptor(new CallTimeoutsInterceptor())
+        .build();
   }
 
   public void close() {
@@ -51,11 +112,15 @@ public class OkHttpTransport implements Transport {
     client.connectionPool().evictAll();
   }
 
-  private static okhttp3.Request buildRequest(final Request request) {
+  private static okhttp3.Request buildRequest(
+      final Request request,
+      final CallTimeouts timeouts
+  ) {
     final okhttp3.Request.Builder reqBuilder =
         new okhttp3.Request.Builder()
             .url(request.getUrl())
-            .headers(Headers.of(request.getHeaders()));
+            .headers(Headers.of(request.getHeaders()))
+            .tag(CallTimeouts.class, timeouts);
     if (request.getBody() != null) {
       String contentType =
           request.getHeaders().get(com.mongodb.stitch.core.internal.net.Headers.CONTENT_TYPE);
@@ -94,14 +159,37 @@ public class OkHttpTransport implements Transport {
     return new Response(statusCode, headers, bodyStream);
   }
 
-  protected OkHttpClient.Builder newClientBuilder(final long connectTimeout,
-                                                  final long readTimeout,
-                                                  final long writeTimeout) {
-    return this.client.newBuilder()
-        .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
-        .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
-        .writeTimeout(writeTimeout, TimeUnit.MILLISECONDS)
-        .protocols(Collections.singletonList(Protocol.HTTP_1_1));
+  /**
+   * The timeouts of a single call, in milliseconds. A timeout of zero means no timeout.
+   */
+  private static final class CallTimeouts {
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int writeTimeout;
+
+    CallTimeouts(final long connectTimeout, final long readTimeout, final long writeTimeout) {
+      this.connectTimeout = (int) Math.min(connectTimeout, Integer.MAX_VALUE);
+      this.readTimeout = (int) Math.min(readTimeout, Integer.MAX_VALUE);
+      this.writeTimeout = (int) Math.min(writeTimeout, Integer.MAX_VALUE);
+    }
+  }
+
+  /**
+   * Applies the {@link CallTimeouts} a request is tagged with to its call.
+   */
+  private static final class CallTimeoutsInterceptor implements Interceptor {
+    @Override
+    public okhttp3.Response intercept(final Chain chain) throws IOException {
+      final CallTimeouts timeouts = chain.request().tag(CallTimeouts.class);
+      if (timeouts == null) {
+        return chain.proceed(chain.request());
+      }
+      return chain
+          .withConnectTimeout(timeouts.connectTimeout, TimeUnit.MILLISECONDS)
+          .withReadTimeout(timeouts.readTimeout, TimeUnit.MILLISECONDS)
+          .withWriteTimeout(timeouts.writeTimeout, TimeUnit.MILLISECONDS)
+          .proceed(chain.request());
+    }
   }
 
   @Override
@@ -111,25 +199,60 @@ public class OkHttpTransport implements Transport {
       throw new StitchRequestException(String.format("body was %d bytes", request.getBody().length),
         StitchRequestErrorCode.REQUEST_SIZE_ERROR);
     }
-    final OkHttpClient reqClient = newClientBuilder(
-        request.getTimeout(), request.getTimeout(), request.getTimeout()
-    ).build();
-    return handleResponse(reqClient.newCall(buildRequest(request)).execute());
+    final CallTimeouts timeouts =
+        new CallTimeouts(request.getTimeout(), request.getTimeout(), request.getTimeout());
+    return handleResponse(client.newCall(buildRequest(request, timeouts)).execute());
+  }
+
+  @Override
+  // This enqueues a request to be executed by the client's dispatcher
+  public void roundTripAsync(
+      final Request request,
+      final com.mongodb.stitch.core.internal.common.Callback<Response, Exception> callback
+  ) {
+    if (request.getBody() != null && request.getBody().length >= MAX_REQUEST_SIZE) {
+      callback.onComplete(OperationResult.<Response, Exception>failedResultOf(
+          new StitchRequestException(
+              String.format("body was %d bytes", request.getBody().length),
+              StitchRequestErrorCode.REQUEST_SIZE_ERROR)));
+      return;
+    }
+    final CallTimeouts timeouts =
+        new CallTimeouts(request.getTimeout(), request.getTimeout(), request.getTimeout());
+    client.newCall(buildRequest(request, timeouts)).enqueue(new Callback() {
+      @Override
+      public void onFailure(final Call call, final IOException ex) {
+        callback.onComplete(OperationResult.<Response, Exception>failedResultOf(ex));
+      }
+
+      @Override
+      public void onResponse(final Call call, final okhttp3.Response response) {
+        callback.onComplete(
+            OperationResult.<Response, Exception>successfulResultOf(handleResponse(response)));
+      }
+    });
   }
 
   @Override
   public EventStream stream(final Request request) throws IOException {
-    request.getHeaders().put(
-        com.mongodb.stitch.core.internal.net.Headers.CONTENT_TYPE,
-        ContentTypes.TEXT_EVENT_STREAM);
+    if (request.getBody() != null && request.getBody().length >= MAX_REQUEST_SIZE) {
+      throw new StitchRequestException(String.format("body was %d bytes", request.getBody().length),
+        StitchRequestErrorCode.REQUEST_SIZE_ERROR);
+    }
+    // a stream opened with a body keeps the content type of its body
+    if (request.getBody() == null) {
+      request.getHeaders().put(
+          com.mongodb.stitch.core.internal.net.Headers.CONTENT_TYPE,
+          ContentTypes.TEXT_EVENT_STREAM);
+    }
     request.getHeaders().put(
         com.mongodb.stitch.core.internal.net.Headers.ACCEPT,
         ContentTypes.TEXT_EVENT_STREAM);
 
     try {
-      final okhttp3.Request httpRequest = buildRequest(request);
-      final Call call = newClientBuilder(STREAM_TIMEOUT_MILLISECONDS, 0,0)
-          .build().newCall(httpRequest);
+      final okhttp3.Request httpRequest =
+          buildRequest(request, new CallTimeouts(STREAM_TIMEOUT_MILLISECONDS, 0, 0));
+      final Call call = client.newCall(httpRequest);
       final okhttp3.Response response = call.execute();
 
       final Response transportResponse = handleResponse(response);
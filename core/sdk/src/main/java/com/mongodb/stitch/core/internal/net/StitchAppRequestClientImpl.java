@@ -18,7 +18,9 @@ package com.mongodb.stitch.core.internal.net;
 
 import com.mongodb.stitch.core.StitchRequestErrorCode;
 import com.mongodb.stitch.core.StitchRequestException;
+import com.mongodb.stitch.core.internal.common.Callback;
 import com.mongodb.stitch.core.internal.common.IoUtils;
+import com.mongodb.stitch.core.internal.common.OperationResult;
 import com.mongodb.stitch.core.internal.common.StitchObjectMapper;
 
 import java.io.IOException;
@@ -55,6 +57,48 @@ public class StitchAppRequestClientImpl extends BaseStitchRequestClient {
     return super.doRequestUrl(stitchReq, getHostname());
   }
 
+  /**
+   * Performs a request against a Stitch app server determined by the deployment model
+   * of the underlying app without blocking the calling thread. If the app metadata has not been
+   * fetched yet, it is fetched asynchronously first.
+   *
+   * @param stitchReq the request to perform.
+   * @param callback the callback to complete with the response, or with the failure.
+   */
+  @Override
+  public void doRequestAsync(
+      final StitchRequest stitchReq,
+      final Callback<Response, Exception> callback
+  ) {
+    final String hostname = getHostnameIfKnown();
+    if (hostname != null) {
+      super.doRequestUrlAsync(stitchReq, hostname, callback);
+      return;
+    }
+
+    super.doRequestUrlAsync(
+        newBootstrapRequest(clientAppId),
+        baseUrl,
+        new Callback<Response, Exception>() {
+          @Override
+          public void onComplete(final OperationResult<Response, Exception> result) {
+            if (!result.isSuccessful()) {
+              callback.onComplete(result);
+              return;
+            }
+
+            try {
+              setAppMetadata(readAppMetadata(result.geResult()));
+            } catch (final Exception e) {
+              callback.onComplete(OperationResult.<Response, Exception>failedResultOf(e));
+              return;
+            }
+            StitchAppRequestClientImpl.super.doRequestUrlAsync(
+                stitchReq, getHostname(), callback);
+          }
+        });
+  }
+
   /**
    * Performs a streaming request against a Stitch app server determined by the deployment model
    * of the underlying app. Throws a Stitch specific exception if the request fails.
@@ -73,19 +117,35 @@ public class StitchAppRequestClientImpl extends BaseStitchRequestClient {
     return appMetadata.hostname;
   }
 
+  private synchronized String getHostnameIfKnown() {
+    return appMetadata == null ? null : appMetadata.hostname;
+  }
+
+  private synchronized void setAppMetadata(final ApiAppMetadata appMetadata) {
+    if (this.appMetadata == null) {
+      this.appMetadata = appMetadata;
+    }
+  }
+
   private synchronized void initAppMetadata(final String clientAppId) {
     if (appMetadata != null) {
       return;
     }
 
+    final Response response = super.doRequestUrl(newBootstrapRequest(clientAppId), baseUrl);
+    appMetadata = readAppMetadata(response);
+  }
+
+  private static StitchRequest newBootstrapRequest(final String clientAppId) {
     final StitchAppRoutes routes = new StitchAppRoutes(clientAppId);
 
-    final StitchRequest bootstrapStitchRequest = new StitchRequest.Builder()
+    return new StitchRequest.Builder()
         .withMethod(Method.GET)
         .withPath(routes.getServiceRoutes().getLocationRoute())
         .build();
+  }
 
-    final Response response = super.doRequestUrl(bootstrapStitchRequest, baseUrl);
+  private static ApiAppMetadata readAppMetadata(final Response response) {
     final ApiAppMetadata responseMetadata;
     try {
       responseMetadata = StitchObjectMapper.getInstance()
@@ -97,12 +157,11 @@ public class StitchAppRequestClientImpl extends BaseStitchRequestClient {
 
     if (responseMetadata != null && responseMetadata.hostname != null
         && !"".equals(responseMetadata.hostname.trim())) {
-      appMetadata = responseMetadata;
-    } else {
-      throw new StitchRequestException(
-          String.format(BOOTSTRAP_ERROR_MESSAGE_INVALID_HOSTNAME,
-              appMetadata == null ? "null" : appMetadata),
-          StitchRequestErrorCode.BOOTSTRAP_ERROR);
+      return responseMetadata;
     }
+    throw new StitchRequestException(
+        String.format(BOOTSTRAP_ERROR_MESSAGE_INVALID_HOSTNAME,
+            responseMetadata == null ? "null" : responseMetadata),
+        StitchRequestErrorCode.BOOTSTRAP_ERROR);
   }
 }
@@ -28,15 +28,30 @@ import org.bson.codecs.configuration.CodecRegistry;
 
 public final class StitchAuthDocRequest extends StitchAuthRequest {
   private final Document document;
+  private final CodecRegistry codecRegistry;
+  private final boolean useBsonBody;
 
   public StitchAuthDocRequest(final StitchAuthRequest request, final Document document) {
-    super(request);
-    this.document = document;
+    this(request, document, BsonUtils.DEFAULT_CODEC_REGISTRY, false);
   }
 
   public StitchAuthDocRequest(final StitchRequest request, final Document document) {
     super(request, false);
     this.document = document;
+    this.codecRegistry = BsonUtils.DEFAULT_CODEC_REGISTRY;
+    this.useBsonBody = false;
+  }
+
+  private StitchAuthDocRequest(
+      final StitchAuthRequest request,
+      final Document document,
+      final CodecRegistry codecRegistry,
+      final boolean useBsonBody
+  ) {
+    super(request);
+    this.document = document;
+    this.codecRegistry = codecRegistry;
+    this.useBsonBody = useBsonBody;
   }
 
   public Builder builder() {
@@ -47,8 +62,22 @@ public final class StitchAuthDocRequest extends StitchAuthRequest {
     return document;
   }
 
+  /**
+   * Returns whether or not the document is sent as binary BSON rather than as extended JSON.
+   *
+   * @return whether or not the document is sent as binary BSON.
+   */
+  public boolean getUseBsonBody() {
+    return useBsonBody;
+  }
+
   public static class Builder extends StitchAuthRequest.Builder {
     private Document document;
+    private CodecRegistry codecRegistry;
+    private boolean useBsonBody;
+    // the request this builder was made from, whose encoded body can be reused if the document
+    // and how it is encoded do not change
+    private StitchAuthDocRequest encodedRequest;
 
     /**
      * Constructs a new builder.
@@ -58,6 +87,9 @@ public final class StitchAuthDocRequest extends StitchAuthRequest {
     Builder(final StitchAuthDocRequest request) {
       super(request);
       document = request.document;
+      codecRegistry = request.codecRegistry;
+      useBsonBody = request.useBsonBody;
+      encodedRequest = request;
     }
 
     /**
@@ -80,6 +112,18 @@ public final class StitchAuthDocRequest extends StitchAuthRequest {
       return this.document;
     }
 
+    /**
+     * Sets whether or not the document should be sent as binary BSON rather than as extended
+     * JSON. This should only be set if the server is known to accept BSON request bodies.
+     *
+     * @param useBsonBody whether or not to send the document as binary BSON.
+     * @return the builder.
+     */
+    public Builder withBsonBody(final boolean useBsonBody) {
+      this.useBsonBody = useBsonBody;
+      return this;
+    }
+
     /**
      * Set if this request should use an access token in this request.
      *
@@ -163,7 +207,8 @@ public final class StitchAuthDocRequest extends StitchAuthRequest {
      * @return the built {@link StitchAuthDocRequest}.
      */
     public StitchAuthDocRequest build() {
-      return this.build(BsonUtils.DEFAULT_CODEC_REGISTRY);
+      return this.build(
+          codecRegistry == null ? BsonUtils.DEFAULT_CODEC_REGISTRY : codecRegistry);
     }
 
     /**
@@ -180,14 +225,28 @@ public final class StitchAuthDocRequest extends StitchAuthRequest {
       if (getHeaders() == null) {
         withHeaders(new HashMap<String, String>());
       }
-      getHeaders().put(Headers.CONTENT_TYPE, ContentTypes.APPLICATION_JSON);
+      getHeaders().put(
+          Headers.CONTENT_TYPE,
+          useBsonBody ? ContentTypes.APPLICATION_BSON : ContentTypes.APPLICATION_JSON);
+      if (encodedRequest == null
+          || encodedRequest.document != document
+          || encodedRequest.codecRegistry != codecRegistry
+          || encodedRequest.useBsonBody != useBsonBody) {
+        withBody(encodeDocument(codecRegistry));
+      }
+      return new StitchAuthDocRequest(super.build(), document, codecRegistry, useBsonBody);
+    }
+
+    private byte[] encodeDocument(final CodecRegistry codecRegistry) {
       try {
-        withBody(StitchObjectMapper.getInstance()
-            .withCodecRegistry(codecRegistry).writeValueAsBytes(document));
-      } catch (final JsonProcessingException e) {
+        if (useBsonBody) {
+          return BsonUtils.toBsonBytes(document, codecRegistry.get(Document.class));
+        }
+        return StitchObjectMapper.getInstance()
+            .withCodecRegistry(codecRegistry).writeValueAsBytes(document);
+      } catch (final JsonProcessingException | RuntimeException e) {
         throw new StitchRequestException(e, StitchRequestErrorCode.ENCODING_ERROR);
       }
-      return new StitchAuthDocRequest(super.build(), document);
     }
   }
 
@@ -62,43 +62,7 @@ public final class StitchEvent<T> {
       return;
     }
 
-    final StringBuilder decodedStringBuilder = new StringBuilder(data.length());
-    for (int chIdx = 0; chIdx < data.length(); chIdx++) {
-      final char c = data.charAt(chIdx);
-      switch (c) {
-        case '%':
-          if (chIdx + 2 >= data.length()) {
-            break;
-          }
-          final String code = data.substring(chIdx + 1, chIdx + 3);
-          final boolean found;
-          switch (code) {
-            case "25":
-              found = true;
-              decodedStringBuilder.append("%");
-              break;
-            case "0A":
-              found = true;
-              decodedStringBuilder.append("\n");
-              break;
-            case "0D":
-              found = true;
-              decodedStringBuilder.append("\r");
-              break;
-            default:
-              found = false;
-          }
-          if (found) {
-            chIdx += 2;
-            continue;
-          }
-          break;
-        default:
-          break;
-      }
-      decodedStringBuilder.append(c);
-    }
-    final String decodedData = decodedStringBuilder.toString();
+    final String decodedData = decodeData(data);
 
     switch (this.eventName) {
       case ERROR_EVENT_NAME:
@@ -132,6 +96,47 @@ public final class StitchEvent<T> {
     }
   }
 
+  /**
+   * Decodes the %25, %0A, and %0D escapes Stitch uses for '%', '\n', and '\r' in event data.
+   * Data without escapes is returned as is; otherwise it is decoded in place in a single copy of
+   * its characters.
+   */
+  static String decodeData(final String data) {
+    int readIdx = data.indexOf('%');
+    if (readIdx == -1) {
+      return data;
+    }
+
+    final char[] chars = data.toCharArray();
+    int writeIdx = readIdx;
+    while (readIdx < chars.length) {
+      final char c = chars[readIdx++];
+      if (c == '%' && readIdx + 1 < chars.length) {
+        final char decoded = decodeEscape(chars[readIdx], chars[readIdx + 1]);
+        if (decoded != 0) {
+          chars[writeIdx++] = decoded;
+          readIdx += 2;
+          continue;
+        }
+      }
+      chars[writeIdx++] = c;
+    }
+    return new String(chars, 0, writeIdx);
+  }
+
+  private static char decodeEscape(final char first, final char second) {
+    if (first == '2' && second == '5') {
+      return '%';
+    }
+    if (first == '0' && second == 'A') {
+      return '\n';
+    }
+    if (first == '0' && second == 'D') {
+      return '\r';
+    }
+    return 0;
+  }
+
   /**
    * Convert a SSE to a Stitch SSE
    * @param event SSE to convert
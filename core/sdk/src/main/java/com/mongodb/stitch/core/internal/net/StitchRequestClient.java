@@ -16,6 +16,8 @@
 
 package com.mongodb.stitch.core.internal.net;
 
+import com.mongodb.stitch.core.internal.common.Callback;
+
 public interface StitchRequestClient {
   /**
    * Performs a request against some Stitch server. Throws a Stitch specific exception
@@ -25,6 +27,15 @@ public interface StitchRequestClient {
    */
   Response doRequest(final StitchRequest stitchReq);
 
+  /**
+   * Performs a request against some Stitch server without blocking the calling thread. The
+   * callback is completed with the response, or with a Stitch specific exception if the request
+   * fails.
+   * @param stitchReq the request to perform.
+   * @param callback the callback to complete with the response, or with the failure.
+   */
+  void doRequestAsync(final StitchRequest stitchReq, final Callback<Response, Exception> callback);
+
 
   /**
    * Performs a streaming request against some Stitch server. Throws a Stitch-specific
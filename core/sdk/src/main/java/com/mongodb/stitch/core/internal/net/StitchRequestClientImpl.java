@@ -16,6 +16,8 @@
 
 package com.mongodb.stitch.core.internal.net;
 
+import com.mongodb.stitch.core.internal.common.Callback;
+
 public class StitchRequestClientImpl extends BaseStitchRequestClient {
   /**
    * Constructs a StitchRequestClientImpl with the provided parameters.
@@ -42,6 +44,19 @@ public class StitchRequestClientImpl extends BaseStitchRequestClient {
     return doRequestUrl(stitchReq, baseUrl);
   }
 
+  /**
+   * Performs a request against global Stitch app server without blocking the calling thread.
+   * @param stitchReq the request to perform.
+   * @param callback the callback to complete with the response, or with the failure.
+   */
+  @Override
+  public void doRequestAsync(
+      final StitchRequest stitchReq,
+      final Callback<Response, Exception> callback
+  ) {
+    doRequestUrlAsync(stitchReq, baseUrl, callback);
+  }
+
   /**
    * Performs a streaming request against global Stitch app server. Throws a Stitch-specific
    * exception if the request fails.
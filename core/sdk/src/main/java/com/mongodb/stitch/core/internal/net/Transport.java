@@ -16,6 +16,8 @@
 
 package com.mongodb.stitch.core.internal.net;
 
+import com.mongodb.stitch.core.internal.common.Callback;
+
 import java.io.IOException;
 
 public interface Transport {
@@ -25,6 +27,15 @@ public interface Transport {
 
   Response roundTrip(Request request) throws Exception;
 
+  /**
+   * Performs the request without blocking the calling thread, and completes the callback with
+   * the response or the failure once the round trip is done.
+   *
+   * @param request the request to perform.
+   * @param callback the callback to complete with the response, or with the failure.
+   */
+  void roundTripAsync(Request request, Callback<Response, Exception> callback);
+
   EventStream stream(Request request) throws IOException;
 
   void close();
@@ -16,6 +16,8 @@
 
 package com.mongodb.stitch.core.services.internal;
 
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.CloseableIterator;
 import com.mongodb.stitch.core.internal.net.Stream;
 
 import java.io.IOException;
@@ -73,6 +75,44 @@ public interface CoreStitchServiceClient extends StitchServiceBinder {
       final Class<T> resultClass,
       final CodecRegistry codecRegistry);
 
+  /**
+   * Calls a function whose result is an array, and returns an iterator that decodes the elements
+   * of the array as they are read from the response. The iterator should be closed if it is not
+   * iterated to its end.
+   */
+  <T> CloseableIterator<T> callFunctionForIterator(
+      final String name,
+      final List<?> args,
+      final Decoder<T> elementDecoder);
+
+  void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Callback<Void, Exception> callback);
+
+  <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Decoder<T> resultDecoder,
+      final Callback<T, Exception> callback);
+
+  <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<T> resultClass,
+      final Callback<T, Exception> callback);
+
+  <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<T> resultClass,
+      final CodecRegistry codecRegistry,
+      final Callback<T, Exception> callback);
+
   <T> Stream<T> streamFunction(String name,
                                List<?> args,
                                Decoder<T> decoder) throws IOException, InterruptedException;
@@ -81,6 +121,45 @@ public interface CoreStitchServiceClient extends StitchServiceBinder {
 
   CoreStitchServiceClient withCodecRegistry(final CodecRegistry codecRegistry);
 
+  /**
+   * Returns a copy of this service client that collects the function calls made within the given
+   * window of each other, and sends them to Stitch in a single request. Calls that specify a
+   * request timeout are sent on their own.
+   *
+   * @param windowMillis how long in milliseconds to wait for more calls after the first call of a
+   *                     batch is made.
+   */
+  CoreStitchServiceClient withRequestBatching(final long windowMillis);
+
+  /**
+   * Returns a new batch in which function calls of this service can be queued and then sent to
+   * Stitch in a single request.
+   */
+  FunctionCallBatch newFunctionCallBatch();
+
+  /**
+   * Returns a copy of this service client whose calls of idempotent functions share their
+   * results through the given coalescer.
+   *
+   * @param coalescer the coalescer that shares the results of identical calls.
+   */
+  CoreStitchServiceClient withCallCoalescing(final FunctionCallCoalescer coalescer);
+
+  /**
+   * Returns the coalescer that shares the results of identical calls made through this service
+   * client, or null if calls are not shared.
+   */
+  @Nullable
+  FunctionCallCoalescer getCallCoalescer();
+
+  /**
+   * Returns a copy of this service client that opens a stream whose function call is too long to
+   * be encoded into a URL with a POST carrying the call in its body. This must only be used with
+   * a server that answers such a POST with a stream of server-sent events; by default, streams
+   * are always opened with a GET.
+   */
+  CoreStitchServiceClient withPostedStreamRequests();
+
   /**
    * Bind a given service to this service client.
    *
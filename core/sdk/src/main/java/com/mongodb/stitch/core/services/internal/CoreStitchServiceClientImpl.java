@@ -18,7 +18,15 @@ package com.mongodb.stitch.core.services.internal;
 
 import static com.mongodb.stitch.core.internal.common.Assertions.notNull;
 
+import com.mongodb.stitch.core.StitchRequestErrorCode;
+import com.mongodb.stitch.core.StitchRequestException;
 import com.mongodb.stitch.core.auth.internal.StitchAuthRequestClient;
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.CloseableIterator;
+import com.mongodb.stitch.core.internal.common.IoUtils;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+import com.mongodb.stitch.core.internal.net.Response;
 import com.mongodb.stitch.core.internal.net.Method;
 import com.mongodb.stitch.core.internal.net.StitchAuthDocRequest;
 import com.mongodb.stitch.core.internal.net.StitchAuthRequest;
@@ -29,22 +37,41 @@ import java.lang.ref.WeakReference;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.bson.BsonArray;
+import org.bson.BsonValue;
 import org.bson.Document;
+import org.bson.codecs.BsonValueCodec;
 import org.bson.codecs.Decoder;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.internal.Base64;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
 
 public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
+  private static final BsonValueCodec BSON_VALUE_CODEC = new BsonValueCodec();
+  private static final JsonWriterSettings CALL_KEY_WRITER_SETTINGS =
+      JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+  // The longest encoded function call that a stream request carries in its URL.
+  static final int MAX_STREAM_REQUEST_QUERY_LENGTH = 4096;
+
   private final StitchAuthRequestClient requestClient;
   private final StitchServiceRoutes serviceRoutes;
   private final String serviceName;
   private final CodecRegistry codecRegistry;
   private final ConcurrentMap<WeakReference<StitchServiceBinder>, Boolean> serviceBinders;
   private final ConcurrentMap<WeakReference<Stream<?>>, Boolean> allocatedStreams;
+  @Nullable private final FunctionCallBatcher batcher;
+  @Nullable private final FunctionCallCoalescer coalescer;
+  private final boolean postStreamRequests;
 
   public CoreStitchServiceClientImpl(
       final StitchAuthRequestClient requestClient,
@@ -59,6 +86,18 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final StitchServiceRoutes routes,
       final String name,
       final CodecRegistry codecRegistry
+  ) {
+    this(requestClient, routes, name, codecRegistry, 0, null, false);
+  }
+
+  private CoreStitchServiceClientImpl(
+      final StitchAuthRequestClient requestClient,
+      final StitchServiceRoutes routes,
+      final String name,
+      final CodecRegistry codecRegistry,
+      final long batchWindowMillis,
+      @Nullable final FunctionCallCoalescer coalescer,
+      final boolean postStreamRequests
   ) {
     notNull("codecRegistry", codecRegistry);
     this.requestClient = requestClient;
@@ -67,22 +106,35 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
     this.codecRegistry = codecRegistry;
     this.serviceBinders = new ConcurrentHashMap<>();
     this.allocatedStreams = new ConcurrentHashMap<>();
+    this.batcher = batchWindowMillis > 0
+        ? new FunctionCallBatcher(requestClient, routes, name, codecRegistry, batchWindowMillis)
+        : null;
+    this.coalescer = coalescer;
+    this.postStreamRequests = postStreamRequests;
   }
 
+  /**
+   * Returns the request opening a stream of the results of the given function. Its call is
+   * encoded into the query string of a GET, unless streams may be opened with a POST and that
+   * would make the URL longer than {@value #MAX_STREAM_REQUEST_QUERY_LENGTH} characters, as it
+   * would for a watch of thousands of documents; then the call is sent as the body of a POST.
+   */
   private StitchAuthRequest getStreamServiceFunctionRequest(
       final String name,
       final List<?> args) {
-    final Document body = new Document();
-    body.put(FunctionFields.NAME, name);
-    if (serviceName != null) {
-      body.put(FunctionFields.SERVICE, serviceName);
+    final Document body = FunctionCallBatch.getFunctionCallBody(name, serviceName, args);
+
+    final String encodedBody = Base64.encode(body.toJson().getBytes(StandardCharsets.UTF_8));
+    if (postStreamRequests && encodedBody.length() > MAX_STREAM_REQUEST_QUERY_LENGTH) {
+      final StitchAuthDocRequest.Builder reqBuilder = new StitchAuthDocRequest.Builder();
+      reqBuilder.withMethod(Method.POST).withPath(serviceRoutes.getFunctionCallRoute());
+      reqBuilder.withDocument(body);
+      return reqBuilder.build(codecRegistry);
     }
-    body.put(FunctionFields.ARGUMENTS, args);
 
     final StitchAuthRequest.Builder reqBuilder = new StitchAuthRequest.Builder();
     reqBuilder.withMethod(Method.GET).withPath(serviceRoutes.getFunctionCallRoute()
-        + (FunctionFields.STITCH_REQUEST
-        + Base64.encode(body.toJson().getBytes(StandardCharsets.UTF_8))));
+        + (FunctionFields.STITCH_REQUEST + encodedBody));
     return reqBuilder.build();
   }
 
@@ -90,16 +142,13 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final String name,
       final List<?> args,
       final @Nullable Long requestTimeout) {
-    final Document body = new Document();
-    body.put(FunctionFields.NAME, name);
-    if (serviceName != null) {
-      body.put(FunctionFields.SERVICE, serviceName);
-    }
-    body.put(FunctionFields.ARGUMENTS, args);
+    clearCachedResultsIfNotIdempotent(name);
+    final Document body = FunctionCallBatch.getFunctionCallBody(name, serviceName, args);
 
     final StitchAuthDocRequest.Builder reqBuilder = new StitchAuthDocRequest.Builder();
     reqBuilder.withMethod(Method.POST).withPath(serviceRoutes.getFunctionCallRoute());
     reqBuilder.withDocument(body);
+    reqBuilder.withBsonBody(requestClient.isBsonSupported());
     reqBuilder.withTimeout(requestTimeout);
     return reqBuilder.build(codecRegistry);
   }
@@ -113,23 +162,25 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final String name,
       final List<?> args
   ) {
-    requestClient.doAuthenticatedRequest(getCallServiceFunctionRequest(name, args, null));
+    try {
+      requestClient.doAuthenticatedRequest(getCallServiceFunctionRequest(name, args, null));
+    } finally {
+      clearCachedResultsIfNotIdempotent(name);
+    }
   }
 
   public <T> T callFunction(
       final String name,
       final List<?> args,
       final Decoder<T> resultDecoder) {
-    return requestClient.doAuthenticatedRequest(
-        getCallServiceFunctionRequest(name, args, null), resultDecoder);
+    return callFunction(name, args, null, resultDecoder);
   }
 
   public <T> T callFunction(
       final String name,
       final List<?> args,
       final Class<T> resultClass) {
-    return requestClient.doAuthenticatedRequest(
-        getCallServiceFunctionRequest(name, args, null), resultClass, codecRegistry);
+    return callFunction(name, args, null, resultClass, codecRegistry);
   }
 
   public <T> T callFunction(
@@ -137,8 +188,7 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final List<?> args,
       final Class<T> resultClass,
       final CodecRegistry codecRegistry) {
-    return requestClient.doAuthenticatedRequest(
-        getCallServiceFunctionRequest(name, args, null), resultClass, codecRegistry);
+    return callFunction(name, args, null, resultClass, codecRegistry);
   }
 
   public void callFunction(
@@ -146,7 +196,12 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final List<?> args,
       final @Nullable Long requestTimeout
   ) {
-    requestClient.doAuthenticatedRequest(getCallServiceFunctionRequest(name, args, requestTimeout));
+    try {
+      requestClient.doAuthenticatedRequest(
+          getCallServiceFunctionRequest(name, args, requestTimeout));
+    } finally {
+      clearCachedResultsIfNotIdempotent(name);
+    }
   }
 
   public <T> T callFunction(
@@ -154,8 +209,17 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final List<?> args,
       final @Nullable Long requestTimeout,
       final Decoder<T> resultDecoder) {
-    return requestClient.doAuthenticatedRequest(
-        getCallServiceFunctionRequest(name, args, requestTimeout), resultDecoder);
+    if (isSharedOrBatched(name, requestTimeout)) {
+      final PendingResult<T> pendingResult = new PendingResult<>();
+      callSharedOrBatchedFunction(name, args, resultDecoder, pendingResult);
+      return pendingResult.await();
+    }
+    try {
+      return requestClient.doAuthenticatedRequest(
+          getCallServiceFunctionRequest(name, args, requestTimeout), resultDecoder);
+    } finally {
+      clearCachedResultsIfNotIdempotent(name);
+    }
   }
 
   public <T> T callFunction(
@@ -163,8 +227,7 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final List<?> args,
       final @Nullable Long requestTimeout,
       final Class<T> resultClass) {
-    return requestClient.doAuthenticatedRequest(
-        getCallServiceFunctionRequest(name, args, requestTimeout), resultClass, codecRegistry);
+    return callFunction(name, args, requestTimeout, resultClass, codecRegistry);
   }
 
   public <T> T callFunction(
@@ -173,8 +236,119 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       final @Nullable Long requestTimeout,
       final Class<T> resultClass,
       final CodecRegistry codecRegistry) {
-    return requestClient.doAuthenticatedRequest(
-        getCallServiceFunctionRequest(name, args, requestTimeout), resultClass, codecRegistry);
+    if (isSharedOrBatched(name, requestTimeout)) {
+      return callFunction(name, args, null, getResultDecoder(resultClass, codecRegistry));
+    }
+    try {
+      return requestClient.doAuthenticatedRequest(
+          getCallServiceFunctionRequest(name, args, requestTimeout), resultClass, codecRegistry);
+    } finally {
+      clearCachedResultsIfNotIdempotent(name);
+    }
+  }
+
+  @Override
+  public void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Callback<Void, Exception> callback
+  ) {
+    requestClient.doAuthenticatedRequestAsync(
+        getCallServiceFunctionRequest(name, args, requestTimeout),
+        clearCachedResultsOnCompletionIfNotIdempotent(name, new Callback<Response, Exception>() {
+          @Override
+          public void onComplete(final OperationResult<Response, Exception> result) {
+            if (!result.isSuccessful()) {
+              callback.onComplete(
+                  OperationResult.<Void, Exception>failedResultOf(result.getFailure()));
+              return;
+            }
+            IoUtils.closeQuietly(result.geResult().getBody());
+            callback.onComplete(OperationResult.<Void, Exception>successfulResultOf(null));
+          }
+        }));
+  }
+
+  @Override
+  public <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Decoder<T> resultDecoder,
+      final Callback<T, Exception> callback
+  ) {
+    if (isSharedOrBatched(name, requestTimeout)) {
+      callSharedOrBatchedFunction(name, args, resultDecoder, callback);
+      return;
+    }
+    requestClient.doAuthenticatedRequestAsync(
+        getCallServiceFunctionRequest(name, args, requestTimeout),
+        resultDecoder,
+        clearCachedResultsOnCompletionIfNotIdempotent(name, callback));
+  }
+
+  @Override
+  public <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<T> resultClass,
+      final Callback<T, Exception> callback
+  ) {
+    callFunctionAsync(name, args, requestTimeout, resultClass, codecRegistry, callback);
+  }
+
+  @Override
+  public <T> void callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<T> resultClass,
+      final CodecRegistry codecRegistry,
+      final Callback<T, Exception> callback
+  ) {
+    if (isSharedOrBatched(name, requestTimeout)) {
+      final Decoder<T> resultDecoder;
+      try {
+        resultDecoder = getResultDecoder(resultClass, codecRegistry);
+      } catch (final Exception e) {
+        callback.onComplete(OperationResult.<T, Exception>failedResultOf(
+            new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR)));
+        return;
+      }
+      callSharedOrBatchedFunction(name, args, resultDecoder, callback);
+      return;
+    }
+    requestClient.doAuthenticatedRequestAsync(
+        getCallServiceFunctionRequest(name, args, requestTimeout),
+        resultClass,
+        codecRegistry,
+        clearCachedResultsOnCompletionIfNotIdempotent(name, callback));
+  }
+
+  @Override
+  public <T> CloseableIterator<T> callFunctionForIterator(
+      final String name,
+      final List<?> args,
+      final Decoder<T> elementDecoder
+  ) {
+    // results are only shared whole when they are being cached anyway, so that the elements of
+    // results that are not are still decoded as they arrive
+    if (coalescer != null && coalescer.isCaching() && coalescer.isIdempotent(name)) {
+      final PendingResult<BsonValue> pendingResult = new PendingResult<>();
+      callSharedFunction(name, args, pendingResult);
+      final BsonValue result = pendingResult.await();
+      return new ArrayIterator<>(
+          result == null || result.isNull() ? new BsonArray() : result.asArray(),
+          elementDecoder);
+    }
+    try {
+      return requestClient.doAuthenticatedRequestForIterator(
+          getCallServiceFunctionRequest(name, args, null), elementDecoder);
+    } finally {
+      clearCachedResultsIfNotIdempotent(name);
+    }
   }
 
   @Override
@@ -188,6 +362,11 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
     return newStream;
   }
 
+  @Override
+  public FunctionCallBatch newFunctionCallBatch() {
+    return new FunctionCallBatch(requestClient, serviceRoutes, serviceName, codecRegistry);
+  }
+
   public CodecRegistry getCodecRegistry() {
     return codecRegistry;
   }
@@ -197,7 +376,150 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
         requestClient,
         serviceRoutes,
         serviceName,
-        codecRegistry);
+        codecRegistry,
+        batcher == null ? 0 : batcher.getWindowMillis(),
+        coalescer,
+        postStreamRequests);
+  }
+
+  @Override
+  public CoreStitchServiceClient withRequestBatching(final long windowMillis) {
+    return new CoreStitchServiceClientImpl(
+        requestClient,
+        serviceRoutes,
+        serviceName,
+        codecRegistry,
+        windowMillis,
+        coalescer,
+        postStreamRequests);
+  }
+
+  @Override
+  public CoreStitchServiceClient withCallCoalescing(final FunctionCallCoalescer coalescer) {
+    return new CoreStitchServiceClientImpl(
+        requestClient,
+        serviceRoutes,
+        serviceName,
+        codecRegistry,
+        batcher == null ? 0 : batcher.getWindowMillis(),
+        coalescer,
+        postStreamRequests);
+  }
+
+  @Override
+  @Nullable
+  public FunctionCallCoalescer getCallCoalescer() {
+    return coalescer;
+  }
+
+  @Override
+  public CoreStitchServiceClient withPostedStreamRequests() {
+    return new CoreStitchServiceClientImpl(
+        requestClient,
+        serviceRoutes,
+        serviceName,
+        codecRegistry,
+        batcher == null ? 0 : batcher.getWindowMillis(),
+        coalescer,
+        true);
+  }
+
+  /**
+   * Clears the results of the coalescer if the given function is not idempotent. A call of such a
+   * function clears them both when it is sent and when it completes, as reads made while it is in
+   * flight may be executed before it.
+   */
+  private void clearCachedResultsIfNotIdempotent(final String name) {
+    if (coalescer != null && !coalescer.isIdempotent(name)) {
+      coalescer.clear();
+    }
+  }
+
+  private <T> Callback<T, Exception> clearCachedResultsOnCompletionIfNotIdempotent(
+      final String name,
+      final Callback<T, Exception> callback
+  ) {
+    if (coalescer == null || coalescer.isIdempotent(name)) {
+      return callback;
+    }
+    return new Callback<T, Exception>() {
+      @Override
+      public void onComplete(@Nonnull final OperationResult<T, Exception> result) {
+        coalescer.clear();
+        callback.onComplete(result);
+      }
+    };
+  }
+
+  private boolean isSharedOrBatched(final String name, @Nullable final Long requestTimeout) {
+    return requestTimeout == null
+        && (batcher != null || (coalescer != null && coalescer.isIdempotent(name)));
+  }
+
+  private <T> void callSharedOrBatchedFunction(
+      final String name,
+      final List<?> args,
+      final Decoder<T> resultDecoder,
+      final Callback<T, Exception> callback
+  ) {
+    if (coalescer == null || !coalescer.isIdempotent(name)) {
+      clearCachedResultsIfNotIdempotent(name);
+      batcher.callFunction(
+          name, args, resultDecoder, clearCachedResultsOnCompletionIfNotIdempotent(name, callback));
+      return;
+    }
+    callSharedFunction(name, args, new Callback<BsonValue, Exception>() {
+      @Override
+      public void onComplete(@Nonnull final OperationResult<BsonValue, Exception> result) {
+        if (!result.isSuccessful()) {
+          callback.onComplete(OperationResult.<T, Exception>failedResultOf(result.getFailure()));
+          return;
+        }
+        final T decoded;
+        try {
+          decoded = BsonUtils.decodeValue(result.geResult(), resultDecoder);
+        } catch (final Exception e) {
+          callback.onComplete(OperationResult.<T, Exception>failedResultOf(
+              new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR)));
+          return;
+        }
+        callback.onComplete(OperationResult.<T, Exception>successfulResultOf(decoded));
+      }
+    });
+  }
+
+  /**
+   * Calls an idempotent function through the coalescer, which shares its undecoded result with
+   * identical calls so that each caller decodes its own copy.
+   */
+  private void callSharedFunction(
+      final String name,
+      final List<?> args,
+      final Callback<BsonValue, Exception> callback
+  ) {
+    final String userId = requestClient.getActiveUserId();
+    final String key = (userId == null ? "" : userId) + '\n'
+        + FunctionCallBatch.getFunctionCallBody(name, serviceName, args)
+            .toJson(CALL_KEY_WRITER_SETTINGS, new DocumentCodec(codecRegistry));
+    coalescer.call(key, new FunctionCallCoalescer.Request() {
+      @Override
+      public void execute(final Callback<BsonValue, Exception> requestCallback) {
+        if (batcher != null) {
+          batcher.callFunction(name, args, BSON_VALUE_CODEC, requestCallback);
+        } else {
+          requestClient.doAuthenticatedRequestAsync(
+              getCallServiceFunctionRequest(name, args, null), BSON_VALUE_CODEC, requestCallback);
+        }
+      }
+    }, callback);
+  }
+
+  private static <T> Decoder<T> getResultDecoder(
+      final Class<T> resultClass,
+      final CodecRegistry codecRegistry
+  ) {
+    return CodecRegistries.fromRegistries(BsonUtils.DEFAULT_CODEC_REGISTRY, codecRegistry)
+        .get(resultClass);
   }
 
   @Override
@@ -211,6 +533,9 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
       case AUTH_EVENT:
         if (((AuthEvent) rebindEvent).getAuthEventType() == AuthEvent.Type.ACTIVE_USER_CHANGED) {
           closeAllocatedStreams();
+          if (coalescer != null) {
+            coalescer.clear();
+          }
         }
         break;
       default:
@@ -251,10 +576,76 @@ public class CoreStitchServiceClientImpl implements CoreStitchServiceClient {
   }
 
   private static class FunctionFields {
-    private static final String NAME = "name";
-    private static final String SERVICE = "service";
-    private static final String ARGUMENTS = "arguments";
-
     private static final String STITCH_REQUEST = "?stitch_request=";
   }
+
+  /**
+   * An iterator over the elements of a shared result, each decoded into a copy of its own.
+   */
+  private static final class ArrayIterator<T> implements CloseableIterator<T> {
+    private final Iterator<BsonValue> values;
+    private final Decoder<T> elementDecoder;
+
+    ArrayIterator(final BsonArray array, final Decoder<T> elementDecoder) {
+      this.values = array.iterator();
+      this.elementDecoder = elementDecoder;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return values.hasNext();
+    }
+
+    @Override
+    public T next() {
+      try {
+        return BsonUtils.decodeValue(values.next(), elementDecoder);
+      } catch (final NoSuchElementException e) {
+        throw e;
+      } catch (final Exception e) {
+        throw new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR);
+      }
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("remove");
+    }
+
+    @Override
+    public void close() {
+      // the result is already in memory
+    }
+  }
+
+  /**
+   * Blocks a synchronous call until the shared or batched call it was made through completes.
+   */
+  private static final class PendingResult<T> implements Callback<T, Exception> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile OperationResult<T, Exception> result;
+
+    @Override
+    public void onComplete(@Nonnull final OperationResult<T, Exception> result) {
+      this.result = result;
+      done.countDown();
+    }
+
+    T await() {
+      try {
+        done.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new StitchRequestException(e, StitchRequestErrorCode.TRANSPORT_ERROR);
+      }
+      if (!result.isSuccessful()) {
+        final Exception failure = result.getFailure();
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        throw new StitchRequestException(failure, StitchRequestErrorCode.TRANSPORT_ERROR);
+      }
+      return result.geResult();
+    }
+  }
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.internal;
+
+import com.mongodb.stitch.core.StitchRequestErrorCode;
+import com.mongodb.stitch.core.StitchRequestException;
+import com.mongodb.stitch.core.StitchServiceErrorCode;
+import com.mongodb.stitch.core.StitchServiceException;
+import com.mongodb.stitch.core.auth.internal.StitchAuthRequestClient;
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+import com.mongodb.stitch.core.internal.net.Method;
+import com.mongodb.stitch.core.internal.net.StitchAuthDocRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.BsonArrayCodec;
+import org.bson.codecs.Decoder;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * A set of function calls that are sent to Stitch in a single request. Calls are queued with
+ * {@link #callFunction} and sent by {@link #execute}, after which the callback of each call is
+ * completed with that call's own result or failure. A batch holding a single call sends it as an
+ * ordinary function call.
+ */
+public class FunctionCallBatch {
+  private final StitchAuthRequestClient requestClient;
+  private final StitchServiceRoutes serviceRoutes;
+  private final String serviceName;
+  private final CodecRegistry codecRegistry;
+  private final List<PendingCall<?>> calls;
+  private boolean executed;
+
+  FunctionCallBatch(
+      final StitchAuthRequestClient requestClient,
+      final StitchServiceRoutes routes,
+      @Nullable final String serviceName,
+      final CodecRegistry codecRegistry
+  ) {
+    this.requestClient = requestClient;
+    this.serviceRoutes = routes;
+    this.serviceName = serviceName;
+    this.codecRegistry = codecRegistry;
+    this.calls = new ArrayList<>();
+  }
+
+  /**
+   * Queues a call of the given function, to be sent when the batch is executed.
+   *
+   * @param name the name of the function to call.
+   * @param args the arguments to pass to the function.
+   * @param resultDecoder the decoder to decode the result of the function with.
+   * @param callback the callback to complete with the result of the function, or its failure.
+   * @param <T> the type of the result.
+   */
+  public synchronized <T> void callFunction(
+      final String name,
+      final List<?> args,
+      final Decoder<T> resultDecoder,
+      final Callback<T, Exception> callback
+  ) {
+    if (executed) {
+      throw new IllegalStateException("batch has already been executed");
+    }
+    calls.add(new PendingCall<>(
+        getFunctionCallBody(name, serviceName, args), resultDecoder, callback));
+  }
+
+  /**
+   * Queues a call of the given function, to be sent when the batch is executed.
+   *
+   * @param name the name of the function to call.
+   * @param args the arguments to pass to the function.
+   * @param resultClass the class to decode the result of the function into.
+   * @param callback the callback to complete with the result of the function, or its failure.
+   * @param <T> the type of the result.
+   */
+  public <T> void callFunction(
+      final String name,
+      final List<?> args,
+      final Class<T> resultClass,
+      final Callback<T, Exception> callback
+  ) {
+    callFunction(
+        name,
+        args,
+        CodecRegistries.fromRegistries(BsonUtils.DEFAULT_CODEC_REGISTRY, codecRegistry)
+            .get(resultClass),
+        callback);
+  }
+
+  /**
+   * Returns the number of calls queued in this batch.
+   *
+   * @return the number of calls queued in this batch.
+   */
+  public synchronized int size() {
+    return calls.size();
+  }
+
+  /**
+   * Sends the queued calls without blocking the calling thread. A batch can only be executed
+   * once.
+   */
+  public void execute() {
+    final List<PendingCall<?>> toSend;
+    synchronized (this) {
+      if (executed) {
+        throw new IllegalStateException("batch has already been executed");
+      }
+      executed = true;
+      toSend = new ArrayList<>(calls);
+    }
+
+    if (toSend.isEmpty()) {
+      return;
+    }
+    if (toSend.size() == 1) {
+      toSend.get(0).executeAlone();
+      return;
+    }
+
+    final List<Document> body = new ArrayList<>(toSend.size());
+    for (final PendingCall<?> call : toSend) {
+      body.add(call.body);
+    }
+    final StitchAuthDocRequest.Builder reqBuilder = new StitchAuthDocRequest.Builder();
+    reqBuilder.withMethod(Method.POST).withPath(serviceRoutes.getFunctionCallBatchRoute());
+    reqBuilder.withDocument(new Document(Fields.CALLS, body));
+    reqBuilder.withBsonBody(requestClient.isBsonSupported());
+
+    requestClient.doAuthenticatedRequestAsync(
+        reqBuilder.build(codecRegistry),
+        new BsonArrayCodec(),
+        new Callback<BsonArray, Exception>() {
+          @Override
+          public void onComplete(@Nonnull final OperationResult<BsonArray, Exception> result) {
+            if (!result.isSuccessful()) {
+              for (final PendingCall<?> call : toSend) {
+                call.fail(result.getFailure());
+              }
+              return;
+            }
+
+            final BsonArray results = result.geResult();
+            if (results.size() != toSend.size()) {
+              final Exception failure = new StitchRequestException(
+                  String.format(
+                      Locale.ENGLISH,
+                      "expected %d results in batch response but got %d",
+                      toSend.size(),
+                      results.size()),
+                  StitchRequestErrorCode.DECODING_ERROR);
+              for (final PendingCall<?> call : toSend) {
+                call.fail(failure);
+              }
+              return;
+            }
+            for (int i = 0; i < toSend.size(); i++) {
+              toSend.get(i).complete(results.get(i));
+            }
+          }
+        });
+  }
+
+  /**
+   * Returns the request body that calls the given function.
+   */
+  static Document getFunctionCallBody(
+      final String name,
+      @Nullable final String serviceName,
+      final List<?> args
+  ) {
+    final Document body = new Document();
+    body.put(Fields.NAME, name);
+    if (serviceName != null) {
+      body.put(Fields.SERVICE, serviceName);
+    }
+    body.put(Fields.ARGUMENTS, args);
+    return body;
+  }
+
+  private final class PendingCall<T> {
+    private final Document body;
+    private final Decoder<T> resultDecoder;
+    private final Callback<T, Exception> callback;
+
+    PendingCall(
+        final Document body,
+        final Decoder<T> resultDecoder,
+        final Callback<T, Exception> callback
+    ) {
+      this.body = body;
+      this.resultDecoder = resultDecoder;
+      this.callback = callback;
+    }
+
+    void executeAlone() {
+      final StitchAuthDocRequest.Builder reqBuilder = new StitchAuthDocRequest.Builder();
+      reqBuilder.withMethod(Method.POST).withPath(serviceRoutes.getFunctionCallRoute());
+      reqBuilder.withDocument(body);
+      reqBuilder.withBsonBody(requestClient.isBsonSupported());
+      requestClient.doAuthenticatedRequestAsync(
+          reqBuilder.build(codecRegistry), resultDecoder, callback);
+    }
+
+    void fail(final Exception failure) {
+      callback.onComplete(OperationResult.<T, Exception>failedResultOf(failure));
+    }
+
+    /**
+     * Completes the call with its entry in the batch response, which holds either the result
+     * of the function or the error it failed with.
+     */
+    void complete(final BsonValue entry) {
+      if (!entry.isDocument()) {
+        fail(new StitchRequestException(
+            "expected a document for each result in batch response",
+            StitchRequestErrorCode.DECODING_ERROR));
+        return;
+      }
+
+      final BsonDocument doc = entry.asDocument();
+      if (doc.containsKey(Fields.ERROR)) {
+        final String errorMsg = doc.get(Fields.ERROR).isString()
+            ? doc.getString(Fields.ERROR).getValue() : doc.get(Fields.ERROR).toString();
+        final StitchServiceErrorCode errorCode = doc.isString(Fields.ERROR_CODE)
+            ? StitchServiceErrorCode.fromCodeName(doc.getString(Fields.ERROR_CODE).getValue())
+            : StitchServiceErrorCode.UNKNOWN;
+        fail(new StitchServiceException(errorMsg, errorCode));
+        return;
+      }
+
+      final T result;
+      try {
+        result = BsonUtils.decodeValue(doc.get(Fields.RESULT), resultDecoder);
+      } catch (final Exception e) {
+        fail(new StitchRequestException(e, StitchRequestErrorCode.DECODING_ERROR));
+        return;
+      }
+      callback.onComplete(OperationResult.<T, Exception>successfulResultOf(result));
+    }
+  }
+
+  private static class Fields {
+    private static final String NAME = "name";
+    private static final String SERVICE = "service";
+    private static final String ARGUMENTS = "arguments";
+    private static final String CALLS = "calls";
+    private static final String RESULT = "result";
+    private static final String ERROR = "error";
+    private static final String ERROR_CODE = "error_code";
+  }
+}
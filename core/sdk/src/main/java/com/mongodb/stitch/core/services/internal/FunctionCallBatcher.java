@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.internal;
+
+import com.mongodb.stitch.core.auth.internal.StitchAuthRequestClient;
+import com.mongodb.stitch.core.internal.common.Callback;
+
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.bson.codecs.Decoder;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Collects the function calls made within a short window of each other into a
+ * {@link FunctionCallBatch}, so that they are sent in a single request. The window opens with
+ * the first call made while no batch is pending, and the batch is sent when the window closes
+ * or as soon as it holds {@link #MAX_CALLS_PER_BATCH} calls.
+ */
+final class FunctionCallBatcher {
+  static final int MAX_CALLS_PER_BATCH = 50;
+
+  private static final ScheduledThreadPoolExecutor flushExecutor =
+      new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(@Nonnull final Runnable runnable) {
+          final Thread thread = new Thread(runnable, "functionCallBatcherFlushThread");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  static {
+    flushExecutor.setKeepAliveTime(1, TimeUnit.MINUTES);
+    flushExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  private final StitchAuthRequestClient requestClient;
+  private final StitchServiceRoutes serviceRoutes;
+  private final String serviceName;
+  private final CodecRegistry codecRegistry;
+  private final long windowMillis;
+  private FunctionCallBatch pendingBatch;
+
+  FunctionCallBatcher(
+      final StitchAuthRequestClient requestClient,
+      final StitchServiceRoutes routes,
+      @Nullable final String serviceName,
+      final CodecRegistry codecRegistry,
+      final long windowMillis
+  ) {
+    this.requestClient = requestClient;
+    this.serviceRoutes = routes;
+    this.serviceName = serviceName;
+    this.codecRegistry = codecRegistry;
+    this.windowMillis = windowMillis;
+  }
+
+  long getWindowMillis() {
+    return windowMillis;
+  }
+
+  <T> void callFunction(
+      final String name,
+      final List<?> args,
+      final Decoder<T> resultDecoder,
+      final Callback<T, Exception> callback
+  ) {
+    final FunctionCallBatch fullBatch;
+    synchronized (this) {
+      if (pendingBatch == null) {
+        final FunctionCallBatch batch =
+            new FunctionCallBatch(requestClient, serviceRoutes, serviceName, codecRegistry);
+        pendingBatch = batch;
+        flushExecutor.schedule(new Runnable() {
+          @Override
+          public void run() {
+            flush(batch);
+          }
+        }, windowMillis, TimeUnit.MILLISECONDS);
+      }
+      pendingBatch.callFunction(name, args, resultDecoder, callback);
+      if (pendingBatch.size() < MAX_CALLS_PER_BATCH) {
+        return;
+      }
+      fullBatch = pendingBatch;
+      pendingBatch = null;
+    }
+    fullBatch.execute();
+  }
+
+  /**
+   * Sends the given batch if it is still the one collecting calls.
+   */
+  private void flush(final FunctionCallBatch batch) {
+    synchronized (this) {
+      if (pendingBatch != batch) {
+        return;
+      }
+      pendingBatch = null;
+    }
+    batch.execute();
+  }
+}
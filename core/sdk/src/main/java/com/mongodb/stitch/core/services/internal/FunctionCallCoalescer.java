@@ -0,0 +1,314 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.internal;
+
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import org.bson.BsonValue;
+
+/**
+ * Shares the results of identical calls of idempotent functions. Calls are identical when they
+ * are made by the same user to the same function of the same service with the same arguments.
+ * While such a call is in flight, identical calls wait for its result instead of making their
+ * own request. If a cache is configured, successful results are also kept for a time to answer
+ * later identical calls; the least recently used results are evicted when the cache is full.
+ * Any call of a function that is not idempotent clears the cache, since it may have changed
+ * what the cached calls would return. Calls that were in flight when the cache was cleared may
+ * have read from before that change, so their results are neither cached nor shared with calls
+ * made after it.
+ */
+public final class FunctionCallCoalescer {
+  private final Set<String> idempotentFunctions;
+  private final int maxCacheEntries;
+  private final long cacheTtlNanos;
+  private final Map<String, InFlightCall> inFlightCalls;
+  private final LinkedHashMap<String, CachedResult> cache;
+  private final Stats stats;
+  private long generation;
+
+  /**
+   * Constructs a coalescer that only shares the results of calls in flight.
+   *
+   * @param idempotentFunctions the names of the functions whose calls may be shared.
+   */
+  public FunctionCallCoalescer(final Set<String> idempotentFunctions) {
+    this(idempotentFunctions, 0, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Constructs a coalescer that shares the results of calls in flight, and caches successful
+   * results.
+   *
+   * @param idempotentFunctions the names of the functions whose calls may be shared.
+   * @param maxCacheEntries the most results to cache, or 0 to not cache results.
+   * @param cacheTtl how long a result is cached for.
+   * @param cacheTtlUnit the unit of cacheTtl.
+   */
+  public FunctionCallCoalescer(
+      final Set<String> idempotentFunctions,
+      final int maxCacheEntries,
+      final long cacheTtl,
+      final TimeUnit cacheTtlUnit
+  ) {
+    this.idempotentFunctions =
+        Collections.unmodifiableSet(new HashSet<>(idempotentFunctions));
+    this.maxCacheEntries = cacheTtl > 0 ? maxCacheEntries : 0;
+    this.cacheTtlNanos = cacheTtlUnit.toNanos(cacheTtl);
+    this.inFlightCalls = new HashMap<>();
+    this.cache = new LinkedHashMap<>(16, 0.75f, true);
+    this.stats = new Stats();
+  }
+
+  /**
+   * Returns whether or not calls of the given function may be shared.
+   */
+  boolean isIdempotent(final String functionName) {
+    return idempotentFunctions.contains(functionName);
+  }
+
+  /**
+   * Returns whether or not successful results are cached.
+   */
+  boolean isCaching() {
+    return maxCacheEntries > 0;
+  }
+
+  /**
+   * Returns the counts of calls this coalescer has answered without making a request, and of
+   * those it has not.
+   *
+   * @return the counts of calls this coalescer has handled.
+   */
+  public Stats getStats() {
+    return stats;
+  }
+
+  /**
+   * Removes every cached result, and keeps the results of calls in flight from being cached or
+   * shared with calls made from now on.
+   */
+  public synchronized void clear() {
+    generation++;
+    stats.evictions.addAndGet(cache.size());
+    cache.clear();
+  }
+
+  /**
+   * Completes the callback with the result of the identified call. The result comes from the
+   * cache or from an identical call in flight if there is one, and otherwise from the given
+   * request, which is then shared with identical calls made while it is in flight.
+   *
+   * @param key the identity of the call.
+   * @param request the request that makes the call.
+   * @param callback the callback to complete with the result of the call.
+   */
+  void call(
+      final String key,
+      final Request request,
+      final Callback<BsonValue, Exception> callback
+  ) {
+    final BsonValue cachedResult;
+    InFlightCall inFlightCall = null;
+    synchronized (this) {
+      cachedResult = getCachedResult(key);
+      if (cachedResult == null) {
+        final InFlightCall existingCall = inFlightCalls.get(key);
+        if (existingCall != null && existingCall.generation == generation) {
+          stats.coalesced.incrementAndGet();
+          existingCall.waiters.add(callback);
+          return;
+        }
+        // an identical call from before the last clear still completes its own waiters
+        stats.misses.incrementAndGet();
+        inFlightCall = new InFlightCall(generation);
+        inFlightCall.waiters.add(callback);
+        inFlightCalls.put(key, inFlightCall);
+      }
+    }
+    if (cachedResult != null) {
+      stats.hits.incrementAndGet();
+      callback.onComplete(OperationResult.<BsonValue, Exception>successfulResultOf(
+          cachedResult));
+      return;
+    }
+
+    final InFlightCall call = inFlightCall;
+    final long startedAt = System.nanoTime();
+    try {
+      request.execute(new Callback<BsonValue, Exception>() {
+        @Override
+        public void onComplete(@Nonnull final OperationResult<BsonValue, Exception> result) {
+          complete(key, call, startedAt, result);
+        }
+      });
+    } catch (final RuntimeException e) {
+      complete(key, call, startedAt, OperationResult.<BsonValue, Exception>failedResultOf(e));
+    }
+  }
+
+  private void complete(
+      final String key,
+      final InFlightCall call,
+      final long startedAt,
+      final OperationResult<BsonValue, Exception> result
+  ) {
+    final List<Callback<BsonValue, Exception>> waiters;
+    synchronized (this) {
+      if (inFlightCalls.get(key) == call) {
+        inFlightCalls.remove(key);
+      }
+      waiters = call.waiters;
+      if (call.generation == generation
+          && result.isSuccessful() && result.geResult() != null && isCaching()) {
+        // a result is as old as the request that fetched it
+        cache.put(key, new CachedResult(result.geResult(), startedAt + cacheTtlNanos));
+        evictExcessEntries();
+      }
+    }
+    for (final Callback<BsonValue, Exception> waiter : waiters) {
+      waiter.onComplete(result);
+    }
+  }
+
+  private BsonValue getCachedResult(final String key) {
+    final CachedResult cached = cache.get(key);
+    if (cached == null) {
+      return null;
+    }
+    if (System.nanoTime() - cached.expiresAt >= 0) {
+      cache.remove(key);
+      stats.evictions.incrementAndGet();
+      return null;
+    }
+    return cached.value;
+  }
+
+  private void evictExcessEntries() {
+    final long now = System.nanoTime();
+    final Iterator<CachedResult> iterator = cache.values().iterator();
+    while (iterator.hasNext()) {
+      final CachedResult cached = iterator.next();
+      if (cache.size() > maxCacheEntries || now - cached.expiresAt >= 0) {
+        iterator.remove();
+        stats.evictions.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Makes a call whose result may be shared.
+   */
+  interface Request {
+    void execute(Callback<BsonValue, Exception> callback);
+  }
+
+  private static final class InFlightCall {
+    private final long generation;
+    private final List<Callback<BsonValue, Exception>> waiters;
+
+    InFlightCall(final long generation) {
+      this.generation = generation;
+      this.waiters = new ArrayList<>();
+    }
+  }
+
+  private static final class CachedResult {
+    private final BsonValue value;
+    private final long expiresAt;
+
+    CachedResult(final BsonValue value, final long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * Counts of the calls handled by a {@link FunctionCallCoalescer}.
+   */
+  public static final class Stats {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private Stats() {}
+
+    /**
+     * Returns the number of calls answered from the cache.
+     *
+     * @return the number of calls answered from the cache.
+     */
+    public long getHitCount() {
+      return hits.get();
+    }
+
+    /**
+     * Returns the number of calls that made their own request.
+     *
+     * @return the number of calls that made their own request.
+     */
+    public long getMissCount() {
+      return misses.get();
+    }
+
+    /**
+     * Returns the number of calls that waited for an identical call in flight instead of making
+     * their own request.
+     *
+     * @return the number of calls that shared the request of an identical call.
+     */
+    public long getCoalescedCount() {
+      return coalesced.get();
+    }
+
+    /**
+     * Returns the number of results removed from the cache because they expired, because the
+     * cache was full, or because the cache was cleared.
+     *
+     * @return the number of results removed from the cache.
+     */
+    public long getEvictionCount() {
+      return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{"
+          + "hits=" + hits.get()
+          + ", misses=" + misses.get()
+          + ", coalesced=" + coalesced.get()
+          + ", evictions=" + evictions.get()
+          + '}';
+    }
+  }
+}
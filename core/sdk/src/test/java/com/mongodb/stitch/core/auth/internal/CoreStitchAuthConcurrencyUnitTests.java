@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.auth.internal;
+
+import static com.mongodb.stitch.core.testutils.ApiTestUtils.getAuthorizationBearer;
+import static com.mongodb.stitch.core.testutils.ApiTestUtils.getMockedRequestClient;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+
+import com.mongodb.stitch.core.StitchServiceErrorCode;
+import com.mongodb.stitch.core.StitchServiceException;
+import com.mongodb.stitch.core.auth.providers.anonymous.AnonymousCredential;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.MemoryStorage;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+import com.mongodb.stitch.core.internal.net.Headers;
+import com.mongodb.stitch.core.internal.net.Method;
+import com.mongodb.stitch.core.internal.net.Response;
+import com.mongodb.stitch.core.internal.net.StitchAppRoutes;
+import com.mongodb.stitch.core.internal.net.StitchAuthRequest;
+import com.mongodb.stitch.core.internal.net.StitchRequest;
+import com.mongodb.stitch.core.internal.net.StitchRequestClient;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.Test;
+
+public class CoreStitchAuthConcurrencyUnitTests {
+
+  private static final long SIMULATED_RTT_MILLIS = 20;
+
+  /**
+   * Checks that authenticated requests made from several threads are in flight at the same time
+   * rather than being serialized: the request client only answers once every thread's request
+   * has reached it.
+   */
+  @Test
+  public void testAuthenticatedRequestsRunConcurrently() throws Exception {
+    final StitchRequestClient requestClient = getMockedRequestClient();
+    final StitchAuthRoutes routes = new StitchAppRoutes("my_app-12345").getAuthRoutes();
+    final CoreStitchAuthUnitTests.StitchAuth auth = new CoreStitchAuthUnitTests.StitchAuth(
+        requestClient,
+        routes,
+        new MemoryStorage());
+    auth.loginWithCredentialInternal(new AnonymousCredential());
+
+    final int numThreads = 8;
+    final CountDownLatch allInFlight = new CountDownLatch(numThreads);
+    doAnswer((ignored) -> {
+      allInFlight.countDown();
+      if (!allInFlight.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("requests were not in flight concurrently");
+      }
+      return new Response("{}");
+    }).when(requestClient).doRequest(argThat(req -> req.getPath().endsWith("/echo")));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final List<Future<Response>> futures = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(executor.submit(() -> auth.doAuthenticatedRequest(echoRequest())));
+      }
+      for (final Future<Response> future : futures) {
+        assertEquals(200, (int) future.get(30, TimeUnit.SECONDS).getStatusCode());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testConcurrentAuthFailuresRefreshOnlyOnce() throws Exception {
+    final StitchRequestClient requestClient = getMockedRequestClient();
+    final StitchAuthRoutes routes = new StitchAppRoutes("my_app-12345").getAuthRoutes();
+    final CoreStitchAuthUnitTests.StitchAuth auth = new CoreStitchAuthUnitTests.StitchAuth(
+        requestClient,
+        routes,
+        new MemoryStorage());
+    auth.loginWithCredentialInternal(new AnonymousCredential());
+
+    final Map<String, Object> claims = new HashMap<>();
+    claims.put("typ", "access");
+    claims.put("test_refreshed", true);
+    final String refreshedJwt = Jwts.builder()
+        .setClaims(claims)
+        .setIssuedAt(new Date(System.currentTimeMillis() + 1000))
+        .setSubject("uniqueUserID")
+        .setExpiration(new Date(System.currentTimeMillis() + (5 * 60 * 1000)))
+        .signWith(
+            SignatureAlgorithm.HS256,
+            "abcdefghijklmnopqrstuvwxyz1234567890".getBytes(StandardCharsets.UTF_8))
+        .compact();
+
+    final AtomicInteger refreshCount = new AtomicInteger();
+    doAnswer((ignored) -> {
+      refreshCount.incrementAndGet();
+      Thread.sleep(SIMULATED_RTT_MILLIS);
+      return new Response(new Document("access_token", refreshedJwt).toJson());
+    }).when(requestClient).doRequest(argThat(req -> req.getMethod() == Method.POST
+        && req.getPath().endsWith("/session")));
+
+    // every request made with the stale token fails until the token is refreshed
+    final int numThreads = 8;
+    final CountDownLatch allFailed = new CountDownLatch(numThreads);
+    doAnswer((invocation) -> {
+      final StitchRequest req = invocation.getArgument(0);
+      if (!req.getHeaders().get(Headers.AUTHORIZATION)
+          .equals(getAuthorizationBearer(refreshedJwt))) {
+        allFailed.countDown();
+        allFailed.await(5, TimeUnit.SECONDS);
+        throw new StitchServiceException(StitchServiceErrorCode.INVALID_SESSION);
+      }
+      return new Response("{}");
+    }).when(requestClient).doRequest(argThat(req -> req.getPath().endsWith("/echo")));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final List<Future<Response>> futures = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(executor.submit(() -> auth.doAuthenticatedRequest(echoRequest())));
+      }
+      for (final Future<Response> future : futures) {
+        assertEquals(200, (int) future.get(10, TimeUnit.SECONDS).getStatusCode());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, refreshCount.get());
+    assertTrue(auth.isLoggedIn());
+  }
+
+  /**
+   * Issues a large number of asynchronous authenticated requests against a request client that
+   * holds on to every request until all of them have been issued, and checks that they are all in
+   * flight at once rather than each holding a thread.
+   */
+  @Test
+  public void testAsyncRequestsDoNotHoldThreads() throws Exception {
+    final StitchRequestClient requestClient = getMockedRequestClient();
+    final StitchAuthRoutes routes = new StitchAppRoutes("my_app-12345").getAuthRoutes();
+    final CoreStitchAuthUnitTests.StitchAuth auth = new CoreStitchAuthUnitTests.StitchAuth(
+        requestClient,
+        routes,
+        new MemoryStorage());
+    auth.loginWithCredentialInternal(new AnonymousCredential());
+
+    final Queue<Callback<Response, Exception>> inFlight = new ConcurrentLinkedQueue<>();
+    doAnswer((invocation) -> {
+      inFlight.add(invocation.getArgument(1));
+      return null;
+    }).when(requestClient).doRequestAsync(argThat(req -> req.getPath().endsWith("/echo")), any());
+
+    final int numRequests = 2000;
+    final CountDownLatch done = new CountDownLatch(numRequests);
+    final AtomicInteger failures = new AtomicInteger();
+    for (int i = 0; i < numRequests; i++) {
+      auth.doAuthenticatedRequestAsync(echoRequest(), result -> {
+        if (!result.isSuccessful()) {
+          failures.incrementAndGet();
+        }
+        done.countDown();
+      });
+    }
+
+    // every request was handed to the request client without waiting for any to complete
+    assertEquals(numRequests, inFlight.size());
+    assertEquals(numRequests, done.getCount());
+
+    // completing them all from a single thread completes every request
+    final Thread network = new Thread(() -> {
+      Callback<Response, Exception> callback;
+      while ((callback = inFlight.poll()) != null) {
+        callback.onComplete(OperationResult.successfulResultOf(new Response("{}")));
+      }
+    });
+    network.start();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(0, failures.get());
+  }
+
+  @Test
+  public void testConcurrentAsyncAuthFailuresRefreshOnlyOnce() throws Exception {
+    final StitchRequestClient requestClient = getMockedRequestClient();
+    final StitchAuthRoutes routes = new StitchAppRoutes("my_app-12345").getAuthRoutes();
+    final CoreStitchAuthUnitTests.StitchAuth auth = new CoreStitchAuthUnitTests.StitchAuth(
+        requestClient,
+        routes,
+        new MemoryStorage());
+    auth.loginWithCredentialInternal(new AnonymousCredential());
+
+    final Map<String, Object> claims = new HashMap<>();
+    claims.put("typ", "access");
+    claims.put("test_refreshed", true);
+    final String refreshedJwt = Jwts.builder()
+        .setClaims(claims)
+        .setIssuedAt(new Date(System.currentTimeMillis() + 1000))
+        .setSubject("uniqueUserID")
+        .setExpiration(new Date(System.currentTimeMillis() + (5 * 60 * 1000)))
+        .signWith(
+            SignatureAlgorithm.HS256,
+            "abcdefghijklmnopqrstuvwxyz1234567890".getBytes(StandardCharsets.UTF_8))
+        .compact();
+
+    final ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+    try {
+      final AtomicInteger refreshCount = new AtomicInteger();
+      doAnswer((invocation) -> {
+        refreshCount.incrementAndGet();
+        final Callback<Response, Exception> callback = invocation.getArgument(1);
+        network.schedule(
+            () -> callback.onComplete(OperationResult.successfulResultOf(
+                new Response(new Document("access_token", refreshedJwt).toJson()))),
+            SIMULATED_RTT_MILLIS,
+            TimeUnit.MILLISECONDS);
+        return null;
+      }).when(requestClient).doRequestAsync(
+          argThat(req -> req.getMethod() == Method.POST && req.getPath().endsWith("/session")),
+          any());
+
+      // every request made with the stale token fails until the token is refreshed
+      doAnswer((invocation) -> {
+        final StitchRequest req = invocation.getArgument(0);
+        final Callback<Response, Exception> callback = invocation.getArgument(1);
+        final OperationResult<Response, Exception> result =
+            req.getHeaders().get(Headers.AUTHORIZATION)
+                .equals(getAuthorizationBearer(refreshedJwt))
+                ? OperationResult.successfulResultOf(new Response("{}"))
+                : OperationResult.failedResultOf(
+                    new StitchServiceException(StitchServiceErrorCode.INVALID_SESSION));
+        network.execute(() -> callback.onComplete(result));
+        return null;
+      }).when(requestClient).doRequestAsync(argThat(req -> req.getPath().endsWith("/echo")), any());
+
+      final int numRequests = 8;
+      final List<CompletableFuture<Response>> futures = new ArrayList<>();
+      for (int i = 0; i < numRequests; i++) {
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        auth.doAuthenticatedRequestAsync(echoRequest(), result -> {
+          if (result.isSuccessful()) {
+            future.complete(result.geResult());
+          } else {
+            future.completeExceptionally(result.getFailure());
+          }
+        });
+        futures.add(future);
+      }
+      for (final CompletableFuture<Response> future : futures) {
+        assertEquals(200, (int) future.get(10, TimeUnit.SECONDS).getStatusCode());
+      }
+
+      assertEquals(1, refreshCount.get());
+      assertTrue(auth.isLoggedIn());
+    } finally {
+      network.shutdownNow();
+    }
+  }
+
+  private static StitchAuthRequest echoRequest() {
+    return new StitchAuthRequest.Builder()
+        .withMethod(Method.GET)
+        .withPath("/echo")
+        .build();
+  }
+}
@@ -37,6 +37,7 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -58,11 +59,13 @@ import com.mongodb.stitch.core.internal.common.MemoryStorage;
 import com.mongodb.stitch.core.internal.common.StitchObjectMapper;
 import com.mongodb.stitch.core.internal.common.Storage;
 import com.mongodb.stitch.core.internal.net.ContentTypes;
+import com.mongodb.stitch.core.internal.net.EventStream;
 import com.mongodb.stitch.core.internal.net.Headers;
 import com.mongodb.stitch.core.internal.net.Method;
 import com.mongodb.stitch.core.internal.net.Response;
 import com.mongodb.stitch.core.internal.net.StitchAppRoutes;
 import com.mongodb.stitch.core.internal.net.StitchAuthDocRequest;
+import com.mongodb.stitch.core.internal.net.StitchAuthRequest;
 import com.mongodb.stitch.core.internal.net.StitchDocRequest;
 import com.mongodb.stitch.core.internal.net.StitchRequest;
 import com.mongodb.stitch.core.internal.net.StitchRequestClient;
@@ -843,6 +846,52 @@ public class CoreStitchAuthUnitTests {
     assertTrue(auth.listUsers().stream().allMatch(Predicate.isEqual(user)));
   }
 
+  @Test
+  public void testOpenAuthenticatedStream() throws InterruptedException {
+    final StitchRequestClient requestClient = getMockedRequestClient();
+    final StitchAuthRoutes routes = new StitchAppRoutes("my_app-12345").getAuthRoutes();
+    final StitchAuth auth = new StitchAuth(
+        requestClient,
+        routes,
+        new MemoryStorage());
+    auth.loginWithCredentialInternal(new AnonymousCredential());
+    doReturn(mock(EventStream.class)).when(requestClient).doStreamRequest(any());
+
+    // an EventSource cannot send headers, so a stream opened with a GET carries its token in
+    // its URL
+    auth.openAuthenticatedStream(
+        new StitchAuthRequest.Builder()
+            .withMethod(Method.GET)
+            .withPath("/stream?stitch_request=e30=")
+            .build(),
+        new IntegerCodec());
+
+    final ArgumentCaptor<StitchRequest> reqArg = ArgumentCaptor.forClass(StitchRequest.class);
+    verify(requestClient).doStreamRequest(reqArg.capture());
+    assertEquals(
+        "/stream?stitch_request=e30=&stitch_at=" + getTestAccessToken(),
+        reqArg.getValue().getPath());
+    assertFalse(reqArg.getValue().getHeaders().containsKey(Headers.AUTHORIZATION));
+
+    // whereas a stream opened with a POST carries it in a header, like any other request
+    auth.openAuthenticatedStream(
+        new StitchAuthDocRequest.Builder()
+            .withMethod(Method.POST)
+            .withPath("/stream")
+            .withDocument(new Document("name", "watch"))
+            .build(),
+        new IntegerCodec());
+
+    verify(requestClient, times(2)).doStreamRequest(reqArg.capture());
+    assertEquals("/stream", reqArg.getValue().getPath());
+    assertEquals(
+        getAuthorizationBearer(getTestAccessToken()),
+        reqArg.getValue().getHeaders().get(Headers.AUTHORIZATION));
+    assertEquals(
+        ContentTypes.APPLICATION_JSON,
+        reqArg.getValue().getHeaders().get(Headers.CONTENT_TYPE));
+  }
+
   protected static class StitchAuth extends CoreStitchAuth<CoreStitchUserImpl> {
     StitchAuth(
             final StitchRequestClient requestClient,
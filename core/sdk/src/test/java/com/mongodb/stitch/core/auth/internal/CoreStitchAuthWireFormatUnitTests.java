@@ -0,0 +1,372 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.auth.internal;
+
+import static com.mongodb.stitch.core.testutils.ApiTestUtils.getMockedRequestClient;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+
+import com.mongodb.stitch.core.auth.providers.anonymous.AnonymousCredential;
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.common.CloseableIterator;
+import com.mongodb.stitch.core.internal.common.IoUtils;
+import com.mongodb.stitch.core.internal.common.MemoryStorage;
+import com.mongodb.stitch.core.internal.net.ContentTypes;
+import com.mongodb.stitch.core.internal.net.StitchAppRoutes;
+import com.mongodb.stitch.core.internal.net.StitchRequestClient;
+import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+import com.mongodb.stitch.core.services.internal.CoreStitchServiceClientImpl;
+import com.mongodb.stitch.core.services.internal.StitchServiceRoutes;
+import com.mongodb.stitch.core.testutils.LocalFunctionServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDecimal128;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonMinKey;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.LongCodec;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.Decimal128;
+import org.junit.Test;
+
+public class CoreStitchAuthWireFormatUnitTests {
+
+  @Test
+  public void testJsonOnlyServer() {
+    final LocalFunctionServer server = new LocalFunctionServer(false);
+    final CoreStitchAuth<?> auth = newAuth(server);
+    final CoreStitchServiceClient service = newServiceClient(auth);
+
+    final BsonDocument doc = newTestDocument(1024);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(
+          doc,
+          service.callFunction("echo", Collections.singletonList(doc), new BsonDocumentCodec()));
+    }
+    assertEquals(42, (int) service.callFunction(
+        "echo", Collections.singletonList(42), Integer.class));
+
+    // a server that never answers in BSON is only ever sent JSON
+    assertFalse(auth.isBsonSupported());
+    for (final String contentType : server.getRequestContentTypes()) {
+      assertEquals(ContentTypes.APPLICATION_JSON, contentType);
+    }
+  }
+
+  @Test
+  public void testBsonServer() {
+    final LocalFunctionServer server = new LocalFunctionServer(true);
+    final CoreStitchAuth<?> auth = newAuth(server);
+    final CoreStitchServiceClient service = newServiceClient(auth);
+
+    // the first call is sent as JSON, and its response as BSON tells the client that the
+    // server speaks BSON
+    final BsonDocument doc = newTestDocument(1024);
+    assertEquals(
+        doc,
+        service.callFunction("echo", Collections.singletonList(doc), new BsonDocumentCodec()));
+    assertTrue(auth.isBsonSupported());
+
+    // so from then on, calls are sent as BSON as well
+    assertEquals(
+        doc,
+        service.callFunction("echo", Collections.singletonList(doc), new BsonDocumentCodec()));
+    assertEquals(42, (int) service.callFunction(
+        "echo", Collections.singletonList(42), Integer.class));
+    assertNull(service.callFunction(
+        "echo", Collections.singletonList(null), Integer.class));
+    assertEquals(
+        new Document("a", Arrays.asList(1L, "two", 3.0)),
+        service.callFunction(
+            "echo",
+            Collections.singletonList(new Document("a", Arrays.asList(1L, "two", 3.0))),
+            Document.class));
+
+    assertEquals(
+        Arrays.asList(
+            ContentTypes.APPLICATION_JSON,
+            ContentTypes.APPLICATION_BSON,
+            ContentTypes.APPLICATION_BSON,
+            ContentTypes.APPLICATION_BSON,
+            ContentTypes.APPLICATION_BSON),
+        server.getRequestContentTypes());
+  }
+
+  @Test
+  public void testBsonBodiesAreSmaller() {
+    final LocalFunctionServer server = new LocalFunctionServer(true);
+    final CoreStitchServiceClient service = newServiceClient(newAuth(server));
+
+    final BsonDocument doc = newTestDocument(64 * 1024);
+    service.callFunction("echo", Collections.singletonList(doc), new BsonDocumentCodec());
+    service.callFunction("echo", Collections.singletonList(doc), new BsonDocumentCodec());
+
+    // extended JSON base64 encodes binary data, inflating it by a third
+    assertTrue(server.getRequestBodySizes().get(1) < server.getRequestBodySizes().get(0) * 0.8);
+  }
+
+  @Test
+  public void testReadBsonValue() throws Exception {
+    final BsonDocumentCodec codec = new BsonDocumentCodec();
+    final BsonDocument doc = newTestDocument(16);
+    final byte[] bytes = BsonUtils.toBsonBytes(new BsonDocument("value", doc), codec);
+    assertEquals(doc, BsonUtils.readValue(new ByteArrayInputStream(bytes), codec));
+    assertNull(BsonUtils.readValue(
+        new ByteArrayInputStream(
+            BsonUtils.toBsonBytes(new BsonDocument("value", BsonNull.VALUE), codec)),
+        codec));
+
+    try {
+      BsonUtils.readValue(
+          new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)), codec);
+      fail("expected a truncated document to fail");
+    } catch (final EOFException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReadJsonValue() throws Exception {
+    final BsonDocumentCodec codec = new BsonDocumentCodec();
+    final BsonDocument doc = newTestDocument(16)
+        .append("int", new BsonInt32(42))
+        .append("negative", new BsonInt64(Long.MIN_VALUE))
+        .append("infinity", new BsonDouble(Double.POSITIVE_INFINITY))
+        .append("decimal", new BsonDecimal128(Decimal128.parse("1.5")))
+        .append("date", new BsonDateTime(1546300800000L))
+        .append("beforeEpoch", new BsonDateTime(-1L))
+        .append("regex", new BsonRegularExpression("^a.*", "i"))
+        .append("timestamp", new BsonTimestamp(1, 2))
+        .append("bool", BsonBoolean.TRUE)
+        .append("null", BsonNull.VALUE)
+        .append("min", new BsonMinKey())
+        .append("array", new BsonArray(Arrays.asList(
+            new BsonString("a\u00e9\n\"b"),
+            new BsonDocument("nested", new BsonArray()),
+            new BsonDocument())));
+
+    // the shell mode is not JSON, and is never sent by the server
+    for (final JsonMode mode
+        : Arrays.asList(JsonMode.STRICT, JsonMode.EXTENDED, JsonMode.RELAXED)) {
+      final String json = doc.toJson(JsonWriterSettings.builder().outputMode(mode).build());
+      assertEquals(
+          mode.name(),
+          BsonUtils.parseValue(json, codec),
+          BsonUtils.readJsonValue(new ByteArrayInputStream(json.getBytes("UTF-8")), codec));
+    }
+
+    assertEquals(
+        new BsonString("value"),
+        BsonUtils.readJsonValue(
+            new ByteArrayInputStream("\"value\"".getBytes("UTF-8")), new BsonValueCodec()));
+    assertEquals(
+        Long.valueOf(5),
+        BsonUtils.readJsonValue(
+            new ByteArrayInputStream("{\"$numberLong\": \"5\"}".getBytes("UTF-8")),
+            new LongCodec()));
+    assertNull(BsonUtils.readJsonValue(
+        new ByteArrayInputStream("null".getBytes("UTF-8")), codec));
+  }
+
+  @Test
+  public void testReadJsonValueAllocatesLess() throws Exception {
+    final BsonArray docs = new BsonArray();
+    for (int i = 0; i < 20000; i++) {
+      docs.add(newTestDocument(256).append("index", new BsonInt32(i)));
+    }
+    final byte[] json = new BsonDocument("docs", docs).toJson().getBytes("UTF-8");
+    final BsonDocumentCodec codec = new BsonDocumentCodec();
+
+    // run both paths once first so that class loading is not counted
+    final BsonDocument expected = BsonUtils.parseValue(new String(json, "UTF-8"), codec);
+    assertEquals(expected, BsonUtils.readJsonValue(new ByteArrayInputStream(json), codec));
+
+    final com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long threadId = Thread.currentThread().getId();
+
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    BsonUtils.parseValue(IoUtils.readAllToString(new ByteArrayInputStream(json)), codec);
+    final long bufferedBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    before = threadBean.getThreadAllocatedBytes(threadId);
+    BsonUtils.readJsonValue(new ByteArrayInputStream(json), codec);
+    final long streamedBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertTrue(streamedBytes < bufferedBytes / 2);
+  }
+
+  @Test
+  public void testReadValuesIncrementally() throws Exception {
+    final BsonArray values = new BsonArray(Arrays.asList(
+        newTestDocument(16),
+        new BsonInt32(1),
+        new BsonString("two"),
+        BsonNull.VALUE,
+        new BsonRegularExpression("^a", "i"),
+        new BsonArray(Arrays.asList(new BsonInt64(3), new BsonDocument())),
+        new BsonDecimal128(Decimal128.parse("4.5")),
+        new BsonTimestamp(5, 6),
+        new BsonMinKey()));
+    final byte[] bson = BsonUtils.toBsonBytes(
+        new BsonDocument("value", values), new BsonDocumentCodec());
+    final String wrappedJson = new BsonDocument("value", values).toJson();
+    final byte[] json = wrappedJson
+        .substring(wrappedJson.indexOf('['), wrappedJson.lastIndexOf(']') + 1)
+        .getBytes("UTF-8");
+
+    for (final CloseableIterator<BsonValue> iterator : Arrays.asList(
+        BsonUtils.readValues(new ByteArrayInputStream(bson), new BsonValueCodec()),
+        BsonUtils.readJsonValues(new ByteArrayInputStream(json), new BsonValueCodec()))) {
+      final BsonArray decoded = new BsonArray();
+      while (iterator.hasNext()) {
+        final BsonValue value = iterator.next();
+        decoded.add(value == null ? BsonNull.VALUE : value);
+      }
+      assertEquals(values, decoded);
+    }
+
+    assertFalse(BsonUtils.readJsonValues(
+        new ByteArrayInputStream("null".getBytes("UTF-8")), new BsonValueCodec()).hasNext());
+    assertFalse(BsonUtils.readValues(
+        new ByteArrayInputStream(BsonUtils.toBsonBytes(
+            new BsonDocument("value", BsonNull.VALUE), new BsonDocumentCodec())),
+        new BsonValueCodec()).hasNext());
+  }
+
+  @Test
+  public void testFirstValueIsReadBeforeTheRest() throws Exception {
+    final BsonDocumentCodec codec = new BsonDocumentCodec();
+    final BsonArray docs = new BsonArray();
+    for (int i = 0; i < 100; i++) {
+      docs.add(newTestDocument(1024));
+    }
+    final byte[] bson = BsonUtils.toBsonBytes(new BsonDocument("value", docs), codec);
+    final byte[] json = docs.stream()
+        .map(doc -> doc.asDocument().toJson())
+        .collect(Collectors.joining(",", "[", "]"))
+        .getBytes("UTF-8");
+
+    for (final boolean isBson : Arrays.asList(true, false)) {
+      // only the first few kilobytes of the body have arrived
+      final byte[] body = isBson ? bson : json;
+      final PartialInputStream in = new PartialInputStream(body, 4 * 1024);
+      final CloseableIterator<BsonDocument> iterator = isBson
+          ? BsonUtils.readValues(in, codec) : BsonUtils.readJsonValues(in, codec);
+
+      assertTrue(iterator.hasNext());
+      assertEquals(docs.get(0), iterator.next());
+      iterator.close();
+      assertTrue(in.closed);
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  /**
+   * A stream of which only a prefix has arrived, and that fails if more is read.
+   */
+  private static final class PartialInputStream extends ByteArrayInputStream {
+    private final int available;
+    private boolean closed;
+
+    PartialInputStream(final byte[] bytes, final int available) {
+      super(bytes);
+      this.available = available;
+    }
+
+    @Override
+    public synchronized int read(final byte[] bytes, final int off, final int len) {
+      if (pos >= available) {
+        throw new IllegalStateException("read past the part of the body that has arrived");
+      }
+      return super.read(bytes, off, Math.min(len, available - pos));
+    }
+
+    @Override
+    public synchronized int read() {
+      if (pos >= available) {
+        throw new IllegalStateException("read past the part of the body that has arrived");
+      }
+      return super.read();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static CoreStitchAuth<?> newAuth(final LocalFunctionServer server) {
+    final StitchRequestClient requestClient = getMockedRequestClient();
+    doAnswer(invocation -> server.handle(invocation.getArgument(0)))
+        .when(requestClient)
+        .doRequest(argThat(req -> req.getPath().endsWith("/functions/call")));
+
+    final CoreStitchAuthUnitTests.StitchAuth auth = new CoreStitchAuthUnitTests.StitchAuth(
+        requestClient,
+        new StitchAppRoutes("my_app-12345").getAuthRoutes(),
+        new MemoryStorage());
+    auth.loginWithCredentialInternal(new AnonymousCredential());
+    return auth;
+  }
+
+  private static CoreStitchServiceClient newServiceClient(final CoreStitchAuth<?> auth) {
+    return new CoreStitchServiceClientImpl(
+        auth,
+        new StitchServiceRoutes("my_app-12345"),
+        "svc1",
+        BsonUtils.DEFAULT_CODEC_REGISTRY);
+  }
+
+  private static BsonDocument newTestDocument(final int binarySize) {
+    final byte[] data = new byte[binarySize];
+    new Random(binarySize).nextBytes(data);
+    return new BsonDocument("_id", new BsonObjectId())
+        .append("name", new BsonString("stitch"))
+        .append("count", new BsonInt64(Long.MAX_VALUE))
+        .append("ratio", new BsonDouble(0.5))
+        .append("data", new BsonBinary(data));
+  }
+}
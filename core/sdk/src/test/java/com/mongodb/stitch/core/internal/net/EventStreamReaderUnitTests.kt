@@ -1,5 +1,6 @@
 package com.mongodb.stitch.core.internal.net
 
+import okio.Buffer
 import org.junit.Test
 import kotlin.test.assertEquals
 
@@ -26,8 +27,8 @@ class EventStreamReaderUnitTests {
             return testStream.hasNext()
         }
 
-        override fun readLine(): String {
-            return testStream.next()
+        override fun readLine(sink: Buffer) {
+            sink.writeUtf8(testStream.next())
         }
     }
 
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.internal.net;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import okhttp3.OkHttpClient;
+import okhttp3.internal.http2.Header;
+import okhttp3.internal.http2.Http2Connection;
+import okhttp3.internal.http2.Http2Stream;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * A local stand-in for the Stitch server that answers every request with an empty JSON document
+ * after a simulated latency. It serves HTTPS with a self-signed certificate for localhost, and
+ * negotiates HTTP/2 via ALPN when both it and the client support it, falling back to HTTP/1.1
+ * with keep-alive otherwise.
+ */
+public final class LocalTlsServer {
+  private static final String KEY_STORE = "/localhost.p12";
+  private static final char[] KEY_STORE_PASSWORD = "password".toCharArray();
+  private static final byte[] RESPONSE_BODY = "{}".getBytes(StandardCharsets.UTF_8);
+
+  private final SSLContext sslContext;
+  private final X509TrustManager trustManager;
+  private final SSLServerSocket serverSocket;
+  private final ExecutorService executor;
+  private final long latencyMillis;
+  private final AtomicInteger numConnections = new AtomicInteger();
+
+  /**
+   * Starts a server listening on an ephemeral port of the loopback interface.
+   *
+   * @param latencyMillis the number of milliseconds to wait before responding to each request.
+   */
+  public LocalTlsServer(final long latencyMillis) throws Exception {
+    this.latencyMillis = latencyMillis;
+
+    final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    try (InputStream in = LocalTlsServer.class.getResourceAsStream(KEY_STORE)) {
+      keyStore.load(in, KEY_STORE_PASSWORD);
+    }
+    final KeyManagerFactory keyManagerFactory =
+        KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    keyManagerFactory.init(keyStore, KEY_STORE_PASSWORD);
+    final TrustManagerFactory trustManagerFactory =
+        TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    trustManagerFactory.init(keyStore);
+    this.trustManager = (X509TrustManager) trustManagerFactory.getTrustManagers()[0];
+    this.sslContext = SSLContext.getInstance("TLS");
+    this.sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+    this.serverSocket = (SSLServerSocket) sslContext.getServerSocketFactory()
+        .createServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    this.executor = Executors.newCachedThreadPool();
+    this.executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        acceptConnections();
+      }
+    });
+  }
+
+  /**
+   * Returns whether or not this JVM can negotiate HTTP/2 over TLS, which requires ALPN support
+   * in the JDK (Java 9 and later).
+   */
+  public static boolean isAlpnSupported() {
+    try {
+      SSLParameters.class.getMethod("setApplicationProtocols", String[].class);
+      return true;
+    } catch (final NoSuchMethodException ex) {
+      return false;
+    }
+  }
+
+  public String getUrl(final String path) {
+    return String.format(
+        Locale.US, "https://localhost:%d%s", serverSocket.getLocalPort(), path);
+  }
+
+  /**
+   * Returns the number of connections clients have opened to this server.
+   */
+  public int getNumConnections() {
+    return numConnections.get();
+  }
+
+  /**
+   * Returns a client builder that trusts this server's certificate.
+   */
+  public OkHttpClient.Builder newTrustingClientBuilder() throws Exception {
+    final SSLContext clientContext = SSLContext.getInstance("TLS");
+    clientContext.init(null, new X509TrustManager[]{trustManager}, null);
+    return new OkHttpClient.Builder()
+        .sslSocketFactory(clientContext.getSocketFactory(), trustManager);
+  }
+
+  public void close() throws IOException {
+    serverSocket.close();
+    executor.shutdownNow();
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      final SSLSocket socket;
+      try {
+        socket = (SSLSocket) serverSocket.accept();
+      } catch (final IOException ex) {
+        return;
+      }
+      numConnections.incrementAndGet();
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            serveConnection(socket);
+          } catch (final Exception ex) {
+            closeQuietly(socket);
+          }
+        }
+      });
+    }
+  }
+
+  private void serveConnection(final SSLSocket socket) throws Exception {
+    socket.setUseClientMode(false);
+    if (isAlpnSupported()) {
+      final SSLParameters params = socket.getSSLParameters();
+      SSLParameters.class.getMethod("setApplicationProtocols", String[].class)
+          .invoke(params, (Object) new String[]{"h2", "http/1.1"});
+      socket.setSSLParameters(params);
+    }
+    socket.startHandshake();
+
+    if ("h2".equals(getApplicationProtocol(socket))) {
+      new Http2Connection.Builder(false)
+          .socket(socket)
+          .listener(new Http2Connection.Listener() {
+            @Override
+            public void onStream(final Http2Stream stream) throws IOException {
+              serveStream(stream);
+            }
+          })
+          .build()
+          .start();
+    } else {
+      serveHttp1(socket);
+    }
+  }
+
+  private void serveStream(final Http2Stream stream) throws IOException {
+    Okio.buffer(stream.getSource()).readByteArray();
+    simulateLatency();
+    stream.sendResponseHeaders(Arrays.asList(
+        new Header(Header.RESPONSE_STATUS, "200"),
+        new Header(Headers.CONTENT_TYPE.toLowerCase(Locale.US), ContentTypes.APPLICATION_JSON)),
+        true);
+    final BufferedSink sink = Okio.buffer(stream.getSink());
+    sink.write(RESPONSE_BODY);
+    sink.close();
+  }
+
+  private void serveHttp1(final Socket socket) throws IOException {
+    final InputStream in = socket.getInputStream();
+    final BufferedReader reader =
+        new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1));
+    final OutputStream out = socket.getOutputStream();
+    while (true) {
+      final String requestLine = reader.readLine();
+      if (requestLine == null) {
+        socket.close();
+        return;
+      }
+      int contentLength = 0;
+      String line;
+      while ((line = reader.readLine()) != null && !line.isEmpty()) {
+        if (line.toLowerCase(Locale.US).startsWith("content-length:")) {
+          contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+        }
+      }
+      for (int i = 0; i < contentLength; i++) {
+        reader.read();
+      }
+
+      simulateLatency();
+      out.write(String.format(
+          Locale.US,
+          "HTTP/1.1 200 OK\r\nContent-Type: %s\r\nContent-Length: %d\r\n\r\n",
+          ContentTypes.APPLICATION_JSON,
+          RESPONSE_BODY.length).getBytes(StandardCharsets.ISO_8859_1));
+      out.write(RESPONSE_BODY);
+      out.flush();
+    }
+  }
+
+  private void simulateLatency() throws IOException {
+    try {
+      Thread.sleep(latencyMillis);
+    } catch (final InterruptedException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  private static String getApplicationProtocol(final SSLSocket socket) throws Exception {
+    if (!isAlpnSupported()) {
+      return null;
+    }
+    final Method method = SSLSocket.class.getMethod("getApplicationProtocol");
+    return (String) method.invoke(socket);
+  }
+
+  private static void closeQuietly(final Socket socket) {
+    try {
+      socket.close();
+    } catch (final IOException ex) {
+      // ignore
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.internal.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import okhttp3.Call;
+import okio.Buffer;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class OkHttpEventStreamParsingUnitTests {
+
+  @Test
+  public void testParseLines() throws IOException {
+    final Buffer buffer = new Buffer().writeUtf8(
+        ": a comment\r\n"
+            + "event: error\r\n"
+            + "data:no space\r\n"
+            + "data:  two spaces\n"
+            + "id: 1\n"
+            + "unknown: field\n"
+            + "data\n"
+            + "\r\n"
+            + "data: ünïcödé\n"
+            + "\n"
+            + "data: unterminated");
+    final OkHttpEventStream stream =
+        new OkHttpEventStream(null, buffer, Mockito.mock(Call.class));
+
+    final Event error = stream.nextEvent();
+    assertEquals("error", error.getEventName());
+    assertEquals("no space\n two spaces\n", error.getData());
+
+    final Event message = stream.nextEvent();
+    assertEquals(Event.MESSAGE_EVENT, message.getEventName());
+    assertEquals("ünïcödé", message.getData());
+
+    // a line the stream ends in the middle of is dropped, like any undispatched event
+    try {
+      stream.nextEvent();
+      fail("expected the stream to have ended");
+    } catch (final EOFException ignored) {
+      // do nothing
+    }
+  }
+
+  @Test
+  public void testDecodeData() {
+    final String plain = "{\"a\": 1}";
+    assertSame(plain, StitchEvent.decodeData(plain));
+    assertEquals("100%\n\r%", StitchEvent.decodeData("100%25%0A%0D%25"));
+    assertEquals("%0a%zz%", StitchEvent.decodeData("%0a%zz%"));
+    assertEquals("a%2", StitchEvent.decodeData("a%2"));
+    assertEquals("%25", StitchEvent.decodeData("%2525"));
+  }
+
+  @Test
+  public void testManyEvents() throws IOException {
+    // the reused line and data buffers must not carry anything over from event to event
+    final int eventCount = 10000;
+    final OkHttpEventStream stream = newChangeEventStream(eventCount);
+    parseChangeEvents(stream, eventCount);
+
+    try {
+      stream.nextEvent();
+      fail("expected the stream to be exhausted");
+    } catch (final EOFException ex) {
+      // expected
+    }
+  }
+
+  private static OkHttpEventStream newChangeEventStream(final int eventCount) {
+    final Buffer buffer = new Buffer();
+    for (int i = 0; i < eventCount; i++) {
+      final BsonDocument changeEvent = new BsonDocument("operationType", new BsonString("update"))
+          .append("documentKey", new BsonDocument("_id", new BsonInt32(i)))
+          .append("fullDocument", new BsonDocument("_id", new BsonInt32(i))
+              .append("text", new BsonString("line one%0Aline two at 100%25")));
+      buffer.writeUtf8("data: ").writeUtf8(changeEvent.toJson()).writeUtf8("\n\n");
+    }
+    return new OkHttpEventStream(null, buffer, Mockito.mock(Call.class));
+  }
+
+  private static void parseChangeEvents(
+      final OkHttpEventStream stream,
+      final int eventCount
+  ) throws IOException {
+    for (int i = 0; i < eventCount; i++) {
+      final StitchEvent<BsonDocument> event =
+          StitchEvent.fromEvent(stream.nextEvent(), new BsonDocumentCodec());
+      assertNull(event.getError());
+      assertEquals(i, event.getData().getDocument("documentKey").getInt32("_id").getValue());
+      assertEquals(
+          "line one\nline two at 100%",
+          event.getData().getDocument("fullDocument").getString("text").getValue());
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.internal.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OkHttpTransportHttp2UnitTests {
+
+  private static final long SIMULATED_LATENCY_MILLIS = 50;
+  private static final int CONCURRENT_REQUESTS = 32;
+
+  private LocalTlsServer server;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new LocalTlsServer(SIMULATED_LATENCY_MILLIS);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.close();
+  }
+
+  /**
+   * Issues a burst of concurrent requests over HTTP/1.1 and over HTTP/2, and checks that HTTP/2
+   * multiplexes all of them over a single connection.
+   */
+  @Test
+  public void testConcurrentRequestsShareOneHttp2Connection() throws Exception {
+    Assume.assumeTrue(LocalTlsServer.isAlpnSupported());
+
+    final OkHttpTransport http1Transport = newTransport(false);
+    final int http1Connections;
+    try {
+      issueConcurrentRequests(http1Transport);
+      http1Connections = server.getNumConnections();
+    } finally {
+      http1Transport.close();
+    }
+
+    final OkHttpTransport http2Transport = newTransport(true);
+    final int http2Connections;
+    try {
+      issueConcurrentRequests(http2Transport);
+      http2Connections = server.getNumConnections() - http1Connections;
+    } finally {
+      http2Transport.close();
+    }
+
+    assertTrue(http1Connections > 1);
+    assertEquals(1, http2Connections);
+  }
+
+  /**
+   * Issues many more asynchronous requests than the transport runs at once, and checks that they
+   * all complete over a single HTTP/2 connection without a thread per request.
+   */
+  @Test
+  public void testAsyncRequestsShareBoundedThreads() throws Exception {
+    Assume.assumeTrue(LocalTlsServer.isAlpnSupported());
+
+    final OkHttpTransport transport = newTransport(true);
+    try {
+      transport.roundTrip(newRequest(10000));
+
+      final int numRequests = 500;
+      final CountDownLatch done = new CountDownLatch(numRequests);
+      final AtomicInteger failures = new AtomicInteger();
+      final Set<Thread> callbackThreads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+      for (int i = 0; i < numRequests; i++) {
+        transport.roundTripAsync(newRequest(30000), result -> {
+          callbackThreads.add(Thread.currentThread());
+          if (!result.isSuccessful() || result.geResult().getStatusCode() != 200) {
+            failures.incrementAndGet();
+          }
+          done.countDown();
+        });
+      }
+      assertTrue(done.await(60, TimeUnit.SECONDS));
+
+      assertEquals(0, failures.get());
+      assertEquals(1, server.getNumConnections());
+      // the dispatcher runs at most its maximum number of calls at once, on a cached pool of
+      // threads, so the number of threads stays far below the number of requests
+      assertTrue(callbackThreads.size() < numRequests / 4);
+    } finally {
+      transport.close();
+    }
+  }
+
+  @Test
+  public void testRequestTimeoutsApplyPerCall() throws Exception {
+    final OkHttpTransport transport = newTransport(false);
+    try {
+      try {
+        transport.roundTrip(newRequest(SIMULATED_LATENCY_MILLIS / 5));
+        fail("expected request to time out");
+      } catch (final SocketTimeoutException ex) {
+        // expected
+      }
+
+      // the next call on the same client gets its own, longer timeout
+      assertEquals(200, (int) transport.roundTrip(newRequest(10000)).getStatusCode());
+    } finally {
+      transport.close();
+    }
+  }
+
+  private OkHttpTransport newTransport(final boolean http2Enabled) throws Exception {
+    return new OkHttpTransport(
+        server.newTrustingClientBuilder(),
+        http2Enabled,
+        OkHttpTransport.DEFAULT_MAX_IDLE_CONNECTIONS,
+        OkHttpTransport.DEFAULT_CONNECTION_KEEP_ALIVE_DURATION);
+  }
+
+  private Request newRequest(final long timeout) {
+    return new Request.Builder()
+        .withMethod(Method.GET)
+        .withUrl(server.getUrl("/echo"))
+        .withTimeout(timeout)
+        .build();
+  }
+
+  private void issueConcurrentRequests(final OkHttpTransport transport) throws Exception {
+    // establish the first connection before the burst, as an HTTP/2 client only knows it can
+    // multiplex once it has negotiated the protocol with the server
+    transport.roundTrip(newRequest(10000));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+    try {
+      final List<Future<Response>> futures = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+        futures.add(executor.submit(() -> transport.roundTrip(newRequest(10000))));
+      }
+      for (final Future<Response> future : futures) {
+        assertEquals(200, (int) future.get(30, TimeUnit.SECONDS).getStatusCode());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.internal.net;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.codecs.IntegerCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OkHttpTransportStreamUnitTests {
+
+  private ServerSocket serverSocket;
+  private ExecutorService executor;
+  private OkHttpTransport transport;
+
+  @Before
+  public void setUp() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    executor = Executors.newSingleThreadExecutor();
+    transport = new OkHttpTransport();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    transport.close();
+    serverSocket.close();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Opens a stream with a POST, as a function call too long for a URL is, and checks that the
+   * server receives the call in the body and the token in a header, and that the events it
+   * answers with are read like those of any other stream.
+   */
+  @Test
+  public void testStreamOpenedWithPost() throws Exception {
+    final Future<ReceivedRequest> received = executor.submit(new Callable<ReceivedRequest>() {
+      @Override
+      public ReceivedRequest call() throws IOException {
+        return serveEvents("data: {\"$numberInt\": \"42\"}\n\ndata: {\"$numberInt\": \"43\"}\n\n");
+      }
+    });
+
+    final Document call = new Document("name", "watch")
+        .append("service", "mongodb-atlas")
+        .append("arguments", Arrays.asList(1, 2, 3));
+    final Map<String, String> headers = new HashMap<>();
+    headers.put(Headers.AUTHORIZATION, Headers.getAuthorizationBearer("token"));
+    final StitchRequestClient requestClient = new StitchRequestClientImpl(
+        String.format(Locale.US, "http://localhost:%d", serverSocket.getLocalPort()),
+        transport,
+        1500L);
+
+    final Stream<Integer> stream = new Stream<>(
+        requestClient.doStreamRequest(new StitchAuthDocRequest.Builder()
+            .withMethod(Method.POST)
+            .withPath("/functions/call")
+            .withHeaders(headers)
+            .withDocument(call)
+            .build()),
+        new IntegerCodec());
+    try {
+      assertEquals(42, (int) stream.nextEvent().getData());
+      assertEquals(43, (int) stream.nextEvent().getData());
+    } finally {
+      stream.close();
+    }
+
+    final ReceivedRequest request = received.get(5, TimeUnit.SECONDS);
+    assertEquals("POST /functions/call HTTP/1.1", request.requestLine);
+    assertEquals("Bearer token", request.headers.get("authorization"));
+    assertEquals(ContentTypes.APPLICATION_JSON, request.headers.get("content-type"));
+    assertEquals(ContentTypes.TEXT_EVENT_STREAM, request.headers.get("accept"));
+    assertEquals(call, Document.parse(request.body));
+  }
+
+  /**
+   * Accepts a single connection, reads the request sent on it, and answers it with the given
+   * server-sent events.
+   */
+  private ReceivedRequest serveEvents(final String events) throws IOException {
+    try (Socket socket = serverSocket.accept()) {
+      final BufferedReader reader = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+      final ReceivedRequest request = new ReceivedRequest(reader.readLine());
+      String line;
+      while ((line = reader.readLine()) != null && !line.isEmpty()) {
+        final int colon = line.indexOf(':');
+        request.headers.put(
+            line.substring(0, colon).trim().toLowerCase(Locale.US),
+            line.substring(colon + 1).trim());
+      }
+      final String contentLength = request.headers.get("content-length");
+      final char[] body = new char[contentLength == null ? 0 : Integer.parseInt(contentLength)];
+      int read = 0;
+      while (read < body.length) {
+        read += reader.read(body, read, body.length - read);
+      }
+      request.body = new String(body);
+
+      final OutputStream out = socket.getOutputStream();
+      out.write(String.format(
+          Locale.US,
+          "HTTP/1.1 200 OK\r\nContent-Type: %s\r\nConnection: close\r\n\r\n%s",
+          ContentTypes.TEXT_EVENT_STREAM,
+          events).getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      return request;
+    }
+  }
+
+  private static final class ReceivedRequest {
+    private final String requestLine;
+    private final Map<String, String> headers = new HashMap<>();
+    private String body;
+
+    ReceivedRequest(final String requestLine) {
+      this.requestLine = requestLine;
+    }
+  }
+}
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
@@ -29,11 +30,16 @@ import com.mongodb.stitch.core.StitchRequestErrorCode;
 import com.mongodb.stitch.core.StitchRequestException;
 import com.mongodb.stitch.core.StitchServiceErrorCode;
 import com.mongodb.stitch.core.StitchServiceException;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
 import com.mongodb.stitch.core.internal.common.StitchObjectMapper;
+import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import org.bson.Document;
@@ -41,9 +47,74 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
 
 public class StitchRequestClientImplUnitTests {
 
+  @Test
+  public void testDoRequestAsync() throws Exception {
+    final Transport transport = Mockito.mock(Transport.class);
+    final StitchRequestClient stitchRequestClient =
+        new StitchRequestClientImpl("http://domain.com", transport, 1500L);
+    final StitchRequest request =
+        new StitchRequest.Builder().withPath("/path").withMethod(Method.GET).build();
+
+    // A normal response completes the callback with that response
+    doAnswer(completeWith(OperationResult.successfulResultOf(new Response(200, "{}"))))
+        .when(transport).roundTripAsync(any(), any());
+    assertEquals(200, (int) doRequestAsync(stitchRequestClient, request).get().getStatusCode());
+
+    // A bad response completes the callback with the service error
+    final Map<String, String> headers = new HashMap<>();
+    headers.put(Headers.CONTENT_TYPE, ContentTypes.APPLICATION_JSON);
+    doAnswer(completeWith(OperationResult.successfulResultOf(new Response(
+        500, headers, "{\"error\": \"bad\", \"error_code\": \"InvalidSession\"}"))))
+        .when(transport).roundTripAsync(any(), any());
+    try {
+      doRequestAsync(stitchRequestClient, request).get();
+      fail();
+    } catch (final ExecutionException ex) {
+      assertEquals(
+          StitchServiceErrorCode.INVALID_SESSION,
+          ((StitchServiceException) ex.getCause()).getErrorCode());
+    }
+
+    // A failed round trip completes the callback with a transport error
+    doAnswer(completeWith(OperationResult.failedResultOf(new IOException("whoops"))))
+        .when(transport).roundTripAsync(any(), any());
+    try {
+      doRequestAsync(stitchRequestClient, request).get();
+      fail();
+    } catch (final ExecutionException ex) {
+      assertEquals(
+          StitchRequestErrorCode.TRANSPORT_ERROR,
+          ((StitchRequestException) ex.getCause()).getErrorCode());
+    }
+  }
+
+  private static Answer<Void> completeWith(final OperationResult<Response, Exception> result) {
+    return invocation -> {
+      final Callback<Response, Exception> callback = invocation.getArgument(1);
+      callback.onComplete(result);
+      return null;
+    };
+  }
+
+  private static CompletableFuture<Response> doRequestAsync(
+      final StitchRequestClient stitchRequestClient,
+      final StitchRequest request
+  ) {
+    final CompletableFuture<Response> future = new CompletableFuture<>();
+    stitchRequestClient.doRequestAsync(request, result -> {
+      if (result.isSuccessful()) {
+        future.complete(result.geResult());
+      } else {
+        future.completeExceptionally(result.getFailure());
+      }
+    });
+    return future;
+  }
+
   @Test
   public void testDoRequest() throws Exception {
     final String domain = "http://domain.com";
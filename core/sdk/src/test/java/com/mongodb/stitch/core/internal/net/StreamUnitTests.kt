@@ -1,5 +1,6 @@
 package com.mongodb.stitch.core.internal.net
 
+import okio.Buffer
 import org.bson.Document
 import org.bson.codecs.DocumentCodec
 import org.junit.Assert.assertEquals
@@ -21,8 +22,8 @@ class StreamUnitTests {
             return testStream.hasNext()
         }
 
-        override fun readLine(): String {
-            return testStream.next()
+        override fun readLine(sink: Buffer) {
+            sink.writeUtf8(testStream.next())
         }
 
         override fun cancel() {
@@ -19,15 +19,21 @@ package com.mongodb.stitch.core.services.internal;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import com.mongodb.stitch.core.StitchServiceErrorCode;
+import com.mongodb.stitch.core.StitchServiceException;
 import com.mongodb.stitch.core.auth.internal.StitchAuthRequestClient;
 import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
 import com.mongodb.stitch.core.internal.net.Method;
 import com.mongodb.stitch.core.internal.net.StitchAuthDocRequest;
 import com.mongodb.stitch.core.internal.net.StitchAuthRequest;
@@ -40,9 +46,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonValue;
 import org.bson.Document;
 import org.bson.codecs.Decoder;
+import org.bson.codecs.DecoderContext;
 import org.bson.codecs.IntegerCodec;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.internal.Base64;
@@ -272,4 +289,402 @@ public class CoreStitchServiceUnitTests {
     assertTrue(decArgument.getValue() instanceof IntegerCodec);
     assertFalse(reqArgument.getValue().getUseRefreshToken());
   }
+
+  @Test
+  public void testStreamFunctionWithLargeArguments() throws InterruptedException, IOException {
+    final Stream<Integer> stream = StreamTestUtils.createStream(new IntegerCodec(), "42");
+
+    doReturn(stream)
+        .when(requestClient)
+        .openAuthenticatedStream(
+            any(StitchAuthRequest.class), ArgumentMatchers.<Decoder<Integer>>any());
+
+    final String funcName = "myFunc1";
+    final List<Integer> args = new ArrayList<>();
+    for (int i = 0; i < CoreStitchServiceClientImpl.MAX_STREAM_REQUEST_QUERY_LENGTH; i++) {
+      args.add(i);
+    }
+    final Document expectedRequestDoc = new Document();
+    expectedRequestDoc.put("name", funcName);
+    expectedRequestDoc.put("service", TEST_SERVICE_NAME);
+    expectedRequestDoc.put("arguments", args);
+
+    // by default, even arguments too large for a URL are encoded into the URL of a GET
+    assertEquals(
+        stream, underTest.streamFunction(
+            funcName, args, new IntegerCodec()));
+
+    final ArgumentCaptor<StitchAuthRequest> reqArgument =
+        ArgumentCaptor.forClass(StitchAuthRequest.class);
+    verify(requestClient).openAuthenticatedStream(
+        reqArgument.capture(), ArgumentMatchers.<Decoder<Integer>>any());
+    assertEquals(Method.GET, reqArgument.getValue().getMethod());
+    assertEquals(routes.getFunctionCallRoute() + "?stitch_request="
+            + Base64.encode(expectedRequestDoc.toJson().getBytes(StandardCharsets.UTF_8)),
+        reqArgument.getValue().getPath());
+
+    // once streams may be posted, they are sent in the body of a POST instead
+    assertEquals(
+        stream, underTest.withPostedStreamRequests().streamFunction(
+            funcName, args, new IntegerCodec()));
+
+    verify(requestClient, times(2)).openAuthenticatedStream(
+        reqArgument.capture(), ArgumentMatchers.<Decoder<Integer>>any());
+    assertEquals(Method.POST, reqArgument.getValue().getMethod());
+    assertEquals(routes.getFunctionCallRoute(), reqArgument.getValue().getPath());
+    assertTrue(reqArgument.getValue() instanceof StitchAuthDocRequest);
+    assertEquals(
+        expectedRequestDoc, ((StitchAuthDocRequest) reqArgument.getValue()).getDocument());
+    assertTrue(reqArgument.getValue().getBody().length > 0);
+  }
+
+  @Test
+  public void testFunctionCallBatch() {
+    final List<StitchAuthDocRequest> requests = serveFunctionCalls();
+
+    final FunctionCallBatch batch = underTest.newFunctionCallBatch();
+    final List<OperationResult<Integer, Exception>> results = new ArrayList<>();
+    batch.callFunction("add", Arrays.asList(1, 2), new IntegerCodec(), results::add);
+    batch.callFunction("add", Arrays.asList(3, 4), Integer.class, results::add);
+    batch.callFunction("fail", Collections.emptyList(), new IntegerCodec(), results::add);
+    assertEquals(3, batch.size());
+    batch.execute();
+
+    // one request carries every call, and each call gets its own result
+    assertEquals(1, requests.size());
+    assertEquals(routes.getFunctionCallBatchRoute(), requests.get(0).getPath());
+    assertEquals(3, results.size());
+    assertEquals(3, (int) results.get(0).geResult());
+    assertEquals(7, (int) results.get(1).geResult());
+    assertFalse(results.get(2).isSuccessful());
+    assertEquals(
+        StitchServiceErrorCode.FUNCTION_EXECUTION_ERROR,
+        ((StitchServiceException) results.get(2).getFailure()).getErrorCode());
+
+    try {
+      batch.execute();
+      fail("expected a batch to only be executable once");
+    } catch (final IllegalStateException ignored) {
+      // do nothing
+    }
+
+    // a batch of one is an ordinary function call
+    final FunctionCallBatch single = underTest.newFunctionCallBatch();
+    single.callFunction("add", Arrays.asList(5, 6), new IntegerCodec(), results::add);
+    single.execute();
+    assertEquals(2, requests.size());
+    assertEquals(routes.getFunctionCallRoute(), requests.get(1).getPath());
+    assertEquals(11, (int) results.get(3).geResult());
+  }
+
+  @Test
+  public void testRequestBatching() throws Exception {
+    final List<StitchAuthDocRequest> requests = serveFunctionCalls();
+    final CoreStitchServiceClient batching = underTest.withRequestBatching(200);
+
+    final int callCount = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(callCount);
+    try {
+      final List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < callCount; i++) {
+        final int arg = i;
+        results.add(executor.submit(() ->
+            batching.callFunction("add", Arrays.asList(arg, arg), new IntegerCodec())));
+      }
+      for (int i = 0; i < callCount; i++) {
+        assertEquals(i * 2, (int) results.get(i).get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // calls made within the window of each other share a request
+    assertTrue(requests.size() < callCount);
+    int batchedCalls = 0;
+    for (final StitchAuthDocRequest request : requests) {
+      batchedCalls += request.getPath().equals(routes.getFunctionCallBatchRoute())
+          ? ((List<?>) request.getDocument().get("calls")).size() : 1;
+    }
+    assertEquals(callCount, batchedCalls);
+
+    // failures are thrown by the call that failed
+    try {
+      batching.callFunction("fail", Collections.emptyList(), new IntegerCodec());
+      fail("expected the call to fail");
+    } catch (final StitchServiceException ex) {
+      assertEquals(StitchServiceErrorCode.FUNCTION_EXECUTION_ERROR, ex.getErrorCode());
+    }
+  }
+
+  @Test
+  public void testCallCoalescing() {
+    final List<StitchAuthDocRequest> requests = serveFunctionCalls();
+    doReturn("user1").when(requestClient).getActiveUserId();
+    final CoreStitchServiceClient coalescing = underTest.withCallCoalescing(
+        new FunctionCallCoalescer(Collections.singleton("add"), 2, 1, TimeUnit.HOURS));
+    final FunctionCallCoalescer.Stats stats = coalescing.getCallCoalescer().getStats();
+
+    // identical calls are answered from the cache
+    assertEquals(3, (int) coalescing.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(3, (int) coalescing.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(1, requests.size());
+    assertEquals(1, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+
+    // calls with other arguments or by another user are not identical
+    assertEquals(4, (int) coalescing.callFunction("add", Arrays.asList(2, 2), Integer.class));
+    doReturn("user2").when(requestClient).getActiveUserId();
+    assertEquals(3, (int) coalescing.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(3, requests.size());
+
+    // the least recently used result is evicted when the cache is full
+    assertEquals(1, stats.getEvictionCount());
+    assertEquals(3, (int) coalescing.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(3, requests.size());
+    doReturn("user1").when(requestClient).getActiveUserId();
+    assertEquals(3, (int) coalescing.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(4, requests.size());
+    doReturn("user2").when(requestClient).getActiveUserId();
+
+    // calling a function that is not idempotent clears the cache
+    coalescing.callFunction("remove", Collections.emptyList(), Integer.class);
+    assertEquals(3, (int) coalescing.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(5, requests.size());
+    assertEquals(2, stats.getHitCount());
+    assertEquals(5, stats.getMissCount());
+
+    // expired results are not used
+    final CoreStitchServiceClient expiring = underTest.withCallCoalescing(
+        new FunctionCallCoalescer(Collections.singleton("add"), 10, 1, TimeUnit.NANOSECONDS));
+    assertEquals(3, (int) expiring.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(3, (int) expiring.callFunction("add", Arrays.asList(1, 2), Integer.class));
+    assertEquals(7, requests.size());
+    assertEquals(0, expiring.getCallCoalescer().getStats().getHitCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCallSingleFlight() throws Exception {
+    final List<Callback<Object, Exception>> pendingCalls =
+        Collections.synchronizedList(new ArrayList<>());
+    doAnswer(invocation -> {
+      pendingCalls.add(invocation.getArgument(2));
+      return null;
+    }).when(requestClient).doAuthenticatedRequestAsync(
+        any(StitchAuthRequest.class), any(Decoder.class), any(Callback.class));
+    final CoreStitchServiceClient coalescing = underTest.withCallCoalescing(
+        new FunctionCallCoalescer(Collections.singleton("add")));
+    final FunctionCallCoalescer.Stats stats = coalescing.getCallCoalescer().getStats();
+
+    final int callCount = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(callCount);
+    try {
+      final List<Future<Integer>> results = new ArrayList<>();
+      for (int i = 0; i < callCount; i++) {
+        results.add(executor.submit(() ->
+            coalescing.callFunction("add", Arrays.asList(1, 2), new IntegerCodec())));
+      }
+      final long deadline = System.currentTimeMillis() + 10000;
+      while (stats.getCoalescedCount() < callCount - 1) {
+        assertTrue(System.currentTimeMillis() < deadline);
+        Thread.sleep(10);
+      }
+
+      // every call shares the one request in flight
+      assertEquals(1, pendingCalls.size());
+      pendingCalls.get(0).onComplete(OperationResult.successfulResultOf(new BsonInt32(3)));
+      for (final Future<Integer> result : results) {
+        assertEquals(3, (int) result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // results are not kept once the request completes
+    final Future<Integer> later = Executors.newSingleThreadExecutor().submit(() ->
+        coalescing.callFunction("add", Arrays.asList(1, 2), new IntegerCodec()));
+    final long deadline = System.currentTimeMillis() + 10000;
+    while (pendingCalls.size() < 2) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+    pendingCalls.get(1).onComplete(OperationResult.successfulResultOf(new BsonInt32(3)));
+    assertEquals(3, (int) later.get());
+    assertEquals(2, stats.getMissCount());
+    assertEquals(0, stats.getHitCount());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCallsInFlightDuringWriteAreNotShared() throws Exception {
+    final List<Callback<Object, Exception>> pendingCalls =
+        Collections.synchronizedList(new ArrayList<>());
+    doAnswer(invocation -> {
+      pendingCalls.add(invocation.getArgument(2));
+      return null;
+    }).when(requestClient).doAuthenticatedRequestAsync(
+        any(StitchAuthRequest.class), any(Decoder.class), any(Callback.class));
+    final CoreStitchServiceClient coalescing = underTest.withCallCoalescing(
+        new FunctionCallCoalescer(Collections.singleton("add"), 10, 1, TimeUnit.HOURS));
+    final FunctionCallCoalescer.Stats stats = coalescing.getCallCoalescer().getStats();
+
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      // a read starts before a write and so may see the state from before it
+      final Future<Integer> staleRead = executor.submit(() ->
+          coalescing.callFunction("add", Arrays.asList(1, 2), new IntegerCodec()));
+      awaitPendingCalls(pendingCalls, 1);
+      coalescing.callFunction("remove", Collections.emptyList(), Integer.class);
+
+      // a read after the write does not join the read from before it
+      final Future<Integer> freshRead = executor.submit(() ->
+          coalescing.callFunction("add", Arrays.asList(1, 2), new IntegerCodec()));
+      awaitPendingCalls(pendingCalls, 2);
+      assertEquals(0, stats.getCoalescedCount());
+
+      // nor is the result of the read from before the write cached
+      pendingCalls.get(0).onComplete(OperationResult.successfulResultOf(new BsonInt32(3)));
+      assertEquals(3, (int) staleRead.get());
+      final Future<Integer> joiningRead = executor.submit(() ->
+          coalescing.callFunction("add", Arrays.asList(1, 2), new IntegerCodec()));
+      final long deadline = System.currentTimeMillis() + 10000;
+      while (stats.getCoalescedCount() < 1) {
+        assertTrue(System.currentTimeMillis() < deadline);
+        Thread.sleep(10);
+      }
+      assertEquals(0, stats.getHitCount());
+
+      // the result of the read after the write is shared and cached
+      pendingCalls.get(1).onComplete(OperationResult.successfulResultOf(new BsonInt32(4)));
+      assertEquals(4, (int) freshRead.get());
+      assertEquals(4, (int) joiningRead.get());
+      assertEquals(4, (int) coalescing.callFunction(
+          "add", Arrays.asList(1, 2), new IntegerCodec()));
+      assertEquals(1, stats.getHitCount());
+      assertEquals(2, pendingCalls.size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCallsOverlappingWriteAreNotCached() throws Exception {
+    final List<Callback<Object, Exception>> pendingCalls =
+        Collections.synchronizedList(new ArrayList<>());
+    doAnswer(invocation -> {
+      pendingCalls.add(invocation.getArgument(2));
+      return null;
+    }).when(requestClient).doAuthenticatedRequestAsync(
+        any(StitchAuthRequest.class), any(Decoder.class), any(Callback.class));
+    final CoreStitchServiceClient coalescing = underTest.withCallCoalescing(
+        new FunctionCallCoalescer(Collections.singleton("add"), 10, 1, TimeUnit.HOURS));
+    final FunctionCallCoalescer.Stats stats = coalescing.getCallCoalescer().getStats();
+
+    final List<OperationResult<Integer, Exception>> writeResults =
+        Collections.synchronizedList(new ArrayList<>());
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      for (final boolean writeSucceeds : new boolean[] {true, false}) {
+        final int write = pendingCalls.size();
+        coalescing.callFunctionAsync(
+            "remove", Collections.emptyList(), null, new IntegerCodec(), writeResults::add);
+        awaitPendingCalls(pendingCalls, write + 1);
+
+        // a read made while a write is in flight may be executed before it
+        final Future<Integer> overlappingRead = executor.submit(() ->
+            coalescing.callFunction("add", Arrays.asList(1, 2), new IntegerCodec()));
+        awaitPendingCalls(pendingCalls, write + 2);
+        pendingCalls.get(write + 1).onComplete(OperationResult.successfulResultOf(
+            new BsonInt32(3)));
+        assertEquals(3, (int) overlappingRead.get());
+
+        // so its result is not used once the write completes, whether or not it succeeds
+        pendingCalls.get(write).onComplete(writeSucceeds
+            ? OperationResult.successfulResultOf(new BsonInt32(1))
+            : OperationResult.failedResultOf(
+                new StitchServiceException("bad", StitchServiceErrorCode.UNKNOWN)));
+        assertEquals(writeSucceeds, writeResults.get(writeResults.size() - 1).isSuccessful());
+        final Future<Integer> laterRead = executor.submit(() ->
+            coalescing.callFunction("add", Arrays.asList(1, 2), new IntegerCodec()));
+        awaitPendingCalls(pendingCalls, write + 3);
+        pendingCalls.get(write + 2).onComplete(OperationResult.successfulResultOf(
+            new BsonInt32(4)));
+        assertEquals(4, (int) laterRead.get());
+      }
+      assertEquals(0, stats.getHitCount());
+      assertEquals(4, stats.getMissCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void awaitPendingCalls(
+      final List<?> pendingCalls,
+      final int count
+  ) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 10000;
+    while (pendingCalls.size() < count) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * Answers asynchronous function calls and batches of them as a stand-in for Stitch would, with
+   * an "add" function that sums its arguments and a "fail" function that always fails.
+   */
+  @SuppressWarnings("unchecked")
+  private List<StitchAuthDocRequest> serveFunctionCalls() {
+    final List<StitchAuthDocRequest> requests = Collections.synchronizedList(new ArrayList<>());
+    doAnswer(invocation -> {
+      final StitchAuthDocRequest request = invocation.getArgument(0);
+      requests.add(request);
+      final Decoder<?> decoder = invocation.getArgument(1);
+      final Callback<Object, Exception> callback = invocation.getArgument(2);
+
+      if (request.getPath().equals(routes.getFunctionCallRoute())) {
+        final BsonDocument result = callLocalFunction(request.getDocument());
+        if (result.containsKey("error")) {
+          callback.onComplete(OperationResult.failedResultOf(new StitchServiceException(
+              result.getString("error").getValue(),
+              StitchServiceErrorCode.fromCodeName(result.getString("error_code").getValue()))));
+        } else {
+          callback.onComplete(OperationResult.successfulResultOf(
+              decodeResponse(result.get("result"), decoder)));
+        }
+        return null;
+      }
+
+      final BsonArray results = new BsonArray();
+      for (final Object call : (List<?>) request.getDocument().get("calls")) {
+        results.add(callLocalFunction((Document) call));
+      }
+      callback.onComplete(OperationResult.successfulResultOf(decodeResponse(results, decoder)));
+      return null;
+    }).when(requestClient).doAuthenticatedRequestAsync(
+        any(StitchAuthRequest.class), any(Decoder.class), any(Callback.class));
+    return requests;
+  }
+
+  private static Object decodeResponse(final BsonValue response, final Decoder<?> decoder) {
+    final BsonDocumentReader reader = new BsonDocumentReader(new BsonDocument("value", response));
+    reader.readStartDocument();
+    reader.readBsonType();
+    reader.skipName();
+    return decoder.decode(reader, DecoderContext.builder().build());
+  }
+
+  private static BsonDocument callLocalFunction(final Document call) {
+    assertEquals(TEST_SERVICE_NAME, call.getString("service"));
+    if (call.getString("name").equals("fail")) {
+      return new BsonDocument("error", new BsonString("function failed"))
+          .append("error_code", new BsonString("FunctionExecutionError"));
+    }
+    int sum = 0;
+    for (final Object arg : (List<?>) call.get("arguments")) {
+      sum += (Integer) arg;
+    }
+    return new BsonDocument("result", new BsonInt32(sum));
+  }
 }
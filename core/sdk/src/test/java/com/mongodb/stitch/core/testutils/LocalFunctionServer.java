@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.testutils;
+
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.net.ContentTypes;
+import com.mongodb.stitch.core.internal.net.Headers;
+import com.mongodb.stitch.core.internal.net.Response;
+import com.mongodb.stitch.core.internal.net.StitchRequest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+/**
+ * A local stand-in for the function call route of a Stitch server. It runs an "echo" function,
+ * which returns its first argument, and speaks either extended JSON only or both extended JSON
+ * and binary BSON, the way a server would depending on its version.
+ */
+public class LocalFunctionServer {
+  private final boolean supportsBson;
+  private final List<String> requestContentTypes = new ArrayList<>();
+  private final List<Integer> requestBodySizes = new ArrayList<>();
+
+  public LocalFunctionServer(final boolean supportsBson) {
+    this.supportsBson = supportsBson;
+  }
+
+  /**
+   * Handles a function call request, and returns its response.
+   */
+  public synchronized Response handle(final StitchRequest request) {
+    final String contentType = request.getHeaders().get(Headers.CONTENT_TYPE);
+    requestContentTypes.add(contentType);
+    requestBodySizes.add(request.getBody().length);
+
+    final BsonDocument call;
+    if (ContentTypes.APPLICATION_BSON.equals(contentType)) {
+      if (!supportsBson) {
+        throw new AssertionError("server does not accept BSON request bodies");
+      }
+      call = new BsonDocumentCodec().decode(
+          new BsonBinaryReader(ByteBuffer.wrap(request.getBody())),
+          DecoderContext.builder().build());
+    } else {
+      call = BsonDocument.parse(new String(request.getBody(), StandardCharsets.UTF_8));
+    }
+
+    if (!call.getString("name").getValue().equals("echo")) {
+      throw new AssertionError(String.format("unknown function %s", call.getString("name")));
+    }
+    final BsonValue result = call.getArray("arguments").isEmpty()
+        ? BsonNull.VALUE : call.getArray("arguments").get(0);
+
+    final String accept = request.getHeaders().get(Headers.ACCEPT);
+    final BsonDocument wrappedResult = new BsonDocument("value", result);
+    if (supportsBson && accept != null && accept.contains(ContentTypes.APPLICATION_BSON)) {
+      return new Response(
+          200,
+          Collections.singletonMap(Headers.CONTENT_TYPE, ContentTypes.APPLICATION_BSON),
+          new ByteArrayInputStream(
+              BsonUtils.toBsonBytes(wrappedResult, new BsonDocumentCodec())));
+    }
+
+    // extended JSON can represent a single value, so strip the wrapping document off
+    final String json = wrappedResult.toJson(JsonWriterSettings.builder()
+        .outputMode(JsonMode.EXTENDED).build());
+    return new Response(
+        200,
+        Collections.singletonMap(Headers.CONTENT_TYPE, ContentTypes.APPLICATION_JSON),
+        json.substring(json.indexOf(':') + 1, json.lastIndexOf('}')).trim());
+  }
+
+  public synchronized List<String> getRequestContentTypes() {
+    return new ArrayList<>(requestContentTypes);
+  }
+
+  public synchronized List<Integer> getRequestBodySizes() {
+    return new ArrayList<>(requestBodySizes);
+  }
+}
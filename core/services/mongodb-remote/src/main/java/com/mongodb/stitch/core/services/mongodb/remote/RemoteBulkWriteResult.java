@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.bson.BsonValue;
+
+/**
+ * The result of a bulk write operation.
+ */
+public class RemoteBulkWriteResult {
+
+  private final List<WriteModelResult> results;
+
+  /**
+   * Constructs a result.
+   *
+   * @param results the result of each write, in the order the writes were requested.
+   */
+  public RemoteBulkWriteResult(final List<WriteModelResult> results) {
+    this.results = Collections.unmodifiableList(results);
+  }
+
+  /**
+   * Returns the result of each write, in the order the writes were requested. Writes that were
+   * not attempted because an earlier write of an ordered bulk write failed have no result.
+   *
+   * @return the result of each write.
+   */
+  public List<WriteModelResult> getResults() {
+    return results;
+  }
+
+  /**
+   * Returns whether or not any of the writes failed.
+   *
+   * @return true if any of the writes failed, false if not.
+   */
+  public boolean hasErrors() {
+    for (final WriteModelResult result : results) {
+      if (result.hasError()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The result of a single write within a bulk write operation.
+   */
+  public static class WriteModelResult {
+    private final long matchedCount;
+    private final long modifiedCount;
+    private final long deletedCount;
+    private final BsonValue insertedId;
+    private final BsonValue upsertedId;
+    private final Integer errorCode;
+    private final String errorMessage;
+
+    /**
+     * Constructs a result.
+     *
+     * @param matchedCount the number of documents matched by the write's query.
+     * @param modifiedCount the number of documents modified by the write.
+     * @param deletedCount the number of documents deleted by the write.
+     * @param insertedId the _id of the inserted document if the write was an insert, otherwise
+     *                   null.
+     * @param upsertedId the _id of the inserted document if the write was an update or replace
+     *                   that resulted in an inserted document, otherwise null.
+     * @param errorCode the MongoDB error code if the write failed, otherwise null.
+     * @param errorMessage the error message if the write failed, otherwise null.
+     */
+    public WriteModelResult(
+        final long matchedCount,
+        final long modifiedCount,
+        final long deletedCount,
+        @Nullable final BsonValue insertedId,
+        @Nullable final BsonValue upsertedId,
+        @Nullable final Integer errorCode,
+        @Nullable final String errorMessage
+    ) {
+      this.matchedCount = matchedCount;
+      this.modifiedCount = modifiedCount;
+      this.deletedCount = deletedCount;
+      this.insertedId = insertedId;
+      this.upsertedId = upsertedId;
+      this.errorCode = errorCode;
+      this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Returns the number of documents matched by the write's query.
+     *
+     * @return the number of documents matched.
+     */
+    public long getMatchedCount() {
+      return matchedCount;
+    }
+
+    /**
+     * Returns the number of documents modified by the write.
+     *
+     * @return the number of documents modified.
+     */
+    public long getModifiedCount() {
+      return modifiedCount;
+    }
+
+    /**
+     * Returns the number of documents deleted by the write.
+     *
+     * @return the number of documents deleted.
+     */
+    public long getDeletedCount() {
+      return deletedCount;
+    }
+
+    /**
+     * If the write was an insert, gets the _id of the inserted document, otherwise null.
+     *
+     * @return the _id of the inserted document if the write was an insert, otherwise null.
+     */
+    @Nullable
+    public BsonValue getInsertedId() {
+      return insertedId;
+    }
+
+    /**
+     * If the write was an update or replace that resulted in an inserted document, gets the _id
+     * of the inserted document, otherwise null.
+     *
+     * @return the _id of the upserted document, otherwise null.
+     */
+    @Nullable
+    public BsonValue getUpsertedId() {
+      return upsertedId;
+    }
+
+    /**
+     * Returns whether or not the write failed.
+     *
+     * @return true if the write failed, false if not.
+     */
+    public boolean hasError() {
+      return errorCode != null;
+    }
+
+    /**
+     * If the write failed, gets the MongoDB error code it failed with, otherwise null. For
+     * example, a write that violated a unique index fails with error code 11000.
+     *
+     * @return the error code the write failed with, otherwise null.
+     */
+    @Nullable
+    public Integer getErrorCode() {
+      return errorCode;
+    }
+
+    /**
+     * If the write failed, gets the message describing why, otherwise null.
+     *
+     * @return the message describing why the write failed, otherwise null.
+     */
+    @Nullable
+    public String getErrorMessage() {
+      return errorMessage;
+    }
+  }
+}
@@ -26,6 +26,7 @@ public class RemoteFindOptions {
   private int limit;
   private Bson projection;
   private Bson sort;
+  private int batchSize;
 
   /**
    * Construct a new instance.
@@ -96,12 +97,38 @@ public class RemoteFindOptions {
     return this;
   }
 
+  /**
+   * Gets the number of documents to request at a time when iterating over the results. The
+   * default is 0, which means that all of the results are requested at once.
+   *
+   * @return the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the number of documents to request at a time when iterating over the results. Batches
+   * are requested in the order of the sort, with _id breaking ties, and each one only matches the
+   * documents that come after the last document of the one before it. For this to visit every
+   * result, each field of the sort must be present with a consistent type in every result. A
+   * find that sorts by something other than field values is not split into batches.
+   *
+   * @param batchSize the batch size, or 0 to request all of the results at once.
+   * @return this
+   */
+  public RemoteFindOptions batchSize(final int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "RemoteFindOptions{"
         + "limit=" + limit
         + ", projection=" + projection
         + ", sort=" + sort
+        + ", batchSize=" + batchSize
         + "}";
   }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.mongodb.remote;
+
+import com.mongodb.stitch.core.StitchException;
+
+/**
+ * Thrown when some of the requests that an insert many operation was split into fail. The
+ * documents of the requests that succeeded were inserted, and their _ids are in the partial
+ * result. Some documents of the requests that failed may have been inserted as well.
+ */
+public class RemoteInsertManyException extends StitchException {
+
+  private final RemoteInsertManyResult result;
+
+  /**
+   * Constructs an exception for an insert many operation that partially failed.
+   *
+   * @param cause the failure of the first request that failed.
+   * @param result the _ids of the documents of the requests that succeeded.
+   */
+  public RemoteInsertManyException(
+      final Exception cause,
+      final RemoteInsertManyResult result
+  ) {
+    super(cause);
+    this.result = result;
+  }
+
+  /**
+   * Returns the _ids of the documents of the requests that succeeded, arranged by the index of
+   * the document from the operation.
+   *
+   * @return the partial result of the operation.
+   */
+  public RemoteInsertManyResult getResult() {
+    return result;
+  }
+}
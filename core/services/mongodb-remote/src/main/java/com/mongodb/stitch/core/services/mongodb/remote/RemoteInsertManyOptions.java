@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.mongodb.remote;
+
+/**
+ * The options to apply when inserting many documents. Documents too large to send in one request
+ * are split into several requests, and these options determine how those requests are made.
+ */
+public class RemoteInsertManyOptions {
+  private boolean ordered = true;
+
+  /**
+   * Returns true if the documents should be inserted in order, stopping at the first one that
+   * fails. If false, the requests are made in parallel, and every request is attempted regardless
+   * of whether the others fail. The default is true.
+   *
+   * @return true if the documents should be inserted in order
+   */
+  public boolean isOrdered() {
+    return ordered;
+  }
+
+  /**
+   * Set to true if the documents should be inserted in order, stopping at the first one that
+   * fails.
+   *
+   * @param ordered true if the documents should be inserted in order, stopping at the first one
+   *                that fails.
+   * @return this
+   */
+  public RemoteInsertManyOptions ordered(final boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "RemoteInsertManyOptions{"
+        + "ordered=" + ordered
+        + '}';
+  }
+}
@@ -56,14 +56,30 @@ class AggregateOperation<T> implements Operation<Collection<T>> {
   }
 
   public Collection<T> execute(final CoreStitchServiceClient service) {
+    return service.callFunction(
+        "aggregate",
+        Collections.singletonList(getArgs()),
+        new CollectionDecoder<>(decoder));
+  }
+
+  /**
+   * Returns a cursor over the results, which are decoded as they arrive.
+   *
+   * @param service the service client to run the aggregation with.
+   * @return a cursor over the results.
+   */
+  CoreRemoteMongoCursor<T> iterator(final CoreStitchServiceClient service) {
+    return new CoreRemoteMongoCursorImpl<>(service.callFunctionForIterator(
+        "aggregate",
+        Collections.singletonList(getArgs()),
+        decoder));
+  }
+
+  private Document getArgs() {
     final Document args = new Document();
     args.put("database", namespace.getDatabaseName());
     args.put("collection", namespace.getCollectionName());
     args.put("pipeline", pipeline);
-
-    return service.callFunction(
-        "aggregate",
-        Collections.singletonList(args),
-        new CollectionDecoder<>(decoder));
+    return args;
   }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.internal;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
+import java.util.Collections;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.bson.Document;
+
+class BulkWriteOperation implements Operation<RemoteBulkWriteResult> {
+  private final MongoNamespace namespace;
+  private final List<BsonDocument> operations;
+  private boolean ordered = true;
+
+  /**
+   * Constructs a bulk write operation.
+   *
+   * @param namespace the namespace to write to.
+   * @param operations the writes to execute, each a document with a single key naming the kind of
+   *                   write (e.g. "updateOne") whose value holds the arguments of the write.
+   */
+  BulkWriteOperation(
+      final MongoNamespace namespace,
+      final List<BsonDocument> operations
+  ) {
+    this.namespace = namespace;
+    this.operations = operations;
+  }
+
+  public BulkWriteOperation ordered(final boolean ordered) {
+    this.ordered = ordered;
+    return this;
+  }
+
+  public RemoteBulkWriteResult execute(final CoreStitchServiceClient service) {
+    final Document args = new Document();
+    args.put("database", namespace.getDatabaseName());
+    args.put("collection", namespace.getCollectionName());
+    args.put("operations", operations);
+    args.put("ordered", ordered);
+
+    return service.callFunction(
+        "bulkWrite",
+        Collections.singletonList(args),
+        ResultDecoders.bulkWriteResultDecoder);
+  }
+}
@@ -19,6 +19,7 @@ package com.mongodb.stitch.core.services.mongodb.remote.internal;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import java.util.Collection;
 import java.util.List;
+import javax.annotation.Nonnull;
 import org.bson.conversions.Bson;
 
 class CoreRemoteAggregateIterableImpl<DocumentT, ResultT>
@@ -37,6 +38,12 @@ class CoreRemoteAggregateIterableImpl<DocumentT, ResultT>
     this.pipeline = pipeline;
   }
 
+  @Override
+  @Nonnull
+  public CoreRemoteMongoCursor<ResultT> iterator() {
+    return getOperations().aggregate(pipeline, getResultClass()).iterator(getService());
+  }
+
   Operation<Collection<ResultT>> asOperation() {
     return getOperations().aggregate(pipeline, getResultClass());
   }
@@ -52,4 +52,14 @@ public interface CoreRemoteFindIterable<ResultT> extends CoreRemoteMongoIterable
    * @return this
    */
   CoreRemoteFindIterable<ResultT> sort(@Nullable final Bson sort);
+
+  /**
+   * Sets the number of documents to request at a time when iterating over the results, so that
+   * only a batch of them is held in memory at once. Batches are requested in the order of the
+   * sort, so each field of the sort must be present with a consistent type in every result.
+   *
+   * @param batchSize the batch size, or 0 to request all of the results at once.
+   * @return this
+   */
+  CoreRemoteFindIterable<ResultT> batchSize(final int batchSize);
 }
@@ -22,6 +22,7 @@ import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOptions;
 import java.util.Collection;
 import java.util.Iterator;
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.bson.conversions.Bson;
 
@@ -91,6 +92,23 @@ public class CoreRemoteFindIterableImpl<DocumentT, ResultT>
     return this;
   }
 
+  /**
+   * Sets the number of documents to request at a time when iterating over the results.
+   *
+   * @param batchSize the batch size, or 0 to request all of the results at once.
+   * @return this
+   */
+  public CoreRemoteFindIterableImpl<DocumentT, ResultT> batchSize(final int batchSize) {
+    findOptions.batchSize(batchSize);
+    return this;
+  }
+
+  @Override
+  @Nonnull
+  public CoreRemoteMongoCursor<ResultT> iterator() {
+    return getOperations().find(filter, getResultClass(), findOptions).iterator(getService());
+  }
+
   @Nullable
   @Override
   public ResultT first() {
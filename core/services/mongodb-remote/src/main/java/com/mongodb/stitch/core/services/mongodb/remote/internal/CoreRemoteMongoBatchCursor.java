@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.mongodb.remote.internal;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.stitch.core.StitchRequestErrorCode;
+import com.mongodb.stitch.core.StitchRequestException;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.CollectionDecoder;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+
+import javax.annotation.Nonnull;
+
+import org.bson.BsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.Decoder;
+import org.bson.codecs.DecoderContext;
+
+/**
+ * A cursor over the results of a find that requests them a page at a time, using
+ * {@link KeysetPagination}. While the documents of one page are being consumed, the next page is
+ * already being requested, so at most two pages are held in memory at once.
+ *
+ * @param <ResultT> the type of the results.
+ */
+class CoreRemoteMongoBatchCursor<ResultT> implements CoreRemoteMongoCursor<ResultT> {
+  private static final CollectionDecoder<BsonDocument> PAGE_DECODER =
+      new CollectionDecoder<>(new BsonDocumentCodec());
+
+  private final CoreStitchServiceClient service;
+  private final MongoNamespace namespace;
+  private final KeysetPagination pagination;
+  private final Decoder<ResultT> decoder;
+  private final int batchSize;
+
+  private int remaining;
+  private int pendingLimit;
+  private PendingPage pendingPage;
+  private Iterator<BsonDocument> page = Collections.<BsonDocument>emptyList().iterator();
+
+  CoreRemoteMongoBatchCursor(
+      final CoreStitchServiceClient service,
+      final MongoNamespace namespace,
+      final KeysetPagination pagination,
+      final Decoder<ResultT> decoder,
+      final int limit,
+      final int batchSize
+  ) {
+    this.service = service;
+    this.namespace = namespace;
+    this.pagination = pagination;
+    this.decoder = decoder;
+    this.batchSize = batchSize;
+    this.remaining = limit > 0 ? limit : Integer.MAX_VALUE;
+    requestPage(null);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!page.hasNext()) {
+      if (pendingPage == null) {
+        return false;
+      }
+      final List<BsonDocument> documents = pendingPage.await();
+      final int requestedLimit = pendingLimit;
+      pendingPage = null;
+      remaining -= documents.size();
+      page = documents.iterator();
+
+      // a short page means there is nothing after it
+      if (documents.size() == requestedLimit && remaining > 0) {
+        requestPage(documents.get(documents.size() - 1));
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public ResultT next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final BsonDocument document = pagination.removeAddedFields(page.next());
+    return decoder.decode(document.asBsonReader(), DecoderContext.builder().build());
+  }
+
+  @Override
+  public void close() {
+    // a page still in flight is left to complete on its own
+    pendingPage = null;
+    page = Collections.<BsonDocument>emptyList().iterator();
+  }
+
+  private void requestPage(final BsonDocument lastDocument) {
+    pendingLimit = Math.min(batchSize, remaining);
+    pendingPage = new PendingPage();
+    service.callFunctionAsync(
+        "find",
+        Collections.singletonList(FindOperation.getFindArgs(
+            namespace,
+            pagination.getFilter(lastDocument),
+            pendingLimit,
+            pagination.getProjection(),
+            pagination.getSort())),
+        null,
+        PAGE_DECODER,
+        pendingPage);
+  }
+
+  private static final class PendingPage
+      implements Callback<Collection<BsonDocument>, Exception> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile OperationResult<Collection<BsonDocument>, Exception> result;
+
+    @Override
+    public void onComplete(
+        @Nonnull final OperationResult<Collection<BsonDocument>, Exception> result
+    ) {
+      this.result = result;
+      done.countDown();
+    }
+
+    List<BsonDocument> await() {
+      try {
+        done.await();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new StitchRequestException(e, StitchRequestErrorCode.TRANSPORT_ERROR);
+      }
+      if (!result.isSuccessful()) {
+        final Exception failure = result.getFailure();
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        throw new StitchRequestException(failure, StitchRequestErrorCode.TRANSPORT_ERROR);
+      }
+      final Collection<BsonDocument> documents = result.geResult();
+      return documents instanceof List
+          ? (List<BsonDocument>) documents : new ArrayList<>(documents);
+    }
+  }
+}
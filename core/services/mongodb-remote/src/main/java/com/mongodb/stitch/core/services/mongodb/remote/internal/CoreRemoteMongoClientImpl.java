@@ -57,6 +57,7 @@ public class CoreRemoteMongoClientImpl implements CoreRemoteMongoClient, StitchS
             service.getName(),
             clientFactory
         ),
+        SyncMongoClientFactory.getLocalWriteJournalFile(appInfo, service.getName()),
         this,
         appInfo.getNetworkMonitor(),
         appInfo.getAuthMonitor(),
@@ -90,7 +91,8 @@ public class CoreRemoteMongoClientImpl implements CoreRemoteMongoClient, StitchS
                     appInfo,
                     service.getName(),
                     clientFactory
-                )
+                ),
+                SyncMongoClientFactory.getLocalWriteJournalFile(appInfo, service.getName())
             );
           } else {
             this.dataSynchronizer.stop();
@@ -19,15 +19,20 @@ package com.mongodb.stitch.core.services.mongodb.remote.internal;
 import static com.mongodb.stitch.core.internal.common.Assertions.notNull;
 
 import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.stitch.core.internal.net.NetworkMonitor;
 import com.mongodb.stitch.core.internal.net.Stream;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+import com.mongodb.stitch.core.services.internal.FunctionCallCoalescer;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 import com.mongodb.stitch.core.services.mongodb.remote.CompactChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteCountOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOneAndModifyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateOptions;
@@ -41,6 +46,10 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 
 import org.bson.BsonDocument;
 import org.bson.BsonObjectId;
@@ -52,6 +61,11 @@ import org.bson.types.ObjectId;
 public class CoreRemoteMongoCollectionImpl<DocumentT>
     implements CoreRemoteMongoCollection<DocumentT> {
 
+  // The functions whose results may be shared between identical calls; every other function
+  // called through a coalescing collection writes, and clears any cached results.
+  private static final Set<String> READ_FUNCTION_NAMES =
+      new HashSet<>(Arrays.asList("find", "findOne", "count", "aggregate"));
+
   private final MongoNamespace namespace;
   private final Class<DocumentT> documentClass;
   private final CoreStitchServiceClient service;
@@ -135,6 +149,38 @@ public class CoreRemoteMongoCollectionImpl<DocumentT>
       networkMonitor);
   }
 
+  @Override
+  public CoreRemoteMongoCollection<DocumentT> withCallCoalescing(
+      final int maxCachedResults,
+      final long cacheTtl,
+      final TimeUnit cacheTtlUnit
+  ) {
+    return new CoreRemoteMongoCollectionImpl<>(
+      namespace,
+      documentClass,
+      service.withCallCoalescing(new FunctionCallCoalescer(
+          READ_FUNCTION_NAMES, maxCachedResults, cacheTtl, cacheTtlUnit)),
+      dataSynchronizer,
+      networkMonitor);
+  }
+
+  @Override
+  public CoreRemoteMongoCollection<DocumentT> withPostedWatchRequests() {
+    return new CoreRemoteMongoCollectionImpl<>(
+      namespace,
+      documentClass,
+      service.withPostedStreamRequests(),
+      dataSynchronizer,
+      networkMonitor);
+  }
+
+  @Override
+  @Nullable
+  public FunctionCallCoalescer.Stats getCallCoalescingStats() {
+    final FunctionCallCoalescer coalescer = service.getCallCoalescer();
+    return coalescer == null ? null : coalescer.getStats();
+  }
+
   /**
    * Counts the number of documents in the collection.
    *
@@ -348,11 +394,56 @@ public class CoreRemoteMongoCollectionImpl<DocumentT>
    * @return the result of the insert many operation
    */
   public RemoteInsertManyResult insertMany(final List<? extends DocumentT> documents) {
-    return executeInsertMany(documents);
+    return insertMany(documents, new RemoteInsertManyOptions());
   }
 
-  private RemoteInsertManyResult executeInsertMany(final List<? extends DocumentT> documents) {
-    return operations.insertMany(documents).execute(service);
+  /**
+   * Inserts one or more documents. Documents too large to send in one request are split into
+   * several requests.
+   *
+   * @param documents the documents to insert
+   * @param options the options to apply to the insert many operation
+   * @return the result of the insert many operation
+   */
+  public RemoteInsertManyResult insertMany(
+      final List<? extends DocumentT> documents,
+      final RemoteInsertManyOptions options
+  ) {
+    return executeInsertMany(documents, options);
+  }
+
+  private RemoteInsertManyResult executeInsertMany(
+      final List<? extends DocumentT> documents,
+      final RemoteInsertManyOptions options
+  ) {
+    return operations.insertMany(documents, options).execute(service);
+  }
+
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request. The writes are
+   * executed in order, stopping at the first one that fails.
+   *
+   * @param requests the writes to execute
+   * @return the result of each write
+   */
+  public RemoteBulkWriteResult bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests
+  ) {
+    return bulkWrite(requests, new RemoteBulkWriteOptions());
+  }
+
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request.
+   *
+   * @param requests the writes to execute
+   * @param options the options to apply to the bulk write operation
+   * @return the result of each write
+   */
+  public RemoteBulkWriteResult bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests,
+      final RemoteBulkWriteOptions options
+  ) {
+    return operations.bulkWrite(requests, options).execute(service);
   }
 
   /**
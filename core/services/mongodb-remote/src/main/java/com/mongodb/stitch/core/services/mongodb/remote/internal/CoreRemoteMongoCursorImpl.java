@@ -16,6 +16,8 @@
 
 package com.mongodb.stitch.core.services.mongodb.remote.internal;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
 
 public class CoreRemoteMongoCursorImpl<ResultT> implements CoreRemoteMongoCursor<ResultT> {
@@ -36,7 +38,9 @@ public class CoreRemoteMongoCursorImpl<ResultT> implements CoreRemoteMongoCursor
   }
 
   @Override
-  public void close() {
-
+  public void close() throws IOException {
+    if (documents instanceof Closeable) {
+      ((Closeable) documents).close();
+    }
   }
 }
@@ -20,6 +20,7 @@ import com.mongodb.Block;
 import com.mongodb.Function;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 
+import java.io.IOException;
 import java.util.Collection;
 
 import javax.annotation.Nonnull;
@@ -71,10 +72,14 @@ public abstract class CoreRemoteMongoIterableImpl<DocumentT, ResultT>
   @Nullable
   public ResultT first() {
     final CoreRemoteMongoCursor<ResultT> cursor = iterator();
-    if (!cursor.hasNext()) {
-      return null;
+    try {
+      if (!cursor.hasNext()) {
+        return null;
+      }
+      return cursor.next();
+    } finally {
+      closeQuietly(cursor);
     }
-    return cursor.next();
   }
 
   /**
@@ -96,8 +101,13 @@ public abstract class CoreRemoteMongoIterableImpl<DocumentT, ResultT>
    * @param block the block to apply to each document of type T.
    */
   public void forEach(final Block<? super ResultT> block) {
-    for (final ResultT resultT : this) {
-      block.apply(resultT);
+    final CoreRemoteMongoCursor<ResultT> cursor = iterator();
+    try {
+      while (cursor.hasNext()) {
+        block.apply(cursor.next());
+      }
+    } finally {
+      closeQuietly(cursor);
     }
   }
 
@@ -117,4 +127,12 @@ public abstract class CoreRemoteMongoIterableImpl<DocumentT, ResultT>
     });
     return target;
   }
+
+  private static void closeQuietly(final CoreRemoteMongoCursor<?> cursor) {
+    try {
+      cursor.close();
+    } catch (final IOException e) {
+      // nothing is left to read from the cursor
+    }
+  }
 }
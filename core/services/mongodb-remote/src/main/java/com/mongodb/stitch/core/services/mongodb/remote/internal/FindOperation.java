@@ -36,6 +36,7 @@ public class FindOperation<T> implements Operation<Collection<T>> {
   private int limit;
   private BsonDocument projection;
   private BsonDocument sort;
+  private int batchSize;
 
   /**
    * Construct a new instance.
@@ -94,8 +95,53 @@ public class FindOperation<T> implements Operation<Collection<T>> {
     return this;
   }
 
+  /**
+   * Sets the number of documents to request at a time when iterating over the results with
+   * {@link #iterator}.
+   *
+   * @param batchSize the batch size, or 0 to request all of the results at once.
+   * @return this
+   */
+  public FindOperation<T> batchSize(final int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
   public Collection<T> execute(final CoreStitchServiceClient service) {
+    return service.callFunction(
+        "find",
+        Collections.singletonList(getFindArgs(namespace, filter, limit, projection, sort)),
+        new CollectionDecoder<>(decoder));
+  }
+
+  /**
+   * Returns a cursor over the results. If a batch size is set and the results can be paged
+   * through by their sort order, the cursor requests them a batch at a time; otherwise all of
+   * the results are requested at once, and decoded as they arrive.
+   *
+   * @param service the service client to run the find with.
+   * @return a cursor over the results.
+   */
+  public CoreRemoteMongoCursor<T> iterator(final CoreStitchServiceClient service) {
+    final KeysetPagination pagination =
+        batchSize > 0 ? KeysetPagination.of(filter, projection, sort) : null;
+    if (pagination == null) {
+      return new CoreRemoteMongoCursorImpl<>(service.callFunctionForIterator(
+          "find",
+          Collections.singletonList(getFindArgs(namespace, filter, limit, projection, sort)),
+          decoder));
+    }
+    return new CoreRemoteMongoBatchCursor<>(
+        service, namespace, pagination, decoder, limit, batchSize);
+  }
 
+  static Document getFindArgs(
+      final MongoNamespace namespace,
+      final BsonDocument filter,
+      final int limit,
+      final BsonDocument projection,
+      final BsonDocument sort
+  ) {
     final Document args = new Document();
     args.put("database", namespace.getDatabaseName());
     args.put("collection", namespace.getCollectionName());
@@ -103,10 +149,6 @@ public class FindOperation<T> implements Operation<Collection<T>> {
     args.put("limit", limit);
     args.put("project", projection);
     args.put("sort", sort);
-
-    return service.callFunction(
-        "find",
-        Collections.singletonList(args),
-        new CollectionDecoder<>(decoder));
+    return args;
   }
 }
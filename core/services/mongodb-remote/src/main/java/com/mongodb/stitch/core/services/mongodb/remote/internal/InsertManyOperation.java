@@ -17,34 +17,222 @@
 package com.mongodb.stitch.core.services.mongodb.remote.internal;
 
 import com.mongodb.MongoNamespace;
+import com.mongodb.stitch.core.StitchRequestErrorCode;
+import com.mongodb.stitch.core.StitchRequestException;
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+import com.mongodb.stitch.core.internal.net.Transport;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyException;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyResult;
+
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
 import org.bson.BsonDocument;
+import org.bson.BsonValue;
 import org.bson.Document;
 
+/**
+ * Inserts documents with as many requests as it takes to keep each request body under
+ * {@link Transport#MAX_REQUEST_SIZE}. Ordered inserts make the requests one after the other,
+ * stopping at the first that fails; unordered inserts make a few of them at a time and attempt
+ * all of them. If any of several requests fail, a {@link RemoteInsertManyException} carries the
+ * _ids of the documents of those that succeeded.
+ */
 class InsertManyOperation implements Operation<RemoteInsertManyResult> {
+  /**
+   * The most that the documents of one request may add up to, leaving room for the rest of the
+   * request body.
+   */
+  static final int MAX_CHUNK_SIZE = Transport.MAX_REQUEST_SIZE - 64 * 1024;
+
+  /**
+   * The most that each document adds to a request body besides the document itself, which is its
+   * index as a field name in BSON, or a separator in JSON.
+   */
+  private static final int PER_DOCUMENT_OVERHEAD = 16;
+
+  static final int MAX_CHUNKS_IN_FLIGHT = 4;
+
   private final MongoNamespace namespace;
   private final List<BsonDocument> documents;
+  private final boolean ordered;
+  private final int maxChunkSize;
 
   InsertManyOperation(
       final MongoNamespace namespace,
-      final List<BsonDocument> documents
+      final List<BsonDocument> documents,
+      final boolean ordered
+  ) {
+    this(namespace, documents, ordered, MAX_CHUNK_SIZE);
+  }
+
+  InsertManyOperation(
+      final MongoNamespace namespace,
+      final List<BsonDocument> documents,
+      final boolean ordered,
+      final int maxChunkSize
   ) {
     this.namespace = namespace;
     this.documents = documents;
+    this.ordered = ordered;
+    this.maxChunkSize = maxChunkSize;
   }
 
   public RemoteInsertManyResult execute(final CoreStitchServiceClient service) {
+    final List<List<BsonDocument>> chunks = getChunks();
+    if (chunks.size() == 1) {
+      return service.callFunction(
+          "insertMany",
+          Collections.singletonList(getArgs(chunks.get(0))),
+          ResultDecoders.insertManyResultDecoder);
+    }
+
+    final RemoteInsertManyResult[] results = new RemoteInsertManyResult[chunks.size()];
+    final Exception failure = ordered
+        ? executeInOrder(service, chunks, results)
+        : executeInParallel(service, chunks, results);
+    if (failure != null) {
+      throw new RemoteInsertManyException(failure, mergeResults(chunks, results));
+    }
+    return mergeResults(chunks, results);
+  }
+
+  /**
+   * Merges the results of the chunks that succeeded, offsetting the index of each document by
+   * the number of documents in the chunks before its own.
+   */
+  private RemoteInsertManyResult mergeResults(
+      final List<List<BsonDocument>> chunks,
+      final RemoteInsertManyResult[] results
+  ) {
+    final Map<Long, BsonValue> insertedIds = new HashMap<>(documents.size());
+    long offset = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      if (results[i] != null) {
+        for (final Map.Entry<Long, BsonValue> id : results[i].getInsertedIds().entrySet()) {
+          insertedIds.put(offset + id.getKey(), id.getValue());
+        }
+      }
+      offset += chunks.get(i).size();
+    }
+    return new RemoteInsertManyResult(insertedIds);
+  }
+
+  /**
+   * Splits the documents into chunks whose encoded sizes add up to no more than the maximum
+   * chunk size. A document too large to fit in a chunk of its own is put in one anyway, so that
+   * its request fails as it would have if it were inserted on its own.
+   */
+  List<List<BsonDocument>> getChunks() {
+    final List<List<BsonDocument>> chunks = new ArrayList<>();
+    List<BsonDocument> chunk = new ArrayList<>();
+    long chunkSize = 0;
+    for (final BsonDocument document : documents) {
+      final long size = BsonUtils.getEncodedSize(document) + PER_DOCUMENT_OVERHEAD;
+      if (!chunk.isEmpty() && chunkSize + size > maxChunkSize) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+        chunkSize = 0;
+      }
+      chunk.add(document);
+      chunkSize += size;
+    }
+    chunks.add(chunk);
+    return chunks;
+  }
+
+  /**
+   * Inserts the chunks one after the other into the given results, stopping at the first that
+   * fails.
+   *
+   * @return the failure of the chunk that failed, if any.
+   */
+  @Nullable
+  private Exception executeInOrder(
+      final CoreStitchServiceClient service,
+      final List<List<BsonDocument>> chunks,
+      final RemoteInsertManyResult[] results
+  ) {
+    for (int i = 0; i < chunks.size(); i++) {
+      try {
+        results[i] = service.callFunction(
+            "insertMany",
+            Collections.singletonList(getArgs(chunks.get(i))),
+            ResultDecoders.insertManyResultDecoder);
+      } catch (final RuntimeException e) {
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Inserts the chunks a few at a time into the given results, attempting all of them.
+   *
+   * @return the failure of the first chunk to fail, if any.
+   */
+  @Nullable
+  private Exception executeInParallel(
+      final CoreStitchServiceClient service,
+      final List<List<BsonDocument>> chunks,
+      final RemoteInsertManyResult[] results
+  ) {
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    final Semaphore inFlight = new Semaphore(MAX_CHUNKS_IN_FLIGHT);
+    try {
+      for (int i = 0; i < chunks.size(); i++) {
+        inFlight.acquire();
+        final int index = i;
+        try {
+          service.callFunctionAsync(
+              "insertMany",
+              Collections.singletonList(getArgs(chunks.get(i))),
+              null,
+              ResultDecoders.insertManyResultDecoder,
+              new Callback<RemoteInsertManyResult, Exception>() {
+                @Override
+                public void onComplete(
+                    @Nonnull final OperationResult<RemoteInsertManyResult, Exception> result
+                ) {
+                  if (result.isSuccessful()) {
+                    results[index] = result.geResult();
+                  } else {
+                    failure.compareAndSet(null, result.getFailure());
+                  }
+                  inFlight.release();
+                }
+              });
+        } catch (final RuntimeException e) {
+          failure.compareAndSet(null, e);
+          inFlight.release();
+        }
+      }
+      // wait for the requests still in flight
+      inFlight.acquire(MAX_CHUNKS_IN_FLIGHT);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StitchRequestException(e, StitchRequestErrorCode.TRANSPORT_ERROR);
+    }
+    return failure.get();
+  }
+
+  private Document getArgs(final List<BsonDocument> chunk) {
     final Document args = new Document();
     args.put("database", namespace.getDatabaseName());
     args.put("collection", namespace.getCollectionName());
-    args.put("documents", documents);
-
-    return service.callFunction(
-        "insertMany",
-        Collections.singletonList(args),
-        ResultDecoders.insertManyResultDecoder);
+    args.put("documents", chunk);
+    args.put("ordered", ordered);
+    return args;
   }
 }
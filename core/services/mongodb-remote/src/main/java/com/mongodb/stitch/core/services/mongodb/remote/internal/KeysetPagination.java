@@ -0,0 +1,346 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.mongodb.remote.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+
+/**
+ * Splits a find into pages by the values of its sort keys, so that each page can be requested
+ * with its own query. The sort is extended with _id to break ties, and every page after the first
+ * only matches documents that sort after the last document of the page before it. Sort keys may
+ * be missing or hold values of different BSON types, which are compared in the server's sort
+ * order of types; they must not hold arrays, which sort by their elements.
+ */
+final class KeysetPagination {
+  private static final String ID_FIELD = "_id";
+
+  // the $type aliases of each group of types that compare as one, in the server's sort order
+  private static final List<List<String>> TYPE_BRACKETS = Arrays.asList(
+      Collections.singletonList("minKey"),
+      Arrays.asList("null", "undefined"),
+      Arrays.asList("double", "int", "long", "decimal"),
+      Arrays.asList("string", "symbol"),
+      Collections.singletonList("object"),
+      Collections.singletonList("array"),
+      Collections.singletonList("binData"),
+      Collections.singletonList("objectId"),
+      Collections.singletonList("bool"),
+      Collections.singletonList("date"),
+      Collections.singletonList("timestamp"),
+      Collections.singletonList("regex"),
+      Collections.singletonList("dbPointer"),
+      Collections.singletonList("javascript"),
+      Collections.singletonList("javascriptWithScope"),
+      Collections.singletonList("maxKey"));
+  private static final int NULL_BRACKET = 1;
+
+  private final BsonDocument filter;
+  private final BsonDocument projection;
+  private final BsonDocument sort;
+  private final List<String> sortKeys;
+  private final List<Boolean> ascending;
+  private final List<String> addedFields;
+
+  private KeysetPagination(
+      final BsonDocument filter,
+      @Nullable final BsonDocument projection,
+      final BsonDocument sort,
+      final List<String> addedFields
+  ) {
+    this.filter = filter;
+    this.projection = projection;
+    this.sort = sort;
+    this.sortKeys = new ArrayList<>(sort.keySet());
+    this.ascending = new ArrayList<>(sortKeys.size());
+    for (final BsonValue direction : sort.values()) {
+      ascending.add(direction.asNumber().intValue() > 0);
+    }
+    this.addedFields = addedFields;
+  }
+
+  /**
+   * Returns the pagination for a find, or null if the find cannot be split into pages; this is
+   * the case when it sorts by something other than field values, or when its projection hides a
+   * sort key in a way that cannot be undone for just that key.
+   *
+   * @param filter the filter of the find, which may be null.
+   * @param projection the projection of the find, which may be null.
+   * @param sort the sort of the find, which may be null.
+   * @return the pagination for the find, or null if it cannot be split into pages.
+   */
+  @Nullable
+  static KeysetPagination of(
+      @Nullable final BsonDocument filter,
+      @Nullable final BsonDocument projection,
+      @Nullable final BsonDocument sort
+  ) {
+    final BsonDocument keysetSort = new BsonDocument();
+    if (sort != null) {
+      for (final Map.Entry<String, BsonValue> entry : sort.entrySet()) {
+        if (!entry.getValue().isNumber()) {
+          return null;
+        }
+        keysetSort.put(entry.getKey(), entry.getValue());
+      }
+    }
+    if (!keysetSort.containsKey(ID_FIELD)) {
+      keysetSort.put(ID_FIELD, new BsonInt32(1));
+    }
+
+    if (projection == null || projection.isEmpty()) {
+      return new KeysetPagination(
+          filter == null ? new BsonDocument() : filter,
+          null,
+          keysetSort,
+          Collections.<String>emptyList());
+    }
+
+    final boolean inclusive = isInclusive(projection);
+    final BsonDocument keysetProjection = projection.clone();
+    final List<String> addedFields = new ArrayList<>();
+    for (final String key : keysetSort.keySet()) {
+      if (keysetProjection.containsKey(key)) {
+        if (isExcluded(keysetProjection.get(key))) {
+          keysetProjection.remove(key);
+          addedFields.add(key);
+        }
+        continue;
+      }
+
+      if (hasRelatedPath(keysetProjection, key)) {
+        return null;
+      }
+      // an inclusive projection returns _id unless it is excluded
+      if (inclusive && !key.equals(ID_FIELD)) {
+        keysetProjection.put(key, new BsonInt32(1));
+        addedFields.add(key);
+      }
+    }
+
+    return new KeysetPagination(
+        filter == null ? new BsonDocument() : filter,
+        keysetProjection.isEmpty() ? null : keysetProjection,
+        keysetSort,
+        addedFields);
+  }
+
+  BsonDocument getSort() {
+    return sort;
+  }
+
+  @Nullable
+  BsonDocument getProjection() {
+    return projection;
+  }
+
+  /**
+   * Returns the filter matching the documents that sort after the given document.
+   *
+   * @param lastDocument the last document of the previous page, or null for the first page.
+   * @return the filter for the page.
+   */
+  BsonDocument getFilter(@Nullable final BsonDocument lastDocument) {
+    if (lastDocument == null) {
+      return filter;
+    }
+
+    // (k1 > v1) OR (k1 == v1 AND k2 > v2) OR ... for each key of the sort in turn; a null
+    // compares equal to a missing key, and $eq null matches both
+    final BsonArray clauses = new BsonArray();
+    for (int i = 0; i < sortKeys.size(); i++) {
+      final BsonDocument clause = new BsonDocument();
+      for (int j = 0; j < i; j++) {
+        clause.put(
+            sortKeys.get(j), new BsonDocument("$eq", getPath(lastDocument, sortKeys.get(j))));
+      }
+      clause.put("$or", getSortsAfter(
+          sortKeys.get(i), getPath(lastDocument, sortKeys.get(i)), ascending.get(i)));
+      clauses.add(clause);
+    }
+
+    final BsonDocument after = new BsonDocument("$or", clauses);
+    if (filter.isEmpty()) {
+      return after;
+    }
+    return new BsonDocument(
+        "$and", new BsonArray(Arrays.<BsonValue>asList(filter, after)));
+  }
+
+  /**
+   * Returns the alternatives matching the values of a key that sort after the given value. $gt
+   * and $lt only match values whose type compares as the given value's type does, so values of
+   * the types that sort after it are matched by their $type instead.
+   */
+  private static BsonArray getSortsAfter(
+      final String key,
+      final BsonValue value,
+      final boolean ascending
+  ) {
+    final int bracket = getTypeBracket(value.getBsonType());
+    final BsonArray alternatives = new BsonArray();
+    if (bracket != NULL_BRACKET) {
+      alternatives.add(new BsonDocument(key, new BsonDocument(ascending ? "$gt" : "$lt", value)));
+    }
+
+    final BsonArray types = new BsonArray();
+    final int from = ascending ? bracket + 1 : 0;
+    final int to = ascending ? TYPE_BRACKETS.size() : bracket;
+    for (int i = from; i < to; i++) {
+      if (i == NULL_BRACKET) {
+        // a missing key has no type, but sorts as a null
+        alternatives.add(new BsonDocument(key, new BsonDocument("$eq", BsonNull.VALUE)));
+        continue;
+      }
+      for (final String type : TYPE_BRACKETS.get(i)) {
+        types.add(new BsonString(type));
+      }
+    }
+    if (!types.isEmpty()) {
+      alternatives.add(new BsonDocument(key, new BsonDocument("$type", types)));
+    }
+    return alternatives;
+  }
+
+  private static int getTypeBracket(final BsonType type) {
+    switch (type) {
+      case MIN_KEY:
+        return 0;
+      case NULL:
+      case UNDEFINED:
+        return NULL_BRACKET;
+      case DOUBLE:
+      case INT32:
+      case INT64:
+      case DECIMAL128:
+        return 2;
+      case STRING:
+      case SYMBOL:
+        return 3;
+      case DOCUMENT:
+        return 4;
+      case ARRAY:
+        return 5;
+      case BINARY:
+        return 6;
+      case OBJECT_ID:
+        return 7;
+      case BOOLEAN:
+        return 8;
+      case DATE_TIME:
+        return 9;
+      case TIMESTAMP:
+        return 10;
+      case REGULAR_EXPRESSION:
+        return 11;
+      case DB_POINTER:
+        return 12;
+      case JAVASCRIPT:
+        return 13;
+      case JAVASCRIPT_WITH_SCOPE:
+        return 14;
+      case MAX_KEY:
+        return 15;
+      default:
+        throw new IllegalArgumentException(
+            String.format("cannot compare values of type %s", type));
+    }
+  }
+
+  /**
+   * Removes the fields that were only added to the projection for the sake of pagination from a
+   * document of a page, in place. This must not be called on the last document of a page before
+   * the filter for the next page has been made from it.
+   *
+   * @param document the document to remove the fields from.
+   * @return the document as the find would have returned it.
+   */
+  BsonDocument removeAddedFields(final BsonDocument document) {
+    for (final String field : addedFields) {
+      removePath(document, field);
+    }
+    return document;
+  }
+
+  private static boolean isInclusive(final BsonDocument projection) {
+    for (final Map.Entry<String, BsonValue> entry : projection.entrySet()) {
+      if (!entry.getKey().equals(ID_FIELD) && !entry.getValue().isDocument()
+          && !isExcluded(entry.getValue())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isExcluded(final BsonValue value) {
+    if (value.isBoolean()) {
+      return !value.asBoolean().getValue();
+    }
+    return value.isNumber() && value.asNumber().doubleValue() == 0;
+  }
+
+  private static boolean hasRelatedPath(final BsonDocument projection, final String path) {
+    for (final String key : projection.keySet()) {
+      if (key.startsWith(path + ".") || path.startsWith(key + ".")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static BsonValue getPath(final BsonDocument document, final String path) {
+    BsonValue value = document;
+    for (final String part : path.split("\\.")) {
+      if (!value.isDocument() || !value.asDocument().containsKey(part)) {
+        return BsonNull.VALUE;
+      }
+      value = value.asDocument().get(part);
+    }
+    return value;
+  }
+
+  private static void removePath(final BsonDocument document, final String path) {
+    final int dot = path.indexOf('.');
+    if (dot == -1) {
+      document.remove(path);
+      return;
+    }
+    final String head = path.substring(0, dot);
+    final BsonValue child = document.get(head);
+    if (child == null || !child.isDocument()) {
+      return;
+    }
+    removePath(child.asDocument(), path.substring(dot + 1));
+    if (child.asDocument().isEmpty()) {
+      document.remove(head);
+    }
+  }
+}
@@ -22,16 +22,26 @@ import static com.mongodb.stitch.core.internal.common.BsonUtils.getCodec;
 import static com.mongodb.stitch.core.internal.common.BsonUtils.toBsonDocument;
 
 import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteCountOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOneAndModifyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateOptions;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import org.bson.BsonBoolean;
 import org.bson.BsonDocument;
 import org.bson.BsonValue;
 import org.bson.codecs.CollectibleCodec;
@@ -109,6 +119,7 @@ public class Operations<DocumentT> {
     return new FindOperation<>(findNamespace, codecRegistry.get(resultClass))
         .filter(filter.toBsonDocument(documentClass, codecRegistry))
         .limit(options.getLimit())
+        .batchSize(options.getBatchSize())
         .projection(BsonUtils.toBsonDocumentOrNull(
             options.getProjection(),
             documentClass,
@@ -140,7 +151,8 @@ public class Operations<DocumentT> {
   }
 
   InsertManyOperation insertMany(
-      final List<? extends DocumentT> documents
+      final List<? extends DocumentT> documents,
+      final RemoteInsertManyOptions options
   ) {
     notNull("documents", documents);
     final List<BsonDocument> docs = new ArrayList<>(documents.size());
@@ -158,7 +170,7 @@ public class Operations<DocumentT> {
       }
       docs.add(documentToBsonDocument(docToAdd, codecRegistry));
     }
-    return new InsertManyOperation(namespace, docs);
+    return new InsertManyOperation(namespace, docs, options.isOrdered());
   }
 
   DeleteOneOperation deleteOne(final Bson filter) {
@@ -193,6 +205,63 @@ public class Operations<DocumentT> {
         .upsert(updateOptions.isUpsert());
   }
 
+  BulkWriteOperation bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests,
+      final RemoteBulkWriteOptions options
+  ) {
+    notNull("requests", requests);
+    final List<BsonDocument> operations = new ArrayList<>(requests.size());
+    for (final WriteModel<? extends DocumentT> request : requests) {
+      if (request == null) {
+        throw new IllegalArgumentException("requests can not contain a null value");
+      }
+      operations.add(toBulkWriteOperation(request));
+    }
+    return new BulkWriteOperation(namespace, operations).ordered(options.isOrdered());
+  }
+
+  @SuppressWarnings("unchecked")
+  private BsonDocument toBulkWriteOperation(final WriteModel<? extends DocumentT> request) {
+    if (request instanceof InsertOneModel) {
+      final DocumentT document = ((InsertOneModel<DocumentT>) request).getDocument();
+      final DocumentT docToInsert;
+      if (getCodec(codecRegistry, documentClass) instanceof CollectibleCodec) {
+        docToInsert = ((CollectibleCodec<DocumentT>) getCodec(codecRegistry, documentClass))
+            .generateIdIfAbsentFromDocument(document);
+      } else {
+        docToInsert = document;
+      }
+      return new BsonDocument("insertOne", new BsonDocument(
+          "document", documentToBsonDocument(docToInsert, codecRegistry)));
+    } else if (request instanceof UpdateOneModel) {
+      final UpdateOneModel<DocumentT> model = (UpdateOneModel<DocumentT>) request;
+      return new BsonDocument("updateOne", new BsonDocument()
+          .append("filter", toBsonDocument(model.getFilter(), documentClass, codecRegistry))
+          .append("update", toBsonDocument(model.getUpdate(), documentClass, codecRegistry))
+          .append("upsert", BsonBoolean.valueOf(model.getOptions().isUpsert())));
+    } else if (request instanceof UpdateManyModel) {
+      final UpdateManyModel<DocumentT> model = (UpdateManyModel<DocumentT>) request;
+      return new BsonDocument("updateMany", new BsonDocument()
+          .append("filter", toBsonDocument(model.getFilter(), documentClass, codecRegistry))
+          .append("update", toBsonDocument(model.getUpdate(), documentClass, codecRegistry))
+          .append("upsert", BsonBoolean.valueOf(model.getOptions().isUpsert())));
+    } else if (request instanceof ReplaceOneModel) {
+      final ReplaceOneModel<DocumentT> model = (ReplaceOneModel<DocumentT>) request;
+      return new BsonDocument("replaceOne", new BsonDocument()
+          .append("filter", toBsonDocument(model.getFilter(), documentClass, codecRegistry))
+          .append("replacement", documentToBsonDocument(model.getReplacement(), codecRegistry))
+          .append("upsert", BsonBoolean.valueOf(model.getReplaceOptions().isUpsert())));
+    } else if (request instanceof DeleteOneModel) {
+      return new BsonDocument("deleteOne", new BsonDocument("filter", toBsonDocument(
+          ((DeleteOneModel<DocumentT>) request).getFilter(), documentClass, codecRegistry)));
+    } else if (request instanceof DeleteManyModel) {
+      return new BsonDocument("deleteMany", new BsonDocument("filter", toBsonDocument(
+          ((DeleteManyModel<DocumentT>) request).getFilter(), documentClass, codecRegistry)));
+    }
+    throw new IllegalArgumentException(
+        String.format("unsupported write model: %s", request.getClass().getSimpleName()));
+  }
+
   <ResultT> FindOneAndModifyOperation<ResultT> findOneAndModify(
           final String methodName,
           final Bson filter,
@@ -20,12 +20,15 @@ import static com.mongodb.stitch.core.internal.common.Assertions.keyPresent;
 
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 import com.mongodb.stitch.core.services.mongodb.remote.CompactChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateResult;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.bson.BsonArray;
@@ -125,6 +128,59 @@ public class ResultDecoders {
     }
   }
 
+  public static final Decoder<RemoteBulkWriteResult> bulkWriteResultDecoder =
+      new BulkWriteResultDecoder();
+
+  private static final class BulkWriteResultDecoder implements Decoder<RemoteBulkWriteResult> {
+    public RemoteBulkWriteResult decode(
+        final BsonReader reader,
+        final DecoderContext decoderContext
+    ) {
+      final BsonDocument document = (new BsonDocumentCodec()).decode(reader, decoderContext);
+      keyPresent(Fields.RESULTS_FIELD, document);
+      final BsonArray arr = document.getArray(Fields.RESULTS_FIELD);
+      final List<RemoteBulkWriteResult.WriteModelResult> results = new ArrayList<>(arr.size());
+      for (final BsonValue value : arr) {
+        final BsonDocument result = value.asDocument();
+        Integer errorCode = null;
+        String errorMessage = null;
+        if (result.containsKey(Fields.ERROR_FIELD)) {
+          final BsonDocument error = result.getDocument(Fields.ERROR_FIELD);
+          keyPresent(Fields.ERROR_CODE_FIELD, error);
+          errorCode = error.getNumber(Fields.ERROR_CODE_FIELD).intValue();
+          errorMessage = error.containsKey(Fields.ERROR_MESSAGE_FIELD)
+              ? error.getString(Fields.ERROR_MESSAGE_FIELD).getValue() : null;
+        }
+        results.add(new RemoteBulkWriteResult.WriteModelResult(
+            getCount(result, Fields.MATCHED_COUNT_FIELD),
+            getCount(result, Fields.MODIFIED_COUNT_FIELD),
+            getCount(result, Fields.DELETED_COUNT_FIELD),
+            result.get(Fields.INSERTED_ID_FIELD),
+            result.get(Fields.UPSERTED_ID_FIELD),
+            errorCode,
+            errorMessage));
+      }
+
+      return new RemoteBulkWriteResult(results);
+    }
+
+    private static long getCount(final BsonDocument result, final String field) {
+      return result.containsKey(field) ? result.getNumber(field).longValue() : 0;
+    }
+
+    private static final class Fields {
+      static final String RESULTS_FIELD = "results";
+      static final String MATCHED_COUNT_FIELD = "matchedCount";
+      static final String MODIFIED_COUNT_FIELD = "modifiedCount";
+      static final String DELETED_COUNT_FIELD = "deletedCount";
+      static final String INSERTED_ID_FIELD = "insertedId";
+      static final String UPSERTED_ID_FIELD = "upsertedId";
+      static final String ERROR_FIELD = "error";
+      static final String ERROR_CODE_FIELD = "code";
+      static final String ERROR_MESSAGE_FIELD = "message";
+    }
+  }
+
   @SuppressWarnings("unused")
   public static <DocumentT> Decoder<ChangeEvent<DocumentT>>
       changeEventDecoder(final Codec<DocumentT> codec) {
@@ -46,6 +46,30 @@ public interface CoreSync<DocumentT> {
                  @Nullable final ChangeEventListener<DocumentT> changeEventListener,
                  @Nullable final ExceptionListener exceptionListener);
 
+  /**
+   * Set the conflict resolver, change event listener and sync frequency on this collection.
+   * @param conflictHandler the conflict resolver to invoke when a conflict happens between local
+   *                        and remote events.
+   * @param changeEventListener the event listener to invoke when a change event happens for the
+   *                         document.
+   * @param exceptionListener the error listener to invoke when an irrecoverable error occurs
+   * @param syncFrequency the frequency at which this collection is synchronized with the remote
+   */
+  void configure(@Nonnull final ConflictHandler<DocumentT> conflictHandler,
+                 @Nullable final ChangeEventListener<DocumentT> changeEventListener,
+                 @Nullable final ExceptionListener exceptionListener,
+                 @Nonnull final SyncFrequency syncFrequency);
+
+  /**
+   * Synchronizes this collection with the remote right away, regardless of its configured
+   * sync frequency. This is the only way a collection configured with
+   * {@link SyncFrequency#onDemand()} gets synchronized.
+   *
+   * @return true if the collection was synchronized, false if it could not be, in which case it
+   *         will be synchronized once possible.
+   */
+  boolean syncNow();
+
   /**
    * Requests that the given document _id be synchronized.
    * @param id the document _id to synchronize.
@@ -14,7 +14,7 @@
  * limitations under the License.
  */
 
-package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+package com.mongodb.stitch.core.services.mongodb.remote.sync;
 
 import java.util.concurrent.TimeUnit;
 
@@ -27,7 +27,7 @@ import javax.annotation.Nonnull;
  * type of choice, e.g.:
  * <p>
  * <code>
- * sync.configure(SyncFrequency.newScheduledConfiguration(
+ * sync.configure(SyncFrequency.scheduled(
  *    1, TimeUnit.HOURS, true
  * ));
  * </code>
@@ -37,7 +37,7 @@ public abstract class SyncFrequency {
   /**
    * The type of frequency that can be used to schedule sync.
    */
-  enum SyncFrequencyType {
+  public enum SyncFrequencyType {
     /**
      * When a change is made locally or a change from a remote collection is received,
      * the Stitch application will react to the event immediately.
@@ -70,7 +70,7 @@ public abstract class SyncFrequency {
     }
 
     @Override
-    SyncFrequencyType getType() {
+    public SyncFrequencyType getType() {
       return SyncFrequencyType.REACTIVE;
     }
   }
@@ -79,7 +79,7 @@ public abstract class SyncFrequency {
    * Local/remote events will be queued on the device for
    * a specified amount of time (configurable) before they are applied.
    */
-  static final class Scheduled extends SyncFrequency {
+  public static final class Scheduled extends SyncFrequency {
     private final long timeInterval;
     private final TimeUnit timeUnit;
     private final boolean isConnected;
@@ -93,7 +93,7 @@ public abstract class SyncFrequency {
     }
 
     @Override
-    SyncFrequencyType getType() {
+    public SyncFrequencyType getType() {
       return SyncFrequencyType.SCHEDULED;
     }
 
@@ -101,7 +101,7 @@ public abstract class SyncFrequency {
      * Whether or not the application continuously applying events by maintaining a sync stream
      * @return true if continuously applying events; false if not
      */
-    boolean isConnected() {
+    public boolean isConnected() {
       return isConnected;
     }
 
@@ -110,7 +110,7 @@ public abstract class SyncFrequency {
      * A thread will be scheduled to run at the associated interval.
      * @return the interval
      */
-    long getTimeInterval() {
+    public long getTimeInterval() {
       return timeInterval;
     }
 
@@ -118,7 +118,7 @@ public abstract class SyncFrequency {
      * The {@link TimeUnit} qualifier for the timeInterval number.
      * @return the associated {@link TimeUnit}
      */
-    TimeUnit getTimeUnit() {
+    public TimeUnit getTimeUnit() {
       return timeUnit;
     }
   }
@@ -134,7 +134,7 @@ public abstract class SyncFrequency {
     }
 
     @Override
-    SyncFrequencyType getType() {
+    public SyncFrequencyType getType() {
       return SyncFrequencyType.ON_DEMAND;
     }
   }
@@ -174,5 +174,9 @@ public abstract class SyncFrequency {
     return OnDemand.instance;
   }
 
-  abstract SyncFrequencyType getType();
+  /**
+   * The type of this frequency.
+   * @return the {@link SyncFrequencyType} of this frequency
+   */
+  public abstract SyncFrequencyType getType();
 }
@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.bson.BsonArray;
 import org.bson.BsonBinary;
@@ -64,22 +65,37 @@ public class CoreDocumentSynchronizationConfig {
   private boolean isStale;
   private boolean isPaused;
 
+  // The index of the state of the documents in this document's namespace, which this config keeps
+  // up to date with its own state.
+  @Nullable
+  private final NamespaceSynchronizationConfig.DocumentIndex documentIndex;
+
   CoreDocumentSynchronizationConfig(
       final MongoCollection<CoreDocumentSynchronizationConfig> docsColl,
       final MongoNamespace namespace,
       final BsonValue documentId
+  ) {
+    this(docsColl, namespace, documentId, null);
+  }
+
+  CoreDocumentSynchronizationConfig(
+      final MongoCollection<CoreDocumentSynchronizationConfig> docsColl,
+      final MongoNamespace namespace,
+      final BsonValue documentId,
+      @Nullable final NamespaceSynchronizationConfig.DocumentIndex documentIndex
   ) {
     this(docsColl, namespace, documentId, null, -1, null, new ReentrantReadWriteLock(),
-        false, false, 0L);
+        false, false, 0L, documentIndex);
   }
 
   CoreDocumentSynchronizationConfig(
       final MongoCollection<CoreDocumentSynchronizationConfig> docsColl,
-      final CoreDocumentSynchronizationConfig config
+      final CoreDocumentSynchronizationConfig config,
+      @Nullable final NamespaceSynchronizationConfig.DocumentIndex documentIndex
   ) {
     this(docsColl, config.namespace, config.documentId, config.lastUncommittedChangeEvent,
         config.lastResolution, config.lastKnownRemoteVersion, config.docLock, config.isStale,
-        config.isPaused, config.lastKnownHash);
+        config.isPaused, config.lastKnownHash, documentIndex);
   }
 
   private CoreDocumentSynchronizationConfig(
@@ -92,7 +108,8 @@ public class CoreDocumentSynchronizationConfig {
       final ReadWriteLock docsLock,
       final boolean isStale,
       final boolean isPaused,
-      final long lastKnownHash
+      final long lastKnownHash,
+      @Nullable final NamespaceSynchronizationConfig.DocumentIndex documentIndex
   ) {
     this.docsColl = docsColl;
     this.namespace = namespace;
@@ -104,6 +121,8 @@ public class CoreDocumentSynchronizationConfig {
     this.isStale = isStale;
     this.isPaused = isPaused;
     this.lastKnownHash = lastKnownHash;
+    this.documentIndex = documentIndex;
+    updateDocumentIndex();
   }
 
   static BsonDocument getDocFilter(
@@ -130,19 +149,23 @@ public class CoreDocumentSynchronizationConfig {
   public boolean isStale() {
     docLock.readLock().lock();
     try {
-      final BsonDocument filter = getDocFilter(namespace, documentId);
-      filter.append(
-          CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE, BsonBoolean.TRUE);
-      return docsColl.countDocuments(filter) == 1;
+      return isStale;
     } finally {
       docLock.readLock().unlock();
     }
   }
 
+  /**
+   * Marks this document as stale or not. This is only persisted the next time this config is
+   * saved, or when the namespace is marked as not stale.
+   *
+   * @param stale whether or not the document is stale.
+   */
   public void setStale(final boolean stale) {
     docLock.writeLock().lock();
     try {
       isStale = stale;
+      updateDocumentIndex();
     } catch (IllegalStateException e) {
       // eat this
     } finally {
@@ -167,6 +190,7 @@ public class CoreDocumentSynchronizationConfig {
                   ConfigCodec.Fields.IS_PAUSED,
                   new BsonBoolean(isPaused))));
       this.isPaused = isPaused;
+      updateDocumentIndex();
     } catch (IllegalStateException e) {
       // eat this
     } finally {
@@ -191,17 +215,7 @@ public class CoreDocumentSynchronizationConfig {
   ) {
     docLock.writeLock().lock();
     try {
-      // if we were frozen
-      if (isPaused) {
-        // unfreeze the document due to the local write
-        setPaused(false);
-        // and now the unfrozen document is now stale
-        setStale(true);
-      }
-
-      this.lastUncommittedChangeEvent =
-          coalesceChangeEvents(this.lastUncommittedChangeEvent, changeEvent);
-      this.lastResolution = atTime;
+      addPendingWrite(atTime, changeEvent);
       docsColl.replaceOne(
           getDocFilter(namespace, documentId),
           this);
@@ -210,6 +224,53 @@ public class CoreDocumentSynchronizationConfig {
     }
   }
 
+  /**
+   * Sets that there are some pending writes that occurred at a time for an associated
+   * locally emitted change event, without saving this config. The config is instead marked as
+   * unsaved in its namespace, to be saved in bulk with the configs of other local writes by
+   * {@link NamespaceSynchronizationConfig#saveDocumentConfigs()}. This variant maintains the last
+   * version set.
+   *
+   * @param atTime      the time at which the write occurred.
+   * @param changeEvent the description of the write/change.
+   */
+  void setSomePendingWritesAndDeferSave(
+      final long atTime,
+      final ChangeEvent<BsonDocument> changeEvent
+  ) {
+    docLock.writeLock().lock();
+    try {
+      addPendingWrite(atTime, changeEvent);
+      if (documentIndex != null) {
+        documentIndex.unsavedDocumentIds.add(documentId);
+      } else {
+        docsColl.replaceOne(
+            getDocFilter(namespace, documentId),
+            this);
+      }
+    } finally {
+      docLock.writeLock().unlock();
+    }
+  }
+
+  private void addPendingWrite(
+      final long atTime,
+      final ChangeEvent<BsonDocument> changeEvent
+  ) {
+    // if we were frozen
+    if (isPaused) {
+      // unfreeze the document due to the local write
+      setPaused(false);
+      // and now the unfrozen document is now stale
+      setStale(true);
+    }
+
+    this.lastUncommittedChangeEvent =
+        coalesceChangeEvents(this.lastUncommittedChangeEvent, changeEvent);
+    this.lastResolution = atTime;
+    updateDocumentIndex();
+  }
+
   /**
    * Sets that there are some pending writes that occurred at a time for an associated
    * locally emitted change event. This variant updates the last version set.
@@ -255,6 +316,7 @@ public class CoreDocumentSynchronizationConfig {
       this.lastResolution = atTime;
       this.lastKnownRemoteVersion = atVersion;
       this.lastKnownHash = atHash;
+      updateDocumentIndex();
     } finally {
       docLock.writeLock().unlock();
     }
@@ -266,11 +328,27 @@ public class CoreDocumentSynchronizationConfig {
       this.lastUncommittedChangeEvent = null;
       this.lastKnownRemoteVersion = atVersion;
       this.lastKnownHash = atHash;
+      updateDocumentIndex();
     } finally {
       docLock.writeLock().unlock();
     }
   }
 
+  /**
+   * Brings the index of the state of the documents in this document's namespace up to date with
+   * the state of this document. Must be called whenever its pending writes, paused state, or
+   * stale state change.
+   */
+  private void updateDocumentIndex() {
+    if (documentIndex == null) {
+      return;
+    }
+    documentIndex.update(
+        documentId,
+        lastUncommittedChangeEvent != null && !isPaused,
+        isStale);
+  }
+
   // Equality on documentId
   public boolean equals(final Object object) {
     docLock.readLock().lock();
@@ -553,7 +631,8 @@ public class CoreDocumentSynchronizationConfig {
         document.getBoolean(ConfigCodec.Fields.IS_STALE).getValue(),
         document.getBoolean(ConfigCodec.Fields.IS_PAUSED, new BsonBoolean(false)).getValue(),
         document.getInt64(ConfigCodec.Fields.LAST_KNOWN_HASH_FIELD, new BsonInt64(0))
-          .getValue());
+          .getValue(),
+        null);
   }
 
   static final ConfigCodec configCodec = new ConfigCodec();
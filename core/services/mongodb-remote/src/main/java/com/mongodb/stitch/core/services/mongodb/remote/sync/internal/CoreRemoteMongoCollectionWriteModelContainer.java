@@ -16,17 +16,12 @@
 
 package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
 
-import com.mongodb.client.model.ReplaceOneModel;
-import com.mongodb.client.model.UpdateManyModel;
-import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.WriteModel;
-import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateResult;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.internal.CoreRemoteMongoCollection;
 
 import java.util.List;
 
-import org.bson.conversions.Bson;
-
 /**
  * Write model container that permits committing queued write operations to an instance
  * of {@link CoreRemoteMongoCollection}.
@@ -42,36 +37,28 @@ public class CoreRemoteMongoCollectionWriteModelContainer<DocumentT>
   }
 
   /**
-   * Commits the writes to the remote collection.
+   * Commits the writes to the remote collection in a single bulk write.
    */
   @Override
   public boolean commit() {
     final CoreRemoteMongoCollection<DocumentT> collection = getCollection();
     final List<WriteModel<DocumentT>> writeModels = getBulkWriteModels();
+    if (writeModels.isEmpty()) {
+      return true;
+    }
+
+    final RemoteBulkWriteResult result = collection.bulkWrite(writeModels);
+    if (result == null || result.getResults().size() != writeModels.size()) {
+      return false;
+    }
 
-    // define success as any one operation succeeding for now
-    boolean success = true;
-    for (final WriteModel<DocumentT> write : writeModels) {
-      if (write instanceof ReplaceOneModel) {
-        final ReplaceOneModel<DocumentT> replaceModel = ((ReplaceOneModel) write);
-        final RemoteUpdateResult result =
-            collection.updateOne(replaceModel.getFilter(), (Bson) replaceModel.getReplacement());
-        success = success
-            && (result != null && result.getModifiedCount() == result.getMatchedCount());
-      } else if (write instanceof UpdateOneModel) {
-        final UpdateOneModel<DocumentT> updateModel = ((UpdateOneModel) write);
-        final RemoteUpdateResult result =
-            collection.updateOne(updateModel.getFilter(), updateModel.getUpdate());
-        success = success
-            && (result != null && result.getModifiedCount() == result.getMatchedCount());
-      } else if (write instanceof UpdateManyModel) {
-        final UpdateManyModel<DocumentT> updateModel = ((UpdateManyModel) write);
-        final RemoteUpdateResult result =
-            collection.updateMany(updateModel.getFilter(), updateModel.getUpdate());
-        success = success
-            && (result != null && result.getModifiedCount() == result.getMatchedCount());
+    // define success as every write succeeding and modifying everything it matched
+    for (final RemoteBulkWriteResult.WriteModelResult writeResult : result.getResults()) {
+      if (writeResult.hasError()
+          || writeResult.getModifiedCount() != writeResult.getMatchedCount()) {
+        return false;
       }
     }
-    return success;
+    return true;
   }
 }
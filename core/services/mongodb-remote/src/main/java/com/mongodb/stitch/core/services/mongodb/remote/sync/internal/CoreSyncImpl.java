@@ -27,6 +27,7 @@ import com.mongodb.stitch.core.services.mongodb.remote.sync.CoreSyncAggregateIte
 import com.mongodb.stitch.core.services.mongodb.remote.sync.CoreSyncFindIterable;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncCountOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncDeleteResult;
+import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncFrequency;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncInsertManyResult;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncUpdateOptions;
@@ -74,6 +75,26 @@ public class CoreSyncImpl<DocumentT> implements CoreSync<DocumentT> {
     );
   }
 
+  @Override
+  public void configure(@Nonnull final ConflictHandler<DocumentT> conflictHandler,
+                        @Nullable final ChangeEventListener<DocumentT> changeEventListener,
+                        @Nullable final ExceptionListener exceptionListener,
+                        @Nonnull final SyncFrequency syncFrequency) {
+    this.dataSynchronizer.configure(
+        namespace,
+        conflictHandler,
+        changeEventListener,
+        exceptionListener,
+        syncFrequency,
+        this.service.getCodecRegistry().get(documentClass)
+    );
+  }
+
+  @Override
+  public boolean syncNow() {
+    return this.dataSynchronizer.syncNow(this.namespace);
+  }
+
   @Override
   public void syncOne(final BsonValue id) {
     this.dataSynchronizer.syncDocumentsFromRemote(this.namespace, id);
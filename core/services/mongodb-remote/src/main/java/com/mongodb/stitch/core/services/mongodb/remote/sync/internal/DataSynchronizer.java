@@ -17,7 +17,6 @@
 package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
 
 import com.mongodb.Block;
-import com.mongodb.Function;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoNamespace;
 import com.mongodb.client.AggregateIterable;
@@ -29,13 +28,15 @@ import com.mongodb.client.model.DeleteManyModel;
 import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertOneModel;
 import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
 import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
-import com.mongodb.lang.NonNull;
 import com.mongodb.stitch.core.StitchClientErrorCode;
 import com.mongodb.stitch.core.StitchClientException;
 import com.mongodb.stitch.core.StitchServiceErrorCode;
@@ -49,6 +50,8 @@ import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 import com.mongodb.stitch.core.services.mongodb.remote.ExceptionListener;
 import com.mongodb.stitch.core.services.mongodb.remote.OperationType;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateResult;
 import com.mongodb.stitch.core.services.mongodb.remote.UpdateDescription;
@@ -56,7 +59,10 @@ import com.mongodb.stitch.core.services.mongodb.remote.internal.CoreRemoteMongoC
 import com.mongodb.stitch.core.services.mongodb.remote.internal.CoreRemoteMongoCollection;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.ChangeEventListener;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.ConflictHandler;
+import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncFrequency;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -64,10 +70,24 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -98,6 +118,31 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
 
   private static final int SYNC_PROTOCOL_VERSION = 1;
 
+  // How long a reactive namespace waits before retrying writes that failed to commit remotely.
+  private static final long FAILED_WRITES_RETRY_MILLIS = 5000L;
+
+  // The MongoDB error code for a write that violates a unique index.
+  private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+  // The default number of namespaces that a sync pass synchronizes concurrently.
+  static final int DEFAULT_SYNC_PASS_PARALLELISM = 4;
+
+  // How long an idle sync pass thread is kept around before it exits.
+  private static final long SYNC_PASS_THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+  // How many document configs changed by local writes to a namespace may be left unsaved before
+  // they are saved as part of a local write.
+  static final int MAX_UNSAVED_DOCUMENT_CONFIGS = 128;
+
+  // How long document configs changed by local writes may be left unsaved.
+  static final long DOCUMENT_CONFIG_SAVE_DELAY_MILLIS = 100L;
+
+  // The maximum number of stale documents of a namespace fetched from the remote by one request.
+  static final int STALE_DOCUMENTS_PAGE_SIZE = 1000;
+
+  // The maximum number of pages of stale documents fetched from the remote concurrently.
+  static final int STALE_DOCUMENTS_FETCH_PARALLELISM = 4;
+
   private final CoreStitchServiceClient service;
   private final CoreRemoteMongoClient remoteClient;
   private final NetworkMonitor networkMonitor;
@@ -107,8 +152,22 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
   private final String instanceKey;
   private final Dispatcher dispatcher;
   private final EventDispatcher eventDispatcher;
+  private final ThreadPoolExecutor syncPassExecutor;
+  private final ScheduledThreadPoolExecutor documentConfigSaveExecutor;
+  private final ThreadPoolExecutor staleDocumentsFetchExecutor;
+  // the namespaces for which a save of unsaved document configs is scheduled
+  private final Set<MongoNamespace> scheduledDocumentConfigSaves =
+      Collections.newSetFromMap(new ConcurrentHashMap<MongoNamespace, Boolean>());
+
+  // Namespaces whose change streams need to be restarted once the namespaces of the current sync
+  // pass have all been synchronized. Restarting a stream requires the sync lock, which the thread
+  // coordinating the pass holds, so the threads synchronizing each namespace cannot do it.
+  private final Set<MongoNamespace> deferredListenerNamespaces = new HashSet<>();
+  private boolean isSyncingNamespacesConcurrently = false; // guarded by deferredListenerNamespaces
 
   private MongoClient localClient;
+  private File localWriteJournalFile;
+  private LocalWriteJournal localWriteJournal;
   private MongoDatabase configDb;
   private MongoCollection<InstanceSynchronizationConfig> instancesColl;
   private InstanceChangeStreamListener instanceChangeStreamListener;
@@ -119,16 +178,20 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
   private boolean isConfigured = false;
   private boolean isRunning = false;
   private Thread syncThread;
+  private volatile DataSynchronizerRunner syncRunner;
   private long logicalT = 0; // The current logical time or sync iteration.
 
   private ExceptionListener exceptionListener;
   private Thread initThread;
+  // whether the server has no bulk write function, so that each remote write is performed alone
+  private volatile boolean isBulkWriteUnsupported = false;
   private DispatchGroup ongoingOperationsGroup;
 
   public DataSynchronizer(
       final String instanceKey,
       final CoreStitchServiceClient service,
       final MongoClient localClient,
+      final File localWriteJournalFile,
       final CoreRemoteMongoClient remoteClient,
       final NetworkMonitor networkMonitor,
       final AuthMonitor authMonitor,
@@ -136,6 +199,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
   ) {
     this.service = service;
     this.localClient = localClient;
+    this.localWriteJournalFile = localWriteJournalFile;
     this.remoteClient = remoteClient;
     this.networkMonitor = networkMonitor;
     this.authMonitor = authMonitor;
@@ -146,6 +210,59 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     this.ongoingOperationsGroup = new DispatchGroup();
     this.logger =
         Loggers.getLogger(String.format("DataSynchronizer-%s", instanceKey));
+    this.syncPassExecutor = new ThreadPoolExecutor(
+        DEFAULT_SYNC_PASS_PARALLELISM,
+        DEFAULT_SYNC_PASS_PARALLELISM,
+        SYNC_PASS_THREAD_KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactory() {
+          private final AtomicInteger threadCount = new AtomicInteger();
+
+          @Override
+          public Thread newThread(@Nonnull final Runnable runnable) {
+            final Thread thread = new Thread(runnable, String.format(
+                Locale.US,
+                "dataSynchronizerSyncPassThread-%d",
+                threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    this.syncPassExecutor.allowCoreThreadTimeOut(true);
+    this.documentConfigSaveExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+      @Override
+      public Thread newThread(@Nonnull final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "dataSynchronizerDocumentConfigSaveThread");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    // configs are saved when closing, after which pending saves must not run
+    this.documentConfigSaveExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    this.documentConfigSaveExecutor.setKeepAliveTime(
+        SYNC_PASS_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+    this.documentConfigSaveExecutor.allowCoreThreadTimeOut(true);
+    this.staleDocumentsFetchExecutor = new ThreadPoolExecutor(
+        STALE_DOCUMENTS_FETCH_PARALLELISM,
+        STALE_DOCUMENTS_FETCH_PARALLELISM,
+        SYNC_PASS_THREAD_KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactory() {
+          private final AtomicInteger threadCount = new AtomicInteger();
+
+          @Override
+          public Thread newThread(@Nonnull final Runnable runnable) {
+            final Thread thread = new Thread(runnable, String.format(
+                Locale.US,
+                "dataSynchronizerStaleDocumentsFetchThread-%d",
+                threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    this.staleDocumentsFetchExecutor.allowCoreThreadTimeOut(true);
     if (this.networkMonitor != null) {
       this.networkMonitor.addNetworkStateListener(this);
     }
@@ -159,6 +276,30 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
   }
 
   private void initialize() {
+    if (this.localWriteJournal != null) {
+      try {
+        this.localWriteJournal.close();
+      } catch (final IOException e) {
+        logger.warn(String.format(
+            Locale.US,
+            "t='%d': initialize could not close local write journal: %s",
+            logicalT,
+            e));
+      }
+    }
+    try {
+      this.localWriteJournal = new LocalWriteJournal(
+          localWriteJournalFile, LocalWriteJournal.DEFAULT_MAX_SIZE_BYTES);
+    } catch (final IOException e) {
+      logger.error(String.format(
+          Locale.US,
+          "t='%d': initialize could not open local write journal %s: %s",
+          logicalT,
+          localWriteJournalFile,
+          e));
+      throw new StitchClientException(StitchClientErrorCode.COULD_NOT_LOAD_DATA_SYNCHRONIZER);
+    }
+
     this.configDb =
         localClient.getDatabase("sync_config" + instanceKey)
             .withCodecRegistry(CodecRegistries.fromRegistries(
@@ -184,7 +325,8 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
         syncConfig,
         service,
         networkMonitor,
-        authMonitor);
+        authMonitor,
+        newSyncPassRequestedListener());
     for (final MongoNamespace ns : this.syncConfig.getSynchronizedNamespaces()) {
       this.instanceChangeStreamListener.addNamespace(ns);
     }
@@ -204,13 +346,22 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
       nsConfig.getLock().writeLock().lock();
     }
     try {
+      final List<LocalWriteJournal.Entry> uncommittedEntries =
+          localWriteJournal.getUncommittedEntries();
       for (final NamespaceSynchronizationConfig nsConfig : nsConfigs) {
-        nsConfig.getLock().writeLock().lock();
-        try {
-          recoverNamespace(nsConfig);
-        } finally {
-          nsConfig.getLock().writeLock().unlock();
-        }
+        recoverNamespace(nsConfig, uncommittedEntries);
+      }
+
+      // every namespace has been recovered to the state we want with respect to the journal. If
+      // we fail before clearing it, the next recovery pass will be effectively a no-op.
+      try {
+        localWriteJournal.clear();
+      } catch (final IOException e) {
+        logger.error(String.format(
+            Locale.US,
+            "t='%d': recover could not clear local write journal: %s",
+            logicalT,
+            e));
       }
     } finally {
       for (final NamespaceSynchronizationConfig nsConfig : nsConfigs) {
@@ -222,10 +373,17 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
   /**
    * Recovers the state of synchronization for a namespace in case a system failure happened.
    * The goal is to revert the namespace to a known, good state. This method itself is resilient
-   * to failures, since it doesn't delete any documents from the undo collection until the
-   * collection is in the desired state with respect to those documents.
+   * to failures, since it doesn't delete any documents from the undo collection, nor clear the
+   * local write journal, until the collection is in the desired state with respect to those
+   * documents.
+   *
+   * @param nsConfig the namespace to recover.
+   * @param uncommittedEntries the entries of the local write journal that were never committed.
    */
-  private void recoverNamespace(final NamespaceSynchronizationConfig nsConfig) {
+  private void recoverNamespace(
+      final NamespaceSynchronizationConfig nsConfig,
+      final List<LocalWriteJournal.Entry> uncommittedEntries
+  ) {
     final MongoCollection<BsonDocument> undoCollection =
         getUndoCollection(nsConfig.getNamespace());
     final MongoCollection<BsonDocument> localCollection =
@@ -233,9 +391,27 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     final List<BsonDocument> undoDocs = undoCollection.find().into(new ArrayList<>());
     final Set<BsonValue> recoveredIds = new HashSet<>();
 
+    // Replace local docs with the docs recorded in the journal before local writes that were
+    // never committed. Walking the entries backwards leaves each document as it was before the
+    // earliest write that did not complete. This covers updates and deletes.
+    for (int i = uncommittedEntries.size() - 1; i >= 0; i--) {
+      final LocalWriteJournal.Entry entry = uncommittedEntries.get(i);
+      if (!entry.getNamespace().equals(nsConfig.getNamespace())) {
+        continue;
+      }
+      for (final BsonDocument documentBeforeWrite : entry.getDocuments()) {
+        final BsonValue documentId = BsonUtils.getDocumentId(documentBeforeWrite);
+        localCollection.findOneAndReplace(
+            getDocumentIdFilter(documentId),
+            documentBeforeWrite,
+            new FindOneAndReplaceOptions().upsert(true));
+        recoveredIds.add(documentId);
+      }
+    }
 
     // Replace local docs with undo docs. Presence of an undo doc implies we had a system failure
-    // during a write. This covers updates and deletes.
+    // during a synchronization pass, or during a local write made before the local write journal
+    // was introduced. This covers updates and deletes.
     for (final BsonDocument undoDoc : undoDocs) {
       final BsonValue documentId = BsonUtils.getDocumentId(undoDoc);
       final BsonDocument filter = getDocumentIdFilter(documentId);
@@ -317,9 +493,11 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     }
   }
 
-  public void reinitialize(final MongoClient localClient) {
+  public void reinitialize(final MongoClient localClient, final File localWriteJournalFile) {
     ongoingOperationsGroup.blockAndWait();
+    saveAllDocumentConfigs();
     this.localClient = localClient;
+    this.localWriteJournalFile = localWriteJournalFile;
 
     initThread = new Thread(() -> {
       this.stop();
@@ -340,6 +518,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     syncLock.lock();
     try {
       this.instanceChangeStreamListener.stop();
+      saveAllDocumentConfigs();
       if (instancesColl.find().first() == null) {
         throw new IllegalStateException("expected to find instance configuration");
       }
@@ -348,7 +527,8 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
           syncConfig,
           service,
           networkMonitor,
-          authMonitor
+          authMonitor,
+          newSyncPassRequestedListener()
       );
       this.isConfigured = false;
       this.stop();
@@ -362,6 +542,21 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
                             @Nullable final ChangeEventListener<T> changeEventListener,
                             @Nullable final ExceptionListener exceptionListener,
                             @Nonnull final Codec<T> codec) {
+    configure(
+        namespace,
+        conflictHandler,
+        changeEventListener,
+        exceptionListener,
+        SyncFrequency.reactive(),
+        codec);
+  }
+
+  public <T> void configure(@Nonnull final MongoNamespace namespace,
+                            @Nullable final ConflictHandler<T> conflictHandler,
+                            @Nullable final ChangeEventListener<T> changeEventListener,
+                            @Nullable final ExceptionListener exceptionListener,
+                            @Nonnull final SyncFrequency syncFrequency,
+                            @Nonnull final Codec<T> codec) {
     this.waitUntilInitialized();
 
     if (conflictHandler == null) {
@@ -374,10 +569,13 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
 
     this.exceptionListener = exceptionListener;
 
-    this.syncConfig.getNamespaceConfig(namespace).configure(
+    final NamespaceSynchronizationConfig nsConfig = this.syncConfig.getNamespaceConfig(namespace);
+    final boolean wasStreamingEnabled = nsConfig.isStreamingEnabled();
+    nsConfig.configure(
         conflictHandler,
         changeEventListener,
-        codec
+        codec,
+        syncFrequency
     );
 
     syncLock.lock();
@@ -387,7 +585,11 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
       this.triggerListeningToNamespace(namespace);
     } else {
       syncLock.unlock();
+      if (wasStreamingEnabled != nsConfig.isStreamingEnabled()) {
+        this.triggerListeningToNamespace(namespace);
+      }
     }
+    wakeSyncRunner();
 
     if (!isRunning) {
       this.start();
@@ -409,14 +611,12 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
       }
 
       if (syncThread == null) {
-        syncThread = new Thread(
-            new DataSynchronizerRunner(
-              new WeakReference<>(this),
-              networkMonitor,
-              logger
-            ),
-            "dataSynchronizerRunnerThread"
+        syncRunner = new DataSynchronizerRunner(
+            new WeakReference<>(this),
+            networkMonitor,
+            logger
         );
+        syncThread = new Thread(syncRunner, "dataSynchronizerRunnerThread");
       }
       if (syncThreadEnabled && !isRunning) {
         syncThread.start();
@@ -436,6 +636,27 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     }
   }
 
+  /**
+   * Sets the maximum number of namespaces that a sync pass synchronizes concurrently. Defaults
+   * to {@value #DEFAULT_SYNC_PASS_PARALLELISM}; a value of 1 synchronizes namespaces one after
+   * another on the thread performing the pass.
+   *
+   * @param parallelism the maximum number of namespaces to synchronize concurrently.
+   */
+  public void setSyncPassParallelism(final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1");
+    }
+    // the core pool size may never exceed the maximum pool size
+    if (parallelism > syncPassExecutor.getMaximumPoolSize()) {
+      syncPassExecutor.setMaximumPoolSize(parallelism);
+      syncPassExecutor.setCorePoolSize(parallelism);
+    } else {
+      syncPassExecutor.setCorePoolSize(parallelism);
+      syncPassExecutor.setMaximumPoolSize(parallelism);
+    }
+  }
+
   public void disableListeners() {
     syncLock.lock();
     try {
@@ -462,6 +683,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
         return;
       }
       syncThread = null;
+      syncRunner = null;
       isRunning = false;
     } finally {
       syncLock.unlock();
@@ -483,7 +705,20 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
       }
       this.dispatcher.close();
       stop();
+      this.syncPassExecutor.shutdown();
+      this.staleDocumentsFetchExecutor.shutdown();
+      saveAllDocumentConfigs();
+      this.documentConfigSaveExecutor.shutdown();
       this.localClient.close();
+      if (this.localWriteJournal != null) {
+        this.localWriteJournal.close();
+      }
+    } catch (final IOException e) {
+      logger.warn(String.format(
+          Locale.US,
+          "t='%d': close could not close local write journal: %s",
+          logicalT,
+          e));
     } finally {
       syncLock.unlock();
     }
@@ -499,6 +734,90 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
    * @return whether or not the synchronization pass was successful.
    */
   public boolean doSyncPass() {
+    return doSyncPass(null);
+  }
+
+  /**
+   * Immediately performs a synchronization pass for the given namespace, regardless of the
+   * {@link SyncFrequency} it was configured with. If the pass cannot be completed, for instance
+   * because the network is disconnected, the namespace will be synchronized as soon as the
+   * background thread is able to.
+   *
+   * @param namespace the namespace to synchronize.
+   * @return whether or not the synchronization pass was successful.
+   */
+  public boolean syncNow(final MongoNamespace namespace) {
+    this.waitUntilInitialized();
+
+    try {
+      ongoingOperationsGroup.enter();
+      syncConfig.getNamespaceConfig(namespace).requestImmediateSyncPass();
+
+      syncLock.lock();
+      try {
+        return doSyncPass(Collections.singleton(namespace));
+      } finally {
+        syncLock.unlock();
+      }
+    } finally {
+      ongoingOperationsGroup.exit();
+    }
+  }
+
+  /**
+   * Performs a synchronization pass over the namespaces that are due to be synchronized according
+   * to their {@link SyncFrequency}, if any.
+   *
+   * @return whether or not the synchronization pass was successful.
+   */
+  boolean doScheduledSyncPass() {
+    if (!this.isConfigured) {
+      return false;
+    }
+
+    final long now = System.currentTimeMillis();
+    final Set<MongoNamespace> dueNamespaces = new HashSet<>();
+    for (final NamespaceSynchronizationConfig nsConfig : syncConfig) {
+      if (nsConfig.getNextSyncPassTime() <= now) {
+        dueNamespaces.add(nsConfig.getNamespace());
+      }
+    }
+
+    if (dueNamespaces.isEmpty()) {
+      return true;
+    }
+    return doSyncPass(dueNamespaces);
+  }
+
+  /**
+   * Returns how long the background thread can wait before a namespace is next due to be
+   * synchronized, or {@link Long#MAX_VALUE} if none are.
+   *
+   * @return the number of milliseconds until the next synchronization pass is due.
+   */
+  long getMillisUntilNextSyncPass() {
+    if (!this.isConfigured) {
+      return Long.MAX_VALUE;
+    }
+
+    long nextSyncPassTime = Long.MAX_VALUE;
+    for (final NamespaceSynchronizationConfig nsConfig : syncConfig) {
+      nextSyncPassTime = Math.min(nextSyncPassTime, nsConfig.getNextSyncPassTime());
+    }
+
+    if (nextSyncPassTime == Long.MAX_VALUE) {
+      return Long.MAX_VALUE;
+    }
+    return Math.max(0, nextSyncPassTime - System.currentTimeMillis());
+  }
+
+  /**
+   * Performs a single synchronization pass over the given namespaces.
+   *
+   * @param namespaces the namespaces to synchronize, or null to synchronize all of them.
+   * @return whether or not the synchronization pass was successful.
+   */
+  private boolean doSyncPass(@Nullable final Set<MongoNamespace> namespaces) {
     if (!this.isConfigured || !syncLock.tryLock()) {
       return false;
     }
@@ -536,14 +855,31 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
         return false;
       }
 
-      syncRemoteToLocal();
-      syncLocalToRemote();
+      final List<NamespaceSynchronizationConfig> nsConfigs = new ArrayList<>();
+      final long now = System.currentTimeMillis();
+      for (final NamespaceSynchronizationConfig nsConfig : syncConfig) {
+        if (namespaces == null || namespaces.contains(nsConfig.getNamespace())) {
+          nsConfig.onSyncPassStarted(now);
+          nsConfigs.add(nsConfig);
+        }
+      }
+
+      final long startedAt = System.nanoTime();
+      syncNamespaces(nsConfigs);
+
+      for (final NamespaceSynchronizationConfig nsConfig : nsConfigs) {
+        if (nsConfig.hasUncommittedWrites()) {
+          nsConfig.requestSyncPass(FAILED_WRITES_RETRY_MILLIS);
+        }
+      }
 
       if (logger.isInfoEnabled()) {
         logger.info(String.format(
             Locale.US,
-            "t='%d': doSyncPass END",
-            logicalT));
+            "t='%d': doSyncPass END namespaces=%d took=%dms",
+            logicalT,
+            nsConfigs.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)));
       }
     } catch (InterruptedException e) {
       if (logger.isInfoEnabled()) {
@@ -560,148 +896,324 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
   }
 
   /**
-   * Synchronizes the remote state of every requested document to be synchronized with the local
-   * state of said documents. Utilizes change streams to get "recent" updates to documents of
-   * interest. Documents that are being synchronized from the first time will be fetched via a
-   * full document lookup. Documents that have gone stale will be updated via change events or
-   * latest documents with the remote. Any conflicts that occur will be resolved locally and
-   * later relayed remotely on a subsequent iteration of {@link DataSynchronizer#doSyncPass()}.
+   * Synchronizes the given namespaces, concurrently if there is more than one of them. Each
+   * namespace is synchronized in both directions by a single thread, and is isolated from the
+   * others by its own namespace and change stream locks. Returns once every namespace has been
+   * synchronized, even if interrupted in the meantime, so that no namespace is still being
+   * synchronized once the pass is over.
    */
-  private void syncRemoteToLocal() throws InterruptedException {
-    if (logger.isInfoEnabled()) {
-      logger.info(String.format(
-          Locale.US,
-          "t='%d': syncRemoteToLocal START",
-          logicalT));
+  private void syncNamespaces(
+      final List<NamespaceSynchronizationConfig> nsConfigs
+  ) throws InterruptedException {
+    if (nsConfigs.size() <= 1
+        || syncPassExecutor.getMaximumPoolSize() <= 1
+        || syncPassExecutor.isShutdown()) {
+      for (final NamespaceSynchronizationConfig nsConfig : nsConfigs) {
+        syncNamespace(nsConfig);
+      }
+      return;
     }
 
-    // 2. Run remote to local (R2L) sync routine
-    for (final NamespaceSynchronizationConfig nsConfig : syncConfig) {
-      // lock the NamespaceChangeStreamListener for this namespace to prevent a new stream from
-      // opening for this namespace during this sync pass.
-      final ReadWriteLock streamerLock = instanceChangeStreamListener
-          .getLockForNamespace(nsConfig.getNamespace());
+    synchronized (deferredListenerNamespaces) {
+      isSyncingNamespacesConcurrently = true;
+    }
+    Throwable failure = null;
+    boolean interrupted = false;
+    try {
+      final List<Future<Void>> futures = new ArrayList<>(nsConfigs.size());
+      for (final NamespaceSynchronizationConfig nsConfig : nsConfigs) {
+        futures.add(syncPassExecutor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws InterruptedException {
+            syncNamespace(nsConfig);
+            return null;
+          }
+        }));
+      }
 
-      streamerLock.writeLock().lock();
-      nsConfig.getLock().writeLock().lock();
+      for (final Future<Void> future : futures) {
+        while (true) {
+          try {
+            future.get();
+            break;
+          } catch (final InterruptedException e) {
+            interrupted = true;
+          } catch (final ExecutionException e) {
+            if (e.getCause() instanceof InterruptedException) {
+              interrupted = true;
+            } else if (failure == null) {
+              failure = e.getCause();
+            }
+            break;
+          }
+        }
+      }
+    } finally {
+      final List<MongoNamespace> namespacesToListenTo;
+      synchronized (deferredListenerNamespaces) {
+        isSyncingNamespacesConcurrently = false;
+        namespacesToListenTo = new ArrayList<>(deferredListenerNamespaces);
+        deferredListenerNamespaces.clear();
+      }
+      for (final MongoNamespace namespace : namespacesToListenTo) {
+        triggerListeningToNamespace(namespace);
+      }
+    }
 
-      try {
-        final Map<BsonValue, ChangeEvent<BsonDocument>> remoteChangeEvents =
-            getEventsForNamespace(nsConfig.getNamespace());
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new IllegalStateException(failure);
+    }
+    if (interrupted) {
+      // preserve the interrupt so that the caller knows to stop
+      Thread.currentThread().interrupt();
+      throw new InterruptedException();
+    }
+  }
 
-        final Set<BsonValue> unseenIds = nsConfig.getStaleDocumentIds();
-        final Set<BsonDocument> latestDocumentsFromStale =
-            getLatestDocumentsForStaleFromRemote(nsConfig, unseenIds);
+  /**
+   * Synchronizes a single namespace in both directions.
+   */
+  private void syncNamespace(
+      final NamespaceSynchronizationConfig nsConfig
+  ) throws InterruptedException {
+    final long startedAt = System.nanoTime();
+    try {
+      // configs must be saved before the writes they describe are synchronized
+      saveDocumentConfigs(nsConfig);
+      syncRemoteToLocal(nsConfig);
+      syncLocalToRemote(nsConfig);
+    } catch (final InterruptedException | RuntimeException e) {
+      // the pass did not complete, so make sure it runs again
+      nsConfig.requestImmediateSyncPass();
+      throw e;
+    }
+
+    if (logger.isInfoEnabled()) {
+      logger.info(String.format(
+          Locale.US,
+          "t='%d': syncNamespace ns=%s took=%dms",
+          logicalT,
+          nsConfig.getNamespace(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)));
+    }
+  }
 
-        final Map<BsonValue, BsonDocument> latestDocumentMap = new HashMap<>();
+  /**
+   * Synchronizes the remote state of every requested document to be synchronized in the given
+   * namespace with the local state of said documents. Utilizes change streams to get "recent"
+   * updates to documents of interest. Documents that are being synchronized from the first time
+   * will be fetched via a full document lookup. Documents that have gone stale will be updated
+   * via change events or latest documents with the remote. Any conflicts that occur will be
+   * resolved locally and later relayed remotely on a subsequent iteration of
+   * {@link DataSynchronizer#doSyncPass()}.
+   */
+  private void syncRemoteToLocal(
+      final NamespaceSynchronizationConfig nsConfig
+  ) throws InterruptedException {
+    if (logger.isInfoEnabled()) {
+      logger.info(String.format(
+          Locale.US,
+          "t='%d': syncRemoteToLocal START ns=%s",
+          logicalT,
+          nsConfig.getNamespace()));
+    }
 
-        for (final BsonDocument latestDocument : latestDocumentsFromStale) {
-          latestDocumentMap.put(latestDocument.get("_id"), latestDocument);
-        }
+    // 2. Run remote to local (R2L) sync routine
+    // lock the NamespaceChangeStreamListener for this namespace to prevent a new stream from
+    // opening for this namespace during this sync pass.
+    final ReadWriteLock streamerLock = instanceChangeStreamListener
+        .getLockForNamespace(nsConfig.getNamespace());
 
-        final MongoNamespace namespace = nsConfig.getNamespace();
-        final LocalSyncWriteModelContainer localSyncWriteModelContainer =
-            new LocalSyncWriteModelContainer(nsConfig,
-                                             getLocalCollection(namespace),
-                                             getRemoteCollection(namespace),
-                                             getUndoCollection(namespace),
-                                             eventDispatcher);
-
-        // a. For each unprocessed change event
-        for (final Map.Entry<BsonValue, ChangeEvent<BsonDocument>> eventEntry :
-            remoteChangeEvents.entrySet()) {
-          if (logger.isDebugEnabled()) {
-            logger.debug(String.format(
-                Locale.US,
-                "t='%d': syncRemoteToLocal consuming event of type: %s",
-                logicalT,
-                eventEntry.getValue().getOperationType()));
-          }
+    streamerLock.writeLock().lock();
+    nsConfig.getLock().writeLock().lock();
 
-          final CoreDocumentSynchronizationConfig docConfig =
-              nsConfig.getSynchronizedDocument(
-                  BsonUtils.getDocumentId(eventEntry.getValue().getDocumentKey()));
-          if (docConfig == null || docConfig.isPaused()) {
-            continue;
-          }
+    NamespaceChangeEvents namespaceChangeEvents = null;
+    try {
+      if (!nsConfig.isStreamingEnabled()) {
+        // without a change stream there are no change events to apply, so every document in
+        // the namespace has to be refreshed from the remote
+        nsConfig.setStale(true);
+      }
 
-          docConfig.getLock().readLock().lock();
-          try {
-            unseenIds.remove(docConfig.getDocumentId());
-            latestDocumentMap.remove(docConfig.getDocumentId());
-          } finally {
-            docConfig.getLock().readLock().unlock();
-          }
+      namespaceChangeEvents = getEventsForNamespace(nsConfig.getNamespace());
+      final Map<BsonValue, ChangeEvent<BsonDocument>> remoteChangeEvents =
+          namespaceChangeEvents.getEvents();
+
+      // stale documents are refreshed a page at a time, so mark them as stale individually to be
+      // able to mark each page as not stale once it is committed
+      nsConfig.setStaleDocumentsIndividually();
+      final Set<BsonValue> unseenIds = nsConfig.getStaleDocumentIds();
+      LocalSyncWriteModelContainer localSyncWriteModelContainer =
+          newWriteModelContainer(nsConfig);
+
+      // a. For each unprocessed change event
+      for (final Map.Entry<BsonValue, ChangeEvent<BsonDocument>> eventEntry :
+          remoteChangeEvents.entrySet()) {
+        if (logger.isDebugEnabled()) {
+          logger.debug(String.format(
+              Locale.US,
+              "t='%d': syncRemoteToLocal consuming event of type: %s",
+              logicalT,
+              eventEntry.getValue().getOperationType()));
+        }
 
-          localSyncWriteModelContainer.merge(syncRemoteChangeEventToLocal(nsConfig, docConfig,
-              eventEntry.getValue()));
+        final CoreDocumentSynchronizationConfig docConfig =
+            nsConfig.getSynchronizedDocument(
+                BsonUtils.getDocumentId(eventEntry.getValue().getDocumentKey()));
+        if (docConfig == null || docConfig.isPaused()) {
+          continue;
         }
 
-        // For synchronized documents that had no unprocessed change event, but were marked as
-        // stale, synthesize a remote replace event to replace the local stale document with the
-        // latest remote copy.
-        for (final BsonValue docId : unseenIds) {
-          final CoreDocumentSynchronizationConfig docConfig =
-              nsConfig.getSynchronizedDocument(docId);
-          if (docConfig == null) {
-            continue;
-          }
-          docConfig.getLock().readLock().lock();
+        docConfig.getLock().readLock().lock();
+        try {
+          unseenIds.remove(docConfig.getDocumentId());
+        } finally {
+          docConfig.getLock().readLock().unlock();
+        }
 
-          final BsonDocument version;
-          final boolean isPaused;
-          final boolean hasUncommittedWrites;
-          try {
-            isPaused = docConfig.isPaused();
-            version = docConfig.getLastKnownRemoteVersion();
-            hasUncommittedWrites = docConfig.hasUncommittedWrites();
-          } finally {
-            docConfig.getLock().readLock().unlock();
-          }
+        localSyncWriteModelContainer.merge(syncRemoteChangeEventToLocal(nsConfig, docConfig,
+            eventEntry.getValue()));
+      }
 
-          if (latestDocumentMap.containsKey(docId) && !isPaused) {
-            localSyncWriteModelContainer.merge(syncRemoteChangeEventToLocal(
-                nsConfig,
-                docConfig,
-                ChangeEvents.changeEventForLocalReplace(
-                    nsConfig.getNamespace(),
-                    docId,
-                    latestDocumentMap.get(docId),
-                    false
-                )));
-            continue;
+      // For synchronized documents that had no unprocessed change event, but were marked as
+      // stale, fetch the latest remote copies a page at a time, committing each page locally as
+      // it arrives so that a large initial sync makes progress even if it is interrupted.
+      final List<Map<BsonValue, BsonDocument>> stalePages =
+          getStaleDocumentPages(nsConfig, unseenIds);
+      int staleDocuments = 0;
+      for (final Map<BsonValue, BsonDocument> stalePage : stalePages) {
+        staleDocuments += stalePage.size();
+      }
+      final StaleDocumentsFetcher fetcher =
+          new StaleDocumentsFetcher(getRemoteCollection(nsConfig.getNamespace()), stalePages);
+      try {
+        int syncedStaleDocuments = 0;
+        for (int i = 0; i < stalePages.size(); i++) {
+          final StaleDocumentsPage page = fetcher.next();
+          syncStaleDocumentsToLocal(nsConfig, page, localSyncWriteModelContainer);
+          localSyncWriteModelContainer.commitAndClear();
+          localSyncWriteModelContainer = newWriteModelContainer(nsConfig);
+
+          // only the pages that have yet to be committed are fetched again if this pass fails
+          for (final BsonValue docId : page.lastSeenVersions.keySet()) {
+            final CoreDocumentSynchronizationConfig docConfig =
+                nsConfig.getSynchronizedDocument(docId);
+            if (docConfig != null) {
+              docConfig.setStale(false);
+            }
           }
 
-          // For synchronized documents that had no unprocessed change event, and did not have a
-          // latest version when stale documents were queried, synthesize a remote delete event to
-          // delete the local document.
-          if (version != null && !isPaused) {
-            localSyncWriteModelContainer.merge(syncRemoteChangeEventToLocal(
-                nsConfig,
-                docConfig,
-                ChangeEvents.changeEventForLocalDelete(
-                    nsConfig.getNamespace(),
-                    docId,
-                    hasUncommittedWrites
-                )));
+          syncedStaleDocuments += page.lastSeenVersions.size();
+          if (logger.isInfoEnabled()) {
+            logger.info(String.format(
+                Locale.US,
+                "t='%d': syncRemoteToLocal ns=%s synchronized %d of %d stale documents",
+                logicalT,
+                nsConfig.getNamespace(),
+                syncedStaleDocuments,
+                staleDocuments));
           }
-
-          docConfig.setStale(false);
         }
+      } finally {
+        fetcher.cancel();
+      }
 
+      if (stalePages.isEmpty()) {
         localSyncWriteModelContainer.commitAndClear();
-        nsConfig.setStale(false);
-      } finally {
-        nsConfig.getLock().writeLock().unlock();
-        streamerLock.writeLock().unlock();
       }
+      nsConfig.setStale(false);
+
+      // every event handed off has been applied, so the stream may now be resumed after them
+      if (namespaceChangeEvents.getResumeToken() != null) {
+        nsConfig.setResumeToken(namespaceChangeEvents.getResumeToken());
+      }
+    } catch (final RuntimeException e) {
+      if (namespaceChangeEvents != null && !namespaceChangeEvents.getEvents().isEmpty()) {
+        // the events handed off are gone even though they may not have been applied, so the
+        // documents have to be refreshed from the remote instead
+        nsConfig.setStale(true);
+      }
+      throw e;
+    } finally {
+      nsConfig.getLock().writeLock().unlock();
+      streamerLock.writeLock().unlock();
     }
 
     if (logger.isInfoEnabled()) {
       logger.info(String.format(
           Locale.US,
-          "t='%d': syncRemoteToLocal END",
-          logicalT));
+          "t='%d': syncRemoteToLocal END ns=%s",
+          logicalT,
+          nsConfig.getNamespace()));
+    }
+  }
+
+  /**
+   * Synthesizes remote events for a fetched page of stale documents that had no unprocessed
+   * change event: a replace with the latest remote copy for documents whose version changed, and
+   * a delete for documents that no longer exist remotely. Documents whose remote version is the
+   * one we last saw are left as they are.
+   */
+  private void syncStaleDocumentsToLocal(
+      final NamespaceSynchronizationConfig nsConfig,
+      final StaleDocumentsPage page,
+      final LocalSyncWriteModelContainer container
+  ) {
+    for (final BsonValue docId : page.lastSeenVersions.keySet()) {
+      final CoreDocumentSynchronizationConfig docConfig =
+          nsConfig.getSynchronizedDocument(docId);
+      if (docConfig == null) {
+        continue;
+      }
+      docConfig.getLock().readLock().lock();
+
+      final BsonDocument version;
+      final boolean isPaused;
+      final boolean hasUncommittedWrites;
+      try {
+        isPaused = docConfig.isPaused();
+        version = docConfig.getLastKnownRemoteVersion();
+        hasUncommittedWrites = docConfig.hasUncommittedWrites();
+      } finally {
+        docConfig.getLock().readLock().unlock();
+      }
+
+      // For synchronized documents whose remote version is the one we last saw, there is
+      // nothing to do.
+      if (page.unchangedIds.contains(docId)) {
+        continue;
+      }
+
+      if (page.latestDocuments.containsKey(docId) && !isPaused) {
+        container.merge(syncRemoteChangeEventToLocal(
+            nsConfig,
+            docConfig,
+            ChangeEvents.changeEventForLocalReplace(
+                nsConfig.getNamespace(),
+                docId,
+                page.latestDocuments.get(docId),
+                false
+            )));
+        continue;
+      }
+
+      // For synchronized documents that had no unprocessed change event, and did not have a
+      // latest version when stale documents were queried, synthesize a remote delete event to
+      // delete the local document.
+      if (version != null && !isPaused) {
+        container.merge(syncRemoteChangeEventToLocal(
+            nsConfig,
+            docConfig,
+            ChangeEvents.changeEventForLocalDelete(
+                nsConfig.getNamespace(),
+                docId,
+                hasUncommittedWrites
+            )));
+      }
     }
   }
 
@@ -923,413 +1435,655 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
   }
 
   /**
-   * Synchronizes the local state of every requested document to be synchronized with the remote
-   * state of said documents. Any conflicts that occur will be resolved locally and later relayed
-   * remotely on a subsequent iteration of {@link DataSynchronizer#doSyncPass()}.
+   * Synchronizes the local state of every requested document to be synchronized in the given
+   * namespace with the remote state of said documents. Any conflicts that occur will be resolved
+   * locally and later relayed remotely on a subsequent iteration of
+   * {@link DataSynchronizer#doSyncPass()}.
+   *
+   * <p>The pending writes of the namespace are sent to the remote in a single bulk write, and
+   * the outcome of each write is then applied to its document.
    */
-  private void syncLocalToRemote() {
+  private void syncLocalToRemote(final NamespaceSynchronizationConfig nsConfig) {
     if (logger.isInfoEnabled()) {
       logger.info(String.format(
           Locale.US,
-          "t='%d': syncLocalToRemote START",
-          logicalT));
+          "t='%d': syncLocalToRemote START ns=%s",
+          logicalT,
+          nsConfig.getNamespace()));
     }
 
     // 1. Run local to remote (L2R) sync routine
-    // Search for modifications in each namespace.
-    for (final NamespaceSynchronizationConfig nsConfig : syncConfig) {
-      // lock the NamespaceChangeStreamListener for this namespace to prevent a new stream from
-      // opening for this namespace during this sync pass.
-      final ReadWriteLock streamerLock = instanceChangeStreamListener
-          .getLockForNamespace(nsConfig.getNamespace());
+    // lock the NamespaceChangeStreamListener for this namespace to prevent a new stream from
+    // opening for this namespace during this sync pass.
+    final ReadWriteLock streamerLock = instanceChangeStreamListener
+        .getLockForNamespace(nsConfig.getNamespace());
 
-      streamerLock.writeLock().lock();
-      nsConfig.getLock().writeLock().lock();
-      try {
-        final CoreRemoteMongoCollection<BsonDocument> remoteColl =
-            getRemoteCollection(nsConfig.getNamespace());
+    streamerLock.writeLock().lock();
+    nsConfig.getLock().writeLock().lock();
+    try {
+      final CoreRemoteMongoCollection<BsonDocument> remoteColl =
+          getRemoteCollection(nsConfig.getNamespace());
+
+      final LocalSyncWriteModelContainer localSyncWriteModelContainer =
+          newWriteModelContainer(nsConfig);
+
+      // a. For each document that has local writes pending, determine the remote write that
+      // will commit it
+      final List<LocalToRemoteWrite> writes = new ArrayList<>();
+      for (final CoreDocumentSynchronizationConfig docConfig : nsConfig.getDirtyDocuments()) {
+        if (!docConfig.hasUncommittedWrites() || docConfig.isPaused()) {
+          continue;
+        }
+        final LocalToRemoteWrite write = prepareLocalToRemoteWrite(nsConfig, docConfig);
+        if (write != null) {
+          writes.add(write);
+        }
+      }
+
+      // b. Commit the writes to the remote database
+      executeLocalToRemoteWrites(nsConfig, remoteColl, writes);
+
+      // c. Record the outcome of each write locally
+      for (final LocalToRemoteWrite write : writes) {
+        localSyncWriteModelContainer.merge(
+            completeLocalToRemoteWrite(
+                nsConfig, remoteColl, write, localSyncWriteModelContainer));
+      }
+      localSyncWriteModelContainer.commitAndClear();
+    } finally {
+      nsConfig.getLock().writeLock().unlock();
+      streamerLock.writeLock().unlock();
+    }
+
+    if (logger.isInfoEnabled()) {
+      logger.info(String.format(
+          Locale.US,
+          "t='%d': syncLocalToRemote END ns=%s",
+          logicalT,
+          nsConfig.getNamespace()));
+    }
 
-        final LocalSyncWriteModelContainer localSyncWriteModelContainer =
-            newWriteModelContainer(nsConfig);
+    // 3. If there are still local writes pending for the document, it will go through the L2R
+    //    phase on a subsequent pass and try to commit changes again.
 
-        // a. For each document that has local writes pending
-        for (final CoreDocumentSynchronizationConfig docConfig : nsConfig) {
-          if (!docConfig.hasUncommittedWrites() || docConfig.isPaused()) {
-            continue;
+  }
+
+  /**
+   * The state of a single document's local to remote synchronization within a sync pass.
+   */
+  private static final class LocalToRemoteWrite {
+    final CoreDocumentSynchronizationConfig docConfig;
+    OperationType operationType;
+    BsonDocument writeFilter;
+    BsonDocument writeDocument;
+    BsonDocument nextVersion;
+    SyncAction action;
+    SyncMessage message;
+    Exception syncException;
+    boolean suppressLocalEvent;
+
+    // This is here as an optimization in case an op requires we look up the remote document in
+    // advance and we only want to do this once.
+    BsonDocument remoteDocument;
+    boolean remoteDocumentFetched;
+
+    LocalToRemoteWrite(final CoreDocumentSynchronizationConfig docConfig) {
+      this.docConfig = docConfig;
+    }
+
+    /**
+     * Returns whether or not this document still needs to be written to the remote database.
+     */
+    boolean isPending() {
+      return action == null && operationType != null;
+    }
+
+    WriteModel<BsonDocument> toWriteModel() {
+      switch (operationType) {
+        case INSERT:
+          return new InsertOneModel<>(writeDocument);
+        case REPLACE:
+          return new ReplaceOneModel<>(writeFilter, writeDocument);
+        case UPDATE:
+          return new UpdateOneModel<>(writeFilter, writeDocument);
+        case DELETE:
+          return new DeleteOneModel<>(writeFilter);
+        default:
+          throw new IllegalStateException("unhandled operation type: " + operationType);
+      }
+    }
+
+    void pause(final SyncMessage message, final Exception ex) {
+      this.action = SyncAction.DROP_EVENT_AND_PAUSE;
+      this.message = message;
+      this.syncException = ex;
+      this.suppressLocalEvent = true;
+    }
+
+    void conflict(final SyncMessage message) {
+      this.action = SyncAction.CONFLICT;
+      this.message = message;
+    }
+
+    void waitForNextPass(final SyncMessage message, final Exception ex) {
+      this.action = SyncAction.WAIT;
+      this.message = message;
+      this.syncException = ex;
+    }
+  }
+
+  /**
+   * Determines the remote write that will commit the pending local writes of a document, without
+   * performing it.
+   *
+   * @return the pending write, or null if the document cannot be synchronized.
+   */
+  @Nullable
+  private LocalToRemoteWrite prepareLocalToRemoteWrite(
+      final NamespaceSynchronizationConfig nsConfig,
+      final CoreDocumentSynchronizationConfig docConfig
+  ) {
+    final LocalToRemoteWrite write = new LocalToRemoteWrite(docConfig);
+
+    docConfig.getLock().readLock().lock();
+    try {
+      if (docConfig.getLastResolution() == logicalT) {
+        write.action = SyncAction.WAIT;
+        write.message = SyncMessage.SIMULTANEOUS_WRITES_MESSAGE;
+        return write;
+      }
+
+      // i. Retrieve the change event for this local document in the local config metadata
+      final ChangeEvent<BsonDocument> localChangeEvent =
+          docConfig.getLastUncommittedChangeEvent();
+      if (logger.isDebugEnabled()) {
+        logger.debug(String.format(
+            Locale.US,
+            "t='%d': syncLocalToRemote ns=%s documentId=%s processing local operation='%s'",
+            logicalT,
+            nsConfig.getNamespace(),
+            docConfig.getDocumentId(),
+            localChangeEvent.getOperationType().toString()));
+      }
+
+      final BsonDocument localDoc = localChangeEvent.getFullDocument();
+
+      final DocumentVersionInfo localVersionInfo =
+          DocumentVersionInfo.getLocalVersionInfo(docConfig);
+
+      // ii. Check if the internal remote change stream listener has an unprocessed event for
+      // this document.
+      final ChangeEvent<BsonDocument> unprocessedRemoteEvent =
+          instanceChangeStreamListener.getUnprocessedEventForDocumentId(
+              nsConfig.getNamespace(),
+              docConfig.getDocumentId());
+
+      if (unprocessedRemoteEvent != null) {
+        DocumentVersionInfo unprocessedEventVersionInfo;
+        try {
+          unprocessedEventVersionInfo = DocumentVersionInfo
+              .getRemoteVersionInfo(unprocessedRemoteEvent.getFullDocument());
+        } catch (final Exception e) {
+          write.action = SyncAction.DROP_EVENT_AND_DESYNC;
+          write.message = SyncMessage.CANNOT_PARSE_REMOTE_VERSION_MESSAGE;
+          unprocessedEventVersionInfo = null;
+          write.suppressLocalEvent = true;
+        }
+
+        if (unprocessedEventVersionInfo != null) {
+          final boolean unprocessedEventHasNoVersion =
+              !unprocessedEventVersionInfo.hasVersion();
+          final boolean localHasNoVersion = !localVersionInfo.hasVersion();
+
+          @Nullable final DocumentVersionInfo.Version unprocessedEventVersion =
+              unprocessedEventHasNoVersion ? null :
+                  unprocessedEventVersionInfo.getVersion();
+          @Nullable final DocumentVersionInfo.Version localVersion =
+              localHasNoVersion ? null : localVersionInfo.getVersion();
+
+          if (!unprocessedEventHasNoVersion && !localHasNoVersion) {
+            final boolean instanceIdMatch = localVersion.getInstanceId()
+                .equals(unprocessedEventVersion.getInstanceId());
+            final boolean lastSeenOlderThanRemote =
+                unprocessedEventVersion.getVersionCounter()
+                    >= localVersion.getVersionCounter();
+
+            final boolean hasCommittedVersion = instanceIdMatch
+                && localVersion.getSyncProtocolVersion() == SYNC_PROTOCOL_VERSION
+                && !lastSeenOlderThanRemote;
+
+            if (!hasCommittedVersion) {
+              write.conflict(SyncMessage.VERSION_DIFFERENT_UNPROCESSED_EVENT_MESSAGE);
+            }
           }
-          docConfig.getLock().readLock().lock();
+        }
+        // 2. Otherwise, the unprocessed event can be safely dropped and ignored in future
+        // R2L passes. Continue on to checking the operation type.
+      }
 
-          BsonDocument nextVersion = null;
-          boolean setPendingWritesComplete = false;
-          SyncAction action = null;
-          SyncMessage message = null;
-          ChangeEvent<BsonDocument> remoteChangeEvent = null;
-          Exception syncException = null;
+      if (write.action != null) { // if we've already encountered an error/conflict
+        return write;
+      }
 
-          boolean suppressLocalEvent = false;
+      // iii. Check the operation type
+      switch (localChangeEvent.getOperationType()) {
+        // 1. INSERT
+        case INSERT: {
+          // It's possible that we may insert after a delete happened and we didn't get a
+          // notification for it. There's nothing we can do about this.
+
+          // a. Insert document into remote database
+          write.nextVersion = DocumentVersionInfo.getFreshVersionDocument();
+          write.writeDocument =
+              withNewVersion(localChangeEvent.getFullDocument(), write.nextVersion);
+          break;
+        }
 
-          try {
-            if (docConfig.getLastResolution() == logicalT) {
-              action = SyncAction.WAIT;
-              message = SyncMessage.SIMULTANEOUS_WRITES_MESSAGE;
-            } else {
-              // i. Retrieve the change event for this local document in the local config metadata
-              final ChangeEvent<BsonDocument> localChangeEvent =
-                  docConfig.getLastUncommittedChangeEvent();
-              if (logger.isDebugEnabled()) {
-                logger.debug(String.format(
-                    Locale.US,
-                    "t='%d': syncLocalToRemote ns=%s documentId=%s processing local operation='%s'",
-                    logicalT,
-                    nsConfig.getNamespace(),
-                    docConfig.getDocumentId(),
-                    localChangeEvent.getOperationType().toString()));
-              }
+        // 2. REPLACE
+        case REPLACE: {
+          if (localDoc == null) {
+            final IllegalStateException illegalStateException = new IllegalStateException(
+                "expected document to exist for local replace change event: %s");
 
-              final BsonDocument localDoc = localChangeEvent.getFullDocument();
-              final BsonDocument docFilter = getDocumentIdFilter(docConfig.getDocumentId());
-
-              // This is here as an optimization in case an op requires we look up the remote
-              // document in advance and we only want to do this once.
-              BsonDocument remoteDocument = null;
-              boolean remoteDocumentFetched = false;
-
-              final DocumentVersionInfo localVersionInfo =
-                  DocumentVersionInfo.getLocalVersionInfo(docConfig);
-
-              // ii. Check if the internal remote change stream listener has an unprocessed event
-              // for this document.
-              final ChangeEvent<BsonDocument> unprocessedRemoteEvent =
-                  instanceChangeStreamListener.getUnprocessedEventForDocumentId(
-                      nsConfig.getNamespace(),
-                      docConfig.getDocumentId());
-
-              if (unprocessedRemoteEvent != null) {
-                DocumentVersionInfo unprocessedEventVersionInfo;
-                try {
-                  unprocessedEventVersionInfo = DocumentVersionInfo
-                      .getRemoteVersionInfo(unprocessedRemoteEvent.getFullDocument());
-                } catch (final Exception e) {
-                  action = SyncAction.DROP_EVENT_AND_DESYNC;
-                  message = SyncMessage.CANNOT_PARSE_REMOTE_VERSION_MESSAGE;
-                  unprocessedEventVersionInfo = null;
-                  suppressLocalEvent = true;
-                }
+            pauseDocument(docConfig);
+            emitError(
+                docConfig,
+                illegalStateException.getMessage(),
+                illegalStateException
+            );
+            return null;
+          }
 
-                if (unprocessedEventVersionInfo != null) {
-                  final boolean unprocessedEventHasNoVersion =
-                      !unprocessedEventVersionInfo.hasVersion();
-                  final boolean localHasNoVersion = !localVersionInfo.hasVersion();
-
-                  @Nullable final DocumentVersionInfo.Version unprocessedEventVersion =
-                      unprocessedEventHasNoVersion ? null :
-                          unprocessedEventVersionInfo.getVersion();
-                  @Nullable final DocumentVersionInfo.Version localVersion =
-                      localHasNoVersion ? null : localVersionInfo.getVersion();
-
-                  if (!unprocessedEventHasNoVersion && !localHasNoVersion) {
-                    final boolean instanceIdMatch = localVersion.getInstanceId()
-                        .equals(unprocessedEventVersion.getInstanceId());
-                    final boolean lastSeenOlderThanRemote =
-                        unprocessedEventVersion.getVersionCounter()
-                            >= localVersion.getVersionCounter();
-
-                    final boolean hasCommittedVersion = instanceIdMatch
-                        && localVersion.getSyncProtocolVersion() == SYNC_PROTOCOL_VERSION
-                        && !lastSeenOlderThanRemote;
-
-                    if (!hasCommittedVersion) {
-                      action = SyncAction.CONFLICT;
-                      message = SyncMessage.VERSION_DIFFERENT_UNPROCESSED_EVENT_MESSAGE;
-                    }
-                  }
-                }
-                // 2. Otherwise, the unprocessed event can be safely dropped and ignored in future
-                // R2L passes. Continue on to checking the operation type.
-              }
+          // a. Update the document in the remote database using a query for the _id and the
+          // version with an update containing the replacement document with the version
+          // counter incremented by 1.
+          write.nextVersion = localVersionInfo.getNextVersion();
+          write.writeFilter = localVersionInfo.getFilter();
+          write.writeDocument = withNewVersion(localDoc, write.nextVersion);
+          break;
+        }
 
-              if (action == null) { // if we haven't encountered an error/conflict already
-                // iii. Check the operation type
-                switch (localChangeEvent.getOperationType()) {
-                  // 1. INSERT
-                  case INSERT: {
-                    nextVersion =
-                        DocumentVersionInfo.getFreshVersionDocument();
-
-                    // It's possible that we may insert after a delete happened and we didn't get a
-                    // notification for it. There's nothing we can do about this.
-
-                    // a. Insert document into remote database
-                    try {
-                      remoteColl.insertOne(
-                          withNewVersion(localChangeEvent.getFullDocument(), nextVersion));
-                    } catch (final StitchServiceException ex) {
-                      // b. If an error happens:
-
-                      // i. That is not a duplicate key exception, report an error to the error
-                      // listener.
-                      if (ex.getErrorCode() != StitchServiceErrorCode.MONGODB_ERROR
-                          || !ex.getMessage().contains("E11000")) {
-                        action = SyncAction.DROP_EVENT_AND_PAUSE;
-                        message = SyncMessage.EXCEPTION_INSERT;
-                        syncException = ex;
-                        suppressLocalEvent = true;
-                      } else {
-                        // ii. Otherwise record that a conflict has occurred.
-                        action = SyncAction.CONFLICT;
-                        message = SyncMessage.DUPLICATE_KEY_EXCEPTION_MESSAGE;
-                      }
-                    }
-                    break;
-                  }
+        // 3. UPDATE
+        case UPDATE: {
+          if (localDoc == null) {
+            write.pause(
+                SyncMessage.EXPECTED_LOCAL_DOCUMENT_TO_EXIST_MESSAGE,
+                new IllegalStateException(
+                    SyncMessage.EXPECTED_LOCAL_DOCUMENT_TO_EXIST_MESSAGE.toString()));
+            return write;
+          }
 
+          final UpdateDescription localUpdateDescription =
+              localChangeEvent.getUpdateDescription();
+          if (localUpdateDescription.getRemovedFields().isEmpty()
+              && localUpdateDescription.getUpdatedFields().isEmpty()) {
+            // if the translated update is empty, then this update is a noop, and we shouldn't
+            // update because it would improperly update the version information.
+            write.action = SyncAction.DROP_EVENT;
+            write.message = SyncMessage.EMPTY_UPDATE_DESCRIPTION;
+            write.suppressLocalEvent = true;
+            return write;
+          }
 
-                  // 2. REPLACE
-                  case REPLACE: {
-                    if (localDoc == null) {
-                      final IllegalStateException illegalStateException = new IllegalStateException(
-                          "expected document to exist for local replace change event: %s");
-
-                      pauseDocument(docConfig);
-                      emitError(
-                          docConfig,
-                          illegalStateException.getMessage(),
-                          illegalStateException
-                      );
-                      continue;
-                    }
-                    nextVersion = localVersionInfo.getNextVersion();
-                    final BsonDocument nextDoc = withNewVersion(localDoc, nextVersion);
-
-                    // a. Update the document in the remote database using a query for the _id and
-                    // the version with an update containing the replacement document with the
-                    // version counter incremented by 1.
-                    RemoteUpdateResult result = null;
-                    try {
-                      result = remoteColl.updateOne(
-                          localVersionInfo.getFilter(),
-                          nextDoc);
-                    } catch (final StitchServiceException ex) {
-                      action = SyncAction.DROP_EVENT_AND_PAUSE;
-                      message = SyncMessage.EXCEPTION_REPLACE;
-                      syncException = ex;
-                      suppressLocalEvent = true;
-                    }
-                    // c. If no documents are matched, record that a conflict has occurred.
-                    if (result != null && result.getMatchedCount() == 0) {
-                      action = SyncAction.CONFLICT;
-                      message = SyncMessage.VERSION_DIFFERENT_REPLACED_DOC_MESSAGE;
-                    }
-                    break;
-                  }
+          // a. Update the document in the remote database using a query for the _id and the
+          // version with an update containing the replacement document with the version
+          // counter incremented by 1.
 
-                  // 3. UPDATE
-                  case UPDATE: {
-                    if (localDoc == null) {
-                      final IllegalStateException illegalStateException = new IllegalStateException(
-                          SyncMessage.EXPECTED_LOCAL_DOCUMENT_TO_EXIST_MESSAGE.toString());
-
-                      action = SyncAction.DROP_EVENT_AND_PAUSE;
-                      message = SyncMessage.EXPECTED_LOCAL_DOCUMENT_TO_EXIST_MESSAGE;
-                      syncException = illegalStateException;
-                      suppressLocalEvent = true;
-                    } else {
-                      final UpdateDescription localUpdateDescription =
-                          localChangeEvent.getUpdateDescription();
-                      if (localUpdateDescription.getRemovedFields().isEmpty()
-                          && localUpdateDescription.getUpdatedFields().isEmpty()) {
-                        // if the translated update is empty, then this update is a noop, and we
-                        // shouldn't update because it would improperly update the version
-                        // information.
-                        action = SyncAction.DROP_EVENT;
-                        message = SyncMessage.EMPTY_UPDATE_DESCRIPTION;
-                        suppressLocalEvent = true;
-                      } else {
-                        // a. Update the document in the remote database using a query for the _id
-                        // and the version with an update containing the replacement document with
-                        // the version counter incremented by 1.
-
-                        // create an update document from the local change event's update
-                        // description, and set the version of the new document to the next logical
-                        // version
-                        nextVersion = localVersionInfo.getNextVersion();
-
-                        final BsonDocument translatedUpdate = new BsonDocument();
-                        final BsonDocument sets = new BsonDocument();
-                        final BsonDocument unsets = new BsonDocument();
-
-                        if (!localUpdateDescription.getUpdatedFields().isEmpty()) {
-                          for (final Map.Entry<String, BsonValue> fieldValue :
-                              localUpdateDescription.getUpdatedFields().entrySet()) {
-                            sets.put(fieldValue.getKey(), fieldValue.getValue());
-                          }
-                        }
-
-                        if (!localUpdateDescription.getRemovedFields().isEmpty()) {
-                          for (final String field :
-                              localUpdateDescription.getRemovedFields()) {
-                            unsets.put(field, BsonBoolean.TRUE);
-                          }
-                          translatedUpdate.put("$unset", unsets);
-                        }
-
-                        sets.put(DOCUMENT_VERSION_FIELD, nextVersion);
-                        translatedUpdate.put("$set", sets);
-
-                        RemoteUpdateResult result = null;
-                        try {
-                          result = remoteColl.updateOne(
-                              localVersionInfo.getFilter(),
-                              translatedUpdate
-                          );
-                        } catch (final StitchServiceException ex) {
-                          action = SyncAction.DROP_EVENT_AND_PAUSE;
-                          message = SyncMessage.EXCEPTION_UPDATE;
-                          syncException = ex;
-                          suppressLocalEvent = true;
-                        }
-                        if (action == null && result.getMatchedCount() == 0) {
-                          // c. If no documents are matched and we haven't already registered
-                          // an error condition, record that a conflict has occurred.
-                          action = SyncAction.CONFLICT;
-                          message = SyncMessage.VERSION_DIFFERENT_UPDATED_DOC_MESSAGE;
-                        }
-                      }
-                    }
-                    break;
-                  }
+          // create an update document from the local change event's update description, and set
+          // the version of the new document to the next logical version
+          write.nextVersion = localVersionInfo.getNextVersion();
 
-                  case DELETE: {
-                    nextVersion = null;
-                    RemoteDeleteResult result = null;
-                    // a. Delete the document in the remote database using a query for the _id and
-                    // the version.
-                    try {
-                      result = remoteColl.deleteOne(localVersionInfo.getFilter());
-                    } catch (final StitchServiceException ex) {
-                      // b. If an error happens, report an error to the error listener.
-                      action = SyncAction.DROP_EVENT_AND_PAUSE;
-                      message = SyncMessage.EXCEPTION_DELETE;
-                      syncException = ex;
-                      suppressLocalEvent = true;
-                    }
-                    // c. If no documents are matched and we haven't already registered an error
-                    // condition, record that a conflict has occurred.
-                    if (action == null && result.getDeletedCount() == 0) {
-                      remoteDocument = remoteColl.find(docFilter).first();
-                      remoteDocumentFetched = true;
-                      if (remoteDocument != null) {
-                        action = SyncAction.CONFLICT;
-                        message = SyncMessage.VERSION_DIFFERENT_DELETED_DOC_MESSAGE;
-                      }
-                    }
-
-                    if (action == null) { // if we haven't encountered an error/conflict already
-                      action = SyncAction.DELETE_LOCAL_DOC_AND_DESYNC;
-                    }
-                    break;
-                  }
+          final BsonDocument translatedUpdate = new BsonDocument();
+          final BsonDocument sets = new BsonDocument();
+          final BsonDocument unsets = new BsonDocument();
 
-                  default:
-                    action = SyncAction.DROP_EVENT_AND_PAUSE;
-                    message = SyncMessage.UNKNOWN_OPTYPE_MESSAGE;
-                    syncException = new Exception() {
-                      public String toString() {
-                        return localChangeEvent.getOperationType().toString();
-                      }
-                    };
-                    suppressLocalEvent = true;
-                }
-              } else {
-                nextVersion = null;
-              }
+          if (!localUpdateDescription.getUpdatedFields().isEmpty()) {
+            for (final Map.Entry<String, BsonValue> fieldValue :
+                localUpdateDescription.getUpdatedFields().entrySet()) {
+              sets.put(fieldValue.getKey(), fieldValue.getValue());
+            }
+          }
+
+          if (!localUpdateDescription.getRemovedFields().isEmpty()) {
+            for (final String field : localUpdateDescription.getRemovedFields()) {
+              unsets.put(field, BsonBoolean.TRUE);
+            }
+            translatedUpdate.put("$unset", unsets);
+          }
+
+          sets.put(DOCUMENT_VERSION_FIELD, write.nextVersion);
+          translatedUpdate.put("$set", sets);
+
+          write.writeFilter = localVersionInfo.getFilter();
+          write.writeDocument = translatedUpdate;
+          break;
+        }
+
+        case DELETE: {
+          // a. Delete the document in the remote database using a query for the _id and the
+          // version.
+          write.writeFilter = localVersionInfo.getFilter();
+          break;
+        }
+
+        default:
+          write.pause(SyncMessage.UNKNOWN_OPTYPE_MESSAGE, new Exception() {
+            public String toString() {
+              return localChangeEvent.getOperationType().toString();
+            }
+          });
+          return write;
+      }
+      write.operationType = localChangeEvent.getOperationType();
+      return write;
+    } finally {
+      docConfig.getLock().readLock().unlock();
+    }
+  }
+
+  /**
+   * Performs the pending remote writes of a namespace. A lone write is performed on its own, and
+   * any more are sent as a single unordered bulk write, unless the server has no bulk write
+   * function. If the bulk write fails as a whole for any other reason, some of its writes may
+   * still have been applied, so rather than being replayed, all of them are left pending until
+   * the next pass, which handles them like any other remote write with an unknown outcome.
+   */
+  private void executeLocalToRemoteWrites(
+      final NamespaceSynchronizationConfig nsConfig,
+      final CoreRemoteMongoCollection<BsonDocument> remoteColl,
+      final List<LocalToRemoteWrite> writes
+  ) {
+    final List<LocalToRemoteWrite> pendingWrites = new ArrayList<>();
+    final List<WriteModel<BsonDocument>> writeModels = new ArrayList<>();
+    for (final LocalToRemoteWrite write : writes) {
+      if (write.isPending()) {
+        pendingWrites.add(write);
+        writeModels.add(write.toWriteModel());
+      }
+    }
+
+    if (pendingWrites.isEmpty()) {
+      return;
+    }
+    if (pendingWrites.size() == 1 || isBulkWriteUnsupported) {
+      for (final LocalToRemoteWrite write : pendingWrites) {
+        executeLocalToRemoteWrite(remoteColl, write);
+      }
+      return;
+    }
+
+    final List<RemoteBulkWriteResult.WriteModelResult> results;
+    try {
+      results = remoteColl.bulkWrite(
+          writeModels, new RemoteBulkWriteOptions().ordered(false)).getResults();
+    } catch (final StitchServiceException ex) {
+      if (ex.getErrorCode() == StitchServiceErrorCode.FUNCTION_NOT_FOUND) {
+        // nothing was written, so each write can safely be performed on its own, as it will be
+        // from now on
+        logger.warn(String.format(
+            Locale.US,
+            "t='%d': syncLocalToRemote ns=%s bulk writes are not supported; "
+                + "writing each document individually: %s",
+            logicalT,
+            nsConfig.getNamespace(),
+            ex));
+        isBulkWriteUnsupported = true;
+        for (final LocalToRemoteWrite write : pendingWrites) {
+          executeLocalToRemoteWrite(remoteColl, write);
+        }
+        return;
+      }
+
+      logger.warn(String.format(
+          Locale.US,
+          "t='%d': syncLocalToRemote ns=%s bulk write of %d documents failed; "
+              + "retrying on the next pass: %s",
+          logicalT,
+          nsConfig.getNamespace(),
+          pendingWrites.size(),
+          ex));
+      for (final LocalToRemoteWrite write : pendingWrites) {
+        write.waitForNextPass(SyncMessage.UNKNOWN_WRITE_OUTCOME_MESSAGE, ex);
+      }
+      return;
+    }
+
+    for (int i = 0; i < pendingWrites.size(); i++) {
+      if (i < results.size()) {
+        applyLocalToRemoteWriteResult(remoteColl, pendingWrites.get(i), results.get(i));
+      } else {
+        pendingWrites.get(i).waitForNextPass(
+            SyncMessage.UNKNOWN_WRITE_OUTCOME_MESSAGE,
+            new IllegalStateException("bulk write returned no result for the write"));
+      }
+    }
+  }
+
+  /**
+   * Performs a single pending remote write and records its outcome.
+   */
+  private void executeLocalToRemoteWrite(
+      final CoreRemoteMongoCollection<BsonDocument> remoteColl,
+      final LocalToRemoteWrite write
+  ) {
+    switch (write.operationType) {
+      case INSERT:
+        try {
+          remoteColl.insertOne(write.writeDocument);
+        } catch (final StitchServiceException ex) {
+          // b. If an error happens:
+
+          // i. That is not a duplicate key exception, report an error to the error listener.
+          if (ex.getErrorCode() != StitchServiceErrorCode.MONGODB_ERROR
+              || !ex.getMessage().contains("E11000")) {
+            write.pause(SyncMessage.EXCEPTION_INSERT, ex);
+          } else {
+            // ii. Otherwise record that a conflict has occurred.
+            write.conflict(SyncMessage.DUPLICATE_KEY_EXCEPTION_MESSAGE);
+          }
+        }
+        break;
+
+      case REPLACE:
+      case UPDATE: {
+        final boolean isReplace = write.operationType == OperationType.REPLACE;
+        RemoteUpdateResult result = null;
+        try {
+          result = remoteColl.updateOne(write.writeFilter, write.writeDocument);
+        } catch (final StitchServiceException ex) {
+          write.pause(
+              isReplace ? SyncMessage.EXCEPTION_REPLACE : SyncMessage.EXCEPTION_UPDATE, ex);
+        }
+        // c. If no documents are matched and we haven't already registered an error condition,
+        // record that a conflict has occurred.
+        if (write.action == null && result != null && result.getMatchedCount() == 0) {
+          write.conflict(isReplace
+              ? SyncMessage.VERSION_DIFFERENT_REPLACED_DOC_MESSAGE
+              : SyncMessage.VERSION_DIFFERENT_UPDATED_DOC_MESSAGE);
+        }
+        break;
+      }
+
+      case DELETE: {
+        RemoteDeleteResult result = null;
+        try {
+          result = remoteColl.deleteOne(write.writeFilter);
+        } catch (final StitchServiceException ex) {
+          // b. If an error happens, report an error to the error listener.
+          write.pause(SyncMessage.EXCEPTION_DELETE, ex);
+        }
+        if (write.action == null) {
+          onRemoteDelete(remoteColl, write, result.getDeletedCount());
+        }
+        break;
+      }
+
+      default:
+        throw new IllegalStateException("unhandled operation type: " + write.operationType);
+    }
+  }
+
+  /**
+   * Records the outcome of a single pending remote write that was performed as part of a bulk
+   * write.
+   */
+  private void applyLocalToRemoteWriteResult(
+      final CoreRemoteMongoCollection<BsonDocument> remoteColl,
+      final LocalToRemoteWrite write,
+      final RemoteBulkWriteResult.WriteModelResult result
+  ) {
+    final Exception ex = result.hasError()
+        ? new StitchServiceException(
+            result.getErrorMessage(), StitchServiceErrorCode.MONGODB_ERROR)
+        : null;
+
+    switch (write.operationType) {
+      case INSERT:
+        if (result.hasError()) {
+          if (result.getErrorCode() == DUPLICATE_KEY_ERROR_CODE) {
+            write.conflict(SyncMessage.DUPLICATE_KEY_EXCEPTION_MESSAGE);
+          } else {
+            write.pause(SyncMessage.EXCEPTION_INSERT, ex);
+          }
+        }
+        break;
+
+      case REPLACE:
+        if (result.hasError()) {
+          write.pause(SyncMessage.EXCEPTION_REPLACE, ex);
+        } else if (result.getMatchedCount() == 0) {
+          write.conflict(SyncMessage.VERSION_DIFFERENT_REPLACED_DOC_MESSAGE);
+        }
+        break;
+
+      case UPDATE:
+        if (result.hasError()) {
+          write.pause(SyncMessage.EXCEPTION_UPDATE, ex);
+        } else if (result.getMatchedCount() == 0) {
+          write.conflict(SyncMessage.VERSION_DIFFERENT_UPDATED_DOC_MESSAGE);
+        }
+        break;
+
+      case DELETE:
+        if (result.hasError()) {
+          write.pause(SyncMessage.EXCEPTION_DELETE, ex);
+        } else {
+          onRemoteDelete(remoteColl, write, result.getDeletedCount());
+        }
+        break;
+
+      default:
+        throw new IllegalStateException("unhandled operation type: " + write.operationType);
+    }
+  }
 
-              if (logger.isDebugEnabled()) {
-                logger.debug(String.format(
-                    Locale.US,
-                    "t='%d': syncLocalToRemote ns=%s documentId=%s conflict=%s",
-                    logicalT,
-                    nsConfig.getNamespace(),
-                    docConfig.getDocumentId(),
-                    action == SyncAction.CONFLICT));
-              }
+  /**
+   * Records the outcome of a remote delete that did not fail.
+   */
+  private void onRemoteDelete(
+      final CoreRemoteMongoCollection<BsonDocument> remoteColl,
+      final LocalToRemoteWrite write,
+      final long deletedCount
+  ) {
+    // c. If no documents are matched, record that a conflict has occurred if the document still
+    // exists remotely.
+    if (deletedCount == 0) {
+      write.remoteDocument = remoteColl
+          .find(getDocumentIdFilter(write.docConfig.getDocumentId())).first();
+      write.remoteDocumentFetched = true;
+      if (write.remoteDocument != null) {
+        write.conflict(SyncMessage.VERSION_DIFFERENT_DELETED_DOC_MESSAGE);
+        return;
+      }
+    }
+    write.action = SyncAction.DELETE_LOCAL_DOC_AND_DESYNC;
+  }
 
-              if (action != SyncAction.CONFLICT) {
-                // iv. If no conflict has occurred, move on to the remote to local sync routine.
+  /**
+   * Applies the outcome of a document's local to remote synchronization to its local state.
+   *
+   * @return the local writes to commit as a result, if any.
+   */
+  @Nullable
+  private LocalSyncWriteModelContainer completeLocalToRemoteWrite(
+      final NamespaceSynchronizationConfig nsConfig,
+      final CoreRemoteMongoCollection<BsonDocument> remoteColl,
+      final LocalToRemoteWrite write,
+      final LocalSyncWriteModelContainer localSyncWriteModelContainer
+  ) {
+    final CoreDocumentSynchronizationConfig docConfig = write.docConfig;
+    boolean setPendingWritesComplete = false;
+    ChangeEvent<BsonDocument> remoteChangeEvent = null;
 
-                // since we strip version information from documents before setting pending writes,
-                // we don't have to worry about a stale document version in the event here.
-                final ChangeEvent<BsonDocument> committedEvent =
-                    docConfig.getLastUncommittedChangeEvent();
-                if (!suppressLocalEvent) {
-                  final ChangeEvent<BsonDocument> localEventToEmit =
-                      committedEvent.withoutUncommittedWrites();
+    if (write.action != SyncAction.WAIT) {
+      docConfig.getLock().readLock().lock();
+      try {
+        if (logger.isDebugEnabled()) {
+          logger.debug(String.format(
+              Locale.US,
+              "t='%d': syncLocalToRemote ns=%s documentId=%s conflict=%s",
+              logicalT,
+              nsConfig.getNamespace(),
+              docConfig.getDocumentId(),
+              write.action == SyncAction.CONFLICT));
+        }
 
-                  localSyncWriteModelContainer.addLocalChangeEvent(localEventToEmit);
-                }
+        if (write.action != SyncAction.CONFLICT) {
+          // iv. If no conflict has occurred, move on to the remote to local sync routine.
 
-                // do this later before change is committed since it requires a write lock which we
-                // cannot own while locking for read
-                setPendingWritesComplete = true;
-                if (committedEvent.getOperationType() != OperationType.DELETE) {
-                  localSyncWriteModelContainer.addConfigWrite(
-                      new ReplaceOneModel<>(CoreDocumentSynchronizationConfig.getDocFilter(
-                          nsConfig.getNamespace(), docConfig.getDocumentId()),
-                          docConfig));
-                }
-                remoteChangeEvent = null;
-              } else {
-                // v. Otherwise, invoke the collection-level conflict handler with the local change
-                // event and the remote change event (synthesized by doing a lookup of the document
-                // or sourced from the listener)
-                if (!remoteDocumentFetched) {
-                  remoteChangeEvent =
-                      getSynthesizedRemoteChangeEventForDocument(remoteColl,
-                          docConfig.getDocumentId());
-                } else {
-                  remoteChangeEvent =
-                      getSynthesizedRemoteChangeEventForDocument(
-                          remoteColl.getNamespace(),
-                          docConfig.getDocumentId(),
-                          remoteDocument);
-                }
-              }
-            }
-          } finally {
-            docConfig.getLock().readLock().unlock();
-          }
+          // since we strip version information from documents before setting pending writes,
+          // we don't have to worry about a stale document version in the event here.
+          final ChangeEvent<BsonDocument> committedEvent =
+              docConfig.getLastUncommittedChangeEvent();
+          if (!write.suppressLocalEvent) {
+            final ChangeEvent<BsonDocument> localEventToEmit =
+                committedEvent.withoutUncommittedWrites();
 
-          if (setPendingWritesComplete) {
-            docConfig.setPendingWritesComplete(
-                HashUtils.hash(
-                    sanitizeDocument(docConfig.getLastUncommittedChangeEvent().getFullDocument())
-                ), nextVersion);
+            localSyncWriteModelContainer.addLocalChangeEvent(localEventToEmit);
           }
 
-          if (action != null) { // for now, since we do remote ops inline
-            localSyncWriteModelContainer.merge(
-                enqueueAction(nsConfig, docConfig, remoteChangeEvent, action, message,
-                    SyncMessage.L2R_METHOD, syncException)
-            );
+          // do this later before change is committed since it requires a write lock which we
+          // cannot own while locking for read
+          setPendingWritesComplete = true;
+          if (committedEvent.getOperationType() != OperationType.DELETE) {
+            localSyncWriteModelContainer.addConfigWrite(
+                new ReplaceOneModel<>(CoreDocumentSynchronizationConfig.getDocFilter(
+                    nsConfig.getNamespace(), docConfig.getDocumentId()),
+                    docConfig));
+          }
+        } else {
+          // v. Otherwise, invoke the collection-level conflict handler with the local change
+          // event and the remote change event (synthesized by doing a lookup of the document
+          // or sourced from the listener)
+          if (!write.remoteDocumentFetched) {
+            remoteChangeEvent =
+                getSynthesizedRemoteChangeEventForDocument(remoteColl,
+                    docConfig.getDocumentId());
+          } else {
+            remoteChangeEvent =
+                getSynthesizedRemoteChangeEventForDocument(
+                    remoteColl.getNamespace(),
+                    docConfig.getDocumentId(),
+                    write.remoteDocument);
           }
         }
-        localSyncWriteModelContainer.commitAndClear();
       } finally {
-        nsConfig.getLock().writeLock().unlock();
-        streamerLock.writeLock().unlock();
+        docConfig.getLock().readLock().unlock();
       }
     }
 
-    if (logger.isInfoEnabled()) {
-      logger.info(String.format(
-          Locale.US,
-          "t='%d': syncLocalToRemote END",
-          logicalT));
+    if (setPendingWritesComplete) {
+      docConfig.setPendingWritesComplete(
+          HashUtils.hash(
+              sanitizeDocument(docConfig.getLastUncommittedChangeEvent().getFullDocument())
+          ), write.nextVersion);
     }
 
-    // 3. If there are still local writes pending for the document, it will go through the L2R
-    //    phase on a subsequent pass and try to commit changes again.
-
+    if (write.action == null) {
+      return null;
+    }
+    return enqueueAction(nsConfig, docConfig, remoteChangeEvent, write.action, write.message,
+        SyncMessage.L2R_METHOD, write.syncException);
   }
 
   private LocalSyncWriteModelContainer enqueueAction(
@@ -1773,7 +2527,9 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     instanceChangeStreamListener.removeWatcher(namespace, watcher);
   }
 
-  Map<BsonValue, ChangeEvent<BsonDocument>> getEventsForNamespace(final MongoNamespace namespace) {
+  NamespaceChangeEvents getEventsForNamespace(
+      final MongoNamespace namespace
+  ) throws InterruptedException {
     return instanceChangeStreamListener.getEventsForNamespace(namespace);
   }
 
@@ -1873,6 +2629,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
 
       if (syncConfig.addSynchronizedDocuments(namespace, documentIds)) {
         triggerListeningToNamespace(namespace);
+        requestSyncPass(syncConfig.getNamespaceConfig(namespace));
       }
     } finally {
       ongoingOperationsGroup.exit();
@@ -1956,6 +2713,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     }
 
     config.setPaused(false);
+    requestSyncPass(namespaceSynchronizationConfig);
     return !config.isPaused();
   }
 
@@ -2121,15 +2879,15 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
         getLocalCollection(namespace).insertOne(docForStorage);
         documentId = BsonUtils.getDocumentId(docForStorage);
         event = ChangeEvents.changeEventForLocalInsert(namespace, docForStorage, true);
-        final CoreDocumentSynchronizationConfig config = syncConfig.addAndGetSynchronizedDocument(
-            namespace,
-            documentId
-        );
-        config.setSomePendingWritesAndSave(logicalT, event);
+        final CoreDocumentSynchronizationConfig config =
+            nsConfig.addUnsavedSynchronizedDocument(documentId);
+        config.setSomePendingWritesAndDeferSave(logicalT, event);
+        finishLocalWrite(nsConfig, null);
       } finally {
         lock.unlock();
       }
       triggerListeningToNamespace(namespace);
+      requestSyncPass(nsConfig);
       eventDispatcher.emitEvent(nsConfig, event);
     } finally {
       ongoingOperationsGroup.exit();
@@ -2164,17 +2922,17 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
           final BsonValue documentId = BsonUtils.getDocumentId(document);
           final ChangeEvent<BsonDocument> event =
               ChangeEvents.changeEventForLocalInsert(namespace, document, true);
-          final CoreDocumentSynchronizationConfig config = syncConfig.addAndGetSynchronizedDocument(
-              namespace,
-              documentId
-          );
-          config.setSomePendingWritesAndSave(logicalT, event);
+          final CoreDocumentSynchronizationConfig config =
+              nsConfig.addUnsavedSynchronizedDocument(documentId);
+          config.setSomePendingWritesAndDeferSave(logicalT, event);
           eventsToEmit.add(event);
         }
+        finishLocalWrite(nsConfig, null);
       } finally {
         lock.unlock();
       }
       triggerListeningToNamespace(namespace);
+      requestSyncPass(nsConfig);
       for (final ChangeEvent<BsonDocument> event : eventsToEmit) {
         eventDispatcher.emitEvent(nsConfig, event);
       }
@@ -2222,7 +2980,6 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
       try {
         // read the local collection
         final MongoCollection<BsonDocument> localCollection = getLocalCollection(namespace);
-        final MongoCollection<BsonDocument> undoCollection = getUndoCollection(namespace);
 
         // fetch the document prior to updating
         final BsonDocument documentBeforeUpdate = localCollection.find(filter).first();
@@ -2233,69 +2990,70 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
           return UpdateResult.acknowledged(0, 0L, null);
         }
 
-        if (documentBeforeUpdate != null) {
-          undoCollection.insertOne(documentBeforeUpdate);
-        }
+        final Long journalEntryId = documentBeforeUpdate != null
+            ? beginLocalWrite(namespace, Collections.singletonList(documentBeforeUpdate))
+            : null;
 
-        // find and update the single document, returning the document post-update
-        final BsonDocument unsanitizedDocumentAfterUpdate = localCollection.findOneAndUpdate(
-            filter,
-            update,
-            new FindOneAndUpdateOptions()
-                .collation(updateOptions.getCollation())
-                .upsert(updateOptions.isUpsert())
-                .bypassDocumentValidation(updateOptions.getBypassDocumentValidation())
-                .arrayFilters(updateOptions.getArrayFilters())
-                .returnDocument(ReturnDocument.AFTER));
-
-        // if the document was deleted between our earlier check and now, it will not have
-        // been updated. do not acknowledge the update
-        if (unsanitizedDocumentAfterUpdate == null) {
-          if (documentBeforeUpdate != null) {
-            undoCollection
-                .deleteOne(getDocumentIdFilter(BsonUtils.getDocumentId(documentBeforeUpdate)));
+        try {
+          // find and update the single document, returning the document post-update
+          final BsonDocument unsanitizedDocumentAfterUpdate = localCollection.findOneAndUpdate(
+              filter,
+              update,
+              new FindOneAndUpdateOptions()
+                  .collation(updateOptions.getCollation())
+                  .upsert(updateOptions.isUpsert())
+                  .bypassDocumentValidation(updateOptions.getBypassDocumentValidation())
+                  .arrayFilters(updateOptions.getArrayFilters())
+                  .returnDocument(ReturnDocument.AFTER));
+
+          // if the document was deleted between our earlier check and now, it will not have
+          // been updated. do not acknowledge the update
+          if (unsanitizedDocumentAfterUpdate == null) {
+            if (journalEntryId != null) {
+              commitLocalWrite(journalEntryId);
+            }
+            return UpdateResult.acknowledged(0, 0L, null);
           }
-          return UpdateResult.acknowledged(0, 0L, null);
-        }
-
-        final CoreDocumentSynchronizationConfig config;
-        documentId = BsonUtils.getDocumentId(unsanitizedDocumentAfterUpdate);
-
-        // Ensure that the update didn't add any forbidden fields to the document, and remove them
-        // if it did.
-        final BsonDocument documentAfterUpdate =
-            sanitizeCachedDocument(localCollection, unsanitizedDocumentAfterUpdate, documentId);
-
-        // if there was no document prior and this was an upsert,
-        // treat this as an insert.
-        // else this is an update
-        if (documentBeforeUpdate == null && updateOptions.isUpsert()) {
-          triggerNamespace = true;
-          config = syncConfig.addAndGetSynchronizedDocument(namespace, documentId);
-          event = ChangeEvents.changeEventForLocalInsert(namespace, documentAfterUpdate, true);
-        } else {
-          triggerNamespace = false;
-          config = syncConfig.getSynchronizedDocument(namespace, documentId);
-          event = ChangeEvents.changeEventForLocalUpdate(
-              namespace,
-              BsonUtils.getDocumentId(documentAfterUpdate),
-              UpdateDescription.diff(documentBeforeUpdate, documentAfterUpdate),
-              documentAfterUpdate,
-              true);
-        }
 
-        config.setSomePendingWritesAndSave(logicalT, event);
+          final CoreDocumentSynchronizationConfig config;
+          documentId = BsonUtils.getDocumentId(unsanitizedDocumentAfterUpdate);
+
+          // Ensure that the update didn't add any forbidden fields to the document, and remove them
+          // if it did.
+          final BsonDocument documentAfterUpdate =
+              sanitizeCachedDocument(localCollection, unsanitizedDocumentAfterUpdate, documentId);
+
+          // if there was no document prior and this was an upsert,
+          // treat this as an insert.
+          // else this is an update
+          if (documentBeforeUpdate == null && updateOptions.isUpsert()) {
+            triggerNamespace = true;
+            config = nsConfig.addUnsavedSynchronizedDocument(documentId);
+            event = ChangeEvents.changeEventForLocalInsert(namespace, documentAfterUpdate, true);
+          } else {
+            triggerNamespace = false;
+            config = syncConfig.getSynchronizedDocument(namespace, documentId);
+            event = ChangeEvents.changeEventForLocalUpdate(
+                namespace,
+                BsonUtils.getDocumentId(documentAfterUpdate),
+                UpdateDescription.diff(documentBeforeUpdate, documentAfterUpdate),
+                documentAfterUpdate,
+                true);
+          }
 
-        if (documentBeforeUpdate != null) {
-          undoCollection
-              .deleteOne(getDocumentIdFilter(BsonUtils.getDocumentId(documentBeforeUpdate)));
+          config.setSomePendingWritesAndDeferSave(logicalT, event);
+        } catch (final RuntimeException e) {
+          abortLocalWrite(journalEntryId);
+          throw e;
         }
+        finishLocalWrite(nsConfig, journalEntryId);
       } finally {
         lock.unlock();
       }
       if (triggerNamespace) {
         triggerListeningToNamespace(namespace);
       }
+      requestSyncPass(nsConfig);
       eventDispatcher.emitEvent(nsConfig, event);
       return UpdateResult.acknowledged(1, 1L, updateOptions.isUpsert() ? documentId : null);
     } finally {
@@ -2345,89 +3103,99 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
         final Map<BsonValue, BsonDocument> idToBeforeDocumentMap = new HashMap<>();
         final BsonArray ids = new BsonArray();
         final MongoCollection<BsonDocument> localCollection = getLocalCollection(namespace);
-        final MongoCollection<BsonDocument> undoCollection = getUndoCollection(namespace);
-        localCollection
+        final List<BsonDocument> beforeDocuments = localCollection
             .find(filter)
-            .forEach((Block<BsonDocument>) bsonDocument -> {
-              final BsonValue documentId = BsonUtils.getDocumentId(bsonDocument);
-              ids.add(documentId);
-              idToBeforeDocumentMap.put(documentId, bsonDocument);
-              undoCollection.insertOne(bsonDocument);
-            });
-
-        // use the matched ids from prior to create a new filter.
-        // this will prevent any race conditions if documents were
-        // inserted between the prior find
-        Bson updatedFilter = updateOptions.isUpsert()
-            ? filter : new BsonDocument("_id", new BsonDocument("$in", ids));
-
-        // do the bulk write
-        result = localCollection.updateMany(updatedFilter, update, updateOptions);
-
-        // if this was an upsert, create the post-update filter using
-        // the upserted id.
-        if (result.getUpsertedId() != null) {
-          updatedFilter = getDocumentIdFilter(result.getUpsertedId());
+            .into(new ArrayList<>());
+        for (final BsonDocument beforeDocument : beforeDocuments) {
+          final BsonValue documentId = BsonUtils.getDocumentId(beforeDocument);
+          ids.add(documentId);
+          idToBeforeDocumentMap.put(documentId, beforeDocument);
         }
+        final Long journalEntryId = !beforeDocuments.isEmpty()
+            ? beginLocalWrite(namespace, beforeDocuments)
+            : null;
 
-        // iterate over the after-update docs using the updated filter
-        localCollection.find(updatedFilter).forEach(
-            (Block<BsonDocument>) unsanitizedAfterDocument -> {
-              // get the id of the after-update document, and fetch the before-update
-              // document from the map we created from our pre-update `find`
-              final BsonValue documentId = BsonUtils.getDocumentId(unsanitizedAfterDocument);
-              final BsonDocument beforeDocument = idToBeforeDocumentMap.get(documentId);
-
-              // if there was no before-update document and this was not an upsert,
-              // a document that meets the filter criteria must have been
-              // inserted or upserted asynchronously between this find and the update.
-              if (beforeDocument == null && !updateOptions.isUpsert()) {
-                return;
-              }
+        try {
+          // use the matched ids from prior to create a new filter.
+          // this will prevent any race conditions if documents were
+          // inserted between the prior find
+          Bson updatedFilter = updateOptions.isUpsert()
+              ? filter : new BsonDocument("_id", new BsonDocument("$in", ids));
+
+          // do the bulk write
+          result = localCollection.updateMany(updatedFilter, update, updateOptions);
+
+          // if this was an upsert, create the post-update filter using
+          // the upserted id.
+          if (result.getUpsertedId() != null) {
+            updatedFilter = getDocumentIdFilter(result.getUpsertedId());
+          }
 
-              // Ensure that the update didn't add any forbidden fields to the document, and remove
-              // them if it did.
-              final BsonDocument afterDocument =
-                  sanitizeCachedDocument(localCollection, unsanitizedAfterDocument, documentId);
-
-              // because we are looking up a bulk write, we may have queried documents
-              // that match the updated state, but were not actually modified.
-              // if the document before the update is the same as the updated doc,
-              // assume it was not modified and take no further action
-              if (afterDocument.equals(beforeDocument)) {
-                undoCollection.deleteOne(getDocumentIdFilter(documentId));
-                return;
-              }
+          // iterate over the after-update docs using the updated filter
+          localCollection.find(updatedFilter).forEach(
+              (Block<BsonDocument>) unsanitizedAfterDocument -> {
+                // get the id of the after-update document, and fetch the before-update
+                // document from the map we created from our pre-update `find`
+                final BsonValue documentId = BsonUtils.getDocumentId(unsanitizedAfterDocument);
+                final BsonDocument beforeDocument = idToBeforeDocumentMap.get(documentId);
+
+                // if there was no before-update document and this was not an upsert,
+                // a document that meets the filter criteria must have been
+                // inserted or upserted asynchronously between this find and the update.
+                if (beforeDocument == null && !updateOptions.isUpsert()) {
+                  return;
+                }
 
-              final CoreDocumentSynchronizationConfig config;
-              final ChangeEvent<BsonDocument> event;
+                // Ensure that the update didn't add any forbidden fields to the document, and
+                // remove them if it did.
+                final BsonDocument afterDocument =
+                    sanitizeCachedDocument(localCollection, unsanitizedAfterDocument, documentId);
+
+                // because we are looking up a bulk write, we may have queried documents
+                // that match the updated state, but were not actually modified.
+                // if the document before the update is the same as the updated doc,
+                // assume it was not modified and take no further action
+                if (afterDocument.equals(beforeDocument)) {
+                  return;
+                }
 
-              // if there was no earlier document and this was an upsert,
-              // treat the upsert as an insert, as far as sync is concerned
-              // else treat it as a standard update
-              if (beforeDocument == null && updateOptions.isUpsert()) {
-                config = syncConfig.addAndGetSynchronizedDocument(namespace, documentId);
-                event = ChangeEvents.changeEventForLocalInsert(namespace, afterDocument, true);
-              } else {
-                config = syncConfig.getSynchronizedDocument(namespace, documentId);
-                event = ChangeEvents.changeEventForLocalUpdate(
-                    namespace,
-                    documentId,
-                    UpdateDescription.diff(beforeDocument, afterDocument),
-                    afterDocument,
-                    true);
-              }
+                final CoreDocumentSynchronizationConfig config;
+                final ChangeEvent<BsonDocument> event;
+
+                // if there was no earlier document and this was an upsert,
+                // treat the upsert as an insert, as far as sync is concerned
+                // else treat it as a standard update
+                if (beforeDocument == null && updateOptions.isUpsert()) {
+                  config = nsConfig.addUnsavedSynchronizedDocument(documentId);
+                  event = ChangeEvents.changeEventForLocalInsert(namespace, afterDocument, true);
+                } else {
+                  config = syncConfig.getSynchronizedDocument(namespace, documentId);
+                  event = ChangeEvents.changeEventForLocalUpdate(
+                      namespace,
+                      documentId,
+                      UpdateDescription.diff(beforeDocument, afterDocument),
+                      afterDocument,
+                      true);
+                }
 
-              config.setSomePendingWritesAndSave(logicalT, event);
-              undoCollection.deleteOne(getDocumentIdFilter(documentId));
-              eventsToEmit.add(event);
-            });
+                config.setSomePendingWritesAndDeferSave(logicalT, event);
+                eventsToEmit.add(event);
+              });
+        } catch (final RuntimeException e) {
+          abortLocalWrite(journalEntryId);
+          throw e;
+        }
+
+        finishLocalWrite(nsConfig, journalEntryId);
       } finally {
         lock.unlock();
       }
       if (result.getUpsertedId() != null) {
         triggerListeningToNamespace(namespace);
       }
+      if (!eventsToEmit.isEmpty()) {
+        requestSyncPass(nsConfig);
+      }
       for (final ChangeEvent<BsonDocument> event : eventsToEmit) {
         eventDispatcher.emitEvent(nsConfig, event);
       }
@@ -2495,6 +3263,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
         atVersion,
         HashUtils.hash(docForStorage),
         event);
+    requestSyncPass(nsConfig);
     eventDispatcher.emitEvent(nsConfig, event);
     final LocalSyncWriteModelContainer syncWriteModelContainer = newWriteModelContainer(nsConfig);
 
@@ -2598,29 +3367,35 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
           return DeleteResult.acknowledged(0);
         }
 
-        final MongoCollection<BsonDocument> undoCollection = getUndoCollection(namespace);
-        undoCollection.insertOne(docToDelete);
+        final long journalEntryId =
+            beginLocalWrite(namespace, Collections.singletonList(docToDelete));
+
+        try {
+          result = localCollection.deleteOne(filter);
+          event = ChangeEvents.changeEventForLocalDelete(namespace, documentId, true);
 
-        result = localCollection.deleteOne(filter);
-        event = ChangeEvents.changeEventForLocalDelete(namespace, documentId, true);
+          // this block is to trigger coalescence for a delete after insert
+          if (config.getLastUncommittedChangeEvent() != null
+              && config.getLastUncommittedChangeEvent().getOperationType()
+              == OperationType.INSERT) {
+            final LocalSyncWriteModelContainer localSyncWriteModelContainer =
+                desyncDocumentsFromRemote(nsConfig, config.getDocumentId());
+            localSyncWriteModelContainer.commitAndClear();
+            triggerListeningToNamespace(namespace);
+            commitLocalWrite(journalEntryId);
+            return result;
+          }
 
-        // this block is to trigger coalescence for a delete after insert
-        if (config.getLastUncommittedChangeEvent() != null
-            && config.getLastUncommittedChangeEvent().getOperationType()
-            == OperationType.INSERT) {
-          final LocalSyncWriteModelContainer localSyncWriteModelContainer =
-              desyncDocumentsFromRemote(nsConfig, config.getDocumentId());
-          localSyncWriteModelContainer.commitAndClear();
-          triggerListeningToNamespace(namespace);
-          undoCollection.deleteOne(getDocumentIdFilter(config.getDocumentId()));
-          return result;
+          config.setSomePendingWritesAndDeferSave(logicalT, event);
+        } catch (final RuntimeException e) {
+          abortLocalWrite(journalEntryId);
+          throw e;
         }
-
-        config.setSomePendingWritesAndSave(logicalT, event);
-        undoCollection.deleteOne(getDocumentIdFilter(config.getDocumentId()));
+        finishLocalWrite(nsConfig, journalEntryId);
       } finally {
         nsConfig.getLock().writeLock().unlock();
       }
+      requestSyncPass(nsConfig);
       eventDispatcher.emitEvent(nsConfig, event);
       return result;
     } finally {
@@ -2648,50 +3423,56 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
       lock.lock();
       try {
         final MongoCollection<BsonDocument> localCollection = getLocalCollection(namespace);
-        final MongoCollection<BsonDocument> undoCollection = getUndoCollection(namespace);
-        final Set<BsonValue> idsToDelete =
-            localCollection
-                .find(filter)
-                .map(new Function<BsonDocument, BsonValue>() {
-                  @Override
-                  @NonNull
-                  public BsonValue apply(@NonNull final BsonDocument bsonDocument) {
-                    undoCollection.insertOne(bsonDocument);
-                    return BsonUtils.getDocumentId(bsonDocument);
-                  }
-                }).into(new HashSet<>());
+        final List<BsonDocument> docsToDelete = localCollection
+            .find(filter)
+            .into(new ArrayList<>());
+        final Set<BsonValue> idsToDelete = new HashSet<>();
+        for (final BsonDocument docToDelete : docsToDelete) {
+          idsToDelete.add(BsonUtils.getDocumentId(docToDelete));
+        }
+        final Long journalEntryId = !docsToDelete.isEmpty()
+            ? beginLocalWrite(namespace, docsToDelete)
+            : null;
 
-        result = localCollection.deleteMany(filter);
+        try {
+          result = localCollection.deleteMany(filter);
 
-        for (final BsonValue documentId : idsToDelete) {
-          final CoreDocumentSynchronizationConfig config =
-              syncConfig.getSynchronizedDocument(namespace, documentId);
+          for (final BsonValue documentId : idsToDelete) {
+            final CoreDocumentSynchronizationConfig config =
+                syncConfig.getSynchronizedDocument(namespace, documentId);
 
-          if (config == null) {
-            continue;
-          }
+            if (config == null) {
+              continue;
+            }
 
-          final ChangeEvent<BsonDocument> event =
-              ChangeEvents.changeEventForLocalDelete(namespace, documentId, true);
+            final ChangeEvent<BsonDocument> event =
+                ChangeEvents.changeEventForLocalDelete(namespace, documentId, true);
 
-          // this block is to trigger coalescence for a delete after insert
-          if (config.getLastUncommittedChangeEvent() != null
-              && config.getLastUncommittedChangeEvent().getOperationType()
-              == OperationType.INSERT) {
-            desyncDocumentsFromRemote(nsConfig, config.getDocumentId())
-                .commitAndClear();
-            undoCollection.deleteOne(getDocumentIdFilter(documentId));
-            continue;
-          }
+            // this block is to trigger coalescence for a delete after insert
+            if (config.getLastUncommittedChangeEvent() != null
+                && config.getLastUncommittedChangeEvent().getOperationType()
+                == OperationType.INSERT) {
+              desyncDocumentsFromRemote(nsConfig, config.getDocumentId())
+                  .commitAndClear();
+              continue;
+            }
 
-          config.setSomePendingWritesAndSave(logicalT, event);
-          undoCollection.deleteOne(getDocumentIdFilter(documentId));
-          eventsToEmit.add(event);
+            config.setSomePendingWritesAndDeferSave(logicalT, event);
+            eventsToEmit.add(event);
+          }
+        } catch (final RuntimeException e) {
+          abortLocalWrite(journalEntryId);
+          throw e;
         }
+
+        finishLocalWrite(nsConfig, journalEntryId);
         triggerListeningToNamespace(namespace);
       } finally {
         lock.unlock();
       }
+      if (!eventsToEmit.isEmpty()) {
+        requestSyncPass(nsConfig);
+      }
       for (final ChangeEvent<BsonDocument> event : eventsToEmit) {
         eventDispatcher.emitEvent(nsConfig, event);
       }
@@ -2734,6 +3515,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
       lock.unlock();
     }
 
+    requestSyncPass(nsConfig);
     eventDispatcher.emitEvent(nsConfig, event);
     final LocalSyncWriteModelContainer container = newWriteModelContainer(nsConfig);
 
@@ -2791,7 +3573,50 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     return desyncDocumentsFromRemote(nsConfig, documentId);
   }
 
+  /**
+   * Requests a sync pass for the given namespace after new work has been made for it, waking up
+   * the background thread if the pass is due sooner than it would otherwise run.
+   *
+   * @param nsConfig the namespace synchronization config of the namespace with new work.
+   */
+  private void requestSyncPass(final NamespaceSynchronizationConfig nsConfig) {
+    if (nsConfig.requestSyncPass()) {
+      wakeSyncRunner();
+    }
+  }
+
+  private void wakeSyncRunner() {
+    final DataSynchronizerRunner runner = syncRunner;
+    if (runner != null) {
+      runner.onSyncPassRequested();
+    }
+  }
+
+  /**
+   * Returns a listener for the change stream listeners to wake up the background thread with
+   * when they receive remote change events. The listener does not keep this synchronizer alive.
+   */
+  private Runnable newSyncPassRequestedListener() {
+    final WeakReference<DataSynchronizer> dataSynchronizerRef = new WeakReference<>(this);
+    return new Runnable() {
+      @Override
+      public void run() {
+        final DataSynchronizer dataSynchronizer = dataSynchronizerRef.get();
+        if (dataSynchronizer != null) {
+          dataSynchronizer.wakeSyncRunner();
+        }
+      }
+    };
+  }
+
   private void triggerListeningToNamespace(final MongoNamespace namespace) {
+    synchronized (deferredListenerNamespaces) {
+      if (isSyncingNamespacesConcurrently) {
+        deferredListenerNamespaces.add(namespace);
+        return;
+      }
+    }
+
     syncLock.lock();
     try {
       final NamespaceSynchronizationConfig nsConfig = this.syncConfig.getNamespaceConfig(namespace);
@@ -2837,6 +3662,161 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
 
   // ----- Utilities -----
 
+  /**
+   * Finishes a local write whose document configs were changed without being saved. Their configs
+   * are saved in bulk along with those of other local writes to the namespace once
+   * {@link #MAX_UNSAVED_DOCUMENT_CONFIGS} are unsaved, after
+   * {@link #DOCUMENT_CONFIG_SAVE_DELAY_MILLIS}, or before the namespace is next synchronized,
+   * whichever comes first. The journal entry of the write is only committed once its configs are
+   * saved, so a system failure before then rolls the write back entirely. Must be called while
+   * holding the write lock of the namespace.
+   *
+   * @param nsConfig the namespace that was written to.
+   * @param journalEntryId the id of the journal entry of the write, if it has one.
+   */
+  private void finishLocalWrite(
+      final NamespaceSynchronizationConfig nsConfig,
+      @Nullable final Long journalEntryId
+  ) {
+    if (journalEntryId != null) {
+      nsConfig.addUnsavedLocalWrite(journalEntryId);
+    }
+
+    if (nsConfig.getNumUnsavedDocumentConfigs() >= MAX_UNSAVED_DOCUMENT_CONFIGS) {
+      try {
+        saveDocumentConfigs(nsConfig);
+        return;
+      } catch (final RuntimeException e) {
+        // the write itself succeeded, so leave the configs to be saved later
+        logger.error(String.format(
+            Locale.US,
+            "t='%d': finishLocalWrite ns=%s could not save document configs: %s",
+            logicalT,
+            nsConfig.getNamespace(),
+            e));
+      }
+    }
+    scheduleDocumentConfigSave(nsConfig);
+  }
+
+  /**
+   * Saves the document configs of the given namespace that were changed by local writes without
+   * being saved, and commits the journal entries of those writes.
+   *
+   * @param nsConfig the namespace whose document configs to save.
+   */
+  void saveDocumentConfigs(final NamespaceSynchronizationConfig nsConfig) {
+    for (final long journalEntryId : nsConfig.saveDocumentConfigs()) {
+      commitLocalWrite(journalEntryId);
+    }
+  }
+
+  private void saveAllDocumentConfigs() {
+    if (syncConfig == null) {
+      return;
+    }
+    for (final MongoNamespace namespace : syncConfig.getSynchronizedNamespaces()) {
+      try {
+        saveDocumentConfigs(syncConfig.getNamespaceConfig(namespace));
+      } catch (final RuntimeException e) {
+        logger.error(String.format(
+            Locale.US,
+            "t='%d': saveAllDocumentConfigs ns=%s could not save document configs: %s",
+            logicalT,
+            namespace,
+            e));
+      }
+    }
+  }
+
+  private void scheduleDocumentConfigSave(final NamespaceSynchronizationConfig nsConfig) {
+    final MongoNamespace namespace = nsConfig.getNamespace();
+    if (!scheduledDocumentConfigSaves.add(namespace)) {
+      return;
+    }
+
+    try {
+      documentConfigSaveExecutor.schedule(new Runnable() {
+        @Override
+        public void run() {
+          // writes made while saving schedule another save
+          scheduledDocumentConfigSaves.remove(namespace);
+          try {
+            saveDocumentConfigs(nsConfig);
+          } catch (final RuntimeException e) {
+            // the next local write or sync pass will try again
+            logger.error(String.format(
+                Locale.US,
+                "t='%d': scheduleDocumentConfigSave ns=%s could not save document configs: %s",
+                logicalT,
+                namespace,
+                e));
+          }
+        }
+      }, DOCUMENT_CONFIG_SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (final RejectedExecutionException e) {
+      // the data synchronizer is closing, and will save the configs itself
+      scheduledDocumentConfigSaves.remove(namespace);
+    }
+  }
+
+  /**
+   * Durably records the given documents as they are before a local write, so that they can be
+   * restored if the write is interrupted by a system failure.
+   *
+   * @param namespace the namespace being written to.
+   * @param documentsBeforeWrite the documents the write may modify, as they are before the write.
+   * @return the id of the journal entry to commit once the write and its configs are saved.
+   */
+  private long beginLocalWrite(
+      final MongoNamespace namespace,
+      final List<BsonDocument> documentsBeforeWrite
+  ) {
+    try {
+      return localWriteJournal.begin(namespace, documentsBeforeWrite);
+    } catch (final IOException e) {
+      logger.error(String.format(
+          Locale.US,
+          "t='%d': beginLocalWrite ns=%s could not write to local write journal: %s",
+          logicalT,
+          namespace,
+          e));
+      throw new StitchClientException(StitchClientErrorCode.COULD_NOT_PERSIST_LOCAL_WRITE);
+    }
+  }
+
+  /**
+   * Records that a local write begun with {@link #beginLocalWrite} has been saved along with its
+   * configs. If this fails, recovery rolls the write back and redoes it from the pending writes of
+   * the configs, so the failure is only logged.
+   *
+   * @param journalEntryId the id of the journal entry returned by {@link #beginLocalWrite}.
+   */
+  private void commitLocalWrite(final long journalEntryId) {
+    try {
+      localWriteJournal.commit(journalEntryId);
+    } catch (final IOException e) {
+      logger.warn(String.format(
+          Locale.US,
+          "t='%d': commitLocalWrite could not write to local write journal: %s",
+          logicalT,
+          e));
+    }
+  }
+
+  /**
+   * Ends a local write begun with {@link #beginLocalWrite} that failed before it could be
+   * finished, so that its journal entry does not keep the journal from ever being cleared. Like a
+   * failed write to the local collection itself, whatever the write changed before failing is kept.
+   *
+   * @param journalEntryId the id of the journal entry of the write, if it has one.
+   */
+  private void abortLocalWrite(@Nullable final Long journalEntryId) {
+    if (journalEntryId != null) {
+      commitLocalWrite(journalEntryId);
+    }
+  }
+
   /**
    * Returns the undo collection representing the given namespace for recording documents that
    * may need to be reverted after a system failure.
@@ -2913,20 +3893,188 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     return getRemoteCollection(namespace, BsonDocument.class);
   }
 
-  private Set<BsonDocument> getLatestDocumentsForStaleFromRemote(
+  /**
+   * Splits the given stale documents into pages of at most {@value #STALE_DOCUMENTS_PAGE_SIZE}
+   * documents, each mapping the id of a document to the remote version we last saw for it, if
+   * any. The versions are read up front so that pages can be fetched without taking any locks.
+   *
+   * @param nsConfig the namespace the documents are in.
+   * @param staleIds the ids of the stale documents.
+   * @return the pages of stale documents to fetch.
+   */
+  private static List<Map<BsonValue, BsonDocument>> getStaleDocumentPages(
       final NamespaceSynchronizationConfig nsConfig,
-      final Set<BsonValue> staleIds) {
+      final Set<BsonValue> staleIds
+  ) {
+    final List<Map<BsonValue, BsonDocument>> pages = new ArrayList<>();
+    Map<BsonValue, BsonDocument> page = null;
+    for (final BsonValue documentId : staleIds) {
+      final CoreDocumentSynchronizationConfig docConfig =
+          nsConfig.getSynchronizedDocument(documentId);
+      if (docConfig == null) {
+        continue;
+      }
+      if (page == null || page.size() >= STALE_DOCUMENTS_PAGE_SIZE) {
+        page = new HashMap<>();
+        pages.add(page);
+      }
 
-    final BsonArray ids = new BsonArray();
-    Collections.addAll(ids, staleIds.toArray(new BsonValue[0]));
+      docConfig.getLock().readLock().lock();
+      try {
+        page.put(documentId, docConfig.getLastKnownRemoteVersion());
+      } finally {
+        docConfig.getLock().readLock().unlock();
+      }
+    }
+    return pages;
+  }
+
+  /**
+   * Fetches the latest remote copies of a page of stale documents in two phases. First only the
+   * _id and version of each document is fetched; then full documents are fetched for just those
+   * whose version differs from the last one we saw, or that have no version to compare. Stale
+   * documents that no longer exist remotely are in neither the latest documents nor the
+   * unchanged ids of the returned page.
+   *
+   * @param remoteCollection the remote collection the documents are in.
+   * @param lastSeenVersions the ids of the stale documents mapped to their last seen versions.
+   * @return the fetched page.
+   */
+  private static StaleDocumentsPage getLatestDocumentsForStaleFromRemote(
+      final CoreRemoteMongoCollection<BsonDocument> remoteCollection,
+      final Map<BsonValue, BsonDocument> lastSeenVersions
+  ) {
+    final StaleDocumentsPage page = new StaleDocumentsPage(lastSeenVersions);
+    final Set<BsonDocument> remoteVersions = remoteCollection
+        .find(getDocumentIdsFilter(lastSeenVersions.keySet()))
+        .projection(new BsonDocument(DOCUMENT_VERSION_FIELD, new BsonInt32(1)))
+        .into(new HashSet<BsonDocument>());
+
+    final Set<BsonValue> changedIds = new HashSet<>();
+    for (final BsonDocument remoteVersion : remoteVersions) {
+      final BsonValue documentId = remoteVersion.get("_id");
+      if (!lastSeenVersions.containsKey(documentId)) {
+        continue;
+      }
+
+      final BsonDocument lastSeenVersion = lastSeenVersions.get(documentId);
+      if (lastSeenVersion != null
+          && lastSeenVersion.equals(remoteVersion.get(DOCUMENT_VERSION_FIELD))) {
+        page.unchangedIds.add(documentId);
+      } else {
+        changedIds.add(documentId);
+      }
+    }
+
+    if (changedIds.isEmpty()) {
+      return page;
+    }
+
+    final Set<BsonDocument> latestDocuments =
+        remoteCollection.find(getDocumentIdsFilter(changedIds)).into(new HashSet<>());
+    for (final BsonDocument latestDocument : latestDocuments) {
+      page.latestDocuments.put(latestDocument.get("_id"), latestDocument);
+    }
+    return page;
+  }
+
+  /**
+   * A page of stale documents fetched from the remote.
+   */
+  private static final class StaleDocumentsPage {
+    // the ids of the documents in the page mapped to the remote versions we last saw for them
+    final Map<BsonValue, BsonDocument> lastSeenVersions;
+    // the ids of the documents whose remote version is the one we last saw
+    final Set<BsonValue> unchangedIds = new HashSet<>();
+    // the latest remote copies of the documents whose version has changed, by id
+    final Map<BsonValue, BsonDocument> latestDocuments = new HashMap<>();
+
+    StaleDocumentsPage(final Map<BsonValue, BsonDocument> lastSeenVersions) {
+      this.lastSeenVersions = lastSeenVersions;
+    }
+  }
+
+  /**
+   * Fetches pages of stale documents from the remote, up to
+   * {@value #STALE_DOCUMENTS_FETCH_PARALLELISM} at a time, and hands them out in the order in
+   * which they arrive. Only as many pages as are being fetched are held in memory at once. A
+   * single page is fetched on the thread asking for it.
+   */
+  private final class StaleDocumentsFetcher {
+    private final CoreRemoteMongoCollection<BsonDocument> remoteCollection;
+    private final Iterator<Map<BsonValue, BsonDocument>> unfetchedPages;
+    private final CompletionService<StaleDocumentsPage> completionService;
+    private final Set<Future<StaleDocumentsPage>> pendingFetches = new HashSet<>();
+
+    StaleDocumentsFetcher(
+        final CoreRemoteMongoCollection<BsonDocument> remoteCollection,
+        final List<Map<BsonValue, BsonDocument>> pages
+    ) {
+      this.remoteCollection = remoteCollection;
+      this.unfetchedPages = pages.iterator();
+      if (pages.size() <= 1 || staleDocumentsFetchExecutor.isShutdown()) {
+        this.completionService = null;
+        return;
+      }
+
+      this.completionService = new ExecutorCompletionService<>(staleDocumentsFetchExecutor);
+      while (pendingFetches.size() < STALE_DOCUMENTS_FETCH_PARALLELISM
+          && unfetchedPages.hasNext()) {
+        fetchNextPage();
+      }
+    }
+
+    private void fetchNextPage() {
+      final Map<BsonValue, BsonDocument> lastSeenVersions = unfetchedPages.next();
+      pendingFetches.add(completionService.submit(new Callable<StaleDocumentsPage>() {
+        @Override
+        public StaleDocumentsPage call() {
+          return getLatestDocumentsForStaleFromRemote(remoteCollection, lastSeenVersions);
+        }
+      }));
+    }
+
+    /**
+     * Returns the next page to arrive, waiting for it if necessary.
+     */
+    StaleDocumentsPage next() throws InterruptedException {
+      if (completionService == null) {
+        return getLatestDocumentsForStaleFromRemote(remoteCollection, unfetchedPages.next());
+      }
+
+      final Future<StaleDocumentsPage> fetched = completionService.take();
+      pendingFetches.remove(fetched);
+      if (unfetchedPages.hasNext()) {
+        fetchNextPage();
+      }
 
-    if (ids.size() == 0) {
-      return new HashSet<>();
+      try {
+        return fetched.get();
+      } catch (final ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        } else if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+
+    /**
+     * Cancels the fetches of any pages that have not been handed out.
+     */
+    void cancel() {
+      for (final Future<StaleDocumentsPage> pendingFetch : pendingFetches) {
+        pendingFetch.cancel(true);
+      }
+      pendingFetches.clear();
     }
+  }
 
-    return this.getRemoteCollection(nsConfig.getNamespace()).find(
-        new BsonDocument("_id", new BsonDocument("$in", ids))
-    ).into(new HashSet<>());
+  private static BsonDocument getDocumentIdsFilter(final Set<BsonValue> documentIds) {
+    final BsonArray ids = new BsonArray();
+    Collections.addAll(ids, documentIds.toArray(new BsonValue[0]));
+    return new BsonDocument("_id", new BsonDocument("$in", ids));
   }
 
   void waitUntilInitialized() {
@@ -3053,6 +4201,7 @@ public class DataSynchronizer implements NetworkMonitor.StateListener {
     UNKNOWN_OPTYPE_MESSAGE("unknown operation type: %s"),
     UNKNOWN_REMOTE_PROTOCOL_VERSION_MESSAGE("got a remote document with an unsupported "
         + "synchronization protocol version %s"),
+    UNKNOWN_WRITE_OUTCOME_MESSAGE("remote write may or may not have been applied: %s"),
     VERSION_DIFFERENT_DELETED_DOC_MESSAGE("version different on removed document"),
     VERSION_DIFFERENT_REPLACED_DOC_MESSAGE("version different on replaced document or document was "
         + "deleted"),
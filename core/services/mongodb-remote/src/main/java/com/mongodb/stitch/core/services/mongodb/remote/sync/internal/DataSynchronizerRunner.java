@@ -17,21 +17,25 @@
 package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
 
 import com.mongodb.stitch.core.internal.net.NetworkMonitor;
+import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncFrequency;
 
 import java.lang.ref.WeakReference;
 import org.bson.diagnostics.Logger;
 
 /**
- * This runner runs {@link DataSynchronizer#doSyncPass()} on a periodic interval.
+ * This runner runs {@link DataSynchronizer#doScheduledSyncPass()} whenever a namespace is due to
+ * be synchronized according to its {@link SyncFrequency}. Between passes it sleeps until the next
+ * namespace is due, or until it is woken up by new work or by the network coming back.
  */
 class DataSynchronizerRunner implements Runnable, NetworkMonitor.StateListener {
 
-  private static final Long SHORT_SLEEP_MILLIS = 1000L;
   private static final Long LONG_SLEEP_MILLIS = 5000L;
+  private static final Long MAX_SLEEP_MILLIS = 60000L;
 
   private final WeakReference<DataSynchronizer> dataSynchronizerRef;
   private final NetworkMonitor networkMonitor;
   private final Logger logger;
+  private boolean isWakeUpRequested = false; // guarded by this
 
   public DataSynchronizerRunner(
       final WeakReference<DataSynchronizer> dataSynchronizerRef,
@@ -48,7 +52,7 @@ class DataSynchronizerRunner implements Runnable, NetworkMonitor.StateListener {
   }
 
   @Override
-  public synchronized void run() {
+  public void run() {
     try {
       do {
         final DataSynchronizer dataSync = dataSynchronizerRef.get();
@@ -58,29 +62,46 @@ class DataSynchronizerRunner implements Runnable, NetworkMonitor.StateListener {
 
         boolean successful = false;
         try {
-          successful = dataSync.doSyncPass();
+          successful = dataSync.doScheduledSyncPass();
         } catch (final Throwable t) {
           logger.error("error happened during synchronization:", t);
         }
 
+        final long sleepMillis = successful
+            ? Math.min(dataSync.getMillisUntilNextSyncPass(), MAX_SLEEP_MILLIS)
+            : LONG_SLEEP_MILLIS;
+
         try {
-          if (successful) {
-            wait(SHORT_SLEEP_MILLIS);
-          } else {
-            wait(LONG_SLEEP_MILLIS);
+          synchronized (this) {
+            if (!isWakeUpRequested && sleepMillis > 0) {
+              wait(sleepMillis);
+            }
+            isWakeUpRequested = false;
           }
         } catch (final InterruptedException e) {
           return;
         }
       } while (true);
     } finally {
-      networkMonitor.removeNetworkStateListener(this);
+      if (networkMonitor != null) {
+        networkMonitor.removeNetworkStateListener(this);
+      }
     }
   }
 
+  /**
+   * Wakes up the runner so that it can pick up a sync pass that is due sooner than the one it is
+   * currently waiting for.
+   */
+  synchronized void onSyncPassRequested() {
+    isWakeUpRequested = true;
+    notify();
+  }
+
   @Override
   public synchronized void onNetworkStateChanged() {
     if (networkMonitor.isConnected()) {
+      isWakeUpRequested = true;
       notify();
     }
   }
@@ -20,7 +20,6 @@ import com.mongodb.MongoNamespace;
 import com.mongodb.stitch.core.internal.common.Callback;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 
-import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import javax.annotation.Nonnull;
@@ -84,13 +83,14 @@ interface InstanceChangeStreamListener {
   void removeNamespace(final MongoNamespace namespace);
 
   /**
-   * Returns the latest change events for a given namespace.
+   * Returns the latest change events for a given namespace, and the resume token to persist once
+   * they have been applied.
    *
    * @param namespace the namespace to get events for.
    * @return the latest change events for a given namespace.
    */
-  Map<BsonValue, ChangeEvent<BsonDocument>> getEventsForNamespace(
-      final MongoNamespace namespace);
+  NamespaceChangeEvents getEventsForNamespace(
+      final MongoNamespace namespace) throws InterruptedException;
 
   /**
    * Returns the lock for the NamespaceChangeStreamListener for a given namespace. If no listener
@@ -20,11 +20,22 @@ import com.mongodb.MongoNamespace;
 import com.mongodb.stitch.core.internal.common.AuthMonitor;
 import com.mongodb.stitch.core.internal.common.Callback;
 import com.mongodb.stitch.core.internal.net.NetworkMonitor;
+import com.mongodb.stitch.core.internal.net.StitchEvent;
+import com.mongodb.stitch.core.internal.net.Stream;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.internal.ResultDecoders;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -35,9 +46,25 @@ import javax.annotation.Nullable;
 
 import org.bson.BsonDocument;
 import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.Codec;
+import org.bson.diagnostics.Logger;
+import org.bson.diagnostics.Loggers;
 
-
+/**
+ * Listens for change events on all synchronized namespaces of an instance over a single
+ * multiplexed change stream, rather than one stream (and one thread) per namespace. Events read
+ * off of the stream are demultiplexed by their namespace into the
+ * {@link NamespaceChangeStreamListener} for that namespace.
+ *
+ * <p>
+ * Whenever the set of namespaces being listened to changes, the stream is reopened with the
+ * new set.
+ * </p>
+ */
 final class InstanceChangeStreamListenerImpl implements InstanceChangeStreamListener {
+  private static final Codec<BsonDocument> BSON_DOCUMENT_CODEC = new BsonDocumentCodec();
 
   private final Map<MongoNamespace, NamespaceChangeStreamListener> nsStreamers;
   private final ConcurrentMap<MongoNamespace, ReadWriteLock> nsListenerLocks;
@@ -46,27 +73,48 @@ final class InstanceChangeStreamListenerImpl implements InstanceChangeStreamList
   private final CoreStitchServiceClient service;
   private final NetworkMonitor networkMonitor;
   private final AuthMonitor authMonitor;
+  private final Runnable syncPassRequestedListener;
+  private final Logger logger;
+
+  // the namespaces that have been started, as an immutable snapshot that is only replaced under
+  // the instance write lock; the runner reads it without the instance lock, since the lock is
+  // held while waiting for the runner to exit
+  private volatile Set<MongoNamespace> startedNamespaces;
+  private Thread runnerThread;
+  private volatile Stream<ChangeEvent<BsonDocument>> currentStream;
+  private volatile Set<MongoNamespace> streamNamespaces;
 
   InstanceChangeStreamListenerImpl(
       final InstanceSynchronizationConfig instanceConfig,
       final CoreStitchServiceClient service,
       final NetworkMonitor networkMonitor,
-      final AuthMonitor authMonitor
+      final AuthMonitor authMonitor,
+      @Nullable final Runnable syncPassRequestedListener
   ) {
     this.instanceConfig = instanceConfig;
+    this.syncPassRequestedListener = syncPassRequestedListener;
     this.service = service;
     this.networkMonitor = networkMonitor;
     this.authMonitor = authMonitor;
-    this.nsStreamers = new HashMap<>();
+    this.nsStreamers = new ConcurrentHashMap<>();
     this.nsListenerLocks = new ConcurrentHashMap<>();
     this.instanceLock = new ReentrantReadWriteLock();
+    this.logger = Loggers.getLogger("InstanceChangeStreamListener");
+    this.startedNamespaces = Collections.emptySet();
+    this.streamNamespaces = Collections.emptySet();
   }
 
   public void start(final MongoNamespace namespace) {
     instanceLock.writeLock().lock();
     try {
-      if (nsStreamers.containsKey(namespace)) {
-        nsStreamers.get(namespace).start();
+      if (nsStreamers.containsKey(namespace) && isStreamingEnabled(namespace)
+          && !startedNamespaces.contains(namespace)) {
+        final Set<MongoNamespace> namespaces = new HashSet<>(startedNamespaces);
+        namespaces.add(namespace);
+        startedNamespaces = Collections.unmodifiableSet(namespaces);
+        // reopen the stream to include the namespace
+        stopRunner();
+        startRunner();
       }
     } finally {
       instanceLock.writeLock().unlock();
@@ -79,21 +127,38 @@ final class InstanceChangeStreamListenerImpl implements InstanceChangeStreamList
   public void start() {
     instanceLock.writeLock().lock();
     try {
-      for (final Map.Entry<MongoNamespace, NamespaceChangeStreamListener> streamerEntry :
-          nsStreamers.entrySet()) {
-        streamerEntry.getValue().start();
+      final Set<MongoNamespace> namespaces = new HashSet<>(startedNamespaces);
+      for (final MongoNamespace namespace : nsStreamers.keySet()) {
+        if (isStreamingEnabled(namespace)) {
+          namespaces.add(namespace);
+        }
+      }
+      if (namespaces.size() != startedNamespaces.size()) {
+        startedNamespaces = Collections.unmodifiableSet(namespaces);
+        stopRunner();
       }
+      startRunner();
     } finally {
       instanceLock.writeLock().unlock();
     }
   }
 
+  private boolean isStreamingEnabled(final MongoNamespace namespace) {
+    return instanceConfig.getNamespaceConfig(namespace).isStreamingEnabled();
+  }
+
   public void stop(final MongoNamespace namespace) {
     instanceLock.writeLock().lock();
     try {
-      if (nsStreamers.containsKey(namespace)) {
-        nsStreamers.get(namespace).stop();
+      if (!startedNamespaces.contains(namespace)) {
+        return;
       }
+      final Set<MongoNamespace> namespaces = new HashSet<>(startedNamespaces);
+      namespaces.remove(namespace);
+      startedNamespaces = Collections.unmodifiableSet(namespaces);
+      // reopen the stream without the namespace
+      stopRunner();
+      startRunner();
     } finally {
       instanceLock.writeLock().unlock();
     }
@@ -105,40 +170,271 @@ final class InstanceChangeStreamListenerImpl implements InstanceChangeStreamList
   public void stop() {
     instanceLock.writeLock().lock();
     try {
-      for (final NamespaceChangeStreamListener streamer : nsStreamers.values()) {
-        streamer.stop();
-      }
+      startedNamespaces = Collections.emptySet();
+      stopRunner();
     } finally {
       instanceLock.writeLock().unlock();
     }
   }
 
-  public boolean isOpen(final MongoNamespace namespace) {
-    instanceLock.writeLock().lock();
+  /**
+   * Starts the thread running the shared stream, if there is anything to listen to. The caller
+   * must hold the instance write lock.
+   */
+  private void startRunner() {
+    if (runnerThread != null || startedNamespaces.isEmpty()) {
+      return;
+    }
+    runnerThread = new Thread(new InstanceChangeStreamRunner(
+        new WeakReference<>(this), networkMonitor, logger),
+        "instanceChangeStreamRunnerThread");
+    runnerThread.start();
+  }
+
+  /**
+   * Stops the thread running the shared stream and closes the stream. The caller must hold the
+   * instance write lock.
+   */
+  private void stopRunner() {
+    if (runnerThread == null) {
+      return;
+    }
+
     try {
-      if (nsStreamers.containsKey(namespace)) {
-        return nsStreamers.get(namespace).isOpen();
+      // the runner may be blocked reading from the stream, which an interrupt alone will not
+      // wake up from, so keep canceling whatever stream is current until it exits
+      while (runnerThread.isAlive()) {
+        runnerThread.interrupt();
+        cancel();
+        try {
+          runnerThread.join(1000);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
       }
+      runnerThread = null;
     } finally {
-      instanceLock.writeLock().unlock();
+      this.close();
+    }
+  }
+
+  private void cancel() {
+    final Stream<ChangeEvent<BsonDocument>> stream = currentStream;
+    if (stream != null) {
+      stream.cancel();
+    }
+  }
+
+  /**
+   * Closes the shared stream.
+   */
+  void close() {
+    final Stream<ChangeEvent<BsonDocument>> stream = currentStream;
+    currentStream = null;
+    streamNamespaces = Collections.emptySet();
+    if (stream != null) {
+      try {
+        stream.close();
+      } catch (final IOException e) {
+        logger.error("InstanceChangeStreamListener::close error closing stream", e);
+      }
     }
-    return false;
+  }
+
+  /**
+   * Whether or not the shared stream is currently open.
+   *
+   * @return true if open, false if not
+   */
+  boolean isOpen() {
+    final Stream<ChangeEvent<BsonDocument>> stream = currentStream;
+    return stream != null && stream.isOpen();
+  }
+
+  public boolean isOpen(final MongoNamespace namespace) {
+    return isOpen() && streamNamespaces.contains(namespace);
   }
 
   public boolean areAllStreamsOpen() {
-    instanceLock.writeLock().lock();
+    instanceLock.readLock().lock();
     try {
-      for (final NamespaceChangeStreamListener streamer : nsStreamers.values()) {
-        if (!streamer.isOpen()) {
+      for (final MongoNamespace namespace : nsStreamers.keySet()) {
+        if (isStreamingEnabled(namespace) && !isOpen(namespace)) {
           return false;
         }
       }
     } finally {
-      instanceLock.writeLock().unlock();
+      instanceLock.readLock().unlock();
     }
     return true;
   }
 
+  /**
+   * Opens the shared stream for all started namespaces that have documents to watch.
+   *
+   * @return true if successfully opened, false if not
+   */
+  boolean openStream() throws InterruptedException, IOException {
+    logger.info("stream START");
+
+    if (!networkMonitor.isConnected()) {
+      logger.info("stream END - Network disconnected");
+      return false;
+    }
+
+    // the started namespaces are read without the instance lock, which a thread changing them
+    // holds while waiting for this runner to exit
+    final List<NamespaceChangeStreamListener> listeners = new ArrayList<>();
+    for (final MongoNamespace namespace : startedNamespaces) {
+      final NamespaceChangeStreamListener listener = nsStreamers.get(namespace);
+      if (listener != null) {
+        listeners.add(listener);
+      }
+    }
+
+    // always take the namespace locks in the same order so that concurrent openers cannot
+    // deadlock one another
+    Collections.sort(listeners, new Comparator<NamespaceChangeStreamListener>() {
+      @Override
+      public int compare(
+          final NamespaceChangeStreamListener left,
+          final NamespaceChangeStreamListener right
+      ) {
+        return left.getNamespace().getFullName().compareTo(right.getNamespace().getFullName());
+      }
+    });
+
+    final List<ReadWriteLock> heldLocks = new ArrayList<>();
+    try {
+      for (final NamespaceChangeStreamListener listener : listeners) {
+        listener.getLock().writeLock().lockInterruptibly();
+        heldLocks.add(listener.getLock());
+      }
+
+      if (!authMonitor.isLoggedIn()) {
+        logger.info("stream END - Logged out");
+        return false;
+      }
+
+      final List<Document> namespaceArgs = new ArrayList<>();
+      final Set<MongoNamespace> namespaces = new HashSet<>();
+      final Set<MongoNamespace> resumedNamespaces = new HashSet<>();
+      for (final NamespaceChangeStreamListener listener : listeners) {
+        final Set<BsonValue> idsToWatch =
+            listener.getNamespaceConfig().getSynchronizedDocumentIds();
+        if (idsToWatch.isEmpty()) {
+          continue;
+        }
+        final Document args = new Document();
+        args.put("database", listener.getNamespace().getDatabaseName());
+        args.put("collection", listener.getNamespace().getCollectionName());
+        args.put("ids", idsToWatch);
+        // resume after the latest event we have for the namespace, so that the server replays
+        // the events missed while the stream was closed instead of us refetching everything
+        final BsonDocument resumeToken = listener.getResumeToken();
+        if (resumeToken != null) {
+          args.put("resumeAfter", resumeToken);
+          resumedNamespaces.add(listener.getNamespace());
+        }
+        namespaceArgs.add(args);
+        namespaces.add(listener.getNamespace());
+      }
+
+      if (namespaceArgs.isEmpty()) {
+        logger.info("stream END - No synchronized documents");
+        return false;
+      }
+
+      final Stream<ChangeEvent<BsonDocument>> stream =
+          service.streamFunction(
+              "watch",
+              Collections.singletonList(new Document("namespaces", namespaceArgs)),
+              ResultDecoders.changeEventDecoder(BSON_DOCUMENT_CODEC));
+
+      if (stream == null || !stream.isOpen()) {
+        return false;
+      }
+
+      currentStream = stream;
+      streamNamespaces = namespaces;
+      for (final NamespaceChangeStreamListener listener : listeners) {
+        if (namespaces.contains(listener.getNamespace())) {
+          listener.onStreamOpened(resumedNamespaces.contains(listener.getNamespace()));
+        }
+      }
+      return true;
+    } finally {
+      for (final ReadWriteLock lock : heldLocks) {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Read the next event from the open stream and store it with the listener for its namespace.
+   * This is a blocking method.
+   */
+  void storeNextEvent() {
+    try {
+      final Stream<ChangeEvent<BsonDocument>> stream = currentStream;
+      if (stream == null || !stream.isOpen()) {
+        return;
+      }
+
+      final StitchEvent<ChangeEvent<BsonDocument>> event = stream.nextEvent();
+      if (event == null) {
+        return;
+      }
+
+      if (event.getError() != null) {
+        // the server could not continue the stream, possibly because it could not resume it
+        // from the tokens it was opened with, so the next stream starts from scratch
+        for (final MongoNamespace namespace : streamNamespaces) {
+          final NamespaceChangeStreamListener listener = nsStreamers.get(namespace);
+          if (listener != null) {
+            listener.onStreamFailed();
+          }
+        }
+        throw event.getError();
+      }
+
+      if (event.getData() == null) {
+        return;
+      }
+
+      final MongoNamespace namespace = event.getData().getNamespace();
+      final NamespaceChangeStreamListener listener = nsStreamers.get(namespace);
+      if (listener == null || !streamNamespaces.contains(namespace)) {
+        logger.debug(String.format(
+            Locale.US,
+            "InstanceChangeStreamListener::stream dropping event for unwatched ns=%s",
+            namespace));
+        return;
+      }
+      listener.storeEvent(event.getData());
+    } catch (final InterruptedException | IOException ex) {
+      logger.info(String.format(
+          Locale.US,
+          "InstanceChangeStreamListener::stream interrupted on fetching next event: %s",
+          ex));
+      logger.info("stream END – INTERRUPTED");
+      Thread.currentThread().interrupt();
+    } catch (final Exception ex) {
+      // TODO: Emit error through DataSynchronizer as an ifc
+      logger.error(String.format(
+          Locale.US,
+          "InstanceChangeStreamListener::stream exception on fetching next event: %s",
+          ex), ex);
+      logger.info("stream END – EXCEPTION");
+      final boolean wasInterrupted = Thread.currentThread().isInterrupted();
+      this.close();
+      if (wasInterrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   @Override
   public void addWatcher(final MongoNamespace namespace,
                          final Callback<ChangeEvent<BsonDocument>, Object> watcher) {
@@ -170,10 +466,8 @@ final class InstanceChangeStreamListenerImpl implements InstanceChangeStreamList
           new NamespaceChangeStreamListener(
               namespace,
               instanceConfig.getNamespaceConfig(namespace),
-              service,
-              networkMonitor,
-              authMonitor,
-              getLockForNamespace(namespace));
+              getLockForNamespace(namespace),
+              syncPassRequestedListener);
       this.nsStreamers.put(namespace, streamer);
     } finally {
       this.instanceLock.writeLock().unlock();
@@ -192,23 +486,23 @@ final class InstanceChangeStreamListenerImpl implements InstanceChangeStreamList
       if (!this.nsStreamers.containsKey(namespace)) {
         return;
       }
-      final NamespaceChangeStreamListener streamer = this.nsStreamers.get(namespace);
-      streamer.stop();
-      this.nsStreamers.remove(namespace);
+      stop(namespace);
+      this.nsStreamers.remove(namespace).close();
     } finally {
       this.instanceLock.writeLock().unlock();
     }
   }
 
   /**
-   * Returns the latest change events for a given namespace.
+   * Returns the latest change events for a given namespace, and the resume token to persist once
+   * they have been applied.
    *
    * @param namespace the namespace to get events for.
    * @return the latest change events for a given namespace.
    */
-  public Map<BsonValue, ChangeEvent<BsonDocument>> getEventsForNamespace(
+  public NamespaceChangeEvents getEventsForNamespace(
       final MongoNamespace namespace
-  ) {
+  ) throws InterruptedException {
     this.instanceLock.readLock().lock();
     final NamespaceChangeStreamListener streamer;
     try {
@@ -217,7 +511,7 @@ final class InstanceChangeStreamListenerImpl implements InstanceChangeStreamList
       this.instanceLock.readLock().unlock();
     }
     if (streamer == null) {
-      return new HashMap<>();
+      return NamespaceChangeEvents.empty();
     }
     return streamer.getEvents();
   }
@@ -26,17 +26,18 @@ import java.lang.ref.WeakReference;
 import org.bson.diagnostics.Logger;
 
 /**
- * This runner runs {@link DataSynchronizer#doSyncPass()} on a periodic interval.
+ * This runner keeps the single multiplexed change stream of an
+ * {@link InstanceChangeStreamListenerImpl} open, and reads events off of it as they arrive.
  */
-class NamespaceChangeStreamRunner implements Runnable, Closeable {
+class InstanceChangeStreamRunner implements Runnable, Closeable {
   private static final Long RETRY_SLEEP_MILLIS = 5000L;
 
-  private final WeakReference<NamespaceChangeStreamListener> listenerRef;
+  private final WeakReference<InstanceChangeStreamListenerImpl> listenerRef;
   private final NetworkMonitor networkMonitor;
   private final Logger logger;
 
-  NamespaceChangeStreamRunner(
-      final WeakReference<NamespaceChangeStreamListener> listenerRef,
+  InstanceChangeStreamRunner(
+      final WeakReference<InstanceChangeStreamListenerImpl> listenerRef,
       final NetworkMonitor networkMonitor,
       final Logger logger
   ) {
@@ -47,7 +48,7 @@ class NamespaceChangeStreamRunner implements Runnable, Closeable {
 
   @Override
   public synchronized void run() {
-    final NamespaceChangeStreamListener listener = listenerRef.get();
+    final InstanceChangeStreamListenerImpl listener = listenerRef.get();
     if (listener == null) {
       return;
     }
@@ -59,7 +60,7 @@ class NamespaceChangeStreamRunner implements Runnable, Closeable {
           isOpen = listener.openStream();
         } catch (final MongoInterruptedException ex) {
           logger.error(
-              "NamespaceChangeStreamRunner::run error happened while opening stream:", ex);
+              "InstanceChangeStreamRunner::run error happened while opening stream:", ex);
           close();
           return;
         } catch (final InterruptedException | InterruptedIOException e) {
@@ -67,12 +68,12 @@ class NamespaceChangeStreamRunner implements Runnable, Closeable {
           return;
         } catch (final Throwable t) {
           if (Thread.currentThread().isInterrupted()) {
-            logger.info("NamespaceChangeStreamRunner::stream interrupted:");
+            logger.info("InstanceChangeStreamRunner::stream interrupted:");
             close();
             return;
           } else {
             logger.error(
-                "NamespaceChangeStreamRunner::run error happened while opening stream:", t);
+                "InstanceChangeStreamRunner::run error happened while opening stream:", t);
           }
         }
 
@@ -91,7 +92,7 @@ class NamespaceChangeStreamRunner implements Runnable, Closeable {
           listener.storeNextEvent();
         } catch (final IllegalStateException e) {
           logger.info(String.format(
-              "NamespaceChangeStreamRunner::stream %s: ", e.getLocalizedMessage()));
+              "InstanceChangeStreamRunner::stream %s: ", e.getLocalizedMessage()));
           return;
         }
       }
@@ -100,7 +101,7 @@ class NamespaceChangeStreamRunner implements Runnable, Closeable {
 
   @Override
   public void close() {
-    final NamespaceChangeStreamListener listener = listenerRef.get();
+    final InstanceChangeStreamListenerImpl listener = listenerRef.get();
     if (listener == null) {
       return;
     }
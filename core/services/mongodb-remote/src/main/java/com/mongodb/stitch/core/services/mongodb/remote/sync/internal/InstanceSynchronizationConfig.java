@@ -73,21 +73,13 @@ class InstanceSynchronizationConfig
             CoreDocumentSynchronizationConfig.ConfigCodec.Fields.DOCUMENT_ID_FIELD),
         new IndexOptions().unique(true));
 
-    // used to scan for stale documents when the namespace is marked as not stale,
+    // used to clear persisted stale documents when the namespace is marked as not stale
     this.docsColl.createIndex(
         Indexes.ascending(
             CoreDocumentSynchronizationConfig.ConfigCodec.Fields.NAMESPACE_FIELD,
             CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE,
             CoreDocumentSynchronizationConfig.ConfigCodec.Fields.DOCUMENT_ID_FIELD));
 
-    // used to scan for unpaused documents when the whole namespace is marked as stale
-    this.docsColl.createIndex(
-        Indexes.ascending(
-            CoreDocumentSynchronizationConfig.ConfigCodec.Fields.NAMESPACE_FIELD,
-            CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_PAUSED,
-            CoreDocumentSynchronizationConfig.ConfigCodec.Fields.DOCUMENT_ID_FIELD)
-    );
-
     this.instanceLock = new ReentrantReadWriteLock();
 
     this.namespaces = new HashMap<>();
@@ -155,15 +147,6 @@ class InstanceSynchronizationConfig
     return getNamespaceConfig(namespace).addSynchronizedDocuments(documentIds);
   }
 
-  public CoreDocumentSynchronizationConfig addAndGetSynchronizedDocument(
-      final MongoNamespace namespace,
-      final BsonValue documentId
-  ) {
-    final NamespaceSynchronizationConfig nsConfig = getNamespaceConfig(namespace);
-    nsConfig.addSynchronizedDocument(documentId);
-    return nsConfig.getSynchronizedDocument(documentId);
-  }
-
   @Nullable
   DeleteManyModel<CoreDocumentSynchronizationConfig> removeSynchronizedDocuments(
       final MongoNamespace namespace,
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import com.mongodb.MongoNamespace;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * An append-only journal of the local documents as they were before a local write. A write first
+ * appends the documents it is about to modify with {@link #begin}, and appends a commit record
+ * with {@link #commit} once the write and the synchronization config it implies have both been
+ * saved. If a system failure interrupts the write, the documents of every entry that was not
+ * committed are rolled back to their recorded state during recovery.
+ *
+ * <p>Entries must be durable before the write they protect is carried out, so {@link #begin}
+ * syncs the journal to disk. Concurrent writers share a single sync when they can. Commit records
+ * are not synced: losing one only causes recovery to roll back a write that is then redone from
+ * the pending writes of its synchronization config.
+ *
+ * <p>The journal is cleared once it grows past a maximum size while no writes are in flight.
+ */
+class LocalWriteJournal implements Closeable {
+  static final long DEFAULT_MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  private static final BsonDocumentCodec BSON_DOCUMENT_CODEC = new BsonDocumentCodec();
+
+  private static final class Fields {
+    static final String ENTRY_ID = "id";
+    static final String NAMESPACE = "ns";
+    static final String DOCUMENTS = "docs";
+  }
+
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final long maxSizeBytes;
+
+  // guards appending to and clearing the journal
+  private final Object appendLock = new Object();
+  // guards syncing the journal to disk
+  private final Object syncLock = new Object();
+
+  // the entries that were not committed when the journal was opened, in the order they were begun
+  private final Map<Long, Entry> uncommittedEntries;
+
+  // positions are logical offsets that keep increasing across clears of the journal, so that a
+  // writer waiting for its entry to be synced never sees the journal go backwards
+  private long clearedBytes; // guarded by appendLock
+  private long appendedPosition; // guarded by appendLock
+  private volatile long syncedPosition;
+
+  private long nextEntryId; // guarded by appendLock
+  private int numInFlight; // guarded by appendLock
+
+  /**
+   * Opens the journal stored in the given file, creating it if it does not exist. Any entries
+   * that were not committed are kept until the journal is cleared, and can be retrieved with
+   * {@link #getUncommittedEntries()}.
+   *
+   * @param journalFile the file the journal is stored in.
+   * @param maxSizeBytes the size past which the journal is cleared when no writes are in flight.
+   * @throws IOException if the journal could not be opened or read.
+   */
+  LocalWriteJournal(final File journalFile, final long maxSizeBytes) throws IOException {
+    final File parent = journalFile.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists() && !parent.mkdirs() && !parent.exists()) {
+      throw new IOException(String.format("could not create directory %s", parent));
+    }
+    this.file = new RandomAccessFile(journalFile, "rw");
+    this.channel = file.getChannel();
+    this.maxSizeBytes = maxSizeBytes;
+    this.uncommittedEntries = new LinkedHashMap<>();
+    this.nextEntryId = 1;
+
+    try {
+      readEntries();
+    } catch (final IOException e) {
+      file.close();
+      throw e;
+    }
+  }
+
+  /**
+   * An entry in the journal, holding the documents of a namespace as they were before a write.
+   */
+  static final class Entry {
+    private final long id;
+    private final MongoNamespace namespace;
+    private final List<BsonDocument> documents;
+
+    Entry(final long id, final MongoNamespace namespace, final List<BsonDocument> documents) {
+      this.id = id;
+      this.namespace = namespace;
+      this.documents = documents;
+    }
+
+    long getId() {
+      return id;
+    }
+
+    MongoNamespace getNamespace() {
+      return namespace;
+    }
+
+    List<BsonDocument> getDocuments() {
+      return documents;
+    }
+  }
+
+  /**
+   * Durably records the given documents as they are before a write to the given namespace.
+   *
+   * @param namespace the namespace being written to.
+   * @param documentsBeforeWrite the documents the write may modify, as they are before the write.
+   * @return the id of the entry, to be passed to {@link #commit} once the write is saved.
+   * @throws IOException if the entry could not be recorded, in which case the write must not
+   *                     proceed.
+   */
+  long begin(
+      final MongoNamespace namespace,
+      final List<BsonDocument> documentsBeforeWrite
+  ) throws IOException {
+    final BsonDocument record = new BsonDocument()
+        .append(Fields.NAMESPACE, new BsonString(namespace.toString()))
+        .append(Fields.DOCUMENTS, new BsonArray(documentsBeforeWrite));
+
+    final long entryId;
+    final long endPosition;
+    synchronized (appendLock) {
+      entryId = nextEntryId++;
+      record.put(Fields.ENTRY_ID, new BsonInt64(entryId));
+      endPosition = append(record);
+      numInFlight++;
+    }
+
+    try {
+      sync(endPosition);
+    } catch (final IOException e) {
+      // the write will not proceed, so there is nothing to roll back; the entry stays
+      // uncommitted on disk so that any partially written state is still rolled back
+      synchronized (appendLock) {
+        numInFlight--;
+      }
+      throw e;
+    }
+    return entryId;
+  }
+
+  /**
+   * Records that the write for the given entry has been saved, so that it is not rolled back
+   * during recovery.
+   *
+   * @param entryId the id of the entry returned by {@link #begin}.
+   * @throws IOException if the commit could not be recorded. The write will then be rolled back
+   *                     and redone from the pending writes of its config during recovery.
+   */
+  void commit(final long entryId) throws IOException {
+    synchronized (appendLock) {
+      try {
+        append(new BsonDocument(Fields.ENTRY_ID, new BsonInt64(entryId)));
+      } finally {
+        numInFlight--;
+      }
+
+      if (numInFlight == 0
+          && uncommittedEntries.isEmpty()
+          && appendedPosition - clearedBytes >= maxSizeBytes) {
+        clear();
+      }
+    }
+  }
+
+  /**
+   * Returns the entries that were not committed when the journal was opened, in the order in
+   * which they were begun.
+   *
+   * @return the entries that were not committed when the journal was opened.
+   */
+  List<Entry> getUncommittedEntries() {
+    synchronized (appendLock) {
+      return Collections.unmodifiableList(new ArrayList<>(uncommittedEntries.values()));
+    }
+  }
+
+  /**
+   * Removes every entry from the journal. Must only be called once the entries that were not
+   * committed when the journal was opened have been rolled back, and while no writes are in
+   * flight.
+   *
+   * @throws IOException if the journal could not be cleared.
+   */
+  void clear() throws IOException {
+    synchronized (appendLock) {
+      channel.truncate(0);
+      channel.force(true);
+      uncommittedEntries.clear();
+      clearedBytes = appendedPosition;
+      // everything appended so far is gone, so there is nothing left to sync
+      syncedPosition = appendedPosition;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    synchronized (appendLock) {
+      file.close();
+    }
+  }
+
+  /**
+   * Appends a record to the journal without syncing it.
+   *
+   * @return the logical position of the end of the record.
+   */
+  private long append(final BsonDocument record) throws IOException {
+    final BasicOutputBuffer buffer = new BasicOutputBuffer();
+    BSON_DOCUMENT_CODEC.encode(
+        new BsonBinaryWriter(buffer), record, EncoderContext.builder().build());
+    final byte[] payload = buffer.toByteArray();
+
+    final CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+
+    final ByteBuffer recordBuffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+    recordBuffer.putInt(payload.length);
+    recordBuffer.putInt((int) crc.getValue());
+    recordBuffer.put(payload);
+    recordBuffer.flip();
+
+    long filePosition = appendedPosition - clearedBytes;
+    while (recordBuffer.hasRemaining()) {
+      filePosition += channel.write(recordBuffer, filePosition);
+    }
+    appendedPosition = filePosition + clearedBytes;
+    return appendedPosition;
+  }
+
+  /**
+   * Syncs the journal to disk up to at least the given logical position. A single sync covers
+   * every record appended before it started, so writers that were waiting on it do not need to
+   * sync again.
+   */
+  private void sync(final long position) throws IOException {
+    if (syncedPosition >= position) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (syncedPosition >= position) {
+        return;
+      }
+      final long appended;
+      synchronized (appendLock) {
+        appended = appendedPosition;
+      }
+      channel.force(false);
+      syncedPosition = Math.max(syncedPosition, appended);
+    }
+  }
+
+  /**
+   * Reads the records in the journal to find the entries that were not committed. Reading stops
+   * at the first record that was not completely written, which is then discarded.
+   */
+  private void readEntries() throws IOException {
+    long filePosition = 0;
+    final long fileSize = channel.size();
+    final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    while (filePosition + RECORD_HEADER_SIZE <= fileSize) {
+      header.clear();
+      readFully(header, filePosition);
+      header.flip();
+      final int payloadLength = header.getInt();
+      final int expectedCrc = header.getInt();
+      if (payloadLength <= 0
+          || filePosition + RECORD_HEADER_SIZE + payloadLength > fileSize) {
+        break;
+      }
+
+      final ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+      readFully(payload, filePosition + RECORD_HEADER_SIZE);
+      final CRC32 crc = new CRC32();
+      crc.update(payload.array(), 0, payloadLength);
+      if ((int) crc.getValue() != expectedCrc) {
+        break;
+      }
+
+      applyRecord(new RawBsonDocument(payload.array()));
+      filePosition += RECORD_HEADER_SIZE + payloadLength;
+    }
+
+    if (filePosition < fileSize) {
+      channel.truncate(filePosition);
+    }
+    appendedPosition = filePosition;
+    syncedPosition = filePosition;
+  }
+
+  private void applyRecord(final BsonDocument record) {
+    final long entryId = record.getInt64(Fields.ENTRY_ID).getValue();
+    nextEntryId = Math.max(nextEntryId, entryId + 1);
+
+    if (!record.containsKey(Fields.DOCUMENTS)) {
+      uncommittedEntries.remove(entryId);
+      return;
+    }
+
+    final List<BsonDocument> documents = new ArrayList<>();
+    for (final BsonValue document : record.getArray(Fields.DOCUMENTS)) {
+      documents.add(document.asDocument());
+    }
+    uncommittedEntries.put(entryId, new Entry(
+        entryId,
+        new MongoNamespace(record.getString(Fields.NAMESPACE).getValue()),
+        documents));
+  }
+
+  private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+    long filePosition = position;
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, filePosition);
+      if (read < 0) {
+        throw new EOFException();
+      }
+      filePosition += read;
+    }
+  }
+}
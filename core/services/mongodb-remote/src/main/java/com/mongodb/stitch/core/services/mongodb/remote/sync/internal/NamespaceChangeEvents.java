@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * The change events of a namespace handed off to a sync pass, together with the resume token of
+ * the latest of them. The resume token must only be persisted once the events have been applied,
+ * so that a stream resumed after a failed pass or a restart does not skip them.
+ */
+public final class NamespaceChangeEvents {
+  private static final NamespaceChangeEvents EMPTY = new NamespaceChangeEvents(
+      Collections.<BsonValue, ChangeEvent<BsonDocument>>emptyMap(), null);
+
+  private final Map<BsonValue, ChangeEvent<BsonDocument>> events;
+  @Nullable
+  private final BsonDocument resumeToken;
+
+  NamespaceChangeEvents(
+      final Map<BsonValue, ChangeEvent<BsonDocument>> events,
+      @Nullable final BsonDocument resumeToken
+  ) {
+    this.events = events;
+    this.resumeToken = resumeToken;
+  }
+
+  static NamespaceChangeEvents empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the latest change event of each document.
+   *
+   * @return the latest change event of each document, by document id.
+   */
+  public Map<BsonValue, ChangeEvent<BsonDocument>> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the resume token of the latest change event stored for the namespace, which may be
+   * that of an event superseded by a later one for the same document.
+   *
+   * @return the resume token, or null if no event with one has been stored.
+   */
+  @Nullable
+  public BsonDocument getResumeToken() {
+    return resumeToken;
+  }
+}
@@ -17,126 +17,84 @@
 package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
 
 import com.mongodb.MongoNamespace;
-import com.mongodb.stitch.core.internal.common.AuthMonitor;
 import com.mongodb.stitch.core.internal.common.BsonUtils;
 import com.mongodb.stitch.core.internal.common.Callback;
 import com.mongodb.stitch.core.internal.common.OperationResult;
-import com.mongodb.stitch.core.internal.net.NetworkMonitor;
-import com.mongodb.stitch.core.internal.net.StitchEvent;
-import com.mongodb.stitch.core.internal.net.Stream;
-import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
-import com.mongodb.stitch.core.services.mongodb.remote.internal.ResultDecoders;
 
 import java.io.Closeable;
-import java.io.IOException;
-import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import javax.annotation.Nullable;
 
 import org.bson.BsonDocument;
 import org.bson.BsonValue;
-import org.bson.Document;
-import org.bson.codecs.BsonDocumentCodec;
-import org.bson.codecs.Codec;
 import org.bson.diagnostics.Logger;
 import org.bson.diagnostics.Loggers;
 
+/**
+ * Buffers the change events for a single namespace. The events are read off of the change
+ * stream shared by all namespaces of an {@link InstanceChangeStreamListenerImpl}, which
+ * demultiplexes them into the listener for their namespace.
+ *
+ * <p>The buffer is guarded by its own lock, held only to add an event or to swap the buffer
+ * out, so that storing events does not wait on a sync pass holding the namespace lock.
+ */
 public class NamespaceChangeStreamListener implements Closeable {
-  private static final Codec<BsonDocument> BSON_DOCUMENT_CODEC = new BsonDocumentCodec();
+  // The most events buffered for a namespace. Once exceeded, the buffered events are dropped and
+  // the namespace is instead marked as stale when the events are next handed off.
+  static final int MAX_BUFFERED_EVENTS = 10000;
 
   private final MongoNamespace namespace;
   private final NamespaceSynchronizationConfig nsConfig;
-  private final CoreStitchServiceClient service;
-  private final NetworkMonitor networkMonitor;
-  private final AuthMonitor authMonitor;
   private final Logger logger;
-  private final Map<BsonValue, ChangeEvent<BsonDocument>> events;
-  private Thread runnerThread;
+  private final Object bufferLock = new Object();
+  // the latest event for each document since the events were last handed off; guarded by
+  // bufferLock
+  private Map<BsonValue, ChangeEvent<BsonDocument>> events;
+  // whether events have been dropped since the events were last handed off; guarded by
+  // bufferLock
+  private boolean eventsOverflowed;
   private ReadWriteLock nsLock;
   private final Set<Callback<ChangeEvent<BsonDocument>, Object>> watchers;
-  private Stream<ChangeEvent<BsonDocument>> currentStream;
+  private final Runnable syncPassRequestedListener;
+  // the resume token of the latest event stored for this namespace; guarded by bufferLock
+  private BsonDocument resumeToken;
 
   NamespaceChangeStreamListener(
       final MongoNamespace namespace,
       final NamespaceSynchronizationConfig nsConfig,
-      final CoreStitchServiceClient service,
-      final NetworkMonitor networkMonitor,
-      final AuthMonitor authMonitor,
-      final ReadWriteLock nsLock
+      final ReadWriteLock nsLock,
+      @Nullable final Runnable syncPassRequestedListener
   ) {
+    this.syncPassRequestedListener = syncPassRequestedListener;
     this.namespace = namespace;
     this.nsConfig = nsConfig;
-    this.service = service;
-    this.networkMonitor = networkMonitor;
-    this.authMonitor = authMonitor;
     this.events = new HashMap<>();
     this.nsLock = nsLock;
     this.logger =
         Loggers.getLogger(
             String.format("NamespaceChangeStreamListener-%s", namespace.toString()));
-    this.watchers = new HashSet<>();
+    this.watchers = Collections.newSetFromMap(
+        new ConcurrentHashMap<Callback<ChangeEvent<BsonDocument>, Object>, Boolean>());
   }
 
-  /**
-   * Opens the stream in a background thread.
-   */
-  public void start() {
-    nsLock.writeLock().lock();
-    try {
-      if (runnerThread != null) {
-        return;
-      }
-      runnerThread =
-          new Thread(new NamespaceChangeStreamRunner(
-              new WeakReference<>(this), networkMonitor, logger));
-      runnerThread.start();
-    } finally {
-      nsLock.writeLock().unlock();
-    }
+  MongoNamespace getNamespace() {
+    return namespace;
   }
 
-  /**
-   * Stops the background stream thread.
-   */
-  public void stop() {
-    if (runnerThread == null) {
-      return;
-    }
-
-    runnerThread.interrupt();
-
-    nsLock.writeLock().lock();
-    try {
-      if (runnerThread == null) {
-        return;
-      }
-
-      this.cancel();
-      this.close();
+  NamespaceSynchronizationConfig getNamespaceConfig() {
+    return nsConfig;
+  }
 
-      while (runnerThread.isAlive()) {
-        runnerThread.interrupt();
-        try {
-          runnerThread.join(1000);
-        } catch (final Exception e) {
-          e.printStackTrace();
-          return;
-        }
-      }
-      runnerThread = null;
-    } catch (Exception e) {
-      e.printStackTrace();
-    } finally {
-      nsLock.writeLock().unlock();
-    }
+  ReadWriteLock getLock() {
+    return nsLock;
   }
 
   void addWatcher(final Callback<ChangeEvent<BsonDocument>, Object> callback) {
@@ -155,166 +113,138 @@ public class NamespaceChangeStreamListener implements Closeable {
     watchers.clear();
   }
 
-  private void cancel() {
-    if (currentStream != null) {
-      currentStream.cancel();
-    }
-  }
-
   @Override
   public void close() {
-    if (currentStream != null) {
-      try {
-        currentStream.close();
-      } catch (final IOException e) {
-        e.printStackTrace();
-      } finally {
-        currentStream = null;
-      }
-    }
-
     clearWatchers();
   }
 
   /**
-   * Whether or not the current stream is currently open.
+   * Returns the resume token from which the stream for this namespace should be opened: that of
+   * the latest event stored, or else that of the latest event handed off to a sync pass before
+   * the listener was created. The caller must hold the write lock for this namespace.
    *
-   * @return true if open, false if not
+   * @return the resume token, or null if the stream cannot be resumed.
    */
-  public synchronized boolean isOpen() {
-    return currentStream != null && currentStream.isOpen();
+  @Nullable
+  BsonDocument getResumeToken() {
+    synchronized (bufferLock) {
+      if (resumeToken != null) {
+        return resumeToken;
+      }
+    }
+    return nsConfig.getResumeToken();
   }
 
   /**
-   * Open the event stream
+   * Called when the shared stream has been opened with this namespace included. Unless the
+   * stream resumed after the resume token for this namespace, events may have been missed while
+   * the stream was closed, so the namespace is marked as stale. The caller must hold the write
+   * lock for this namespace.
    *
-   * @return true if successfully opened, false if not
+   * @param resumed whether or not the stream was opened from this namespace's resume token.
    */
-  boolean openStream() throws InterruptedException, IOException {
-    logger.info("stream START");
-    final boolean isOpen;
-    final Set<BsonValue> idsToWatch = nsConfig.getSynchronizedDocumentIds();
-
-    if (!networkMonitor.isConnected()) {
-      logger.info("stream END - Network disconnected");
-      return false;
-    }
-
-    if (idsToWatch.isEmpty()) {
-      logger.info("stream END - No synchronized documents");
-      return false;
+  void onStreamOpened(final boolean resumed) throws InterruptedException {
+    if (resumed) {
+      return;
     }
+    this.nsConfig.setStale(true);
+    requestSyncPass();
+  }
 
+  /**
+   * Called when the shared stream failed after being opened with this namespace included, which
+   * includes the server being unable to resume it. The resume token is forgotten, so that the
+   * next stream is opened from scratch and the namespace marked as stale.
+   */
+  void onStreamFailed() throws InterruptedException {
     nsLock.writeLock().lockInterruptibly();
     try {
-      if (!authMonitor.isLoggedIn()) {
-        logger.info("stream END - Logged out");
-        return false;
-      }
-
-      final Document args = new Document();
-      args.put("database", namespace.getDatabaseName());
-      args.put("collection", namespace.getCollectionName());
-      args.put("ids", idsToWatch);
-
-      currentStream =
-        service.streamFunction(
-            "watch",
-            Collections.singletonList(args),
-            ResultDecoders.changeEventDecoder(BSON_DOCUMENT_CODEC));
-
-      if (currentStream != null && currentStream.isOpen()) {
-        this.nsConfig.setStale(true);
-        isOpen = true;
-      } else {
-        isOpen = false;
+      synchronized (bufferLock) {
+        resumeToken = null;
       }
+      nsConfig.setResumeToken(null);
     } finally {
       nsLock.writeLock().unlock();
     }
-    return isOpen;
   }
 
   /**
-   * Read and store the next event from an open stream. This is a blocking method.
+   * Stores an event read off of the shared stream for this namespace. If storing it would buffer
+   * more than {@value #MAX_BUFFERED_EVENTS} events, the buffered events are dropped instead, and
+   * so are further events until the next hand off, which marks the namespace as stale.
+   *
+   * @param event the event to store.
    */
-  void storeNextEvent() {
-    try {
-      if (currentStream != null && currentStream.isOpen()) {
-        final StitchEvent<ChangeEvent<BsonDocument>> event = currentStream.nextEvent();
-        if (event == null) {
-          return;
-        }
-
-        if (event.getError() != null) {
-          throw event.getError();
-        }
-
-        if (event.getData() == null) {
-          return;
-        }
-
-        logger.debug(String.format(Locale.US,
-            "NamespaceChangeStreamListener::stream ns=%s event found: op=%s id=%s",
-            nsConfig.getNamespace(), event.getData().getOperationType(), event.getData().getId()));
-        nsLock.writeLock().lockInterruptibly();
-        try {
-          events.put(BsonUtils.getDocumentId(event.getData().getDocumentKey()), event.getData());
-        } finally {
-          nsLock.writeLock().unlock();
-        }
-
-        for (final Callback<ChangeEvent<BsonDocument>, Object> watcher : watchers) {
-          watcher.onComplete(OperationResult.successfulResultOf(event.getData()));
+  void storeEvent(final ChangeEvent<BsonDocument> event) throws InterruptedException {
+    logger.debug(String.format(Locale.US,
+        "NamespaceChangeStreamListener::stream ns=%s event found: op=%s id=%s",
+        nsConfig.getNamespace(), event.getOperationType(), event.getId()));
+    final BsonValue documentId = BsonUtils.getDocumentId(event.getDocumentKey());
+    boolean overflowed = false;
+    synchronized (bufferLock) {
+      if (!eventsOverflowed) {
+        if (events.size() >= MAX_BUFFERED_EVENTS && !events.containsKey(documentId)) {
+          events = new HashMap<>();
+          eventsOverflowed = true;
+          overflowed = true;
+        } else {
+          events.put(documentId, event);
         }
       }
-    } catch (final InterruptedException | IOException ex) {
-      logger.info(String.format(
-          Locale.US,
-          "NamespaceChangeStreamListener::stream ns=%s interrupted on "
-              + "fetching next event: %s",
-          nsConfig.getNamespace(),
-          ex));
-      logger.info("stream END – INTERRUPTED");
-      Thread.currentThread().interrupt();
-    } catch (final Exception ex) {
-      // TODO: Emit error through DataSynchronizer as an ifc
-      logger.error(String.format(
-          Locale.US,
-          "NamespaceChangeStreamListener::stream ns=%s exception on fetching next event: %s",
-          nsConfig.getNamespace(),
-          ex), ex);
-      logger.info("stream END – EXCEPTION");
-      final boolean wasInterrupted = Thread.currentThread().isInterrupted();
-      this.close();
-      if (wasInterrupted) {
-        Thread.currentThread().interrupt();
+      if (event.getId() != null && !event.getId().isEmpty()) {
+        resumeToken = event.getId();
       }
     }
+    if (overflowed) {
+      logger.warn(String.format(Locale.US,
+          "NamespaceChangeStreamListener::stream ns=%s more than %d events buffered; dropping "
+              + "them until the namespace is synchronized",
+          nsConfig.getNamespace(), MAX_BUFFERED_EVENTS));
+    }
+    requestSyncPass();
+
+    for (final Callback<ChangeEvent<BsonDocument>, Object> watcher : watchers) {
+      watcher.onComplete(OperationResult.successfulResultOf(event));
+    }
   }
 
   /**
-   * Returns the latest change events, and clears them from the change stream listener.
+   * Lets the sync engine know that this namespace has new remote work to synchronize.
+   */
+  private void requestSyncPass() {
+    if (nsConfig.requestSyncPass() && syncPassRequestedListener != null) {
+      syncPassRequestedListener.run();
+    }
+  }
+
+  /**
+   * Returns the latest change events, and clears them from the change stream listener. The
+   * resume token of the latest event stored so far is returned with them, for the caller to
+   * persist once it has applied them, so that the stream can be resumed from it even after a
+   * restart. If events were dropped because too many were buffered, no events are returned and
+   * the namespace is marked as stale instead, so that its documents are refreshed from the
+   * remote.
    *
-   * @return the latest change events.
+   * @return the latest change events, and the resume token of the latest one.
    */
-  @SuppressWarnings("unchecked")
-  public Map<BsonValue, ChangeEvent<BsonDocument>> getEvents() {
-    nsLock.readLock().lock();
+  public NamespaceChangeEvents getEvents() throws InterruptedException {
+    // swap the buffer out together with the resume token, so that the resume token never covers
+    // an event stored afterwards that was not handed off
     final Map<BsonValue, ChangeEvent<BsonDocument>> events;
-    try {
-      events = new HashMap<>(this.events);
-    } finally {
-      nsLock.readLock().unlock();
+    final boolean overflowed;
+    final BsonDocument resumeToken;
+    synchronized (bufferLock) {
+      events = this.events;
+      overflowed = this.eventsOverflowed;
+      resumeToken = this.resumeToken;
+      this.events = new HashMap<>();
+      this.eventsOverflowed = false;
     }
 
-    nsLock.writeLock().lock();
-    try {
-      this.events.clear();
-      return events;
-    } finally {
-      nsLock.writeLock().unlock();
+    if (overflowed) {
+      nsConfig.setStale(true);
     }
+    return new NamespaceChangeEvents(events, resumeToken);
   }
 
   /**
@@ -327,20 +257,8 @@ public class NamespaceChangeStreamListener implements Closeable {
   public @Nullable ChangeEvent<BsonDocument> getUnprocessedEventForDocumentId(
       final BsonValue documentId
   ) {
-    final ChangeEvent<BsonDocument> event;
-    nsLock.readLock().lock();
-    try {
-      event = this.events.get(documentId);
-    } finally {
-      nsLock.readLock().unlock();
-    }
-
-    nsLock.writeLock().lock();
-    try {
-      this.events.remove(documentId);
-      return event;
-    } finally {
-      nsLock.writeLock().unlock();
+    synchronized (bufferLock) {
+      return this.events.remove(documentId);
     }
   }
 }
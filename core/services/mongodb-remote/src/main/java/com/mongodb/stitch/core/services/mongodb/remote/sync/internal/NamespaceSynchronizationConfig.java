@@ -20,13 +20,18 @@ import static com.mongodb.stitch.core.internal.common.Assertions.keyPresent;
 
 import com.mongodb.Block;
 import com.mongodb.MongoNamespace;
-import com.mongodb.client.DistinctIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.DeleteManyModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.ChangeEventListener;
 import com.mongodb.stitch.core.services.mongodb.remote.sync.ConflictHandler;
+import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncFrequency;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -35,6 +40,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -54,15 +61,43 @@ import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
 
 public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSynchronizationConfig> {
+  // How long a reactive namespace waits after a local write or change event before running a sync
+  // pass, so that bursts of work are handled by a single pass.
+  static final long REACTIVE_SYNC_PASS_DELAY_MILLIS = 100L;
+
+  // How often a reactive namespace is synced when nothing has requested a pass, as a safety net
+  // for work that did not come from a local write or a change event.
+  private static final long REACTIVE_IDLE_SYNC_PASS_MILLIS = 60000L;
+
+  // The time at which no sync pass has been requested.
+  private static final long NO_SYNC_PASS_REQUESTED = Long.MAX_VALUE;
+
   private final MongoCollection<NamespaceSynchronizationConfig> namespacesColl;
   private final MongoCollection<CoreDocumentSynchronizationConfig> docsColl;
   private final MongoNamespace namespace;
   private final ConcurrentMap<BsonValue, CoreDocumentSynchronizationConfig> syncedDocuments;
+  private final DocumentIndex documentIndex;
+  // the entries of the local write journal whose writes changed configs that are not yet saved;
+  // guarded by the write lock of nsLock
+  private final List<Long> unsavedLocalWrites;
   private final ReadWriteLock nsLock;
 
+  // whether the whole namespace is stale; mirrors the namespaces collection and is only written
+  // while holding the write lock of nsLock
+  private volatile boolean isStale;
+
+  // the resume token of the latest change event that was handed off to a sync pass; mirrors the
+  // namespaces collection and is only written while holding the write lock of nsLock
+  private volatile BsonDocument resumeToken;
+
   private NamespaceListenerConfig namespaceListenerConfig;
   private ConflictHandler conflictHandler;
   private Codec documentCodec;
+  private volatile SyncFrequency syncFrequency = SyncFrequency.reactive();
+
+  // scheduling state of sync passes for this namespace; guarded by this
+  private long lastSyncPassStartedAt = 0;
+  private long requestedSyncPassAt = NO_SYNC_PASS_REQUESTED;
 
   NamespaceSynchronizationConfig(
       final MongoCollection<NamespaceSynchronizationConfig> namespacesColl,
@@ -73,6 +108,8 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
     this.docsColl = docsColl;
     this.namespace = namespace;
     this.syncedDocuments = new ConcurrentHashMap<>();
+    this.documentIndex = new DocumentIndex();
+    this.unsavedLocalWrites = new ArrayList<>();
     this.nsLock = new ReentrantReadWriteLock();
 
     // Fill from db
@@ -86,7 +123,8 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
           public void apply(@Nonnull final CoreDocumentSynchronizationConfig docConfig) {
             syncedDocuments.put(docConfig.getDocumentId(), new CoreDocumentSynchronizationConfig(
                 docsColl,
-                docConfig));
+                docConfig,
+                documentIndex));
           }
         });
   }
@@ -100,7 +138,11 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
     this.docsColl = docsColl;
     this.namespace = config.namespace;
     this.syncedDocuments = new ConcurrentHashMap<>();
+    this.documentIndex = new DocumentIndex();
+    this.unsavedLocalWrites = new ArrayList<>();
     this.nsLock = config.nsLock;
+    this.isStale = config.isStale;
+    this.resumeToken = config.resumeToken;
 
     // Fill from db
     final BsonDocument docsFilter = new BsonDocument();
@@ -115,7 +157,8 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
           ) {
             syncedDocuments.put(docConfig.getDocumentId(), new CoreDocumentSynchronizationConfig(
                 docsColl,
-                docConfig));
+                docConfig,
+                documentIndex));
           }
         });
   }
@@ -127,22 +170,164 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
     this.namespacesColl = null;
     this.docsColl = null;
     this.syncedDocuments = null;
+    this.documentIndex = null;
+    this.unsavedLocalWrites = null;
     this.nsLock = new ReentrantReadWriteLock();
   }
 
   <T> void configure(final ConflictHandler<T> conflictHandler,
                      final ChangeEventListener<T> changeEventListener,
                      final Codec<T> codec) {
+    configure(conflictHandler, changeEventListener, codec, SyncFrequency.reactive());
+  }
+
+  <T> void configure(final ConflictHandler<T> conflictHandler,
+                     final ChangeEventListener<T> changeEventListener,
+                     final Codec<T> codec,
+                     final SyncFrequency syncFrequency) {
     nsLock.writeLock().lock();
     try {
       this.conflictHandler = conflictHandler;
       this.namespaceListenerConfig = new NamespaceListenerConfig(changeEventListener, codec);
       this.documentCodec = codec;
+      this.syncFrequency = syncFrequency;
     } finally {
       nsLock.writeLock().unlock();
     }
   }
 
+  SyncFrequency getSyncFrequency() {
+    return syncFrequency;
+  }
+
+  /**
+   * Whether or not a change stream should be kept open for this namespace. Scheduled namespaces
+   * may opt out of streaming, in which case they are fully refreshed on every sync pass.
+   *
+   * @return true if a change stream should be kept open, false if not
+   */
+  boolean isStreamingEnabled() {
+    final SyncFrequency frequency = syncFrequency;
+    return frequency.getType() != SyncFrequency.SyncFrequencyType.SCHEDULED
+        || ((SyncFrequency.Scheduled) frequency).isConnected();
+  }
+
+  /**
+   * Requests a sync pass for this namespace as a reaction to a local write or a remote change
+   * event. Only reactive namespaces run a pass for these; scheduled and on-demand namespaces
+   * batch the work up until their next pass.
+   *
+   * @return true if this moved up the time of the next sync pass, false if not
+   */
+  boolean requestSyncPass() {
+    return requestSyncPass(REACTIVE_SYNC_PASS_DELAY_MILLIS);
+  }
+
+  /**
+   * Requests a sync pass for this namespace after the given delay if it is reactive.
+   *
+   * @param delayMillis how long to wait before running the pass so that bursts of work can be
+   *                    handled by a single pass.
+   * @return true if this moved up the time of the next sync pass, false if not
+   */
+  synchronized boolean requestSyncPass(final long delayMillis) {
+    if (syncFrequency.getType() != SyncFrequency.SyncFrequencyType.REACTIVE) {
+      return false;
+    }
+    return requestSyncPassAt(System.currentTimeMillis() + delayMillis);
+  }
+
+  /**
+   * Requests a sync pass for this namespace as soon as possible, regardless of its frequency.
+   */
+  synchronized void requestImmediateSyncPass() {
+    requestSyncPassAt(System.currentTimeMillis());
+  }
+
+  private boolean requestSyncPassAt(final long time) {
+    if (time >= requestedSyncPassAt) {
+      return false;
+    }
+    requestedSyncPassAt = time;
+    return true;
+  }
+
+  /**
+   * Returns the time, in milliseconds since the epoch, at which the next sync pass for this
+   * namespace is due according to its frequency and any outstanding requests. Returns
+   * {@link Long#MAX_VALUE} if no pass is due.
+   *
+   * @return the time at which the next sync pass is due.
+   */
+  synchronized long getNextSyncPassTime() {
+    final SyncFrequency frequency = syncFrequency;
+    switch (frequency.getType()) {
+      case REACTIVE:
+        return Math.min(
+            requestedSyncPassAt,
+            lastSyncPassStartedAt + REACTIVE_IDLE_SYNC_PASS_MILLIS);
+      case SCHEDULED:
+        final SyncFrequency.Scheduled scheduled = (SyncFrequency.Scheduled) frequency;
+        final long intervalMillis = TimeUnit.MILLISECONDS.convert(
+            scheduled.getTimeInterval(), scheduled.getTimeUnit());
+        if (lastSyncPassStartedAt > Long.MAX_VALUE - intervalMillis) {
+          return requestedSyncPassAt;
+        }
+        return Math.min(requestedSyncPassAt, lastSyncPassStartedAt + intervalMillis);
+      case ON_DEMAND:
+      default:
+        return requestedSyncPassAt;
+    }
+  }
+
+  /**
+   * Records that a sync pass has started for this namespace, satisfying any outstanding
+   * requests. Requests made after this point will be handled by a subsequent pass.
+   *
+   * @param now the current time in milliseconds since the epoch.
+   */
+  synchronized void onSyncPassStarted(final long now) {
+    lastSyncPassStartedAt = now;
+    requestedSyncPassAt = NO_SYNC_PASS_REQUESTED;
+  }
+
+  /**
+   * Whether or not any unpaused document in this namespace still has writes that have not been
+   * committed to the remote.
+   *
+   * @return true if there are uncommitted writes, false if not
+   */
+  boolean hasUncommittedWrites() {
+    return !documentIndex.dirtyDocumentIds.isEmpty();
+  }
+
+  /**
+   * Returns the unpaused documents in this namespace that have writes that have not been
+   * committed to the remote. This costs time proportional to the number of such documents rather
+   * than to the number of synchronized documents.
+   *
+   * @return the documents with uncommitted writes.
+   */
+  List<CoreDocumentSynchronizationConfig> getDirtyDocuments() {
+    nsLock.readLock().lock();
+    try {
+      final List<CoreDocumentSynchronizationConfig> dirtyDocuments =
+          new ArrayList<>(documentIndex.dirtyDocumentIds.size());
+      for (final BsonValue documentId : documentIndex.dirtyDocumentIds) {
+        final CoreDocumentSynchronizationConfig docConfig = syncedDocuments.get(documentId);
+        if (docConfig != null) {
+          dirtyDocuments.add(docConfig);
+        } else {
+          // the document stopped being synchronized after its id was added
+          documentIndex.dirtyDocumentIds.remove(documentId);
+        }
+      }
+      return dirtyDocuments;
+    } finally {
+      nsLock.readLock().unlock();
+    }
+  }
+
   public MongoCollection<CoreDocumentSynchronizationConfig> getDocsColl() {
     return docsColl;
   }
@@ -199,31 +384,27 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
     }
   }
 
+  /**
+   * Returns the ids of the documents that need to be refreshed from the remote: every unpaused
+   * document if the whole namespace is stale, otherwise the documents that were individually
+   * marked as stale. This is answered from memory without querying the config collections.
+   *
+   * @return the ids of the stale documents.
+   */
   Set<BsonValue> getStaleDocumentIds() {
     nsLock.readLock().lock();
     try {
-      if (this.namespacesColl.count(
-          getNsFilter(getNamespace())
-              .append(ConfigCodec.Fields.IS_STALE, new BsonBoolean(true))
-      ) != 0) {
-        // If the entire namespace is stale, return all the document ids in the namespace that
-        // are not paused.
-        final DistinctIterable<BsonValue> unpausedStaleDocIds = this.docsColl.distinct(
-            CoreDocumentSynchronizationConfig.ConfigCodec.Fields.DOCUMENT_ID_FIELD,
-            getNsFilter(getNamespace()).append(
-                CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_PAUSED, BsonBoolean.FALSE),
-            BsonValue.class);
-        return unpausedStaleDocIds.into(new HashSet<>());
-      } else {
-        // Return just the stale documents that have been marked stale because they were
-        // individually unpaused and marked as stale.
-        final DistinctIterable<BsonValue> staleDocIds = this.docsColl.distinct(
-            CoreDocumentSynchronizationConfig.ConfigCodec.Fields.DOCUMENT_ID_FIELD,
-            getNsFilter(getNamespace()).append(
-                CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE, BsonBoolean.TRUE),
-            BsonValue.class);
-        return staleDocIds.into(new HashSet<>());
+      if (isStale) {
+        final Set<BsonValue> unpausedDocIds = new HashSet<>();
+        for (final Map.Entry<BsonValue, CoreDocumentSynchronizationConfig> entry
+            : syncedDocuments.entrySet()) {
+          if (!entry.getValue().isPaused()) {
+            unpausedDocIds.add(entry.getKey());
+          }
+        }
+        return unpausedDocIds;
       }
+      return new HashSet<>(documentIndex.staleDocumentIds);
     } finally {
       nsLock.readLock().unlock();
     }
@@ -233,15 +414,24 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
     return documentCodec;
   }
 
+  /**
+   * Begins synchronizing the given documents from the remote. Their configs are created stale,
+   * since a change stream resumed for this namespace does not replay the events of documents it
+   * was not watching, so their remote state has to be fetched by the next sync pass.
+   *
+   * @param documentIds the ids of the documents to synchronize.
+   * @return whether or not any of the documents were not already synchronized.
+   */
   boolean addSynchronizedDocuments(
       final BsonValue... documentIds
   ) {
     final Map<BsonValue, CoreDocumentSynchronizationConfig> configs = new HashMap<>();
     for (final BsonValue documentId : documentIds) {
       if (getSynchronizedDocument(documentId) == null) {
-        configs.put(
-            documentId,
-            new CoreDocumentSynchronizationConfig(docsColl, namespace, documentId));
+        final CoreDocumentSynchronizationConfig config = new CoreDocumentSynchronizationConfig(
+            docsColl, namespace, documentId, documentIndex);
+        config.setStale(true);
+        configs.put(documentId, config);
       }
     }
 
@@ -270,7 +460,10 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
       return false;
     }
 
-    newConfig = new CoreDocumentSynchronizationConfig(docsColl, namespace, documentId);
+    newConfig = new CoreDocumentSynchronizationConfig(
+        docsColl, namespace, documentId, documentIndex);
+    // like those of addSynchronizedDocuments, its remote state has yet to be fetched
+    newConfig.setStale(true);
 
     nsLock.writeLock().lock();
     try {
@@ -282,6 +475,87 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
     }
   }
 
+  /**
+   * Begins synchronizing the given document without saving its config, which is instead marked as
+   * unsaved to be saved in bulk by {@link #saveDocumentConfigs()}. This is used for documents
+   * created by local writes: if a system failure happens before the config is saved, the local
+   * document is not synchronized and so is removed during recovery.
+   *
+   * @param documentId the id of the document to synchronize.
+   * @return the config of the document, which already existed if it was already synchronized.
+   */
+  CoreDocumentSynchronizationConfig addUnsavedSynchronizedDocument(final BsonValue documentId) {
+    nsLock.writeLock().lock();
+    try {
+      final CoreDocumentSynchronizationConfig existingConfig = syncedDocuments.get(documentId);
+      if (existingConfig != null) {
+        return existingConfig;
+      }
+
+      final CoreDocumentSynchronizationConfig newConfig = new CoreDocumentSynchronizationConfig(
+          docsColl, namespace, documentId, documentIndex);
+      syncedDocuments.put(documentId, newConfig);
+      documentIndex.unsavedDocumentIds.add(documentId);
+      return newConfig;
+    } finally {
+      nsLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Records that the given entry of the local write journal must only be committed once the
+   * document configs that are currently unsaved have been saved. Must be called while holding the
+   * write lock of this namespace, after the configs changed by the write were marked as unsaved.
+   *
+   * @param journalEntryId the id of the entry of the local write journal.
+   */
+  void addUnsavedLocalWrite(final long journalEntryId) {
+    unsavedLocalWrites.add(journalEntryId);
+  }
+
+  int getNumUnsavedDocumentConfigs() {
+    return documentIndex.unsavedDocumentIds.size();
+  }
+
+  /**
+   * Saves the configs of every document that changed without being saved, in a single bulk
+   * write. This coalesces any number of changes to the same document into one write.
+   *
+   * @return the ids of the entries of the local write journal whose writes are now fully saved,
+   *         and may be committed.
+   */
+  List<Long> saveDocumentConfigs() {
+    // taking the write lock keeps local writes from changing configs or recording journal entries
+    // while they are being saved
+    nsLock.writeLock().lock();
+    try {
+      final List<Long> savedLocalWrites = new ArrayList<>(unsavedLocalWrites);
+      final List<BsonValue> savedDocumentIds = new ArrayList<>();
+      final List<WriteModel<CoreDocumentSynchronizationConfig>> writes = new ArrayList<>();
+      for (final BsonValue documentId : documentIndex.unsavedDocumentIds) {
+        final CoreDocumentSynchronizationConfig config = syncedDocuments.get(documentId);
+        if (config == null) {
+          continue;
+        }
+        savedDocumentIds.add(documentId);
+        writes.add(new ReplaceOneModel<>(
+            CoreDocumentSynchronizationConfig.getDocFilter(namespace, documentId),
+            config,
+            new ReplaceOptions().upsert(true)));
+      }
+
+      if (!writes.isEmpty()) {
+        docsColl.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+      }
+
+      documentIndex.unsavedDocumentIds.clear();
+      unsavedLocalWrites.clear();
+      return savedLocalWrites;
+    } finally {
+      nsLock.writeLock().unlock();
+    }
+  }
+
   @Nullable
   DeleteManyModel<CoreDocumentSynchronizationConfig> removeSynchronizedDocuments(
       final BsonValue... documentIds
@@ -291,6 +565,7 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
       final List<BsonValue> bsonValues = new ArrayList<>();
       for (final BsonValue documentId : documentIds) {
         final CoreDocumentSynchronizationConfig config = syncedDocuments.remove(documentId);
+        documentIndex.remove(documentId);
         if (config != null) {
           bsonValues.add(config.getDocumentId());
         }
@@ -314,6 +589,7 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
       if (syncedDocuments.containsKey(documentId)) {
         docsColl.deleteOne(CoreDocumentSynchronizationConfig.getDocFilter(namespace, documentId));
         syncedDocuments.remove(documentId);
+        documentIndex.remove(documentId);
         return true;
       }
     } finally {
@@ -331,31 +607,133 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
     }
   }
 
+  /**
+   * Marks the whole namespace as stale or not. Marking it as not stale also marks every document
+   * in it as not stale. The config collections are only written to when this changes something
+   * that was persisted.
+   *
+   * @param stale whether or not the namespace is stale.
+   */
   void setStale(final boolean stale) throws InterruptedException {
     nsLock.writeLock().lockInterruptibly();
     try {
+      if (isStale != stale) {
+        namespacesColl.updateOne(
+            getNsFilter(getNamespace()),
+            new BsonDocument("$set",
+                new BsonDocument(
+                    ConfigCodec.Fields.IS_STALE,
+                    new BsonBoolean(stale)
+                )));
+        isStale = stale;
+      }
+
+      // if we're setting stale to be false, also mark any documents that were individually marked
+      // as stale to not stale
+      if (!stale) {
+        for (final BsonValue documentId : new ArrayList<>(documentIndex.staleDocumentIds)) {
+          final CoreDocumentSynchronizationConfig docConfig = syncedDocuments.get(documentId);
+          if (docConfig != null) {
+            docConfig.setStale(false);
+          } else {
+            documentIndex.staleDocumentIds.remove(documentId);
+          }
+        }
+
+        if (documentIndex.mayHavePersistedStaleDocuments.getAndSet(false)) {
+          docsColl.updateMany(
+              getNsFilter(getNamespace())
+                  .append(
+                      CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE,
+                      BsonBoolean.TRUE),
+              new BsonDocument("$set",
+                  new BsonDocument(
+                      CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE,
+                      BsonBoolean.FALSE))
+          );
+        }
+      }
+    } catch (IllegalStateException e) {
+      // eat this
+    } finally {
+      nsLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Marks every unpaused document in the namespace as stale in place of the whole namespace, if
+   * the whole namespace is stale, so that its documents can be marked as not stale as each is
+   * refreshed rather than all at once. The documents are persisted as stale before the namespace
+   * is persisted as not stale, so that a failure in between only leaves both marked.
+   */
+  void setStaleDocumentsIndividually() throws InterruptedException {
+    nsLock.writeLock().lockInterruptibly();
+    try {
+      if (!isStale) {
+        return;
+      }
+
+      docsColl.updateMany(
+          getNsFilter(getNamespace())
+              .append(
+                  CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_PAUSED,
+                  new BsonDocument("$ne", BsonBoolean.TRUE)),
+          new BsonDocument("$set",
+              new BsonDocument(
+                  CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE,
+                  BsonBoolean.TRUE)));
+      for (final CoreDocumentSynchronizationConfig docConfig : syncedDocuments.values()) {
+        if (!docConfig.isPaused()) {
+          docConfig.setStale(true);
+        }
+      }
+
       namespacesColl.updateOne(
           getNsFilter(getNamespace()),
           new BsonDocument("$set",
               new BsonDocument(
                   ConfigCodec.Fields.IS_STALE,
-                  new BsonBoolean(stale)
+                  BsonBoolean.FALSE
               )));
+      isStale = false;
+    } catch (IllegalStateException e) {
+      // eat this
+    } finally {
+      nsLock.writeLock().unlock();
+    }
+  }
 
-      // if we're setting stale to be false, also mark any documents that were individually marked
-      // as stale to not stale
-      if (!stale) {
-        docsColl.updateMany(
-            getNsFilter(getNamespace())
-                .append(
-                    CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE,
-                    BsonBoolean.TRUE),
-            new BsonDocument("$set",
-                new BsonDocument(
-                    CoreDocumentSynchronizationConfig.ConfigCodec.Fields.IS_STALE,
-                    BsonBoolean.FALSE))
-        );
+  /**
+   * Returns the resume token of the latest change event for this namespace that was handed off
+   * to a sync pass, from which a change stream can be resumed without missing events.
+   *
+   * @return the resume token, or null if there is none.
+   */
+  @Nullable
+  BsonDocument getResumeToken() {
+    return resumeToken;
+  }
+
+  /**
+   * Sets the resume token from which a change stream for this namespace can be resumed. The
+   * config collection is only written to when the token changes.
+   *
+   * @param resumeToken the resume token, or null if the change stream cannot be resumed.
+   */
+  void setResumeToken(@Nullable final BsonDocument resumeToken) {
+    nsLock.writeLock().lock();
+    try {
+      if (resumeToken == null ? this.resumeToken == null : resumeToken.equals(this.resumeToken)) {
+        return;
       }
+      namespacesColl.updateOne(
+          getNsFilter(getNamespace()),
+          resumeToken == null
+              ? new BsonDocument("$unset",
+                  new BsonDocument(ConfigCodec.Fields.RESUME_TOKEN, new BsonString("")))
+              : new BsonDocument("$set",
+                  new BsonDocument(ConfigCodec.Fields.RESUME_TOKEN, resumeToken)));
+      this.resumeToken = resumeToken;
     } catch (IllegalStateException e) {
       // eat this
     } finally {
@@ -404,8 +782,56 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
               CoreDocumentSynchronizationConfig.class.getSimpleName()));
     }
 
-    return new NamespaceSynchronizationConfig(
+    final NamespaceSynchronizationConfig config = new NamespaceSynchronizationConfig(
         new MongoNamespace(document.getString(ConfigCodec.Fields.NAMESPACE_FIELD).getValue()));
+    config.isStale =
+        document.getBoolean(ConfigCodec.Fields.IS_STALE, BsonBoolean.FALSE).getValue();
+    config.resumeToken = document.isDocument(ConfigCodec.Fields.RESUME_TOKEN)
+        ? document.getDocument(ConfigCodec.Fields.RESUME_TOKEN) : null;
+    return config;
+  }
+
+  /**
+   * In-memory indexes over the state of the documents in a namespace, which the documents keep up
+   * to date themselves whenever their state changes. These let a sync pass find the documents it
+   * has work to do for without scanning every document or querying the config collections.
+   */
+  static final class DocumentIndex {
+    // the documents that are unpaused and have uncommitted writes
+    final Set<BsonValue> dirtyDocumentIds =
+        Collections.newSetFromMap(new ConcurrentHashMap<BsonValue, Boolean>());
+
+    // the documents that were individually marked as stale
+    final Set<BsonValue> staleDocumentIds =
+        Collections.newSetFromMap(new ConcurrentHashMap<BsonValue, Boolean>());
+
+    // the documents whose configs changed without being saved
+    final Set<BsonValue> unsavedDocumentIds =
+        Collections.newSetFromMap(new ConcurrentHashMap<BsonValue, Boolean>());
+
+    // whether a document may have been saved while stale since the config collection was last
+    // cleared of stale documents
+    final AtomicBoolean mayHavePersistedStaleDocuments = new AtomicBoolean(true);
+
+    void update(final BsonValue documentId, final boolean isDirty, final boolean isStale) {
+      if (isDirty) {
+        dirtyDocumentIds.add(documentId);
+      } else {
+        dirtyDocumentIds.remove(documentId);
+      }
+      if (isStale) {
+        staleDocumentIds.add(documentId);
+        mayHavePersistedStaleDocuments.set(true);
+      } else {
+        staleDocumentIds.remove(documentId);
+      }
+    }
+
+    void remove(final BsonValue documentId) {
+      dirtyDocumentIds.remove(documentId);
+      staleDocumentIds.remove(documentId);
+      unsavedDocumentIds.remove(documentId);
+    }
   }
 
   static final ConfigCodec configCodec = new ConfigCodec();
@@ -439,6 +865,7 @@ public class NamespaceSynchronizationConfig implements Iterable<CoreDocumentSync
       static final String NAMESPACE_FIELD = "namespace";
       static final String SCHEMA_VERSION_FIELD = "schema_version";
       static final String IS_STALE = "is_stale";
+      static final String RESUME_TOKEN = "resume_token";
     }
   }
 }
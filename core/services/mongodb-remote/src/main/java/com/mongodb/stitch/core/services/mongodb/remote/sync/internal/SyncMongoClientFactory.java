@@ -42,6 +42,37 @@ public abstract class SyncMongoClientFactory {
     return clientFactory.getClient(instanceKey, dbPath, appInfo.getCodecRegistry());
   }
 
+  /**
+   * Get the file in which the journal of local writes to the database returned by
+   * {@link #getClient} is kept.
+   * @param appInfo the info for this application
+   * @param serviceName the name of the associated service
+   * @return the file in which the local write journal is kept
+   */
+  public static File getLocalWriteJournalFile(
+      final StitchAppClientInfo appInfo,
+      final String serviceName
+  ) {
+    final String dataDir = appInfo.getDataDirectory();
+    if (dataDir == null) {
+      throw new IllegalArgumentException("StitchAppClient not configured with a data directory");
+    }
+
+    final String userId = appInfo.getAuthMonitor().tryIsLoggedIn()
+        ? appInfo.getAuthMonitor().getActiveUserId() : "unbound";
+    return getLocalWriteJournalFile(dataDir, appInfo.getClientAppId(), serviceName, userId);
+  }
+
+  private static File getLocalWriteJournalFile(
+      final String dataDir,
+      final String clientAppId,
+      final String serviceName,
+      final String userId
+  ) {
+    return new File(String.format(
+        "%s/%s/sync_journal_%s/%s.journal", dataDir, clientAppId, serviceName, userId));
+  }
+
   /**
    * Delete a database for a given path and userId.
    * @param appInfo the info for this application
@@ -77,6 +108,12 @@ public abstract class SyncMongoClientFactory {
     client.close();
     clientFactory.removeClient(instanceKey);
 
+    final File journalFile = getLocalWriteJournalFile(
+        dataDir, appInfo.getClientAppId(), serviceName, userId);
+    if (journalFile.exists() && !journalFile.delete()) {
+      return false;
+    }
+
     return new File(dbPath).delete();
   }
 }
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.mongodb.remote.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOptions;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.Decoder;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class CoreRemoteMongoBatchCursorUnitTests {
+  private static final MongoNamespace NAMESPACE = new MongoNamespace("db", "coll");
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final List<BsonDocument> requests = new ArrayList<>();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testPagesThroughAllResults() {
+    final List<BsonDocument> collection = newCollection(1000);
+    final CoreStitchServiceClient service = newService(collection);
+
+    final List<BsonDocument> results = new ArrayList<>();
+    final CoreRemoteMongoCursor<BsonDocument> cursor =
+        find(new BsonDocument(), new RemoteFindOptions().batchSize(64)).iterator(service);
+    cursor.forEachRemaining(results::add);
+
+    assertEquals(sorted(collection, "_id", 1), results);
+    // 15 full pages, and a last page that is short
+    assertEquals(16, requests.size());
+    for (final BsonDocument request : requests) {
+      assertEquals(64, request.getInt32("limit").getValue());
+      assertEquals(new BsonDocument("_id", new BsonInt32(1)), request.getDocument("sort"));
+    }
+  }
+
+  @Test
+  public void testPagesInSortOrderWithTies() {
+    final List<BsonDocument> collection = newCollection(500);
+    final CoreStitchServiceClient service = newService(collection);
+    final BsonDocument filter =
+        new BsonDocument("bucket", new BsonDocument("$gt", new BsonInt32(2)));
+
+    final List<BsonDocument> results = new ArrayList<>();
+    find(filter, new RemoteFindOptions()
+        .sort(new BsonDocument("bucket", new BsonInt32(-1)))
+        .limit(120)
+        .batchSize(50)).iterator(service).forEachRemaining(results::add);
+
+    final List<BsonDocument> expected = sorted(collection, "bucket", -1).stream()
+        .filter(doc -> doc.getInt32("bucket").getValue() > 2)
+        .limit(120)
+        .collect(Collectors.toList());
+    assertEquals(expected, results);
+    // the last page only asks for what remains of the limit
+    assertEquals(3, requests.size());
+    assertEquals(20, requests.get(2).getInt32("limit").getValue());
+    assertEquals(
+        new BsonDocument("bucket", new BsonInt32(-1)).append("_id", new BsonInt32(1)),
+        requests.get(0).getDocument("sort"));
+  }
+
+  @Test
+  public void testProjectionKeepsSortKeys() {
+    final List<BsonDocument> collection = newCollection(100);
+    final CoreStitchServiceClient service = newService(collection);
+
+    final List<BsonDocument> results = new ArrayList<>();
+    find(new BsonDocument(), new RemoteFindOptions()
+        .sort(new BsonDocument("bucket", new BsonInt32(1)))
+        .projection(new BsonDocument("_id", new BsonInt32(0)).append("name", new BsonInt32(1)))
+        .batchSize(30)).iterator(service).forEachRemaining(results::add);
+
+    // the sort keys were requested, but are not returned
+    assertEquals(
+        new BsonDocument("name", new BsonInt32(1)).append("bucket", new BsonInt32(1)),
+        requests.get(0).getDocument("project"));
+    assertEquals(
+        sorted(collection, "bucket", 1).stream()
+            .map(doc -> new BsonDocument("name", doc.get("name")))
+            .collect(Collectors.toList()),
+        results);
+  }
+
+  @Test
+  public void testPrefetchesNextPage() throws Exception {
+    final CoreStitchServiceClient service = newService(newCollection(100));
+    final CoreRemoteMongoCursor<BsonDocument> cursor =
+        find(new BsonDocument(), new RemoteFindOptions().batchSize(10)).iterator(service);
+
+    assertTrue(cursor.hasNext());
+    cursor.next();
+    // the second page is requested as soon as the first one arrives
+    assertEquals(2, requests.size());
+    cursor.close();
+    assertFalse(cursor.hasNext());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUnbatchedFind() {
+    final CoreStitchServiceClient service = Mockito.mock(CoreStitchServiceClient.class);
+    final List<BsonDocument> collection = newCollection(10);
+    final byte[] body = collection.stream()
+        .map(BsonDocument::toJson)
+        .collect(Collectors.joining(",", "[", "]"))
+        .getBytes(StandardCharsets.UTF_8);
+    doAnswer(invocation -> BsonUtils.readJsonValues(
+        new ByteArrayInputStream(body), invocation.<Decoder<?>>getArgument(2)))
+        .when(service).callFunctionForIterator(eq("find"), anyList(), any(Decoder.class));
+
+    final List<BsonDocument> results = new ArrayList<>();
+    find(new BsonDocument(), new RemoteFindOptions()).iterator(service)
+        .forEachRemaining(results::add);
+    assertEquals(collection, results);
+
+    // a sort that is not by field values cannot be paged through
+    find(new BsonDocument(), new RemoteFindOptions()
+        .sort(new BsonDocument("score", new BsonDocument("$meta", new BsonInt32(1))))
+        .batchSize(5)).iterator(service);
+    verify(service, never()).callFunctionAsync(
+        any(), anyList(), isNull(), any(Decoder.class), any(Callback.class));
+  }
+
+  @Test
+  public void testPagesThroughMissingAndNullSortKeys() {
+    final List<BsonDocument> collection = newMixedCollection(200, 3);
+    final CoreStitchServiceClient service = newService(collection);
+
+    for (final int direction : new int[] {1, -1}) {
+      final List<BsonDocument> results = new ArrayList<>();
+      find(new BsonDocument(), new RemoteFindOptions()
+          .sort(new BsonDocument("key", new BsonInt32(direction)))
+          .batchSize(7)).iterator(service).forEachRemaining(results::add);
+      // pages end on missing and null keys, which sort together and before the numbers
+      assertEquals(sorted(collection, "key", direction), results);
+    }
+  }
+
+  @Test
+  public void testPagesThroughMixedTypeSortKeys() {
+    final List<BsonDocument> collection = newMixedCollection(300, 6);
+    final CoreStitchServiceClient service = newService(collection);
+
+    for (final int direction : new int[] {1, -1}) {
+      final List<BsonDocument> results = new ArrayList<>();
+      find(new BsonDocument(), new RemoteFindOptions()
+          .sort(new BsonDocument("key", new BsonInt32(direction)))
+          .batchSize(11)).iterator(service).forEachRemaining(results::add);
+      assertEquals(sorted(collection, "key", direction), results);
+    }
+  }
+
+  private static FindOperation<BsonDocument> find(
+      final BsonDocument filter,
+      final RemoteFindOptions options
+  ) {
+    return new Operations<>(NAMESPACE, BsonDocument.class, BsonUtils.DEFAULT_CODEC_REGISTRY)
+        .find(filter, BsonDocument.class, options);
+  }
+
+  private static List<BsonDocument> newCollection(final int size) {
+    final List<BsonDocument> collection = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      collection.add(new BsonDocument("_id", new BsonInt32((i * 7919) % size))
+          .append("bucket", new BsonInt32(i % 5))
+          .append("name", new BsonInt32(i)));
+    }
+    return collection;
+  }
+
+  /**
+   * Returns documents whose "key" is, in turn, missing, null, an int, a double, a string and a
+   * boolean, using only the first given number of those kinds.
+   */
+  private static List<BsonDocument> newMixedCollection(final int size, final int kinds) {
+    final List<BsonDocument> collection = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final BsonDocument doc = new BsonDocument("_id", new BsonInt32((i * 7919) % size));
+      switch (i % kinds) {
+        case 0:
+          break;
+        case 1:
+          doc.append("key", BsonNull.VALUE);
+          break;
+        case 2:
+          doc.append("key", new BsonInt32(i % 3));
+          break;
+        case 3:
+          doc.append("key", new BsonDouble(i % 3 + 0.5));
+          break;
+        case 4:
+          doc.append("key", new BsonString("s" + i % 3));
+          break;
+        default:
+          doc.append("key", new BsonBoolean(i % 2 == 0));
+          break;
+      }
+      collection.add(doc);
+    }
+    return collection;
+  }
+
+  private static List<BsonDocument> sorted(
+      final List<BsonDocument> documents,
+      final String key,
+      final int direction
+  ) {
+    return documents.stream()
+        .sorted(comparator(new BsonDocument(key, new BsonInt32(direction))
+            .append("_id", new BsonInt32(1))))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns a service whose find function runs against the given documents on another thread,
+   * understanding just enough of the query language for the queries of a batched find.
+   */
+  @SuppressWarnings("unchecked")
+  private CoreStitchServiceClient newService(final List<BsonDocument> collection) {
+    final CoreStitchServiceClient service = Mockito.mock(CoreStitchServiceClient.class);
+    final AtomicInteger outstanding = new AtomicInteger();
+    doAnswer(invocation -> {
+      final Document args = (Document) ((List<?>) invocation.getArgument(1)).get(0);
+      final BsonDocument request = new BsonDocument()
+          .append("query", (BsonDocument) args.get("query"))
+          .append("limit", new BsonInt32((Integer) args.get("limit")))
+          .append("sort", (BsonDocument) args.get("sort"));
+      if (args.get("project") != null) {
+        request.append("project", (BsonDocument) args.get("project"));
+      }
+      synchronized (requests) {
+        requests.add(request);
+      }
+      // a cursor never has more than one page in flight
+      assertEquals(1, outstanding.incrementAndGet());
+
+      final Callback<Collection<BsonDocument>, Exception> callback = invocation.getArgument(4);
+      executor.submit(() -> {
+        final List<BsonDocument> page = collection.stream()
+            .filter(doc -> matches(doc, request.getDocument("query")))
+            .sorted(comparator(request.getDocument("sort")))
+            .limit(request.getInt32("limit").getValue())
+            .map(doc -> project(doc, request.getDocument("project", null)))
+            .collect(Collectors.toList());
+        outstanding.decrementAndGet();
+        callback.onComplete(OperationResult.successfulResultOf(page));
+      });
+      return null;
+    }).when(service).callFunctionAsync(
+        eq("find"), anyList(), isNull(), any(Decoder.class), any(Callback.class));
+    return service;
+  }
+
+  private static boolean matches(final BsonDocument doc, final BsonDocument query) {
+    for (final Map.Entry<String, BsonValue> entry : query.entrySet()) {
+      final boolean matched;
+      switch (entry.getKey()) {
+        case "$and":
+          matched = entry.getValue().asArray().stream()
+              .allMatch(clause -> matches(doc, clause.asDocument()));
+          break;
+        case "$or":
+          matched = entry.getValue().asArray().stream()
+              .anyMatch(clause -> matches(doc, clause.asDocument()));
+          break;
+        default:
+          final BsonValue value = doc.get(entry.getKey());
+          final Map.Entry<String, BsonValue> condition =
+              entry.getValue().asDocument().entrySet().iterator().next();
+          final BsonValue operand = condition.getValue();
+          switch (condition.getKey()) {
+            case "$eq":
+              matched = operand.isNull()
+                  ? value == null || value.isNull() : compareValues(value, operand) == 0;
+              break;
+            case "$gt":
+              // like the server, only values of types that compare as one are compared
+              matched = value != null && typeBracket(value) == typeBracket(operand)
+                  && compareValues(value, operand) > 0;
+              break;
+            case "$lt":
+              matched = value != null && typeBracket(value) == typeBracket(operand)
+                  && compareValues(value, operand) < 0;
+              break;
+            case "$type":
+              matched = value != null && operand.asArray().contains(typeAlias(value));
+              break;
+            default:
+              throw new IllegalArgumentException(condition.getKey());
+          }
+      }
+      if (!matched) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Comparator<BsonDocument> comparator(final BsonDocument sort) {
+    return (left, right) -> {
+      for (final Map.Entry<String, BsonValue> entry : sort.entrySet()) {
+        final int compared =
+            compareValues(left.get(entry.getKey()), right.get(entry.getKey()));
+        if (compared != 0) {
+          return compared * entry.getValue().asInt32().getValue();
+        }
+      }
+      return 0;
+    };
+  }
+
+  /**
+   * Compares values in the server's sort order for the types the tests use, where a missing value
+   * sorts as a null.
+   */
+  private static int compareValues(final BsonValue left, final BsonValue right) {
+    final int compared = Integer.compare(typeBracket(left), typeBracket(right));
+    if (compared != 0 || left == null || left.isNull()) {
+      return compared;
+    }
+    if (left.isNumber()) {
+      return Double.compare(
+          left.asNumber().doubleValue(), right.asNumber().doubleValue());
+    }
+    if (left.isString()) {
+      return left.asString().getValue().compareTo(right.asString().getValue());
+    }
+    return Boolean.compare(left.asBoolean().getValue(), right.asBoolean().getValue());
+  }
+
+  private static int typeBracket(final BsonValue value) {
+    if (value == null || value.isNull()) {
+      return 1;
+    }
+    if (value.isNumber()) {
+      return 2;
+    }
+    if (value.isString()) {
+      return 3;
+    }
+    if (value.isBoolean()) {
+      return 8;
+    }
+    throw new IllegalArgumentException(value.getBsonType().toString());
+  }
+
+  private static BsonString typeAlias(final BsonValue value) {
+    switch (value.getBsonType()) {
+      case NULL:
+        return new BsonString("null");
+      case INT32:
+        return new BsonString("int");
+      case DOUBLE:
+        return new BsonString("double");
+      case STRING:
+        return new BsonString("string");
+      case BOOLEAN:
+        return new BsonString("bool");
+      default:
+        throw new IllegalArgumentException(value.getBsonType().toString());
+    }
+  }
+
+  private static BsonDocument project(final BsonDocument doc, final BsonDocument projection) {
+    if (projection == null) {
+      return doc.clone();
+    }
+    final BsonDocument projected = new BsonDocument();
+    for (final Map.Entry<String, BsonValue> entry : doc.entrySet()) {
+      // like the server, _id is returned unless it is excluded
+      if (projection.containsKey(entry.getKey())
+          || (entry.getKey().equals("_id") && !projection.containsKey("_id"))) {
+        projected.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return projected;
+  }
+}
@@ -21,10 +21,14 @@ import static com.mongodb.stitch.core.services.mongodb.remote.internal.TestUtils
 import static com.mongodb.stitch.core.services.mongodb.remote.internal.TestUtils.getDatabase;
 import static com.mongodb.stitch.core.testutils.Assert.assertThrows;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
@@ -32,12 +36,17 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.stitch.core.internal.common.BsonUtils;
-import com.mongodb.stitch.core.internal.common.CollectionDecoder;
+import com.mongodb.stitch.core.internal.common.CloseableIterator;
 import com.mongodb.stitch.core.internal.net.Stream;
 import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 import com.mongodb.stitch.core.services.mongodb.remote.CompactChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteCountOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOneAndModifyOptions;
@@ -55,11 +64,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.bson.BsonBoolean;
 import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
 import org.bson.BsonInt32;
 import org.bson.BsonInt64;
 import org.bson.BsonObjectId;
@@ -67,6 +79,7 @@ import org.bson.BsonString;
 import org.bson.BsonValue;
 import org.bson.Document;
 import org.bson.codecs.Decoder;
+import org.bson.codecs.DecoderContext;
 import org.bson.codecs.DocumentCodec;
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
@@ -273,18 +286,18 @@ public class CoreRemoteMongoCollectionUnitTests {
     final Document doc1 = new Document("one", 2);
     final Document doc2 = new Document("three", 4);
     final Collection<Document> docs = Arrays.asList(doc1, doc2);
-    doReturn(docs)
-        .when(service).callFunction(any(), any(), any(Decoder.class));
+    doAnswer(invocation -> iteratorOf(docs))
+        .when(service).callFunctionForIterator(any(), any(), any(Decoder.class));
 
     final CoreRemoteFindIterable<Document> iter = coll.find();
     assertEquals(docs, iter.into(new ArrayList<>()));
 
     final ArgumentCaptor<String> funcNameArg = ArgumentCaptor.forClass(String.class);
     final ArgumentCaptor<List> funcArgsArg = ArgumentCaptor.forClass(List.class);
-    final ArgumentCaptor<Decoder<Collection<Document>>> resultClassArg =
+    final ArgumentCaptor<Decoder<Document>> resultClassArg =
         ArgumentCaptor.forClass(Decoder.class);
     verify(service)
-        .callFunction(
+        .callFunctionForIterator(
             funcNameArg.capture(),
             funcArgsArg.capture(),
             resultClassArg.capture());
@@ -299,7 +312,7 @@ public class CoreRemoteMongoCollectionUnitTests {
     expectedArgs.put("project", null);
     expectedArgs.put("sort", null);
     assertEquals(expectedArgs, funcArgsArg.getValue().get(0));
-    assertEquals(CollectionDecoder.class, resultClassArg.getValue().getClass());
+    assertEquals(DocumentCodec.class, resultClassArg.getValue().getClass());
 
     final BsonDocument expectedFilter = new BsonDocument("one", new BsonInt32(23));
     final BsonDocument expectedProject = new BsonDocument("two", new BsonString("four"));
@@ -311,7 +324,7 @@ public class CoreRemoteMongoCollectionUnitTests {
 
     assertEquals(docs, iter.into(new ArrayList<>()));
     verify(service, times(2))
-        .callFunction(
+        .callFunctionForIterator(
             funcNameArg.capture(),
             funcArgsArg.capture(),
             resultClassArg.capture());
@@ -323,10 +336,10 @@ public class CoreRemoteMongoCollectionUnitTests {
     expectedArgs.put("sort", expectedSort);
     expectedArgs.put("limit", 5);
     assertEquals(expectedArgs, funcArgsArg.getValue().get(0));
-    assertEquals(CollectionDecoder.class, resultClassArg.getValue().getClass());
+    assertEquals(DocumentCodec.class, resultClassArg.getValue().getClass());
 
-    doReturn(Arrays.asList(1, 2, 3))
-        .when(service).callFunction(any(), any(), any(Decoder.class));
+    doAnswer(invocation -> iteratorOf(Arrays.asList(1, 2, 3)))
+        .when(service).callFunctionForIterator(any(), any(), any(Decoder.class));
     assertEquals(Arrays.asList(1, 2, 3),
         coll.find(expectedFilter, Integer.class).into(new ArrayList<>()));
 
@@ -352,18 +365,18 @@ public class CoreRemoteMongoCollectionUnitTests {
     final Document doc1 = new Document("one", 2);
     final Document doc2 = new Document("three", 4);
     final Collection<Document> docs = Arrays.asList(doc1, doc2);
-    doReturn(docs)
-        .when(service).callFunction(any(), any(), any(Decoder.class));
+    doAnswer(invocation -> iteratorOf(docs))
+        .when(service).callFunctionForIterator(any(), any(), any(Decoder.class));
 
     CoreRemoteAggregateIterable<Document> iter = coll.aggregate(Collections.emptyList());
     assertEquals(docs, iter.into(new ArrayList<>()));
 
     final ArgumentCaptor<String> funcNameArg = ArgumentCaptor.forClass(String.class);
     final ArgumentCaptor<List> funcArgsArg = ArgumentCaptor.forClass(List.class);
-    final ArgumentCaptor<Decoder<Collection<Document>>> resultClassArg =
+    final ArgumentCaptor<Decoder<Document>> resultClassArg =
         ArgumentCaptor.forClass(Decoder.class);
     verify(service)
-        .callFunction(
+        .callFunctionForIterator(
             funcNameArg.capture(),
             funcArgsArg.capture(),
             resultClassArg.capture());
@@ -375,7 +388,7 @@ public class CoreRemoteMongoCollectionUnitTests {
     expectedArgs.put("collection", "collName1");
     expectedArgs.put("pipeline", new ArrayList<BsonDocument>());
     assertEquals(expectedArgs, funcArgsArg.getValue().get(0));
-    assertEquals(CollectionDecoder.class, resultClassArg.getValue().getClass());
+    assertEquals(DocumentCodec.class, resultClassArg.getValue().getClass());
 
     iter = coll.aggregate(Arrays.asList(new Document("$match", 1), new Document("sort", 2)));
     final List<BsonDocument> expectedPipeline = Arrays.asList(
@@ -384,7 +397,7 @@ public class CoreRemoteMongoCollectionUnitTests {
 
     assertEquals(docs, iter.into(new ArrayList<>()));
     verify(service, times(2))
-        .callFunction(
+        .callFunctionForIterator(
             funcNameArg.capture(),
             funcArgsArg.capture(),
             resultClassArg.capture());
@@ -393,11 +406,11 @@ public class CoreRemoteMongoCollectionUnitTests {
     assertEquals(1, funcArgsArg.getValue().size());
     expectedArgs.put("pipeline", expectedPipeline);
     assertEquals(expectedArgs, funcArgsArg.getValue().get(0));
-    assertEquals(CollectionDecoder.class, resultClassArg.getValue().getClass());
+    assertEquals(DocumentCodec.class, resultClassArg.getValue().getClass());
 
     // Should pass along errors
     doThrow(new IllegalArgumentException("whoops"))
-        .when(service).callFunction(anyString(), anyList(), any(Decoder.class));
+        .when(service).callFunctionForIterator(anyString(), anyList(), any(Decoder.class));
     assertThrows(() -> coll.aggregate(Collections.emptyList()).first(),
         IllegalArgumentException.class);
   }
@@ -449,6 +462,7 @@ public class CoreRemoteMongoCollectionUnitTests {
         Arrays.asList(
             doc1.toBsonDocument(null, BsonUtils.DEFAULT_CODEC_REGISTRY),
             doc2.toBsonDocument(null, BsonUtils.DEFAULT_CODEC_REGISTRY)));
+    expectedArgs.put("ordered", true);
     assertEquals(expectedArgs, funcArgsArg.getValue().get(0));
     assertEquals(ResultDecoders.insertManyResultDecoder, resultClassArg.getValue());
 
@@ -459,6 +473,111 @@ public class CoreRemoteMongoCollectionUnitTests {
         IllegalArgumentException.class);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBulkWrite() {
+    final CoreStitchServiceClient service = Mockito.mock(CoreStitchServiceClient.class);
+    when(service.getCodecRegistry()).thenReturn(BsonUtils.DEFAULT_CODEC_REGISTRY);
+    final CoreRemoteMongoClient client =
+        CoreRemoteClientFactory.getClient(
+            service,
+            getClientInfo(),
+            ServerEmbeddedMongoClientFactory.getInstance());
+    final CoreRemoteMongoCollection<Document> coll = getCollection(client);
+
+    final BsonObjectId id = new BsonObjectId();
+    final List<RemoteBulkWriteResult.WriteModelResult> results = Arrays.asList(
+        new RemoteBulkWriteResult.WriteModelResult(0, 0, 0, id, null, null, null),
+        new RemoteBulkWriteResult.WriteModelResult(1, 1, 0, null, null, null, null),
+        new RemoteBulkWriteResult.WriteModelResult(0, 0, 0, null, null, 11000, "E11000"));
+    doReturn(new RemoteBulkWriteResult(results))
+        .when(service).callFunction(any(), any(), any(Decoder.class));
+
+    final Document doc = new Document("_id", id.getValue()).append("one", 2);
+    final RemoteBulkWriteResult result = coll.bulkWrite(Arrays.asList(
+        new InsertOneModel<>(doc),
+        new UpdateOneModel<>(new Document("one", 2), new Document("$inc", new Document("one", 1))),
+        new DeleteOneModel<>(new Document("three", 4))),
+        new RemoteBulkWriteOptions().ordered(false));
+    assertEquals(results, result.getResults());
+    assertTrue(result.hasErrors());
+
+    final ArgumentCaptor<String> funcNameArg = ArgumentCaptor.forClass(String.class);
+    final ArgumentCaptor<List> funcArgsArg = ArgumentCaptor.forClass(List.class);
+    final ArgumentCaptor<Decoder<RemoteBulkWriteResult>> resultClassArg =
+        ArgumentCaptor.forClass(Decoder.class);
+    verify(service)
+        .callFunction(
+            funcNameArg.capture(),
+            funcArgsArg.capture(),
+            resultClassArg.capture());
+
+    assertEquals("bulkWrite", funcNameArg.getValue());
+    assertEquals(1, funcArgsArg.getValue().size());
+    final Document expectedArgs = new Document();
+    expectedArgs.put("database", "dbName1");
+    expectedArgs.put("collection", "collName1");
+    expectedArgs.put("operations", Arrays.asList(
+        new BsonDocument("insertOne", new BsonDocument(
+            "document", doc.toBsonDocument(null, BsonUtils.DEFAULT_CODEC_REGISTRY))),
+        new BsonDocument("updateOne", new BsonDocument()
+            .append("filter", new BsonDocument("one", new BsonInt32(2)))
+            .append("update", new BsonDocument("$inc", new BsonDocument("one", new BsonInt32(1))))
+            .append("upsert", BsonBoolean.FALSE)),
+        new BsonDocument("deleteOne", new BsonDocument(
+            "filter", new BsonDocument("three", new BsonInt32(4))))));
+    expectedArgs.put("ordered", false);
+    assertEquals(expectedArgs, funcArgsArg.getValue().get(0));
+    assertEquals(ResultDecoders.bulkWriteResultDecoder, resultClassArg.getValue());
+
+    // Writes are ordered by default
+    coll.bulkWrite(Collections.singletonList(new DeleteOneModel<>(new Document())));
+    verify(service, times(2))
+        .callFunction(
+            funcNameArg.capture(),
+            funcArgsArg.capture(),
+            resultClassArg.capture());
+    assertEquals(true, ((Document) funcArgsArg.getValue().get(0)).get("ordered"));
+
+    // Should pass along errors
+    doThrow(new IllegalArgumentException("whoops"))
+        .when(service).callFunction(any(), any(), any(Decoder.class));
+    assertThrows(() -> coll.bulkWrite(Collections.singletonList(new InsertOneModel<>(doc))),
+        IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testBulkWriteResultDecoder() {
+    final BsonObjectId id = new BsonObjectId();
+    final BsonDocument response = BsonDocument.parse(String.format("{results: ["
+        + "{insertedId: {$oid: '%s'}},"
+        + "{matchedCount: 1, modifiedCount: 1},"
+        + "{deletedCount: {$numberLong: '0'}},"
+        + "{error: {code: 11000, message: 'E11000 duplicate key error'}}]}",
+        id.getValue().toHexString()));
+
+    final RemoteBulkWriteResult result = ResultDecoders.bulkWriteResultDecoder.decode(
+        new BsonDocumentReader(response), DecoderContext.builder().build());
+    assertEquals(4, result.getResults().size());
+    assertTrue(result.hasErrors());
+
+    final RemoteBulkWriteResult.WriteModelResult insertResult = result.getResults().get(0);
+    assertEquals(id, insertResult.getInsertedId());
+    assertFalse(insertResult.hasError());
+
+    final RemoteBulkWriteResult.WriteModelResult updateResult = result.getResults().get(1);
+    assertEquals(1, updateResult.getMatchedCount());
+    assertEquals(1, updateResult.getModifiedCount());
+    assertNull(updateResult.getUpsertedId());
+
+    assertEquals(0, result.getResults().get(2).getDeletedCount());
+
+    final RemoteBulkWriteResult.WriteModelResult errorResult = result.getResults().get(3);
+    assertTrue(errorResult.hasError());
+    assertEquals(Integer.valueOf(11000), errorResult.getErrorCode());
+    assertEquals("E11000 duplicate key error", errorResult.getErrorMessage());
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testDeleteOne() {
@@ -1197,4 +1316,23 @@ public class CoreRemoteMongoCollectionUnitTests {
     assertEquals(ResultDecoders.compactChangeEventDecoder(new DocumentCodec()),
         decoderArgumentCaptor.getValue());
   }
+
+  private static <T> CloseableIterator<T> iteratorOf(final Collection<T> values) {
+    final Iterator<T> iterator = values.iterator();
+    return new CloseableIterator<T>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public T next() {
+        return iterator.next();
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
 }
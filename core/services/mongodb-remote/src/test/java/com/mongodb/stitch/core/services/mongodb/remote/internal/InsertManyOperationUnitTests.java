@@ -0,0 +1,278 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.mongodb.remote.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.stitch.core.StitchServiceErrorCode;
+import com.mongodb.stitch.core.StitchServiceException;
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.common.Callback;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyException;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.Decoder;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class InsertManyOperationUnitTests {
+  private static final MongoNamespace NAMESPACE = new MongoNamespace("db", "coll");
+  private static final int MAX_CHUNK_SIZE = 4096;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+  private final List<List<BsonDocument>> requests = Collections.synchronizedList(new ArrayList<>());
+  private final List<Boolean> orderedArgs = Collections.synchronizedList(new ArrayList<>());
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSmallInsertIsOneRequest() {
+    final CoreStitchServiceClient service = newService(-1);
+    final List<BsonDocument> docs = newDocuments(10, 10);
+
+    final RemoteInsertManyResult result =
+        new InsertManyOperation(NAMESPACE, docs, true, MAX_CHUNK_SIZE).execute(service);
+
+    assertEquals(Collections.singletonList(docs), requests);
+    assertEquals(expectedIds(docs), result.getInsertedIds());
+    verify(service, never()).callFunctionAsync(
+        any(), anyList(), isNull(), any(Decoder.class), any(Callback.class));
+  }
+
+  @Test
+  public void testChunksBySize() {
+    final List<BsonDocument> docs = newDocuments(100, 200);
+    final List<List<BsonDocument>> chunks =
+        new InsertManyOperation(NAMESPACE, docs, true, MAX_CHUNK_SIZE).getChunks();
+
+    assertTrue(chunks.size() > 1);
+    final List<BsonDocument> rejoined = new ArrayList<>();
+    for (final List<BsonDocument> chunk : chunks) {
+      int size = 0;
+      for (final BsonDocument doc : chunk) {
+        size += BsonUtils.getEncodedSize(doc);
+      }
+      assertTrue(size <= MAX_CHUNK_SIZE);
+      rejoined.addAll(chunk);
+    }
+    assertEquals(docs, rejoined);
+
+    // a document larger than a chunk still gets one of its own
+    final List<BsonDocument> withLargeDoc = newDocuments(3, 10);
+    withLargeDoc.add(1, newDocument(1000, MAX_CHUNK_SIZE * 2));
+    final List<List<BsonDocument>> largeChunks =
+        new InsertManyOperation(NAMESPACE, withLargeDoc, true, MAX_CHUNK_SIZE).getChunks();
+    assertEquals(3, largeChunks.size());
+    assertEquals(Collections.singletonList(withLargeDoc.get(1)), largeChunks.get(1));
+  }
+
+  @Test
+  public void testOrderedInsertRunsChunksInOrder() {
+    final CoreStitchServiceClient service = newService(-1);
+    final List<BsonDocument> docs = newDocuments(100, 200);
+
+    final RemoteInsertManyResult result =
+        new InsertManyOperation(NAMESPACE, docs, true, MAX_CHUNK_SIZE).execute(service);
+
+    assertTrue(requests.size() > 1);
+    final List<BsonDocument> sent = new ArrayList<>();
+    requests.forEach(sent::addAll);
+    assertEquals(docs, sent);
+    assertEquals(expectedIds(docs), result.getInsertedIds());
+    assertEquals(Collections.nCopies(requests.size(), true), orderedArgs);
+  }
+
+  @Test
+  public void testOrderedInsertStopsAtFirstFailure() {
+    final CoreStitchServiceClient service = newService(1);
+    final List<BsonDocument> docs = newDocuments(100, 200);
+
+    try {
+      new InsertManyOperation(NAMESPACE, docs, true, MAX_CHUNK_SIZE).execute(service);
+      fail("expected the insert to fail");
+    } catch (final RemoteInsertManyException e) {
+      assertEquals(
+          StitchServiceErrorCode.MONGODB_ERROR,
+          ((StitchServiceException) e.getCause()).getErrorCode());
+
+      // the documents of the request before the failed one were inserted
+      assertEquals(expectedIds(docs.subList(0, requests.get(0).size())),
+          e.getResult().getInsertedIds());
+    }
+    assertEquals(2, requests.size());
+  }
+
+  @Test
+  public void testUnorderedInsertRunsChunksInParallel() {
+    final CoreStitchServiceClient service = newService(-1);
+    final List<BsonDocument> docs = newDocuments(300, 200);
+
+    final RemoteInsertManyResult result =
+        new InsertManyOperation(NAMESPACE, docs, false, MAX_CHUNK_SIZE).execute(service);
+
+    assertTrue(requests.size() > InsertManyOperation.MAX_CHUNKS_IN_FLIGHT);
+    assertEquals(expectedIds(docs), result.getInsertedIds());
+    assertEquals(Collections.nCopies(requests.size(), false), orderedArgs);
+    assertTrue(maxInFlight.get() > 1);
+    assertTrue(maxInFlight.get() <= InsertManyOperation.MAX_CHUNKS_IN_FLIGHT);
+  }
+
+  @Test
+  public void testUnorderedInsertAttemptsAllChunks() {
+    final CoreStitchServiceClient service = newService(1);
+    final List<BsonDocument> docs = newDocuments(100, 200);
+    final int chunks =
+        new InsertManyOperation(NAMESPACE, docs, false, MAX_CHUNK_SIZE).getChunks().size();
+
+    try {
+      new InsertManyOperation(NAMESPACE, docs, false, MAX_CHUNK_SIZE).execute(service);
+      fail("expected the insert to fail");
+    } catch (final RemoteInsertManyException e) {
+      assertEquals(
+          StitchServiceErrorCode.MONGODB_ERROR,
+          ((StitchServiceException) e.getCause()).getErrorCode());
+
+      // the documents of every request but the failed one were inserted
+      final Map<Long, BsonValue> insertedIds = e.getResult().getInsertedIds();
+      assertEquals(docs.size() - requests.get(1).size(), insertedIds.size());
+      for (final BsonDocument doc : requests.get(1)) {
+        assertFalse(insertedIds.containsValue(doc.get("_id")));
+      }
+      for (final Map.Entry<Long, BsonValue> id : insertedIds.entrySet()) {
+        assertEquals(docs.get(id.getKey().intValue()).get("_id"), id.getValue());
+      }
+    }
+    assertEquals(chunks, requests.size());
+  }
+
+  private static BsonDocument newDocument(final int id, final int padding) {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < padding; i++) {
+      builder.append('x');
+    }
+    return new BsonDocument("_id", new BsonInt32(id))
+        .append("data", new BsonString(builder.toString()));
+  }
+
+  private static List<BsonDocument> newDocuments(final int count, final int padding) {
+    final List<BsonDocument> docs = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      docs.add(newDocument(i, padding));
+    }
+    return docs;
+  }
+
+  private static Map<Long, BsonValue> expectedIds(final List<BsonDocument> docs) {
+    final Map<Long, BsonValue> ids = new HashMap<>();
+    for (int i = 0; i < docs.size(); i++) {
+      ids.put((long) i, docs.get(i).get("_id"));
+    }
+    return ids;
+  }
+
+  /**
+   * Creates a service that inserts whatever it is given, failing the request with the given
+   * index, if any.
+   */
+  @SuppressWarnings("unchecked")
+  private CoreStitchServiceClient newService(final int failingRequest) {
+    final CoreStitchServiceClient service = Mockito.mock(CoreStitchServiceClient.class);
+    doAnswer(invocation -> {
+      final List<BsonDocument> chunk = record(invocation.getArgument(1));
+      if (requests.indexOf(chunk) == failingRequest) {
+        throw new StitchServiceException(StitchServiceErrorCode.MONGODB_ERROR);
+      }
+      return resultOf(chunk);
+    }).when(service).callFunction(
+        eq("insertMany"), anyList(), any(Decoder.class));
+    doAnswer(invocation -> {
+      final List<BsonDocument> chunk = record(invocation.getArgument(1));
+      final boolean fails = requests.indexOf(chunk) == failingRequest;
+      final int current = inFlight.incrementAndGet();
+      maxInFlight.accumulateAndGet(current, Math::max);
+      final Callback<RemoteInsertManyResult, Exception> callback = invocation.getArgument(4);
+      executor.submit(() -> {
+        try {
+          Thread.sleep(5);
+        } catch (final InterruptedException e) {
+          return;
+        }
+        inFlight.decrementAndGet();
+        if (fails) {
+          callback.onComplete(OperationResult.failedResultOf(
+              new StitchServiceException(StitchServiceErrorCode.MONGODB_ERROR)));
+        } else {
+          callback.onComplete(OperationResult.successfulResultOf(resultOf(chunk)));
+        }
+      });
+      return null;
+    }).when(service).callFunctionAsync(
+        eq("insertMany"), anyList(), isNull(), any(Decoder.class), any(Callback.class));
+    return service;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<BsonDocument> record(final List<?> functionArgs) {
+    final Document args = (Document) functionArgs.get(0);
+    final List<BsonDocument> chunk = (List<BsonDocument>) args.get("documents");
+    requests.add(chunk);
+    orderedArgs.add(args.getBoolean("ordered"));
+    return chunk;
+  }
+
+  private static RemoteInsertManyResult resultOf(final List<BsonDocument> chunk) {
+    final Map<Long, BsonValue> ids = new HashMap<>();
+    for (int i = 0; i < chunk.size(); i++) {
+      ids.put((long) i, chunk.get(i).get("_id"));
+    }
+    return new RemoteInsertManyResult(ids);
+  }
+}
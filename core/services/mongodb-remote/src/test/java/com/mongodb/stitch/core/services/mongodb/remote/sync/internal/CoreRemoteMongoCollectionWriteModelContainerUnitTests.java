@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
+import com.mongodb.stitch.core.services.mongodb.remote.internal.CoreRemoteMongoCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.conversions.Bson;
+import org.junit.Test;
+
+public class CoreRemoteMongoCollectionWriteModelContainerUnitTests {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCommitIsOneBulkWrite() {
+    final CoreRemoteMongoCollection<BsonDocument> collection =
+        mock(CoreRemoteMongoCollection.class);
+    final CoreRemoteMongoCollectionWriteModelContainer<BsonDocument> container =
+        new CoreRemoteMongoCollectionWriteModelContainer<>(collection);
+
+    // nothing to commit makes no request
+    assertTrue(container.commitAndClear());
+    verify(collection, never()).bulkWrite(anyList());
+
+    final List<WriteModel<BsonDocument>> writes = Arrays.asList(
+        new ReplaceOneModel<>(idFilter(1), new BsonDocument("_id", new BsonInt32(1))),
+        new UpdateOneModel<>(idFilter(2), new BsonDocument("$set", new BsonDocument())),
+        new UpdateManyModel<>(idFilter(3), new BsonDocument("$set", new BsonDocument())));
+    for (final WriteModel<BsonDocument> write : writes) {
+      container.add(write);
+    }
+
+    final List<WriteModel<BsonDocument>> requests = new ArrayList<>();
+    when(collection.bulkWrite(anyList())).thenAnswer(invocation -> {
+      requests.addAll(invocation.getArgument(0));
+      return new RemoteBulkWriteResult(Arrays.asList(
+          result(1, 1, null), result(1, 1, null), result(2, 2, null)));
+    });
+    assertTrue(container.commitAndClear());
+    assertEquals(writes, requests);
+
+    // a write that fails or leaves a matched document unmodified fails the commit
+    for (final WriteModel<BsonDocument> write : writes) {
+      container.add(write);
+    }
+    when(collection.bulkWrite(anyList())).thenReturn(new RemoteBulkWriteResult(Arrays.asList(
+        result(1, 1, null), result(1, 0, null), result(2, 2, null))));
+    assertFalse(container.commitAndClear());
+
+    container.add(writes.get(0));
+    when(collection.bulkWrite(anyList())).thenReturn(new RemoteBulkWriteResult(Arrays.asList(
+        result(0, 0, 11000))));
+    assertFalse(container.commitAndClear());
+
+    verify(collection, times(3)).bulkWrite(anyList());
+    verify(collection, never()).updateOne(any(Bson.class), any(Bson.class));
+    verify(collection, never()).updateMany(any(Bson.class), any(Bson.class));
+  }
+
+  private static BsonDocument idFilter(final int id) {
+    return new BsonDocument("_id", new BsonInt32(id));
+  }
+
+  private static RemoteBulkWriteResult.WriteModelResult result(
+      final long matchedCount,
+      final long modifiedCount,
+      final Integer errorCode
+  ) {
+    return new RemoteBulkWriteResult.WriteModelResult(
+        matchedCount, modifiedCount, 0, null, null, errorCode, null);
+  }
+}
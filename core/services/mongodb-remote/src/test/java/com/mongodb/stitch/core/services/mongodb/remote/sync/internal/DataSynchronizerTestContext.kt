@@ -15,6 +15,7 @@ import org.bson.BsonDocument
 import org.bson.BsonValue
 import org.bson.Document
 import java.io.Closeable
+import java.io.File
 import java.lang.Exception
 
 /**
@@ -46,6 +47,11 @@ interface DataSynchronizerTestContext : Closeable {
 
     val localClient: MongoClient
 
+    /**
+     * The file in which the data synchronizer journals local writes.
+     */
+    val localWriteJournalFile: File
+
     /**
      * Whether or not we are online. Acts as a switch.
      */
@@ -1,5 +1,12 @@
 package com.mongodb.stitch.core.services.mongodb.remote.sync.internal
 
+import com.mongodb.client.MongoCollection
+import com.mongodb.client.model.FindOneAndUpdateOptions
+import com.mongodb.client.model.UpdateOptions
+import com.mongodb.stitch.core.StitchServiceErrorCode
+import com.mongodb.stitch.core.StitchServiceException
+import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateResult
 import com.mongodb.stitch.core.services.mongodb.remote.UpdateDescription
 import com.mongodb.stitch.core.services.mongodb.remote.internal.CoreRemoteFindIterable
@@ -10,8 +17,11 @@ import com.mongodb.stitch.server.services.mongodb.local.internal.ServerEmbeddedM
 import org.bson.BsonBoolean
 import org.bson.BsonDocument
 import org.bson.BsonInt32
+import org.bson.BsonInt64
 import org.bson.BsonObjectId
 import org.bson.BsonString
+import org.bson.BsonValue
+import org.bson.conversions.Bson
 
 import org.junit.After
 import org.junit.Assert.assertEquals
@@ -19,16 +29,25 @@ import org.junit.Assert.assertFalse
 import org.junit.Assert.assertNotNull
 import org.junit.Assert.assertNull
 import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
 import org.junit.Test
+import org.mockito.AdditionalAnswers.delegatesTo
 import org.mockito.ArgumentCaptor
 import org.mockito.ArgumentMatchers.any
 import org.mockito.ArgumentMatchers.eq
 import org.mockito.Mockito.`when`
+import org.mockito.Mockito.clearInvocations
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.doReturn
+import org.mockito.Mockito.doThrow
 import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
 import java.lang.Exception
 import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
 
 class DataSynchronizerUnitTests {
     private val harness = SyncUnitTestHarness()
@@ -918,6 +937,10 @@ class DataSynchronizerUnitTests {
         // a previous completed update event is pending but uncommitted
         origCtx.updateTestDocument()
 
+        // the previous update completed, so its config was saved
+        origCtx.dataSynchronizer.saveDocumentConfigs(
+                origCtx.dataSynchronizer.syncConfig.getNamespaceConfig(origCtx.namespace))
+
         val expectedTestDocument = origCtx.testDocument.clone()
 
         expectedTestDocument["count"] = BsonInt32(2)
@@ -988,7 +1011,7 @@ class DataSynchronizerUnitTests {
     fun testReinitialize() {
         val ctx = harness.freshTestContext(false)
 
-        ctx.dataSynchronizer.reinitialize(ctx.localClient)
+        ctx.dataSynchronizer.reinitialize(ctx.localClient, ctx.localWriteJournalFile)
         ctx.dataSynchronizer.waitUntilInitialized()
 
         ctx.verifyStopCalled(1)
@@ -1019,6 +1042,7 @@ class DataSynchronizerUnitTests {
         `when`(mockEmptyFindResult
                 .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
                 .thenReturn(HashSet())
+        doReturn(mockEmptyFindResult).`when`(mockEmptyFindResult).projection(any())
         @Suppress("UNCHECKED_CAST")
         `when`(ctx.collectionMock.find(any()))
                 .thenReturn(mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>)
@@ -1030,6 +1054,322 @@ class DataSynchronizerUnitTests {
         verify(ctx.collectionMock, times(1)).find(any())
     }
 
+    @Test
+    fun testStaleDocumentFetchedOnlyIfVersionChanged() {
+        val ctx = harness.freshTestContext()
+
+        ctx.insertTestDocument()
+        ctx.doSyncPass()
+        val lastKnownVersion = ctx.findTestDocumentConfig()!!.lastKnownRemoteVersion
+        assertNotNull(lastKnownVersion)
+
+        // the remote version is the one last seen, so only versions are fetched
+        val versionFindResult = mock(CoreRemoteFindIterableImpl::class.java)
+        doReturn(versionFindResult).`when`(versionFindResult).projection(any())
+        @Suppress("UNCHECKED_CAST")
+        `when`(versionFindResult
+                .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
+                .thenReturn(hashSetOf<Any>(BsonDocument("_id", ctx.testDocumentId)
+                        .append(DataSynchronizer.DOCUMENT_VERSION_FIELD, lastKnownVersion)))
+        @Suppress("UNCHECKED_CAST")
+        `when`(ctx.collectionMock.find(any()))
+                .thenReturn(versionFindResult as CoreRemoteFindIterable<BsonDocument>)
+        clearInvocations(ctx.collectionMock)
+
+        ctx.findTestNamespaceConfig()!!.setStale(true)
+        ctx.doSyncPass()
+
+        verify(ctx.collectionMock, times(1)).find(any())
+        verify(versionFindResult, times(1)).projection(
+                eq(BsonDocument(DataSynchronizer.DOCUMENT_VERSION_FIELD, BsonInt32(1))))
+        assertEquals(ctx.testDocument, ctx.findTestDocumentFromLocalCollection())
+        assertTrue(ctx.findTestNamespaceConfig()!!.staleDocumentIds.isEmpty())
+
+        // the remote version has changed, so the full document is fetched as well
+        val newVersion = lastKnownVersion!!.clone()
+                .append("v", BsonInt64(lastKnownVersion.getInt64("v").value + 1))
+        val remoteDocument = ctx.testDocument.clone()
+                .append("hello", BsonString("dolly"))
+        @Suppress("UNCHECKED_CAST")
+        `when`(versionFindResult
+                .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
+                .thenReturn(
+                        hashSetOf<Any>(BsonDocument("_id", ctx.testDocumentId)
+                                .append(DataSynchronizer.DOCUMENT_VERSION_FIELD, newVersion)),
+                        hashSetOf<Any>(remoteDocument.clone()
+                                .append(DataSynchronizer.DOCUMENT_VERSION_FIELD, newVersion)))
+        clearInvocations(ctx.collectionMock)
+
+        ctx.findTestNamespaceConfig()!!.setStale(true)
+        ctx.doSyncPass()
+
+        verify(ctx.collectionMock, times(2)).find(any())
+        assertEquals(remoteDocument, ctx.findTestDocumentFromLocalCollection())
+        assertEquals(newVersion, ctx.findTestDocumentConfig()!!.lastKnownRemoteVersion)
+    }
+
+    @Test
+    fun testStaleDocumentsFetchedInPages() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        val mockEmptyFindResult = mock(CoreRemoteFindIterableImpl::class.java)
+        @Suppress("UNCHECKED_CAST")
+        `when`(mockEmptyFindResult
+                .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
+                .thenReturn(HashSet())
+        doReturn(mockEmptyFindResult).`when`(mockEmptyFindResult).projection(any())
+        @Suppress("UNCHECKED_CAST")
+        `when`(ctx.collectionMock.find(any()))
+                .thenReturn(mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>)
+        clearInvocations(ctx.collectionMock)
+
+        // one more document than fits in a page is fetched by two requests
+        val documentIds = (0..DataSynchronizer.STALE_DOCUMENTS_PAGE_SIZE).map { BsonObjectId() }
+        ctx.dataSynchronizer.syncDocumentsFromRemote(ctx.namespace, *documentIds.toTypedArray())
+        ctx.doSyncPass()
+
+        val filterCaptor = ArgumentCaptor.forClass(BsonDocument::class.java)
+        verify(ctx.collectionMock, times(2)).find(filterCaptor.capture())
+        val fetchedIds = filterCaptor.allValues.flatMap {
+            it.getDocument("_id").getArray("\$in").values
+        }
+        assertEquals(documentIds.toSet(), fetchedIds.toSet())
+        assertEquals(documentIds.size, fetchedIds.size)
+        assertTrue(ctx.findTestNamespaceConfig()!!.staleDocumentIds.isEmpty())
+    }
+
+    @Test
+    fun testStalePagesCommittedBeforeFailureAreNotFetchedAgain() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        val mockEmptyFindResult = mock(CoreRemoteFindIterableImpl::class.java)
+        @Suppress("UNCHECKED_CAST")
+        `when`(mockEmptyFindResult
+                .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
+                .thenReturn(HashSet())
+        doReturn(mockEmptyFindResult).`when`(mockEmptyFindResult).projection(any())
+        @Suppress("UNCHECKED_CAST")
+        `when`(ctx.collectionMock.find(any()))
+                .thenReturn(mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>)
+
+        val documentIds = (0..DataSynchronizer.STALE_DOCUMENTS_PAGE_SIZE).map { BsonObjectId() }
+        ctx.dataSynchronizer.syncDocumentsFromRemote(ctx.namespace, *documentIds.toTypedArray())
+        ctx.doSyncPass()
+        val nsConfig = ctx.findTestNamespaceConfig()!!
+        assertTrue(nsConfig.staleDocumentIds.isEmpty())
+
+        // the whole namespace goes stale, and fetching the page holding a single document fails
+        // once the other page has been committed
+        @Suppress("UNCHECKED_CAST")
+        `when`(ctx.collectionMock.find(any())).thenAnswer {
+            val ids = it.getArgument<BsonDocument>(0).getDocument("_id").getArray("\$in").values
+            if (ids.size > 1) {
+                return@thenAnswer mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>
+            }
+            val deadline = System.currentTimeMillis() + 10000
+            while (documentIds.any { id ->
+                    id != ids[0] && nsConfig.getSynchronizedDocument(id)!!.isStale }) {
+                assertTrue(System.currentTimeMillis() < deadline)
+                Thread.sleep(10)
+            }
+            throw StitchServiceException("bad", StitchServiceErrorCode.UNKNOWN)
+        }
+        nsConfig.setStale(true)
+        try {
+            ctx.doSyncPass()
+            fail("expected the sync pass to fail")
+        } catch (e: StitchServiceException) {
+            assertEquals(StitchServiceErrorCode.UNKNOWN, e.errorCode)
+        }
+        val failedIds = nsConfig.staleDocumentIds
+        assertEquals(1, failedIds.size)
+
+        // so only the page that was not committed is fetched by the next pass
+        @Suppress("UNCHECKED_CAST")
+        `when`(ctx.collectionMock.find(any()))
+                .thenReturn(mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>)
+        clearInvocations(ctx.collectionMock)
+        ctx.doSyncPass()
+
+        val filterCaptor = ArgumentCaptor.forClass(BsonDocument::class.java)
+        verify(ctx.collectionMock, times(1)).find(filterCaptor.capture())
+        assertEquals(
+            failedIds,
+            filterCaptor.value.getDocument("_id").getArray("\$in").values.toSet())
+        assertTrue(nsConfig.staleDocumentIds.isEmpty())
+    }
+
+    @Test
+    fun testDocumentsSyncedAfterStreamResumedAreFetched() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        val mockEmptyFindResult = mock(CoreRemoteFindIterableImpl::class.java)
+        @Suppress("UNCHECKED_CAST")
+        `when`(mockEmptyFindResult
+                .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
+                .thenReturn(HashSet())
+        doReturn(mockEmptyFindResult).`when`(mockEmptyFindResult).projection(any())
+        @Suppress("UNCHECKED_CAST")
+        `when`(ctx.collectionMock.find(any()))
+                .thenReturn(mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>)
+
+        ctx.dataSynchronizer.syncDocumentsFromRemote(ctx.namespace, ctx.testDocumentId)
+        ctx.waitForDataSynchronizerStreams()
+        ctx.doSyncPass()
+        val nsConfig = ctx.findTestNamespaceConfig()!!
+        assertTrue(nsConfig.staleDocumentIds.isEmpty())
+
+        // once the stream can be resumed, reopening it to watch more documents does not mark
+        // the namespace as stale, but the documents newly synchronized are still stale
+        nsConfig.setResumeToken(BsonDocument("_data", BsonString("resumeToken")))
+        clearInvocations(ctx.collectionMock)
+        val documentIds = listOf(BsonObjectId(), BsonObjectId())
+        ctx.dataSynchronizer.syncDocumentsFromRemote(ctx.namespace, *documentIds.toTypedArray())
+        ctx.waitForDataSynchronizerStreams()
+        assertEquals(documentIds.toSet(), nsConfig.staleDocumentIds)
+
+        // and so they are fetched from the remote by the next pass
+        ctx.doSyncPass()
+        val filterCaptor = ArgumentCaptor.forClass(BsonDocument::class.java)
+        verify(ctx.collectionMock, times(1)).find(filterCaptor.capture())
+        assertEquals(
+            documentIds.toSet(),
+            filterCaptor.value.getDocument("_id").getArray("\$in").values.toSet())
+        assertTrue(nsConfig.staleDocumentIds.isEmpty())
+    }
+
+    @Test
+    fun testResumeTokenPersistedOnceEventsApplied() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        ctx.dataSynchronizer.syncDocumentsFromRemote(ctx.namespace, ctx.testDocumentId)
+        ctx.waitForDataSynchronizerStreams()
+        ctx.doSyncPass()
+        val nsConfig = ctx.findTestNamespaceConfig()!!
+        assertNull(nsConfig.resumeToken)
+
+        val resumeToken = BsonDocument("_data", BsonString("resumeToken"))
+        val eventsWithToken = NamespaceChangeEvents(
+            mapOf<BsonValue, ChangeEvent<BsonDocument>>(ctx.testDocumentId to
+                ChangeEvents.changeEventForLocalInsert(ctx.namespace, ctx.testDocument, false)),
+            resumeToken)
+
+        // a pass that fails after the events were handed off to it does not persist their
+        // resume token, and marks the namespace as stale since the events are gone
+        val staleDocumentId = BsonObjectId()
+        ctx.dataSynchronizer.syncDocumentsFromRemote(ctx.namespace, staleDocumentId)
+        doThrow(IllegalStateException("find failed")).`when`(ctx.collectionMock).find(any())
+        `when`(ctx.dataSynchronizer.getEventsForNamespace(any())).thenReturn(eventsWithToken)
+        try {
+            ctx.doSyncPass()
+            fail("expected the sync pass to fail")
+        } catch (e: IllegalStateException) {
+            assertEquals("find failed", e.message)
+        }
+        assertNull(nsConfig.resumeToken)
+        assertEquals(setOf(ctx.testDocumentId, staleDocumentId), nsConfig.staleDocumentIds)
+
+        // a pass that applies the events persists their resume token
+        val mockEmptyFindResult = mock(CoreRemoteFindIterableImpl::class.java)
+        @Suppress("UNCHECKED_CAST")
+        `when`(mockEmptyFindResult
+                .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
+                .thenReturn(HashSet())
+        doReturn(mockEmptyFindResult).`when`(mockEmptyFindResult).projection(any())
+        doReturn(mockEmptyFindResult).`when`(ctx.collectionMock).find(any())
+        `when`(ctx.dataSynchronizer.getEventsForNamespace(any())).thenReturn(eventsWithToken)
+        ctx.doSyncPass()
+        assertEquals(resumeToken, nsConfig.resumeToken)
+        assertEquals(ctx.testDocumentId, ctx.findTestDocumentFromLocalCollection()?.get("_id"))
+        assertTrue(nsConfig.staleDocumentIds.isEmpty())
+    }
+
+    @Test
+    fun testBulkWriteFallsBackToSingleWritesOnlyIfUnsupported() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        val doc1 = BsonDocument("hello", BsonString("world"))
+        val doc2 = BsonDocument("hello", BsonString("computer"))
+        ctx.dataSynchronizer.insertMany(ctx.namespace, listOf(doc1, doc2))
+
+        // a server without a bulk write function has each write performed on its own
+        doThrow(StitchServiceException(
+            "function not found: 'bulkWrite'", StitchServiceErrorCode.FUNCTION_NOT_FOUND))
+            .`when`(ctx.collectionMock).bulkWrite(any(), any())
+        ctx.doSyncPass()
+        verify(ctx.collectionMock, times(1)).bulkWrite(any(), any())
+        verify(ctx.collectionMock, times(2)).insertOne(any())
+        val nsConfig = ctx.findTestNamespaceConfig()!!
+        assertFalse(nsConfig.getSynchronizedDocument(doc1["_id"])!!.hasUncommittedWrites())
+        assertFalse(nsConfig.getSynchronizedDocument(doc2["_id"])!!.hasUncommittedWrites())
+
+        // and is not sent bulk writes again
+        ctx.dataSynchronizer.updateMany(
+            ctx.namespace, BsonDocument(), BsonDocument("\$set", BsonDocument("a", BsonInt32(1))))
+        ctx.doSyncPass()
+        verify(ctx.collectionMock, times(1)).bulkWrite(any(), any())
+        verify(ctx.collectionMock, times(2)).updateOne(any(), any())
+        assertFalse(nsConfig.getSynchronizedDocument(doc1["_id"])!!.hasUncommittedWrites())
+        assertFalse(nsConfig.getSynchronizedDocument(doc2["_id"])!!.hasUncommittedWrites())
+    }
+
+    @Test
+    fun testFailedBulkWriteLeavesWritesPending() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        val doc1 = BsonDocument("hello", BsonString("world"))
+        val doc2 = BsonDocument("hello", BsonString("computer"))
+        ctx.dataSynchronizer.insertMany(ctx.namespace, listOf(doc1, doc2))
+
+        // some of the writes of a failed bulk write may have been applied, so none of them are
+        // replayed on their own, and all of them are left pending
+        doThrow(StitchServiceException("bad", StitchServiceErrorCode.UNKNOWN))
+            .`when`(ctx.collectionMock).bulkWrite(any(), any())
+        ctx.doSyncPass()
+        verify(ctx.collectionMock, times(1)).bulkWrite(any(), any())
+        verify(ctx.collectionMock, never()).insertOne(any())
+        val nsConfig = ctx.findTestNamespaceConfig()!!
+        for (doc in listOf(doc1, doc2)) {
+            val docConfig = nsConfig.getSynchronizedDocument(doc["_id"])!!
+            assertTrue(docConfig.hasUncommittedWrites())
+            assertFalse(docConfig.isPaused)
+        }
+
+        // until the next pass writes them in bulk again
+        val insertResult = RemoteBulkWriteResult.WriteModelResult(0, 0, 0, null, null, null, null)
+        doReturn(RemoteBulkWriteResult(listOf(insertResult, insertResult)))
+            .`when`(ctx.collectionMock).bulkWrite(any(), any())
+        ctx.doSyncPass()
+        verify(ctx.collectionMock, times(2)).bulkWrite(any(), any())
+        verify(ctx.collectionMock, never()).insertOne(any())
+        assertFalse(nsConfig.getSynchronizedDocument(doc1["_id"])!!.hasUncommittedWrites())
+        assertFalse(nsConfig.getSynchronizedDocument(doc2["_id"])!!.hasUncommittedWrites())
+    }
+
     @Test
     fun testMissingDocumentThatAppearsLaterAsInsertEvent() {
         val ctx = harness.freshTestContext()
@@ -1049,6 +1389,7 @@ class DataSynchronizerUnitTests {
         `when`(mockEmptyFindResult
                 .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
                 .thenReturn(HashSet())
+        doReturn(mockEmptyFindResult).`when`(mockEmptyFindResult).projection(any())
         @Suppress("UNCHECKED_CAST")
         `when`(ctx.collectionMock.find(any()))
                 .thenReturn(mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>)
@@ -1079,6 +1420,7 @@ class DataSynchronizerUnitTests {
         `when`(mockEmptyFindResult
                 .into(any(MutableCollection::class.java as Class<MutableCollection<Any>>)))
                 .thenReturn(HashSet())
+        doReturn(mockEmptyFindResult).`when`(mockEmptyFindResult).projection(any())
         @Suppress("UNCHECKED_CAST")
         `when`(ctx.collectionMock.find(any()))
                 .thenReturn(mockEmptyFindResult as CoreRemoteFindIterable<BsonDocument>)
@@ -1134,4 +1476,108 @@ class DataSynchronizerUnitTests {
 
         assertNotNull(ctx.dataSynchronizer.find(ctx.namespace, filter).firstOrNull())
     }
+
+    @Test
+    fun testDeferredSavesReduceConfigCollectionWrites() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        // hold back the saves scheduled by local writes until the test lets them through
+        val nsConfig = ctx.findTestNamespaceConfig()!!
+        val writerThread = Thread.currentThread()
+        val writerSaves = AtomicInteger()
+        val scheduledSaves = AtomicInteger()
+        val releaseScheduledSaves = CountDownLatch(1)
+        doAnswer {
+            if (Thread.currentThread() == writerThread) {
+                writerSaves.incrementAndGet()
+            } else {
+                scheduledSaves.incrementAndGet()
+                releaseScheduledSaves.await()
+            }
+            it.callRealMethod()
+        }.`when`(ctx.dataSynchronizer).saveDocumentConfigs(nsConfig)
+        assertEquals(0, nsConfig.numUnsavedDocumentConfigs)
+
+        // local writes do not save their configs themselves
+        for (i in 1 until DataSynchronizer.MAX_UNSAVED_DOCUMENT_CONFIGS) {
+            ctx.dataSynchronizer.insertOne(ctx.namespace, BsonDocument("count", BsonInt32(i)))
+            assertEquals(i, nsConfig.numUnsavedDocumentConfigs)
+        }
+        assertEquals(0, writerSaves.get())
+
+        // until enough configs are unsaved, when they are all saved at once
+        ctx.dataSynchronizer.insertOne(ctx.namespace, BsonDocument("count", BsonInt32(0)))
+        assertEquals(0, nsConfig.numUnsavedDocumentConfigs)
+        assertEquals(1, writerSaves.get())
+
+        // fewer unsaved configs are saved once the scheduled save runs
+        ctx.dataSynchronizer.insertOne(ctx.namespace, BsonDocument("count", BsonInt32(-1)))
+        assertEquals(1, nsConfig.numUnsavedDocumentConfigs)
+        releaseScheduledSaves.countDown()
+        val deadline = System.currentTimeMillis() +
+            DataSynchronizer.DOCUMENT_CONFIG_SAVE_DELAY_MILLIS + 10000
+        while (nsConfig.numUnsavedDocumentConfigs > 0) {
+            assertTrue(System.currentTimeMillis() < deadline)
+            Thread.sleep(10)
+        }
+        assertTrue(scheduledSaves.get() > 0)
+        assertEquals(1, writerSaves.get())
+    }
+
+    @Test
+    fun testFailedLocalWritesAreCommittedToJournal() {
+        val ctx = harness.freshTestContext()
+
+        ctx.reconfigure()
+
+        ctx.dataSynchronizer.stop()
+
+        val doc = BsonDocument("hello", BsonString("world"))
+        ctx.dataSynchronizer.insertOne(ctx.namespace, doc)
+        val filter = BsonDocument("_id", doc["_id"])
+        val update = BsonDocument("\$set", BsonDocument("a", BsonInt32(1)))
+
+        // every write to the local collection fails after the write has been journaled
+        @Suppress("UNCHECKED_CAST")
+        val localCollection = mock(
+            MongoCollection::class.java,
+            delegatesTo<Any>(ctx.dataSynchronizer.getLocalCollection(ctx.namespace))
+        ) as MongoCollection<BsonDocument>
+        val failure = IllegalStateException("local write failed")
+        doThrow(failure).`when`(localCollection).findOneAndUpdate(
+            any(Bson::class.java), any(Bson::class.java), any(FindOneAndUpdateOptions::class.java))
+        doThrow(failure).`when`(localCollection).updateMany(
+            any(Bson::class.java), any(Bson::class.java), any(UpdateOptions::class.java))
+        doThrow(failure).`when`(localCollection).deleteOne(any(Bson::class.java))
+        doThrow(failure).`when`(localCollection).deleteMany(any(Bson::class.java))
+        doReturn(localCollection).`when`(ctx.dataSynchronizer).getLocalCollection(ctx.namespace)
+
+        val writes = listOf<() -> Unit>(
+            { ctx.dataSynchronizer.updateOne(ctx.namespace, filter, update) },
+            { ctx.dataSynchronizer.updateMany(ctx.namespace, filter, update) },
+            { ctx.dataSynchronizer.deleteOne(ctx.namespace, filter) },
+            { ctx.dataSynchronizer.deleteMany(ctx.namespace, filter) })
+        for (write in writes) {
+            try {
+                write()
+                fail("expected the local write to fail")
+            } catch (e: IllegalStateException) {
+                assertEquals(failure, e)
+            }
+        }
+
+        // none of the failed writes is left in flight, which would keep the journal from ever
+        // being cleared, or rolled back by the next recovery
+        LocalWriteJournal(
+            ctx.localWriteJournalFile,
+            LocalWriteJournal.DEFAULT_MAX_SIZE_BYTES
+        ).use { journal ->
+            assertTrue(journal.uncommittedEntries.isEmpty())
+        }
+        assertNotNull(ctx.dataSynchronizer.find(ctx.namespace, filter).firstOrNull())
+    }
 }
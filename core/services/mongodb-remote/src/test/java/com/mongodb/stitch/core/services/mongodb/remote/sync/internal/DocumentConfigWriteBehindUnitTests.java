@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class DocumentConfigWriteBehindUnitTests {
+
+  private static final MongoNamespace NAMESPACE = new MongoNamespace("db.coll");
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSaveDocumentConfigsCoalescesChanges() {
+    final MongoCollection<CoreDocumentSynchronizationConfig> docsColl = newDocsColl();
+    final NamespaceSynchronizationConfig nsConfig = new NamespaceSynchronizationConfig(
+        mock(MongoCollection.class), docsColl, NAMESPACE);
+
+    final BsonValue documentId = new BsonObjectId();
+    final CoreDocumentSynchronizationConfig docConfig =
+        nsConfig.addUnsavedSynchronizedDocument(documentId);
+    for (int i = 0; i < 10; i++) {
+      docConfig.setSomePendingWritesAndDeferSave(i, ChangeEvents.changeEventForLocalInsert(
+          NAMESPACE, newDoc(documentId, i), true));
+      nsConfig.addUnsavedLocalWrite(i);
+    }
+    final BsonValue removedDocumentId = new BsonObjectId();
+    nsConfig.addUnsavedSynchronizedDocument(removedDocumentId);
+    nsConfig.removeSynchronizedDocument(removedDocumentId);
+    assertEquals(1, nsConfig.getNumUnsavedDocumentConfigs());
+    verify(docsColl, never()).replaceOne(any(Bson.class), any());
+
+    // every change to the document is saved with a single write of its latest state, and the
+    // journal entries of all the writes that made those changes can be committed
+    assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L),
+        nsConfig.saveDocumentConfigs());
+    final ArgumentCaptor<List<WriteModel<CoreDocumentSynchronizationConfig>>> writes =
+        ArgumentCaptor.forClass(List.class);
+    verify(docsColl, times(1)).bulkWrite(writes.capture(), any(BulkWriteOptions.class));
+    assertEquals(1, writes.getValue().size());
+    final ReplaceOneModel<CoreDocumentSynchronizationConfig> write =
+        (ReplaceOneModel<CoreDocumentSynchronizationConfig>) writes.getValue().get(0);
+    assertTrue(write.getReplaceOptions().isUpsert());
+    assertEquals(docConfig, write.getReplacement());
+    assertEquals(
+        newDoc(documentId, 9),
+        write.getReplacement().getLastUncommittedChangeEvent().getFullDocument());
+
+    // nothing is left to save
+    assertEquals(0, nsConfig.getNumUnsavedDocumentConfigs());
+    assertEquals(Collections.emptyList(), nsConfig.saveDocumentConfigs());
+    verify(docsColl, times(1)).bulkWrite(anyList(), any(BulkWriteOptions.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MongoCollection<CoreDocumentSynchronizationConfig> newDocsColl() {
+    final MongoCollection<CoreDocumentSynchronizationConfig> docsColl =
+        mock(MongoCollection.class);
+    final FindIterable<CoreDocumentSynchronizationConfig> findIterable = mock(FindIterable.class);
+    when(docsColl.find(any(BsonDocument.class), any(Class.class))).thenReturn(findIterable);
+    return docsColl;
+  }
+
+  private static BsonDocument newDoc(final BsonValue documentId, final int count) {
+    return new BsonDocument("_id", documentId).append("count", new BsonInt32(count));
+  }
+}
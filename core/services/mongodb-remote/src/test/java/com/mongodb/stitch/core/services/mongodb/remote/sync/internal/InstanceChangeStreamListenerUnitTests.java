@@ -0,0 +1,310 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.stitch.core.internal.common.AuthMonitor;
+import com.mongodb.stitch.core.internal.net.NetworkMonitor;
+import com.mongodb.stitch.core.services.internal.CoreStitchServiceClient;
+import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.Decoder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InstanceChangeStreamListenerUnitTests {
+
+  private static final long TIMEOUT_MILLIS = 10000;
+
+  private LocalChangeStreamServer server;
+  private InstanceSynchronizationConfig instanceConfig;
+  private InstanceChangeStreamListenerImpl listener;
+  private final List<MongoNamespace> namespaces = new ArrayList<>();
+  private final List<BsonValue> documentIds = new ArrayList<>();
+  // run once by the next connectivity check
+  private final AtomicReference<Runnable> onConnectivityCheck = new AtomicReference<>();
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    server = new LocalChangeStreamServer();
+    final CoreStitchServiceClient service = mock(CoreStitchServiceClient.class);
+    doAnswer(invocation -> server.watch(invocation.getArgument(1)))
+        .when(service).streamFunction(eq("watch"), anyList(), any(Decoder.class));
+
+    final NetworkMonitor networkMonitor = mock(NetworkMonitor.class);
+    when(networkMonitor.isConnected()).thenAnswer(invocation -> {
+      final Runnable hook = onConnectivityCheck.getAndSet(null);
+      if (hook != null) {
+        hook.run();
+      }
+      return true;
+    });
+    final AuthMonitor authMonitor = mock(AuthMonitor.class);
+    when(authMonitor.isLoggedIn()).thenReturn(true);
+
+    instanceConfig = mock(InstanceSynchronizationConfig.class);
+    listener = new InstanceChangeStreamListenerImpl(
+        instanceConfig, service, networkMonitor, authMonitor, null);
+  }
+
+  @After
+  public void tearDown() {
+    listener.stop();
+  }
+
+  @Test
+  public void testOneStreamForAllNamespaces() throws Exception {
+    final int numNamespaces = 30;
+    for (int i = 0; i < numNamespaces; i++) {
+      addNamespace();
+    }
+    listener.start();
+    awaitTrue(listener::areAllStreamsOpen);
+
+    // every namespace is watched over the same stream, by the same thread
+    assertEquals(1, server.getNumOpenStreams());
+    assertEquals(1, server.getWatchArgs().size());
+    assertEquals(numNamespaces, getWatchedNamespaces(0).size());
+    assertEquals(1, countRunnerThreads());
+    for (final MongoNamespace namespace : namespaces) {
+      verify(instanceConfig.getNamespaceConfig(namespace)).setStale(true);
+    }
+
+    // each event is delivered to the buffer for its own namespace only
+    for (int i = 0; i < numNamespaces; i++) {
+      server.publish(ChangeEvents.changeEventForLocalDelete(
+          namespaces.get(i), documentIds.get(i), false));
+    }
+    for (int i = 0; i < numNamespaces; i++) {
+      final MongoNamespace namespace = namespaces.get(i);
+      final List<Map<BsonValue, ChangeEvent<BsonDocument>>> received = new ArrayList<>();
+      awaitTrue(() -> {
+        final Map<BsonValue, ChangeEvent<BsonDocument>> events =
+            listener.getEventsForNamespace(namespace).getEvents();
+        if (!events.isEmpty()) {
+          received.add(events);
+        }
+        return !received.isEmpty();
+      });
+      assertEquals(1, received.get(0).size());
+      final ChangeEvent<BsonDocument> event = received.get(0).get(documentIds.get(i));
+      assertEquals(namespace, event.getNamespace());
+    }
+  }
+
+  @Test
+  public void testStreamReopensWhenNamespacesChange() throws Exception {
+    final MongoNamespace namespace1 = addNamespace();
+    final MongoNamespace namespace2 = addNamespace();
+    listener.start();
+    awaitTrue(listener::areAllStreamsOpen);
+    assertEquals(2, getWatchedNamespaces(0).size());
+
+    // stopping one namespace reopens the stream without it
+    listener.stop(namespace2);
+    awaitTrue(() -> listener.isOpen(namespace1));
+    assertFalse(listener.isOpen(namespace2));
+    assertEquals(1, server.getNumOpenStreams());
+    assertEquals(Collections.singletonList(new Document()
+            .append("database", namespace1.getDatabaseName())
+            .append("collection", namespace1.getCollectionName())
+            .append("ids", Collections.singleton(documentIds.get(0)))),
+        getWatchedNamespaces(1));
+
+    // and starting it again brings it back in
+    listener.start(namespace2);
+    awaitTrue(listener::areAllStreamsOpen);
+    assertEquals(1, server.getNumOpenStreams());
+    assertEquals(3, server.getWatchArgs().size());
+    assertEquals(2, getWatchedNamespaces(2).size());
+
+    // stopping everything closes the stream and its thread
+    listener.stop();
+    assertEquals(0, server.getNumOpenStreams());
+    assertEquals(0, countRunnerThreads());
+  }
+
+  @Test
+  public void testStartWhileStreamReopens() throws Exception {
+    addNamespace();
+    listener.start();
+    awaitTrue(listener::areAllStreamsOpen);
+    final MongoNamespace namespace2 = addNamespace();
+
+    // once the stream fails, the runner checks connectivity before looping around, and again
+    // when it reopens the stream; start a namespace during the second check, so that the runner
+    // reopens the stream while the starting thread holds the instance lock and waits for the
+    // runner to exit
+    final Thread starter = new Thread(() -> listener.start(namespace2));
+    onConnectivityCheck.set(() -> onConnectivityCheck.set(() -> {
+      starter.start();
+      while (starter.isAlive() && starter.getState() != Thread.State.TIMED_WAITING) {
+        Thread.yield();
+      }
+    }));
+    server.fail();
+
+    awaitTrue(() -> starter.getState() != Thread.State.NEW);
+    starter.join(TIMEOUT_MILLIS);
+    if (starter.isAlive()) {
+      // let the starter give up on the runner so that the listener can be torn down
+      starter.interrupt();
+      fail("starting a namespace deadlocked with the runner reopening the stream");
+    }
+    awaitTrue(listener::areAllStreamsOpen);
+    assertEquals(1, server.getNumOpenStreams());
+    assertEquals(2, getWatchedNamespaces(server.getWatchArgs().size() - 1).size());
+    assertEquals(1, countRunnerThreads());
+  }
+
+  @Test
+  public void testErrorEventReopensStream() throws Exception {
+    final MongoNamespace namespace = addNamespace();
+    listener.start();
+    awaitTrue(listener::areAllStreamsOpen);
+
+    // an error closes the stream, and the runner opens a new one in its place
+    server.fail();
+    awaitTrue(() -> server.getWatchArgs().size() == 2 && listener.isOpen(namespace));
+    assertEquals(1, server.getNumOpenStreams());
+    assertEquals(1, countRunnerThreads());
+    assertTrue(listener.getEventsForNamespace(namespace).getEvents().isEmpty());
+  }
+
+  @Test
+  public void testStreamResumesAfterLatestEvent() throws Exception {
+    final MongoNamespace namespace = addNamespace();
+    final NamespaceSynchronizationConfig nsConfig = instanceConfig.getNamespaceConfig(namespace);
+    listener.start();
+    awaitTrue(listener::areAllStreamsOpen);
+    verify(nsConfig, times(1)).setStale(true);
+
+    // an event is handed off to a sync pass with its resume token, which is left for the sync
+    // pass to persist once it has applied the event
+    final ChangeEvent<BsonDocument> first = server.publish(
+        ChangeEvents.changeEventForLocalDelete(namespace, documentIds.get(0), false));
+    assertEquals(first.getId(), awaitEvent(namespace, first).getResumeToken());
+    verify(nsConfig, never()).setResumeToken(any());
+
+    // a stream reopened after missing an event resumes after the latest event instead of
+    // marking the namespace as stale, and the server replays the missed event
+    listener.stop();
+    final ChangeEvent<BsonDocument> missed = server.publish(
+        ChangeEvents.changeEventForLocalDelete(namespace, documentIds.get(0), false));
+    listener.start();
+    awaitTrue(listener::areAllStreamsOpen);
+    assertEquals(first.getId(), getWatchedNamespaces(1).get(0).get("resumeAfter"));
+    awaitEvent(namespace, missed);
+    verify(nsConfig, times(1)).setStale(true);
+
+    // if the server cannot resume the stream, it is opened from scratch and the namespace is
+    // marked as stale
+    listener.stop();
+    server.clearHistory();
+    listener.start();
+    awaitTrue(() -> server.getWatchArgs().size() == 4 && listener.isOpen(namespace));
+    assertFalse(getWatchedNamespaces(3).get(0).containsKey("resumeAfter"));
+    verify(nsConfig).setResumeToken(null);
+    verify(nsConfig, times(2)).setStale(true);
+  }
+
+  private NamespaceChangeEvents awaitEvent(
+      final MongoNamespace namespace,
+      final ChangeEvent<BsonDocument> expected
+  ) throws Exception {
+    final List<NamespaceChangeEvents> received = new ArrayList<>();
+    awaitTrue(() -> {
+      final NamespaceChangeEvents events = listener.getEventsForNamespace(namespace);
+      if (!events.getEvents().isEmpty()) {
+        received.add(events);
+      }
+      return !received.isEmpty();
+    });
+    assertEquals(1, received.get(0).getEvents().size());
+    assertEquals(
+        expected.getId(), received.get(0).getEvents().values().iterator().next().getId());
+    return received.get(0);
+  }
+
+  private MongoNamespace addNamespace() throws InterruptedException {
+    final MongoNamespace namespace = new MongoNamespace(
+        "db", String.format("coll%d", namespaces.size()));
+    final BsonValue documentId = new BsonObjectId();
+    final NamespaceSynchronizationConfig nsConfig = mock(NamespaceSynchronizationConfig.class);
+    when(nsConfig.getNamespace()).thenReturn(namespace);
+    when(nsConfig.isStreamingEnabled()).thenReturn(true);
+    when(nsConfig.getSynchronizedDocumentIds()).thenReturn(Collections.singleton(documentId));
+    when(instanceConfig.getNamespaceConfig(namespace)).thenReturn(nsConfig);
+
+    namespaces.add(namespace);
+    documentIds.add(documentId);
+    listener.addNamespace(namespace);
+    return namespace;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Document> getWatchedNamespaces(final int watchCall) {
+    return (List<Document>) server.getWatchArgs().get(watchCall).get("namespaces");
+  }
+
+  private static int countRunnerThreads() {
+    int count = 0;
+    for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.isAlive() && thread.getName().equals("instanceChangeStreamRunnerThread")) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static void awaitTrue(final Callable<Boolean> condition) throws Exception {
+    final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (!condition.call()) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("timed out waiting for condition");
+      }
+      Thread.sleep(10);
+    }
+  }
+}
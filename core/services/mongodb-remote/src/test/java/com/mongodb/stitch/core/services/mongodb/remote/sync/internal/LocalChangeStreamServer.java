@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.stitch.core.internal.common.BsonUtils;
+import com.mongodb.stitch.core.internal.net.Event;
+import com.mongodb.stitch.core.internal.net.EventStream;
+import com.mongodb.stitch.core.internal.net.Stream;
+import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.internal.ResultDecoders;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.BsonDocumentCodec;
+
+/**
+ * A local stand-in for the server side of the multiplexed "watch" function. Each call to
+ * {@link #watch(List)} opens a stream for the namespaces and document ids in its arguments,
+ * and {@link #publish(ChangeEvent)} delivers an event to every open stream watching its
+ * document, the way the server would. Published events are given resume tokens and kept, so that
+ * a stream opened to resume after one of them replays the events published since.
+ */
+class LocalChangeStreamServer {
+  private final List<LocalEventStream> streams = new ArrayList<>();
+  private final List<Document> watchArgs = new ArrayList<>();
+  private final List<ChangeEvent<BsonDocument>> history = new ArrayList<>();
+
+  /**
+   * Opens a new stream, as the "watch" function would for the given arguments.
+   */
+  @SuppressWarnings("unchecked")
+  synchronized Stream<ChangeEvent<BsonDocument>> watch(final List<?> args) {
+    final Document namespacesArg = (Document) args.get(0);
+    watchArgs.add(namespacesArg);
+
+    final Map<MongoNamespace, Set<BsonValue>> watched = new HashMap<>();
+    final Map<MongoNamespace, BsonDocument> resumeTokens = new HashMap<>();
+    for (final Document nsArg : (List<Document>) namespacesArg.get("namespaces")) {
+      final MongoNamespace namespace =
+          new MongoNamespace(nsArg.getString("database"), nsArg.getString("collection"));
+      watched.put(namespace, new HashSet<>((Collection<BsonValue>) nsArg.get("ids")));
+      if (nsArg.containsKey("resumeAfter")) {
+        resumeTokens.put(namespace, (BsonDocument) nsArg.get("resumeAfter"));
+      }
+    }
+
+    final LocalEventStream stream = new LocalEventStream(watched);
+    streams.add(stream);
+    for (final Map.Entry<MongoNamespace, BsonDocument> resumeToken : resumeTokens.entrySet()) {
+      int resumeIdx = -1;
+      for (int i = 0; i < history.size(); i++) {
+        if (history.get(i).getId().equals(resumeToken.getValue())) {
+          resumeIdx = i;
+        }
+      }
+      if (resumeIdx == -1) {
+        stream.events.add(newErrorEvent());
+        continue;
+      }
+      for (final ChangeEvent<BsonDocument> event : history.subList(resumeIdx + 1, history.size())) {
+        if (event.getNamespace().equals(resumeToken.getKey())) {
+          stream.deliver(event);
+        }
+      }
+    }
+    return new Stream<>(stream, ResultDecoders.changeEventDecoder(new BsonDocumentCodec()));
+  }
+
+  /**
+   * Delivers the event to every open stream watching the document it is for.
+   */
+  synchronized ChangeEvent<BsonDocument> publish(final ChangeEvent<BsonDocument> event) {
+    final ChangeEvent<BsonDocument> tokenizedEvent = new ChangeEvent<>(
+        new BsonDocument("_data", new BsonInt32(history.size())),
+        event.getOperationType(),
+        event.getFullDocument(),
+        event.getNamespace(),
+        event.getDocumentKey(),
+        event.getUpdateDescription(),
+        false);
+    history.add(tokenizedEvent);
+    for (final LocalEventStream stream : streams) {
+      if (stream.isOpen()) {
+        stream.deliver(tokenizedEvent);
+      }
+    }
+    return tokenizedEvent;
+  }
+
+  /**
+   * Forgets every event published so far, as the server does once they fall out of its oplog,
+   * so that streams can no longer be resumed after them.
+   */
+  synchronized void clearHistory() {
+    history.clear();
+  }
+
+  /**
+   * Sends an error to every open stream.
+   */
+  synchronized void fail() {
+    for (final LocalEventStream stream : streams) {
+      stream.events.add(newErrorEvent());
+    }
+  }
+
+  private static Event newErrorEvent() {
+    return new Event.Builder()
+        .withEventName("error")
+        .withData("{\"error\": \"bad\", \"error_code\": \"Unknown\"}")
+        .build();
+  }
+
+  synchronized List<Document> getWatchArgs() {
+    return new ArrayList<>(watchArgs);
+  }
+
+  synchronized int getNumOpenStreams() {
+    int numOpen = 0;
+    for (final LocalEventStream stream : streams) {
+      if (stream.isOpen()) {
+        numOpen++;
+      }
+    }
+    return numOpen;
+  }
+
+  private static final class LocalEventStream implements EventStream {
+    private static final Event CLOSED_EVENT = new Event.Builder().build();
+
+    private final Map<MongoNamespace, Set<BsonValue>> watched;
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private volatile boolean isOpen = true;
+
+    LocalEventStream(final Map<MongoNamespace, Set<BsonValue>> watched) {
+      this.watched = watched;
+    }
+
+    void deliver(final ChangeEvent<BsonDocument> event) {
+      final Set<BsonValue> ids = watched.get(event.getNamespace());
+      if (ids != null && ids.contains(BsonUtils.getDocumentId(event.getDocumentKey()))) {
+        events.add(new Event.Builder()
+            .withEventName("message")
+            .withData(event.toBsonDocument().toJson())
+            .build());
+      }
+    }
+
+    @Override
+    public Event nextEvent() throws IOException {
+      final Event event;
+      try {
+        event = events.take();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      if (event == CLOSED_EVENT) {
+        throw new IOException("stream closed");
+      }
+      return event;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return isOpen;
+    }
+
+    @Override
+    public void close() {
+      cancel();
+    }
+
+    @Override
+    public void cancel() {
+      isOpen = false;
+      events.add(CLOSED_EVENT);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.mongodb.MongoNamespace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalWriteJournalUnitTests {
+
+  private static final MongoNamespace NAMESPACE = new MongoNamespace("db.coll");
+
+  private File journalFile;
+
+  @Before
+  public void setUp() throws IOException {
+    journalFile = File.createTempFile("local_write", ".journal");
+  }
+
+  @After
+  public void tearDown() {
+    journalFile.delete();
+  }
+
+  @Test
+  public void testUncommittedEntriesSurviveReopening() throws IOException {
+    final BsonDocument doc1 = newDoc();
+    final BsonDocument doc2 = newDoc();
+    final BsonDocument doc3 = newDoc();
+
+    final LocalWriteJournal journal = openJournal();
+    final long committed = journal.begin(NAMESPACE, Collections.singletonList(doc1));
+    final long uncommitted = journal.begin(NAMESPACE, Arrays.asList(doc2, doc3));
+    journal.commit(committed);
+    journal.close();
+
+    final LocalWriteJournal reopened = openJournal();
+    final List<LocalWriteJournal.Entry> entries = reopened.getUncommittedEntries();
+    assertEquals(1, entries.size());
+    assertEquals(uncommitted, entries.get(0).getId());
+    assertEquals(NAMESPACE, entries.get(0).getNamespace());
+    assertEquals(Arrays.asList(doc2, doc3), entries.get(0).getDocuments());
+
+    // new entries never reuse the ids of the old ones
+    assertTrue(reopened.begin(NAMESPACE, Collections.singletonList(doc1)) > uncommitted);
+
+    // once cleared, nothing is left to recover
+    reopened.clear();
+    assertTrue(reopened.getUncommittedEntries().isEmpty());
+    reopened.close();
+    assertNothingToRecover();
+  }
+
+  @Test
+  public void testPartiallyWrittenRecordIsDiscarded() throws IOException {
+    final LocalWriteJournal journal = openJournal();
+    final long first = journal.begin(NAMESPACE, Collections.singletonList(newDoc()));
+    journal.begin(NAMESPACE, Collections.singletonList(newDoc()));
+    journal.close();
+
+    // simulate a failure in the middle of appending the second record
+    try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+      file.setLength(file.length() - 3);
+    }
+
+    final LocalWriteJournal reopened = openJournal();
+    final List<LocalWriteJournal.Entry> entries = reopened.getUncommittedEntries();
+    assertEquals(1, entries.size());
+    assertEquals(first, entries.get(0).getId());
+
+    // appending after the discarded record leaves a readable journal
+    reopened.commit(first);
+    reopened.close();
+    assertNothingToRecover();
+  }
+
+  @Test
+  public void testJournalIsClearedOncePastMaxSize() throws IOException {
+    final LocalWriteJournal journal = new LocalWriteJournal(journalFile, 1024);
+    for (int i = 0; i < 100; i++) {
+      journal.commit(journal.begin(NAMESPACE, Collections.singletonList(newDoc())));
+      assertTrue(journalFile.length() < 2048);
+    }
+
+    // a write in flight keeps the journal from being cleared
+    final long inFlight = journal.begin(NAMESPACE, Collections.singletonList(newDoc()));
+    for (int i = 0; i < 100; i++) {
+      journal.commit(journal.begin(NAMESPACE, Collections.singletonList(newDoc())));
+    }
+    assertTrue(journalFile.length() > 2048);
+    journal.close();
+
+    final LocalWriteJournal reopened = new LocalWriteJournal(journalFile, 1024);
+    assertEquals(1, reopened.getUncommittedEntries().size());
+    assertEquals(inFlight, reopened.getUncommittedEntries().get(0).getId());
+    reopened.close();
+  }
+
+  @Test
+  public void testConcurrentWriters() throws Exception {
+    final LocalWriteJournal journal = openJournal();
+    final int numThreads = 8;
+    final int writesPerThread = 50;
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < writesPerThread; j++) {
+            journal.commit(journal.begin(NAMESPACE, Collections.singletonList(newDoc())));
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    journal.close();
+
+    assertNothingToRecover();
+  }
+
+  private void assertNothingToRecover() throws IOException {
+    final LocalWriteJournal journal = openJournal();
+    try {
+      assertTrue(journal.getUncommittedEntries().isEmpty());
+    } finally {
+      journal.close();
+    }
+  }
+
+  private LocalWriteJournal openJournal() throws IOException {
+    return new LocalWriteJournal(journalFile, LocalWriteJournal.DEFAULT_MAX_SIZE_BYTES);
+  }
+
+  private static BsonDocument newDoc() {
+    return new BsonDocument("_id", new BsonObjectId())
+        .append("hello", new BsonString("world"))
+        .append("count", new BsonInt32(1));
+  }
+}
@@ -1,18 +1,22 @@
 package com.mongodb.stitch.core.services.mongodb.remote.sync.internal
 
-import com.mongodb.stitch.core.internal.net.Event
+import com.mongodb.stitch.core.internal.common.Callback
+import com.mongodb.stitch.core.internal.common.OperationResult
+import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent
 import com.mongodb.stitch.server.services.mongodb.local.internal.ServerEmbeddedMongoClientFactory
-import org.bson.BsonObjectId
-import org.bson.Document
+import org.bson.BsonDocument
+import org.bson.BsonInt32
 import org.junit.After
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
 import org.junit.Test
+import org.mockito.ArgumentCaptor
 import org.mockito.ArgumentMatchers.eq
-import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
+import java.util.concurrent.TimeUnit
 
 class NamespaceChangeStreamListenerUnitTests {
     private val harness = SyncUnitTestHarness()
@@ -24,77 +28,76 @@ class NamespaceChangeStreamListenerUnitTests {
     }
 
     @Test
-    fun testOpenStream() {
+    fun testStreamOpened() {
         val ctx = harness.freshTestContext()
         val (namespaceChangeStreamListener, nsConfigMock) = harness.createNamespaceChangeStreamListenerWithContext(ctx)
 
-        // assert the stream does not open since we are offline
-        ctx.isOnline = false
-        ctx.isLoggedIn = false
-        assertFalse(namespaceChangeStreamListener.openStream())
+        // verify that resuming the shared stream from this namespace's resume token
+        // leaves the nsConfig as it is, since the server replays the missed events
+        namespaceChangeStreamListener.onStreamOpened(true)
+        verify(nsConfigMock, times(0)).setStale(eq(true))
+        verify(nsConfigMock, times(0)).requestSyncPass()
 
-        // assert the stream does not open since we are not logged in
-        ctx.isOnline = true
-        assertFalse(namespaceChangeStreamListener.openStream())
-
-        // assert the stream does not open since we have no document ids
-        ctx.isLoggedIn = true
-        assertFalse(namespaceChangeStreamListener.openStream())
-        verify(nsConfigMock, times(3)).synchronizedDocumentIds
-
-        // assert and verify that our stream has opened, and that the streamFunction
-        // method has been called with the appropriate arguments. verify that we have
-        // set the nsConfig to stale
-        `when`(nsConfigMock.synchronizedDocumentIds).thenReturn(setOf(BsonObjectId()))
-        assertTrue(namespaceChangeStreamListener.openStream())
-        val expectedArgs = Document(mapOf(
-            "database" to ctx.namespace.databaseName,
-            "collection" to ctx.namespace.collectionName,
-            "ids" to nsConfigMock.synchronizedDocumentIds
-        ))
-        ctx.verifyWatchFunctionCalled(times = 1, expectedArgs = expectedArgs)
+        // verify that opening the shared stream from scratch sets the nsConfig to stale,
+        // since events may have been missed while it was closed
+        namespaceChangeStreamListener.onStreamOpened(false)
         verify(nsConfigMock).setStale(eq(true))
+        verify(nsConfigMock, times(1)).requestSyncPass()
     }
 
     @Test
+    @Suppress("UNCHECKED_CAST")
     fun testStoreEvent() {
         val ctx = harness.freshTestContext()
-        val (namespaceChangeStreamListener, nsConfigMock) = harness.createNamespaceChangeStreamListenerWithContext(ctx)
-        // assert nothing happens when we try to store events on a closed stream
-        assertFalse(namespaceChangeStreamListener.isOpen)
-        namespaceChangeStreamListener.storeNextEvent()
-
-        // open the stream. assert that, with an injected error Event, the stream closes
-        `when`(nsConfigMock.synchronizedDocumentIds).thenReturn(setOf(BsonObjectId()))
-        assertTrue(namespaceChangeStreamListener.openStream())
-        ctx.nextStreamEvent = Event.Builder().withEventName("error").withData(
-            """{"error": "bad", "error_code": "Unknown"}"""
-        ).build()
-        namespaceChangeStreamListener.storeNextEvent()
-        assertFalse(namespaceChangeStreamListener.isOpen)
+        val (namespaceChangeStreamListener, _) = harness.createNamespaceChangeStreamListenerWithContext(ctx)
+        val watcher = mock(Callback::class.java) as Callback<ChangeEvent<BsonDocument>, Any>
+        namespaceChangeStreamListener.addWatcher(watcher)
 
-        // re-open the stream. assert that, with an injected null message Event,
-        // the stream does not close, but nothing else should occur
-        assertTrue(namespaceChangeStreamListener.openStream())
-        ctx.nextStreamEvent = Event.Builder().withEventName("message").build()
-        namespaceChangeStreamListener.storeNextEvent()
-        assertEquals(0, namespaceChangeStreamListener.events.size)
-        assertTrue(namespaceChangeStreamListener.isOpen)
-
-        // assert that, with an expected ChangeEvent, the event is stored
-        // and the stream remains open
+        // assert that a demultiplexed event is stored and passed on to the watchers
         val expectedChangeEvent = ChangeEvents.changeEventForLocalInsert(ctx.namespace, ctx.testDocument, true)
-        ctx.nextStreamEvent = Event.Builder().withEventName("message").withData(
-            expectedChangeEvent.toBsonDocument().toJson()
-        ).build()
-        namespaceChangeStreamListener.storeNextEvent()
-        assertTrue(namespaceChangeStreamListener.isOpen)
+        namespaceChangeStreamListener.storeEvent(expectedChangeEvent)
+        val resultCaptor = ArgumentCaptor.forClass(OperationResult::class.java)
+        verify(watcher).onComplete(resultCaptor.capture() as OperationResult<ChangeEvent<BsonDocument>, Any>?)
+        assertTrue(resultCaptor.value.isSuccessful)
+        SyncUnitTestHarness.compareEvents(
+            expectedChangeEvent, resultCaptor.value.geResult() as ChangeEvent<BsonDocument>)
 
         // assert that the consumed event equals the expected event.
         // assert that the events have been drained from the event map
-        val actualEvents = namespaceChangeStreamListener.events
+        val actualEvents = namespaceChangeStreamListener.events.events
         assertEquals(1, actualEvents.size)
         SyncUnitTestHarness.compareEvents(expectedChangeEvent, actualEvents.values.first())
-        assertEquals(0, namespaceChangeStreamListener.events.size)
+        assertEquals(0, namespaceChangeStreamListener.events.events.size)
+    }
+
+    @Test
+    fun testStoreEventOverflow() {
+        val ctx = harness.freshTestContext()
+        val (namespaceChangeStreamListener, nsConfigMock) = harness.createNamespaceChangeStreamListenerWithContext(ctx)
+
+        // assert that events are stored even while a sync pass holds the namespace lock
+        namespaceChangeStreamListener.lock.writeLock().lock()
+        val storer = Thread {
+            for (i in 0..NamespaceChangeStreamListener.MAX_BUFFERED_EVENTS) {
+                namespaceChangeStreamListener.storeEvent(ChangeEvents.changeEventForLocalInsert(
+                    ctx.namespace, BsonDocument("_id", BsonInt32(i)), true))
+            }
+        }
+        storer.start()
+        storer.join(TimeUnit.SECONDS.toMillis(10))
+        assertFalse(storer.isAlive)
+        namespaceChangeStreamListener.lock.writeLock().unlock()
+
+        // assert that storing more events than can be buffered drops them, and marks the
+        // namespace as stale once the events are handed off
+        verify(nsConfigMock, times(0)).setStale(eq(true))
+        assertTrue(namespaceChangeStreamListener.events.events.isEmpty())
+        verify(nsConfigMock, times(1)).setStale(eq(true))
+
+        // assert that events are buffered again once handed off
+        namespaceChangeStreamListener.storeEvent(
+            ChangeEvents.changeEventForLocalInsert(ctx.namespace, ctx.testDocument, true))
+        assertEquals(1, namespaceChangeStreamListener.events.events.size)
+        verify(nsConfigMock, times(1)).setStale(eq(true))
     }
 }
@@ -2,15 +2,20 @@ package com.mongodb.stitch.core.services.mongodb.remote.sync.internal
 
 import com.mongodb.client.FindIterable
 import com.mongodb.client.MongoCollection
+import com.mongodb.stitch.core.services.mongodb.remote.sync.internal.SyncUnitTestHarness.Companion.newDoc
 import com.mongodb.stitch.core.services.mongodb.remote.sync.internal.SyncUnitTestHarness.Companion.newNamespace
 import org.bson.BsonDocument
 import org.bson.BsonInt32
 import org.bson.BsonString
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
 import org.junit.Test
 import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.`when`
 import org.mockito.Mockito.mock
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
 
 class NamespaceSynchronizationConfigUnitTests {
     @Test
@@ -38,4 +43,108 @@ class NamespaceSynchronizationConfigUnitTests {
 
         assertEquals(nsConfig.namespace, roundTrippedNsConfig.namespace)
     }
+
+    @Test
+    @Suppress("UNCHECKED_CAST")
+    fun testDirtyDocumentTracking() {
+        val namespace = newNamespace()
+
+        val docsColl = mock(MongoCollection::class.java) as MongoCollection<CoreDocumentSynchronizationConfig>
+        val findIterable = mock(FindIterable::class.java) as FindIterable<CoreDocumentSynchronizationConfig>
+
+        `when`(docsColl.find(any(BsonDocument::class.java), any(Class::class.java)))
+            .thenReturn(findIterable)
+
+        val nsConfig = NamespaceSynchronizationConfig(
+            mock(MongoCollection::class.java) as MongoCollection<NamespaceSynchronizationConfig>,
+            docsColl,
+            namespace)
+
+        val doc1 = newDoc()
+        val doc2 = newDoc()
+        nsConfig.addSynchronizedDocuments(doc1["_id"], doc2["_id"])
+        assertFalse(nsConfig.hasUncommittedWrites())
+        assertTrue(nsConfig.dirtyDocuments.isEmpty())
+
+        // a local write makes a document dirty
+        val docConfig1 = nsConfig.getSynchronizedDocument(doc1["_id"])
+        docConfig1.setSomePendingWrites(
+            1, null, 0, ChangeEvents.changeEventForLocalInsert(namespace, doc1, true))
+        assertTrue(nsConfig.hasUncommittedWrites())
+        assertEquals(listOf(docConfig1), nsConfig.dirtyDocuments)
+
+        // paused documents are not synchronized, so they are not dirty
+        docConfig1.setPaused(true)
+        assertFalse(nsConfig.hasUncommittedWrites())
+        docConfig1.setPaused(false)
+        assertEquals(listOf(docConfig1), nsConfig.dirtyDocuments)
+
+        // committing the writes makes the document clean again
+        docConfig1.setPendingWritesComplete(0, null)
+        assertFalse(nsConfig.hasUncommittedWrites())
+
+        // and so does no longer synchronizing it
+        docConfig1.setSomePendingWrites(
+            2, null, 0, ChangeEvents.changeEventForLocalInsert(namespace, doc1, true))
+        assertTrue(nsConfig.hasUncommittedWrites())
+        nsConfig.removeSynchronizedDocuments(doc1["_id"])
+        assertFalse(nsConfig.hasUncommittedWrites())
+        assertTrue(nsConfig.dirtyDocuments.isEmpty())
+    }
+
+    @Test
+    @Suppress("UNCHECKED_CAST")
+    fun testStaleDocumentTracking() {
+        val namespace = newNamespace()
+
+        val namespacesColl = mock(MongoCollection::class.java) as MongoCollection<NamespaceSynchronizationConfig>
+        val docsColl = mock(MongoCollection::class.java) as MongoCollection<CoreDocumentSynchronizationConfig>
+        val findIterable = mock(FindIterable::class.java) as FindIterable<CoreDocumentSynchronizationConfig>
+
+        `when`(docsColl.find(any(BsonDocument::class.java), any(Class::class.java)))
+            .thenReturn(findIterable)
+
+        val nsConfig = NamespaceSynchronizationConfig(namespacesColl, docsColl, namespace)
+
+        val doc1 = newDoc()
+        val doc2 = newDoc()
+        nsConfig.addSynchronizedDocuments(doc1["_id"], doc2["_id"])
+
+        // documents newly synchronized are stale until fetched from the remote
+        assertEquals(setOf(doc1["_id"], doc2["_id"]), nsConfig.staleDocumentIds)
+        val docConfig1 = nsConfig.getSynchronizedDocument(doc1["_id"])
+        docConfig1.isStale = false
+        nsConfig.getSynchronizedDocument(doc2["_id"]).isStale = false
+        assertTrue(nsConfig.staleDocumentIds.isEmpty())
+
+        // individually stale documents are tracked without querying the config collections
+        docConfig1.isStale = true
+        assertTrue(docConfig1.isStale)
+        assertEquals(setOf(doc1["_id"]), nsConfig.staleDocumentIds)
+
+        // a stale namespace makes every unpaused document stale
+        nsConfig.setStale(true)
+        assertEquals(setOf(doc1["_id"], doc2["_id"]), nsConfig.staleDocumentIds)
+        nsConfig.getSynchronizedDocument(doc2["_id"]).setPaused(true)
+        assertEquals(setOf(doc1["_id"]), nsConfig.staleDocumentIds)
+
+        // marking the namespace as stale again does not write to the config collection again
+        nsConfig.setStale(true)
+        verify(namespacesColl, times(1))
+            .updateOne(any(BsonDocument::class.java), any(BsonDocument::class.java))
+
+        // marking the namespace as not stale clears all stale documents
+        nsConfig.setStale(false)
+        assertFalse(docConfig1.isStale)
+        assertTrue(nsConfig.staleDocumentIds.isEmpty())
+        verify(namespacesColl, times(2))
+            .updateOne(any(BsonDocument::class.java), any(BsonDocument::class.java))
+        verify(docsColl, times(1))
+            .updateMany(any(BsonDocument::class.java), any(BsonDocument::class.java))
+
+        // and no stale documents could have been persisted since, so there is nothing to clear
+        nsConfig.setStale(false)
+        verify(docsColl, times(1))
+            .updateMany(any(BsonDocument::class.java), any(BsonDocument::class.java))
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.core.services.mongodb.remote.sync.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.mongodb.stitch.core.services.mongodb.remote.sync.DefaultSyncConflictResolvers;
+import com.mongodb.stitch.core.services.mongodb.remote.sync.SyncFrequency;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.Test;
+
+public class SyncFrequencyUnitTests {
+
+  @Test
+  public void testReactive() {
+    final NamespaceSynchronizationConfig nsConfig = newNamespaceConfig(SyncFrequency.reactive());
+    assertTrue(nsConfig.isStreamingEnabled());
+
+    // a reactive namespace that has never been synchronized is due right away
+    final long now = System.currentTimeMillis();
+    assertTrue(nsConfig.getNextSyncPassTime() <= now);
+
+    // once synchronized, it idles until there is new work
+    nsConfig.onSyncPassStarted(now);
+    assertTrue(nsConfig.getNextSyncPassTime() > now + 1000);
+
+    // new work brings the next pass up to shortly after it was requested, and a burst of work
+    // is handled by that same pass
+    assertTrue(nsConfig.requestSyncPass());
+    final long requestedAt = nsConfig.getNextSyncPassTime();
+    assertTrue(requestedAt <= System.currentTimeMillis()
+        + NamespaceSynchronizationConfig.REACTIVE_SYNC_PASS_DELAY_MILLIS);
+    assertFalse(nsConfig.requestSyncPass());
+    assertEquals(requestedAt, nsConfig.getNextSyncPassTime());
+
+    // starting the pass satisfies the request
+    nsConfig.onSyncPassStarted(System.currentTimeMillis());
+    assertTrue(nsConfig.getNextSyncPassTime() > requestedAt + 1000);
+  }
+
+  @Test
+  public void testScheduled() {
+    final NamespaceSynchronizationConfig nsConfig =
+        newNamespaceConfig(SyncFrequency.scheduled(1, TimeUnit.HOURS, false));
+    assertFalse(nsConfig.isStreamingEnabled());
+    assertTrue(newNamespaceConfig(
+        SyncFrequency.scheduled(1, TimeUnit.HOURS, true)).isStreamingEnabled());
+
+    final long now = System.currentTimeMillis();
+    nsConfig.onSyncPassStarted(now);
+    assertEquals(now + TimeUnit.HOURS.toMillis(1), nsConfig.getNextSyncPassTime());
+
+    // new work waits for the interval to end
+    assertFalse(nsConfig.requestSyncPass());
+    assertEquals(now + TimeUnit.HOURS.toMillis(1), nsConfig.getNextSyncPassTime());
+
+    // unless a pass is explicitly requested
+    nsConfig.requestImmediateSyncPass();
+    assertTrue(nsConfig.getNextSyncPassTime() <= System.currentTimeMillis());
+
+    // intervals too large to represent are never due on their own
+    final NamespaceSynchronizationConfig neverDue =
+        newNamespaceConfig(SyncFrequency.scheduled(Long.MAX_VALUE, TimeUnit.DAYS, true));
+    neverDue.onSyncPassStarted(now);
+    assertEquals(Long.MAX_VALUE, neverDue.getNextSyncPassTime());
+  }
+
+  @Test
+  public void testOnDemand() {
+    final NamespaceSynchronizationConfig nsConfig = newNamespaceConfig(SyncFrequency.onDemand());
+    assertTrue(nsConfig.isStreamingEnabled());
+    assertEquals(Long.MAX_VALUE, nsConfig.getNextSyncPassTime());
+
+    assertFalse(nsConfig.requestSyncPass());
+    assertEquals(Long.MAX_VALUE, nsConfig.getNextSyncPassTime());
+
+    nsConfig.requestImmediateSyncPass();
+    assertTrue(nsConfig.getNextSyncPassTime() <= System.currentTimeMillis());
+
+    nsConfig.onSyncPassStarted(System.currentTimeMillis());
+    assertEquals(Long.MAX_VALUE, nsConfig.getNextSyncPassTime());
+  }
+
+  private static NamespaceSynchronizationConfig newNamespaceConfig(
+      final SyncFrequency syncFrequency
+  ) {
+    final NamespaceSynchronizationConfig nsConfig =
+        NamespaceSynchronizationConfig.fromBsonDocument(new BsonDocument()
+            .append(
+                NamespaceSynchronizationConfig.ConfigCodec.Fields.NAMESPACE_FIELD,
+                new BsonString("db.coll"))
+            .append(
+                NamespaceSynchronizationConfig.ConfigCodec.Fields.SCHEMA_VERSION_FIELD,
+                new BsonInt32(1)));
+    nsConfig.configure(
+        DefaultSyncConflictResolvers.<BsonDocument>remoteWins(),
+        null,
+        new BsonDocumentCodec(),
+        syncFrequency);
+    return nsConfig;
+  }
+}
@@ -3,9 +3,15 @@ package com.mongodb.stitch.core.services.mongodb.remote.sync.internal
 import com.mongodb.MongoNamespace
 import com.mongodb.client.MongoClient
 import com.mongodb.client.MongoCollection
+import com.mongodb.client.model.DeleteOneModel
+import com.mongodb.client.model.InsertOneModel
+import com.mongodb.client.model.ReplaceOneModel
+import com.mongodb.client.model.UpdateOneModel
+import com.mongodb.client.model.WriteModel
 import com.mongodb.client.result.DeleteResult
 import com.mongodb.client.result.UpdateResult
 import com.mongodb.stitch.core.StitchAppClientInfo
+import com.mongodb.stitch.core.StitchServiceException
 import com.mongodb.stitch.core.internal.common.AuthMonitor
 import com.mongodb.stitch.core.internal.common.Dispatcher
 import com.mongodb.stitch.core.internal.common.ThreadDispatcher
@@ -18,6 +24,7 @@ import com.mongodb.stitch.core.services.internal.CoreStitchServiceClientImpl
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent
 import com.mongodb.stitch.core.services.mongodb.remote.ExceptionListener
 import com.mongodb.stitch.core.services.mongodb.remote.OperationType
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateResult
 import com.mongodb.stitch.core.services.mongodb.remote.internal.CoreRemoteFindIterable
@@ -54,6 +61,7 @@ import org.mockito.Mockito.`when`
 import org.mockito.Mockito.spy
 import org.mockito.Mockito.times
 import java.io.Closeable
+import java.io.File
 import java.lang.Exception
 import java.lang.IllegalStateException
 import java.util.Collections
@@ -339,6 +347,14 @@ class SyncUnitTestHarness : Closeable {
             )
         }
 
+        override val localWriteJournalFile: File by lazy {
+            File(String.format(
+                "%s/%s/local_write_%s.journal",
+                System.getProperty("java.io.tmpdir"),
+                clientKey,
+                instanceKey))
+        }
+
         val service: CoreStitchServiceClient by lazy {
             val service = Mockito.mock(CoreStitchServiceClientImpl::class.java)
             `when`(service.codecRegistry).thenReturn(CodecRegistries.fromCodecs(BsonDocumentCodec()))
@@ -360,6 +376,7 @@ class SyncUnitTestHarness : Closeable {
                 instanceKey,
                 service,
                 localClient,
+                localWriteJournalFile,
                 remoteClient,
                 networkMonitor,
                 authMonitor,
@@ -403,6 +420,14 @@ class SyncUnitTestHarness : Closeable {
             val remoteFindIterable = Mockito.mock(CoreRemoteFindIterable::class.java) as CoreRemoteFindIterable<BsonDocument>
             Mockito.`when`(collectionMock.find(ArgumentMatchers.any())).thenReturn(remoteFindIterable)
             Mockito.`when`(remoteFindIterable.into<HashSet<BsonDocument>>(ArgumentMatchers.any())).thenReturn(HashSet())
+            Mockito.doReturn(remoteFindIterable).`when`(remoteFindIterable).projection(ArgumentMatchers.any())
+
+            // route bulk writes through the single document mocks, so that remote writes can be
+            // mocked and verified the same way however many documents were synchronized together
+            Mockito.`when`(collectionMock.bulkWrite(ArgumentMatchers.any(), ArgumentMatchers.any())).thenAnswer {
+                val requests = it.getArgument<List<WriteModel<BsonDocument>>>(0)
+                RemoteBulkWriteResult(requests.map { request -> bulkWriteModelResult(request) })
+            }
 
             Mockito.verifyZeroInteractions(collectionMock)
         }
@@ -502,8 +527,8 @@ class SyncUnitTestHarness : Closeable {
 
         override fun queueConsumableRemoteInsertEvent() {
             `when`(dataSynchronizer.getEventsForNamespace(any())).thenReturn(
-                mapOf(testDocument to ChangeEvents.changeEventForLocalInsert(namespace, testDocument, true)),
-                mapOf())
+                namespaceChangeEvents(testDocument to ChangeEvents.changeEventForLocalInsert(namespace, testDocument, true)),
+                namespaceChangeEvents())
         }
 
         fun getVersionForTestDocument(): BsonDocument? {
@@ -555,27 +580,27 @@ class SyncUnitTestHarness : Closeable {
                 }
             }
             `when`(dataSynchronizer.getEventsForNamespace(any())).thenReturn(
-                mapOf(document to ChangeEvents.changeEventForLocalUpdate(
+                namespaceChangeEvents(document to ChangeEvents.changeEventForLocalUpdate(
                     namespace, id, null, fakeUpdateDoc, false)),
-                mapOf())
+                namespaceChangeEvents())
         }
 
         override fun queueConsumableRemoteDeleteEvent() {
             `when`(dataSynchronizer.getEventsForNamespace(any())).thenReturn(
-                mapOf(testDocument to ChangeEvents.changeEventForLocalDelete(namespace, testDocumentId, true)),
-                mapOf())
+                namespaceChangeEvents(testDocument to ChangeEvents.changeEventForLocalDelete(namespace, testDocumentId, true)),
+                namespaceChangeEvents())
         }
 
         override fun queueConsumableRemoteUnknownEvent() {
             `when`(dataSynchronizer.getEventsForNamespace(any())).thenReturn(
-                mapOf(testDocument to ChangeEvent(
+                namespaceChangeEvents(testDocument to ChangeEvent(
                         BsonDocument("_id", testDocumentId),
                         OperationType.UNKNOWN,
                         testDocument,
                         namespace,
                         BsonDocument("_id", testDocumentId),
                         null,
-                        true)), mapOf())
+                        true)), namespaceChangeEvents())
         }
 
         override fun findTestDocumentFromLocalCollection(): BsonDocument? {
@@ -594,7 +619,10 @@ class SyncUnitTestHarness : Closeable {
         }
 
         override fun findTestDocumentConfig(): CoreDocumentSynchronizationConfig? {
-            return dataSynchronizer.syncConfig.getNamespaceConfig(namespace).docsColl.find(
+            // configs changed by local writes are saved in the background, so save them now
+            val nsConfig = dataSynchronizer.syncConfig.getNamespaceConfig(namespace)
+            dataSynchronizer.saveDocumentConfigs(nsConfig)
+            return nsConfig.docsColl.find(
                     BsonDocument("document_id", testDocumentId)).firstOrNull()
         }
 
@@ -655,7 +683,9 @@ class SyncUnitTestHarness : Closeable {
 
         override fun verifyWatchFunctionCalled(times: Int, expectedArgs: Document) {
             Mockito.verify(service, times(times)).streamFunction(
-                eq("watch"), eq(Collections.singletonList(expectedArgs)), eq(ResultDecoders.changeEventDecoder(BsonDocumentCodec())))
+                eq("watch"),
+                eq(Collections.singletonList(Document("namespaces", listOf(expectedArgs)))),
+                eq(ResultDecoders.changeEventDecoder(BsonDocumentCodec())))
         }
 
         override fun verifyStartCalled(times: Int) {
@@ -698,6 +728,38 @@ class SyncUnitTestHarness : Closeable {
             dataSynchronizer.close()
         }
 
+        private fun namespaceChangeEvents(
+            vararg events: Pair<BsonValue, ChangeEvent<BsonDocument>>
+        ): NamespaceChangeEvents {
+            return NamespaceChangeEvents(mapOf(*events), null)
+        }
+
+        private fun bulkWriteModelResult(request: WriteModel<BsonDocument>): RemoteBulkWriteResult.WriteModelResult {
+            try {
+                return when (request) {
+                    is InsertOneModel -> RemoteBulkWriteResult.WriteModelResult(
+                        0, 0, 0, collectionMock.insertOne(request.document)?.insertedId, null, null, null)
+                    is ReplaceOneModel -> updateModelResult(
+                        collectionMock.updateOne(request.filter, request.replacement))
+                    is UpdateOneModel -> updateModelResult(
+                        collectionMock.updateOne(request.filter, request.update))
+                    is DeleteOneModel -> RemoteBulkWriteResult.WriteModelResult(
+                        0, 0, collectionMock.deleteOne(request.filter)?.deletedCount ?: 1, null, null, null, null)
+                    else -> throw IllegalArgumentException("unsupported write model: $request")
+                }
+            } catch (ex: StitchServiceException) {
+                if (ex.message?.contains("E11000") != true) {
+                    throw ex
+                }
+                return RemoteBulkWriteResult.WriteModelResult(0, 0, 0, null, null, 11000, ex.message)
+            }
+        }
+
+        private fun updateModelResult(result: RemoteUpdateResult?): RemoteBulkWriteResult.WriteModelResult {
+            return RemoteBulkWriteResult.WriteModelResult(
+                result?.matchedCount ?: 1, result?.modifiedCount ?: 1, 0, null, result?.upsertedId, null, null)
+        }
+
         private fun configureNewErrorListener() {
             val emitErrorSemaphore = Semaphore(0)
             this.errorSemaphore?.release()
@@ -776,10 +838,8 @@ class SyncUnitTestHarness : Closeable {
         val namespaceChangeStreamListener = NamespaceChangeStreamListener(
             context.namespace,
             nsConfigMock,
-            (context as DataSynchronizerTestContextImpl).service,
-            context.networkMonitor,
-            context.authMonitor,
-            ReentrantReadWriteLock())
+            ReentrantReadWriteLock(),
+            null)
 
         return namespaceChangeStreamListener to nsConfigMock
     }
@@ -170,7 +170,10 @@ public final class Stitch {
         builder.withStorage(new MemoryStorage());
       }
       if (builder.getTransport() == null) {
-        builder.withTransport(new OkHttpTransport());
+        builder.withTransport(new OkHttpTransport(
+            builder.isHttp2Enabled(),
+            builder.getMaxIdleConnections(),
+            builder.getConnectionKeepAliveDuration()));
       }
       if (builder.getDefaultRequestTimeout() == null) {
         builder.withDefaultRequestTimeout(DEFAULT_DEFAULT_REQUEST_TIMEOUT);
@@ -23,6 +23,8 @@ import com.mongodb.stitch.server.core.services.internal.ServiceClientFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
 import org.bson.codecs.Codec;
 import org.bson.codecs.Decoder;
 import org.bson.codecs.configuration.CodecRegistry;
@@ -206,6 +208,83 @@ public interface StitchAppClient extends Closeable {
           final Long requestTimeout,
           final Decoder<ResultT> resultDecoder);
 
+  /**
+   * Calls the specified Stitch function without blocking the calling thread.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error, or null to use the client-wide
+   *                       default timeout.
+   * @return a future that completes once the function returns.
+   */
+  CompletableFuture<Void> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout);
+
+  /**
+   * Calls the specified Stitch function without blocking the calling thread, and decodes the
+   * response into an instance of the specified type. The response will be decoded using the codec
+   * registry specified when the app client was configured.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error, or null to use the client-wide
+   *                       default timeout.
+   * @param resultClass the class that the response should be decoded as.
+   * @param <ResultT> the type into which the Stitch response will be decoded.
+   * @return a future that completes with the decoded value.
+   */
+  <ResultT> CompletableFuture<ResultT> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<ResultT> resultClass);
+
+  /**
+   * Calls the specified Stitch function without blocking the calling thread, and decodes the
+   * response into an instance of the specified type. The response will be decoded using the codec
+   * registry given.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error, or null to use the client-wide
+   *                       default timeout.
+   * @param resultClass the class that the response should be decoded as.
+   * @param codecRegistry the codec registry used for de/serialization of the function call.
+   * @param <ResultT> the type into which the Stitch response will be decoded.
+   * @return a future that completes with the decoded value.
+   */
+  <ResultT> CompletableFuture<ResultT> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<ResultT> resultClass,
+      final CodecRegistry codecRegistry);
+
+  /**
+   * Calls the specified Stitch function without blocking the calling thread, and decodes the
+   * response into a value using the provided {@link Decoder} or {@link Codec}.
+   *
+   * @param name the name of the Stitch function to call.
+   * @param args the arguments to pass to the function.
+   * @param requestTimeout the number of milliseconds the client should wait for a response from the
+   *                       server before failing with an error, or null to use the client-wide
+   *                       default timeout.
+   * @param resultDecoder the {@link Decoder} or {@link Codec} to use to decode the response into a
+   *     value.
+   * @param <ResultT> the type into which the response will be decoded.
+   * @return a future that completes with the decoded value.
+   */
+  <ResultT> CompletableFuture<ResultT> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Decoder<ResultT> resultDecoder);
+
   /**
    * Closes the client and shuts down all background operations.
    *
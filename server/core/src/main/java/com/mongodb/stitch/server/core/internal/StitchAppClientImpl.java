@@ -29,12 +29,14 @@ import com.mongodb.stitch.core.services.internal.CoreStitchServiceClientImpl;
 import com.mongodb.stitch.server.core.StitchAppClient;
 import com.mongodb.stitch.server.core.auth.StitchAuth;
 import com.mongodb.stitch.server.core.auth.internal.StitchAuthImpl;
+import com.mongodb.stitch.server.core.internal.common.FutureCallbackAdapter;
 import com.mongodb.stitch.server.core.services.StitchServiceClient;
 import com.mongodb.stitch.server.core.services.internal.NamedServiceClientFactory;
 import com.mongodb.stitch.server.core.services.internal.ServiceClientFactory;
 import com.mongodb.stitch.server.core.services.internal.StitchServiceClientImpl;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.Nullable;
 
@@ -204,6 +206,50 @@ public final class StitchAppClientImpl implements StitchAppClient, AuthMonitor {
   /**
    * Closes the client and shuts down all background operations.
    */
+  @Override
+  public CompletableFuture<Void> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout) {
+    final FutureCallbackAdapter<Void> adapter = new FutureCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, adapter);
+    return adapter.getAdapter();
+  }
+
+  @Override
+  public <ResultT> CompletableFuture<ResultT> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<ResultT> resultClass) {
+    final FutureCallbackAdapter<ResultT> adapter = new FutureCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, resultClass, adapter);
+    return adapter.getAdapter();
+  }
+
+  @Override
+  public <ResultT> CompletableFuture<ResultT> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Class<ResultT> resultClass,
+      final CodecRegistry codecRegistry) {
+    final FutureCallbackAdapter<ResultT> adapter = new FutureCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, resultClass, codecRegistry, adapter);
+    return adapter.getAdapter();
+  }
+
+  @Override
+  public <ResultT> CompletableFuture<ResultT> callFunctionAsync(
+      final String name,
+      final List<?> args,
+      final @Nullable Long requestTimeout,
+      final Decoder<ResultT> resultDecoder) {
+    final FutureCallbackAdapter<ResultT> adapter = new FutureCallbackAdapter<>();
+    coreClient.callFunctionAsync(name, args, requestTimeout, resultDecoder, adapter);
+    return adapter.getAdapter();
+  }
+
   @Override
   public void close() throws IOException {
     auth.close();
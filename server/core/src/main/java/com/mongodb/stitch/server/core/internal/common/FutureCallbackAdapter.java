@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018-present MongoDB, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mongodb.stitch.server.core.internal.common;
+
+import com.mongodb.stitch.core.internal.common.CallbackAsyncAdapter;
+import com.mongodb.stitch.core.internal.common.OperationResult;
+
+import java.util.concurrent.CompletableFuture;
+
+public final class FutureCallbackAdapter<T>
+    implements CallbackAsyncAdapter<T, Exception, CompletableFuture<T>> {
+  private final CompletableFuture<T> future;
+
+  public FutureCallbackAdapter() {
+    this.future = new CompletableFuture<>();
+  }
+
+  @Override
+  public CompletableFuture<T> getAdapter() {
+    return future;
+  }
+
+  @Override
+  public void onComplete(final OperationResult<T, Exception> result) {
+    if (result.isSuccessful()) {
+      future.complete(result.geResult());
+    } else {
+      future.completeExceptionally(result.getFailure());
+    }
+  }
+}
@@ -17,13 +17,18 @@
 package com.mongodb.stitch.server.services.mongodb.remote;
 
 import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.stitch.core.services.internal.FunctionCallCoalescer;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeStream;
 import com.mongodb.stitch.core.services.mongodb.remote.CompactChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteCountOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOneAndModifyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateOptions;
@@ -31,6 +36,9 @@ import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateResult;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 
 import org.bson.BsonValue;
 import org.bson.codecs.configuration.CodecRegistry;
@@ -87,6 +95,43 @@ public interface RemoteMongoCollection<DocumentT> {
    */
   RemoteMongoCollection<DocumentT> withCodecRegistry(final CodecRegistry codecRegistry);
 
+  /**
+   * Create a new RemoteMongoCollection instance whose identical reads share their results. While
+   * a find, findOne, count, or aggregate is in flight, identical ones made through this collection
+   * or collections derived from it wait for its result instead of making their own request. If
+   * maxCachedResults is greater than 0, results are also cached for the given time, and any write
+   * made through these collections clears the cache. Aggregations that write with $out or $merge
+   * should not be run through a collection that caches results.
+   *
+   * @param maxCachedResults the most results to cache, or 0 to only share results in flight.
+   * @param cacheTtl how long a result is cached for.
+   * @param cacheTtlUnit the unit of cacheTtl.
+   * @return a new RemoteMongoCollection instance whose identical reads share their results
+   */
+  RemoteMongoCollection<DocumentT> withCallCoalescing(
+      final int maxCachedResults,
+      final long cacheTtl,
+      final TimeUnit cacheTtlUnit);
+
+  /**
+   * Create a new RemoteMongoCollection instance that opens a watch of more documents than fit in a
+   * URL with a POST carrying the watch in its body. Only use this with a server that answers such
+   * a POST with a stream of events; by default, every watch is opened with a GET.
+   *
+   * @return a new RemoteMongoCollection instance that may open watches with a POST
+   */
+  RemoteMongoCollection<DocumentT> withPostedWatchRequests();
+
+  /**
+   * Returns the counts of reads that were answered from the cache, that shared the request of an
+   * identical read in flight, and that made their own request, or null if this collection does
+   * not share results.
+   *
+   * @return the counts of reads handled by this collection's coalescer, or null.
+   */
+  @Nullable
+  FunctionCallCoalescer.Stats getCallCoalescingStats();
+
   /**
    * Counts the number of documents in the collection.
    *
@@ -240,6 +285,18 @@ public interface RemoteMongoCollection<DocumentT> {
    */
   RemoteInsertManyResult insertMany(final List<? extends DocumentT> documents);
 
+  /**
+   * Inserts one or more documents. Documents too large to send in one request are split into
+   * several requests.
+   *
+   * @param documents the documents to insert
+   * @param options the options to apply to the insert many operation
+   * @return the result of the insert many operation
+   */
+  RemoteInsertManyResult insertMany(
+      final List<? extends DocumentT> documents,
+      final RemoteInsertManyOptions options);
+
   /**
    * Removes at most one document from the collection that matches the given filter.  If no
    * documents match, the collection is not
@@ -450,6 +507,26 @@ public interface RemoteMongoCollection<DocumentT> {
       final Bson update,
       final RemoteUpdateOptions updateOptions);
 
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request. The writes are
+   * executed in order, stopping at the first one that fails.
+   *
+   * @param requests the writes to execute
+   * @return the result of each write
+   */
+  RemoteBulkWriteResult bulkWrite(final List<? extends WriteModel<? extends DocumentT>> requests);
+
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request.
+   *
+   * @param requests the writes to execute
+   * @param options the options to apply to the bulk write operation
+   * @return the result of each write
+   */
+  RemoteBulkWriteResult bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests,
+      final RemoteBulkWriteOptions options);
+
   /**
    * Watches specified IDs in a collection.  This convenience overload supports the use case
    * of non-{@link BsonValue} instances of {@link ObjectId}.
@@ -55,4 +55,10 @@ public class RemoteFindIterableImpl<ResultT>
     proxy.sort(sort);
     return this;
   }
+
+  @Override
+  public RemoteFindIterable<ResultT> batchSize(final int batchSize) {
+    proxy.batchSize(batchSize);
+    return this;
+  }
 }
@@ -17,13 +17,18 @@
 package com.mongodb.stitch.server.services.mongodb.remote.internal;
 
 import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.stitch.core.services.internal.FunctionCallCoalescer;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeEvent;
 import com.mongodb.stitch.core.services.mongodb.remote.ChangeStream;
 import com.mongodb.stitch.core.services.mongodb.remote.CompactChangeEvent;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteBulkWriteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteCountOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteDeleteResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOneAndModifyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteFindOptions;
+import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyOptions;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertManyResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteInsertOneResult;
 import com.mongodb.stitch.core.services.mongodb.remote.RemoteUpdateOptions;
@@ -36,6 +41,9 @@ import com.mongodb.stitch.server.services.mongodb.remote.RemoteMongoCollection;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
 
 import org.bson.BsonValue;
 import org.bson.codecs.configuration.CodecRegistry;
@@ -88,6 +96,27 @@ public final class RemoteMongoCollectionImpl<DocumentT>
     return new RemoteMongoCollectionImpl<>(proxy.withCodecRegistry(codecRegistry));
   }
 
+  @Override
+  public RemoteMongoCollection<DocumentT> withCallCoalescing(
+      final int maxCachedResults,
+      final long cacheTtl,
+      final TimeUnit cacheTtlUnit
+  ) {
+    return new RemoteMongoCollectionImpl<>(
+        proxy.withCallCoalescing(maxCachedResults, cacheTtl, cacheTtlUnit));
+  }
+
+  @Override
+  public RemoteMongoCollection<DocumentT> withPostedWatchRequests() {
+    return new RemoteMongoCollectionImpl<>(proxy.withPostedWatchRequests());
+  }
+
+  @Override
+  @Nullable
+  public FunctionCallCoalescer.Stats getCallCoalescingStats() {
+    return proxy.getCallCoalescingStats();
+  }
+
   /**
    * Counts the number of documents in the collection.
    *
@@ -278,6 +307,21 @@ public final class RemoteMongoCollectionImpl<DocumentT>
     return proxy.insertMany(documents);
   }
 
+  /**
+   * Inserts one or more documents. Documents too large to send in one request are split into
+   * several requests.
+   *
+   * @param documents the documents to insert
+   * @param options the options to apply to the insert many operation
+   * @return the result of the insert many operation
+   */
+  public RemoteInsertManyResult insertMany(
+      final List<? extends DocumentT> documents,
+      final RemoteInsertManyOptions options
+  ) {
+    return proxy.insertMany(documents, options);
+  }
+
   /**
    * Removes at most one document from the collection that matches the given filter.  If no
    * documents match, the collection is not modified.
@@ -358,6 +402,33 @@ public final class RemoteMongoCollectionImpl<DocumentT>
     return proxy.updateMany(filter, update, updateOptions);
   }
 
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request. The writes are
+   * executed in order, stopping at the first one that fails.
+   *
+   * @param requests the writes to execute
+   * @return the result of each write
+   */
+  public RemoteBulkWriteResult bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests
+  ) {
+    return proxy.bulkWrite(requests);
+  }
+
+  /**
+   * Executes a mix of inserts, updates, replaces, and deletes in a single request.
+   *
+   * @param requests the writes to execute
+   * @param options the options to apply to the bulk write operation
+   * @return the result of each write
+   */
+  public RemoteBulkWriteResult bulkWrite(
+      final List<? extends WriteModel<? extends DocumentT>> requests,
+      final RemoteBulkWriteOptions options
+  ) {
+    return proxy.bulkWrite(requests, options);
+  }
+
   /**
    * Finds a document in the collection and performs the given update.
    *